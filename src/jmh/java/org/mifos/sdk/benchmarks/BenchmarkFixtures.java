@@ -0,0 +1,113 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.benchmarks;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.mifos.sdk.MifosXProperties;
+import org.mifos.sdk.client.domain.Client;
+import org.mifos.sdk.group.domain.Group;
+import org.mifos.sdk.internal.accounts.Timeline;
+import org.mifos.sdk.internal.serializers.ClientSerializer;
+import org.mifos.sdk.internal.serializers.GroupSerializer;
+import org.mifos.sdk.internal.serializers.TimelineSerializer;
+import retrofit.RestAdapter;
+import retrofit.client.Header;
+import retrofit.client.Request;
+import retrofit.client.Response;
+import retrofit.converter.GsonConverter;
+import retrofit.mime.TypedByteArray;
+
+import java.nio.charset.Charset;
+import java.util.Collections;
+
+/**
+ * Shared fixtures for the benchmarks: canned server responses and a
+ * {@link RestAdapter} that answers from memory instead of the network.
+ */
+final class BenchmarkFixtures {
+
+    static final String AUTH_KEY = "bWlmb3M6cGFzc3dvcmQ=";
+
+    static final String CLIENT_JSON = "{\"id\":1,\"accountNo\":\"000000001\","
+        + "\"status\":{\"id\":300,\"code\":\"clientStatusType.active\",\"value\":\"Active\"},"
+        + "\"active\":true,\"activationDate\":[2013,1,1],\"firstname\":\"Davis\","
+        + "\"lastname\":\"Jones\",\"displayName\":\"Davis Jones\",\"mobileNo\":\"9876543210\","
+        + "\"gender\":{\"id\":22,\"name\":\"Male\"},\"clientType\":{\"id\":17,\"name\":\"Individual\"},"
+        + "\"clientClassification\":{\"id\":19,\"name\":\"Rural\"},\"officeId\":1,"
+        + "\"officeName\":\"Head Office\",\"staffId\":2,\"staffName\":\"Officer, Loan\","
+        + "\"imageId\":5,\"imagePresent\":true,\"savingsAccountId\":7,"
+        + "\"timeline\":{\"submittedOnDate\":[2013,1,1],\"submittedByUsername\":\"mifos\","
+        + "\"submittedByFirstname\":\"App\",\"submittedByLastname\":\"Administrator\","
+        + "\"activatedOnDate\":[2013,1,1],\"activatedByUsername\":\"mifos\","
+        + "\"activatedByFirstname\":\"App\",\"activatedByLastname\":\"Administrator\"}}";
+
+    private BenchmarkFixtures() {}
+
+    /**
+     * Returns the {@link MifosXProperties} used by all benchmarks.
+     */
+    static MifosXProperties properties() {
+        return MifosXProperties
+            .url("http://localhost/mifosng-provider/api/v1")
+            .username("mifos")
+            .password("password")
+            .tenant("default")
+            .build();
+    }
+
+    /**
+     * Returns a {@link Gson} with the same deserializers as the SDK factory.
+     */
+    static Gson gson() {
+        return new GsonBuilder()
+            .registerTypeAdapter(Timeline.class, new TimelineSerializer())
+            .registerTypeAdapter(Client.class, new ClientSerializer())
+            .registerTypeAdapter(Group.class, new GroupSerializer())
+            .create();
+    }
+
+    /**
+     * Builds a clients page JSON with the given number of clients.
+     * @param size the number of clients in the page
+     */
+    static String clientsPageJson(final int size) {
+        final StringBuilder builder = new StringBuilder(size * CLIENT_JSON.length() + 64);
+        builder.append("{\"totalFilteredRecords\":").append(size).append(",\"pageItems\":[");
+        for (int i = 0; i < size; ++i) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append(CLIENT_JSON);
+        }
+        return builder.append("]}").toString();
+    }
+
+    /**
+     * Returns a {@link RestAdapter} which answers every GET /clients/{id} with
+     * {@link #CLIENT_JSON} and every GET /clients with the given page.
+     * @param pageJson the body returned for client list requests
+     */
+    static RestAdapter restAdapter(final String pageJson) {
+        final byte[] clientBody = CLIENT_JSON.getBytes(Charset.forName("UTF-8"));
+        final byte[] pageBody = pageJson.getBytes(Charset.forName("UTF-8"));
+        final String endpoint = properties().getUrl();
+        return new RestAdapter.Builder()
+            .setEndpoint(endpoint)
+            .setConverter(new GsonConverter(gson()))
+            .setClient(new retrofit.client.Client() {
+                @Override
+                public Response execute(Request request) {
+                    final String path = request.getUrl().substring(endpoint.length());
+                    final byte[] body = path.startsWith("/clients/") ? clientBody : pageBody;
+                    return new Response(request.getUrl(), 200, "OK", Collections.<Header>emptyList(),
+                        new TypedByteArray("application/json; charset=UTF-8", body));
+                }
+            })
+            .build();
+    }
+
+}
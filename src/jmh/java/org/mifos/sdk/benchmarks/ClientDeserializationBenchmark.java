@@ -0,0 +1,66 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.benchmarks;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.mifos.sdk.client.domain.Client;
+import org.mifos.sdk.client.domain.PageableClients;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deserializes a clients page with the streaming ClientSerializer against the
+ * tree model JsonDeserializer it replaced, kept in {@link FormerClientDeserializer}.
+ * Run with {@code -prof gc} to compare the garbage produced per page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ClientDeserializationBenchmark {
+
+    @Param({"20", "200"})
+    public int pageSize;
+
+    private Gson gson;
+    private Gson formerGson;
+    private String pageJson;
+
+    @Setup
+    public void setup() {
+        this.gson = BenchmarkFixtures.gson();
+        this.formerGson = new GsonBuilder()
+            .registerTypeAdapter(Client.class, new FormerClientDeserializer())
+            .create();
+        this.pageJson = BenchmarkFixtures.clientsPageJson(this.pageSize);
+    }
+
+    @Benchmark
+    public PageableClients treeModel() {
+        return this.formerGson.fromJson(new StringReader(this.pageJson), PageableClients.class);
+    }
+
+    @Benchmark
+    public PageableClients streaming() {
+        return this.gson.fromJson(new StringReader(this.pageJson), PageableClients.class);
+    }
+
+}
@@ -0,0 +1,69 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.benchmarks;
+
+import org.mifos.sdk.internal.ParseUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link ParseUtil} with its former implementation, which created a
+ * new {@link SimpleDateFormat} for every call and turned [year, month, day]
+ * into a {@link Date} by formatting and parsing it again.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DateParsingBenchmark {
+
+    private Date date;
+
+    @Setup
+    public void setup() throws ParseException {
+        this.date = ParseUtil.parseDate(2014, 7, 21);
+    }
+
+    @Benchmark
+    public Date parseDateFormerly() throws ParseException {
+        final GregorianCalendar calendar = new GregorianCalendar(2014, 6, 21);
+        final SimpleDateFormat format = new SimpleDateFormat("dd MMMM yyyy");
+        return format.parse(format.format(calendar.getTime()));
+    }
+
+    @Benchmark
+    public Date parseDate() throws ParseException {
+        return ParseUtil.parseDate(2014, 7, 21);
+    }
+
+    @Benchmark
+    public String formatDateFormerly() {
+        return new SimpleDateFormat("dd MMMM yyyy", new Locale("en")).format(this.date);
+    }
+
+    @Benchmark
+    public String formatDate() {
+        return ParseUtil.parseDateToString(this.date, "dd MMMM yyyy", "en");
+    }
+
+}
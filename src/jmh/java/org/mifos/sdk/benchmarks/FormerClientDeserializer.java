@@ -0,0 +1,136 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.benchmarks;
+
+import com.google.gson.JsonDeserializationContext;
+import com.google.gson.JsonDeserializer;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import org.mifos.sdk.client.domain.Client;
+import org.mifos.sdk.internal.ParseUtil;
+import org.mifos.sdk.internal.accounts.StatusCode;
+import org.mifos.sdk.internal.accounts.Timeline;
+
+import java.lang.reflect.Type;
+import java.text.ParseException;
+
+/**
+ * The tree model JsonDeserializer for Client which ClientSerializer replaced,
+ * kept as it was to benchmark the streaming adapter against.
+ */
+final class FormerClientDeserializer implements JsonDeserializer<Client> {
+
+    @Override
+    public Client deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context) {
+        Client.Builder clientBuilder = null;
+        Client client = null;
+        final JsonObject jsonObject = json.getAsJsonObject();
+
+        try {
+            if (jsonObject.has("fullname")) {
+                clientBuilder = Client.fullname(jsonObject.get("fullname").getAsString());
+            } else {
+                clientBuilder = Client.firstname(jsonObject.has("firstname") ? jsonObject
+                        .get("firstname").getAsString() : null)
+                        .middlename(jsonObject.has("middlename") ? jsonObject
+                                .get("middlename").getAsString() : null)
+                        .lastname(jsonObject.has("lastname") ? jsonObject
+                                .get("lastname").getAsString() : null);
+            }
+
+            client = clientBuilder.clientClassificationId(jsonObject.has("clientClassification") &&
+                    jsonObject.get("clientClassification")
+                            .getAsJsonObject().has("id") ?
+                    jsonObject.get("clientClassification")
+                            .getAsJsonObject().get("id").getAsLong() : null)
+                    .clientTypeId(jsonObject.has("clientType") && jsonObject
+                            .get("clientType").getAsJsonObject().has("id") ?
+                            jsonObject.get("clientType").getAsJsonObject()
+                                    .get("id").getAsLong() : null)
+                    .accountNo(jsonObject.has("accountNo") ? jsonObject
+                            .get("accountNo").getAsString() : null)
+                    .activationDate(jsonObject.has("activationDate") ?
+                            ParseUtil.parseDateFromJsonArray(jsonObject
+                                    .get("activationDate").getAsJsonArray()) : null)
+                    .active(jsonObject.has("active") && jsonObject.get("active")
+                            .getAsBoolean())
+                    .externalId(jsonObject.has("externalId") ? jsonObject
+                            .get("externalId").getAsString() : null)
+                    .genderId(jsonObject.has("gender") && jsonObject.get("gender")
+                            .getAsJsonObject().has("id") ? jsonObject.get("gender")
+                            .getAsJsonObject().get("id").getAsLong() : null)
+                    .mobileNo(jsonObject.has("mobileNo") ? jsonObject
+                            .get("mobileNo").getAsString() : null)
+                    .officeId(jsonObject.get("officeId").getAsLong())
+                    .staffId(jsonObject.has("staffId") ? jsonObject
+                            .get("staffId").getAsLong() : null)
+                    .submittedOnDate(jsonObject.has("timeline") && jsonObject.get("timeline")
+                            .getAsJsonObject().has("submittedOnDate") ?
+                            ParseUtil.parseDateFromJsonArray(jsonObject.get("timeline")
+                                    .getAsJsonObject().get("submittedOnDate").getAsJsonArray()) : null)
+                    .build();
+
+            if (jsonObject.has("clientId")) {
+                client.setClientId(jsonObject.get("clientId").getAsLong());
+            } else {
+                client.setClientId(jsonObject.get("id").getAsLong());
+            }
+
+            if (jsonObject.has("clientType") && jsonObject.get("clientType").getAsJsonObject()
+                    .has("name")) {
+                client.setClientTypeName(jsonObject.get("clientType").getAsJsonObject()
+                        .get("name").getAsString());
+            }
+            if (jsonObject.has("timeline")) {
+                final Timeline timeline = new FormerTimelineDeserializer().deserialize(jsonObject
+                    .get("timeline"), null ,null);
+
+                client.setTimeline(timeline);
+            }
+            if (jsonObject.has("gender") && jsonObject.get("gender")
+                    .getAsJsonObject().has("name")) {
+                client.setGenderName(jsonObject.get("gender").getAsJsonObject()
+                        .get("name").getAsString());
+            }
+            if (jsonObject.has("imageId")) {
+                client.setImageId(jsonObject.get("imageId").getAsLong());
+            }
+            if (jsonObject.has("imagePresent")) {
+                client.setImagePresent(jsonObject.get("imagePresent").getAsBoolean());
+            }
+            if (jsonObject.has("resourceId")) {
+                client.setResourceId(jsonObject.get("resourceId").getAsLong());
+            }
+            if (jsonObject.has("savingsAccountId")) {
+                client.setSavingsAccountId(jsonObject.get("savingsAccountId").getAsLong());
+            }
+            if (jsonObject.has("savingsId")) {
+                client.setSavingsId(jsonObject.get("savingsId").getAsLong());
+            }
+            if (jsonObject.has("staffName")) {
+                client.setStaffName(jsonObject.get("staffName").getAsString());
+            }
+            if (jsonObject.has("displayName")) {
+                client.setDisplayName(jsonObject.get("displayName").getAsString());
+            }
+            if (jsonObject.has("officeName")) {
+                client.setOfficeName(jsonObject.get("officeName").getAsString());
+            }
+            if (jsonObject.has("status")) {
+                final StatusCode statusCode = new FormerStatusCodeDeserializer().deserialize(jsonObject
+                    .get("status"), null, null);
+
+                client.setStatus(statusCode);
+            }
+        } catch (ParseException e) {
+            throw new IllegalStateException("There was error while deserializing the server" +
+                " response from the clients API endpoint.");
+        }
+
+        return client;
+    }
+
+}
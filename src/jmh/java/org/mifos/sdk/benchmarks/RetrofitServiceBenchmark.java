@@ -0,0 +1,81 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.benchmarks;
+
+import org.mifos.sdk.MifosXConnectException;
+import org.mifos.sdk.MifosXProperties;
+import org.mifos.sdk.MifosXResourceException;
+import org.mifos.sdk.client.domain.Client;
+import org.mifos.sdk.client.domain.PageableClients;
+import org.mifos.sdk.client.internal.RestClientService;
+import org.mifos.sdk.client.internal.RetrofitClientService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import retrofit.RestAdapter;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares creating the Retrofit proxy on every call against the proxy
+ * cached by {@link RestClientService}, for findClient and fetchClients.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RetrofitServiceBenchmark {
+
+    private MifosXProperties properties;
+    private RestAdapter restAdapter;
+    private RestClientService clientService;
+    private Map<String, Object> queryMap;
+
+    @Setup
+    public void setup() {
+        this.properties = BenchmarkFixtures.properties();
+        this.restAdapter = BenchmarkFixtures.restAdapter(BenchmarkFixtures.clientsPageJson(10));
+        this.clientService = new RestClientService(this.properties, this.restAdapter,
+            BenchmarkFixtures.AUTH_KEY);
+        this.queryMap = new HashMap<String, Object>();
+        this.queryMap.put("limit", 10);
+    }
+
+    @Benchmark
+    public Client findClientPerCallProxy() {
+        final RetrofitClientService service = this.restAdapter.create(RetrofitClientService.class);
+        return service.findClient("Basic " + BenchmarkFixtures.AUTH_KEY, this.properties.getTenant(), 1L);
+    }
+
+    @Benchmark
+    public Client findClientCachedProxy() throws MifosXConnectException, MifosXResourceException {
+        return this.clientService.findClient(1L);
+    }
+
+    @Benchmark
+    public PageableClients fetchClientsPerCallProxy() {
+        final RetrofitClientService service = this.restAdapter.create(RetrofitClientService.class);
+        return service.fetchClients("Basic " + BenchmarkFixtures.AUTH_KEY, this.properties.getTenant(),
+            this.queryMap);
+    }
+
+    @Benchmark
+    public PageableClients fetchClientsCachedProxy() throws MifosXConnectException {
+        return this.clientService.fetchClients(this.queryMap);
+    }
+
+}
@@ -0,0 +1,157 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.benchmarks;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonSerializationContext;
+import com.google.gson.JsonSerializer;
+import org.mifos.sdk.group.domain.commands.SaveCollectionSheetCommand;
+import org.mifos.sdk.internal.ParseUtil;
+import org.mifos.sdk.internal.StreamingGsonConverter;
+import org.mifos.sdk.internal.serializers.commands.group.SaveCollectionSheetSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import retrofit.converter.Converter;
+import retrofit.converter.GsonConverter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes the request body of a collection sheet of a large center, comparing
+ * the former serializer, which embedded each list as a JSON string built by a
+ * new {@link Gson}, with the streaming serializer and converter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SaveCollectionSheetBenchmark {
+
+    /**
+     * The former serializer, kept here as the baseline.
+     */
+    private static final class FormerSerializer implements JsonSerializer<SaveCollectionSheetCommand> {
+
+        @Override
+        public JsonElement serialize(final SaveCollectionSheetCommand src, Type typeOfSrc,
+                                     JsonSerializationContext context) {
+            final JsonObject jsonObject = new JsonObject();
+            jsonObject.addProperty("dateFormat", src.getDateFormat());
+            jsonObject.addProperty("locale", src.getLocale());
+            jsonObject.addProperty("calendarId", src.getCalendarId());
+            jsonObject.addProperty("transactionDate", ParseUtil.parseDateToString(src.getTransactionDate(),
+                src.getDateFormat(), src.getLocale()));
+            jsonObject.addProperty("actualDisbursementDate", ParseUtil.parseDateToString(
+                src.getActualDisbursementDate(), src.getDateFormat(), src.getLocale()));
+            jsonObject.addProperty("clientsAttendance", new Gson().toJson(src.getClientsAttendance()));
+            jsonObject.addProperty("bulkDisbursementTransactions",
+                new Gson().toJson(src.getBulkDisbursementTransactions()));
+            jsonObject.addProperty("bulkRepaymentTransactions",
+                new Gson().toJson(src.getBulkRepaymentTransactions()));
+
+            return jsonObject;
+        }
+
+    }
+
+    /**
+     * Discards everything written to it, like a socket that is never slow.
+     */
+    private static final class NullOutputStream extends OutputStream {
+
+        @Override
+        public void write(final int b) {
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) {
+        }
+
+    }
+
+    @Param({"1000"})
+    public int members;
+
+    private SaveCollectionSheetCommand command;
+    private Converter formerConverter;
+    private Converter streamingConverter;
+    private OutputStream sink;
+
+    @Setup
+    public void setup() {
+        final SaveCollectionSheetCommand.Builder builder = SaveCollectionSheetCommand.calendarId(1L)
+            .locale("en")
+            .dateFormat("dd MMMM yyyy")
+            .transactionDate(new Date())
+            .actualDisbursementDate(new Date());
+        final SaveCollectionSheetCommand outer = builder.build();
+        final List<SaveCollectionSheetCommand.ClientAttendance> attendance =
+            new ArrayList<SaveCollectionSheetCommand.ClientAttendance>();
+        final List<SaveCollectionSheetCommand.BulkRepaymentTransaction> repayments =
+            new ArrayList<SaveCollectionSheetCommand.BulkRepaymentTransaction>();
+        final List<SaveCollectionSheetCommand.BulkDisbursementTransaction> disbursements =
+            new ArrayList<SaveCollectionSheetCommand.BulkDisbursementTransaction>();
+        for (long i = 0; i < this.members; ++i) {
+            final SaveCollectionSheetCommand.ClientAttendance present = outer.new ClientAttendance();
+            present.setClientId(i);
+            present.setAttendanceType(1L);
+            attendance.add(present);
+            final SaveCollectionSheetCommand.BulkRepaymentTransaction repayment = outer.new BulkRepaymentTransaction();
+            repayment.setLoanId(i);
+            repayment.setTransactionAmount(new BigDecimal("125.50"));
+            repayments.add(repayment);
+            final SaveCollectionSheetCommand.BulkDisbursementTransaction disbursement =
+                outer.new BulkDisbursementTransaction();
+            disbursement.setLoanId(i);
+            disbursement.setTransactionAmount(new BigDecimal("5000.00"));
+            disbursements.add(disbursement);
+        }
+        this.command = builder.clientsAttendance(attendance)
+            .bulkRepaymentTransactions(repayments)
+            .bulkDisbursementTransactions(disbursements)
+            .build();
+
+        this.formerConverter = new GsonConverter(new GsonBuilder()
+            .registerTypeAdapter(SaveCollectionSheetCommand.class, new FormerSerializer())
+            .create());
+        this.streamingConverter = new StreamingGsonConverter(new GsonBuilder()
+            .registerTypeAdapterFactory(new SaveCollectionSheetSerializer())
+            .create(), SaveCollectionSheetCommand.class);
+        this.sink = new NullOutputStream();
+    }
+
+    @Benchmark
+    public void formerSerializer() throws IOException {
+        this.formerConverter.toBody(this.command).writeTo(this.sink);
+    }
+
+    @Benchmark
+    public void streamingSerializer() throws IOException {
+        this.streamingConverter.toBody(this.command).writeTo(this.sink);
+    }
+
+}
@@ -0,0 +1,92 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Configures how the commands collected by a command batch are sent to the
+ * batch API of the server.
+ */
+public final class BatchOptions {
+
+    /**
+     * Utility class to ease the process of building a
+     * new instance of {@link BatchOptions}
+     */
+    public static class Builder {
+
+        private int chunkSize;
+        private boolean enclosingTransaction;
+
+        private Builder(final int size) {
+            Preconditions.checkArgument(size > 0, "The chunk size must be positive!");
+
+            this.chunkSize = size;
+        }
+
+        /**
+         * Optional method to run the commands of each chunk in one transaction on the
+         * server, so they all fail when one of them fails. Defaults to false.
+         * @param enclosing true to run every chunk in one transaction
+         * @return instance of the current {@link Builder}
+         */
+        public Builder enclosingTransaction(final boolean enclosing) {
+            this.enclosingTransaction = enclosing;
+            return this;
+        }
+
+        /**
+         * Constructs a new BatchOptions instance
+         * with the provided properties.
+         * @return a new instance of {@link BatchOptions}
+         */
+        public BatchOptions build() {
+            return new BatchOptions(this);
+        }
+
+    }
+
+    /** Default number of commands sent per request. */
+    public static final int DEFAULT_CHUNK_SIZE = 50;
+
+    private int chunkSize;
+    private boolean enclosingTransaction;
+
+    private BatchOptions(final Builder builder) {
+        this.chunkSize = builder.chunkSize;
+        this.enclosingTransaction = builder.enclosingTransaction;
+    }
+
+    /** Returns the maximum number of commands sent per request. */
+    public int getChunkSize() {
+        return this.chunkSize;
+    }
+
+    /** Returns whether the commands of each chunk run in one transaction. */
+    public boolean isEnclosingTransaction() {
+        return this.enclosingTransaction;
+    }
+
+    /**
+     * Sets the maximum number of commands sent per request.
+     * @param size the chunk size
+     * @return a new {@link Builder} instance
+     */
+    public static Builder chunkSize(final int size) {
+        return new Builder(size);
+    }
+
+    /**
+     * Returns the default options: chunks of {@link #DEFAULT_CHUNK_SIZE} commands
+     * without an enclosing transaction.
+     * @return a new {@link BatchOptions} instance
+     */
+    public static BatchOptions defaults() {
+        return chunkSize(DEFAULT_CHUNK_SIZE).build();
+    }
+
+}
@@ -0,0 +1,82 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk;
+
+/**
+ * The outcome of one command of a command batch.
+ */
+public final class BatchResult {
+
+    private final Long resourceId;
+    private final Integer statusCode;
+    private final String body;
+    private final MifosXResourceException exception;
+    private final MifosXConnectException connectException;
+
+    /**
+     * Constructs a new instance of {@link BatchResult}.
+     * @param id the ID of the resource the command was executed on
+     * @param status Optional: the HTTP status of the command, null if the server did not answer it
+     * @param responseBody Optional: the JSON body the server answered with
+     * @param failure Optional: the {@link MifosXResourceException} if the command failed
+     */
+    public BatchResult(final Long id, final Integer status, final String responseBody,
+                       final MifosXResourceException failure) {
+        this.resourceId = id;
+        this.statusCode = status;
+        this.body = responseBody;
+        this.exception = failure;
+        this.connectException = null;
+    }
+
+    /**
+     * Constructs a new instance of {@link BatchResult} for a command which was not
+     * executed, or whose outcome is unknown, because its chunk could not be sent.
+     * @param id the ID of the resource the command was to be executed on
+     * @param failure the {@link MifosXConnectException} of the chunk
+     */
+    public BatchResult(final Long id, final MifosXConnectException failure) {
+        this.resourceId = id;
+        this.statusCode = null;
+        this.body = null;
+        this.exception = null;
+        this.connectException = failure;
+    }
+
+    /** Returns the ID of the resource the command was executed on. */
+    public Long getResourceId() {
+        return this.resourceId;
+    }
+
+    /** Returns the HTTP status of the command, or null if the server did not answer it. */
+    public Integer getStatusCode() {
+        return this.statusCode;
+    }
+
+    /** Returns the JSON body the server answered with, or null. */
+    public String getBody() {
+        return this.body;
+    }
+
+    /** Returns whether the command succeeded. */
+    public boolean isSuccessful() {
+        return this.exception == null && this.connectException == null;
+    }
+
+    /** Returns the {@link MifosXResourceException} describing the failure, or null. */
+    public MifosXResourceException getException() {
+        return this.exception;
+    }
+
+    /**
+     * Returns the {@link MifosXConnectException} if the chunk of the command could not
+     * be sent, or null.
+     */
+    public MifosXConnectException getConnectException() {
+        return this.connectException;
+    }
+
+}
@@ -0,0 +1,34 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk;
+
+import java.util.List;
+
+/**
+ * Collects commands and sends them to the batch API of the server in chunks,
+ * one HTTP request per chunk instead of one per command. A batch is not thread
+ * safe.
+ */
+public interface CommandBatch {
+
+    /**
+     * Returns the number of commands collected and not yet submitted.
+     */
+    int size();
+
+    /**
+     * Submits the collected commands and empties the batch. The submission itself
+     * does not fail: a command which failed on the server carries the
+     * {@link MifosXResourceException} in its {@link BatchResult}. Once a chunk cannot
+     * be sent, or the server rejects it as a whole, the chunks after it are not sent;
+     * the results of that chunk and of the ones after it carry its
+     * {@link MifosXConnectException} or {@link MifosXResourceException}, while the
+     * results of the chunks before it are those of the server.
+     * @return a {@link BatchResult} per command, in the order they were added
+     */
+    List<BatchResult> submit();
+
+}
@@ -0,0 +1,43 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk;
+
+import com.google.common.util.concurrent.ListenableFuture;
+
+import java.util.List;
+
+/**
+ * Runs batches of {@link MifosXTask}s concurrently for one {@link MifosXClient},
+ * never running more than a fixed number of them at the same time.
+ */
+public interface MifosXBatchExecutor {
+
+    /**
+     * Submits all the tasks and returns immediately.
+     * @param tasks the tasks to run
+     * @return a list of {@link ListenableFuture}s in the order the tasks were given
+     */
+    <T> List<ListenableFuture<T>> submitAll(final List<? extends MifosXTask<T>> tasks);
+
+    /**
+     * Runs all the tasks and waits for them to finish. If a task fails, the tasks
+     * still pending are cancelled and the failure of the first failed task in
+     * submission order is thrown.
+     * @param tasks the tasks to run
+     * @return the results in the order the tasks were given
+     * @throws MifosXConnectException
+     * @throws MifosXResourceException
+     * @throws InterruptedException if interrupted while waiting
+     */
+    <T> List<T> invokeAll(final List<? extends MifosXTask<T>> tasks) throws MifosXConnectException,
+        MifosXResourceException, InterruptedException;
+
+    /**
+     * Returns the maximum number of tasks which run at the same time.
+     */
+    int getMaxConcurrency();
+
+}
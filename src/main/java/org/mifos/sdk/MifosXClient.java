@@ -5,11 +5,22 @@
  */
 package org.mifos.sdk;
 
+import org.mifos.sdk.client.AsyncClientService;
 import org.mifos.sdk.client.ClientService;
+import org.mifos.sdk.group.AsyncGroupService;
 import org.mifos.sdk.group.GroupService;
+import org.mifos.sdk.office.AsyncOfficeService;
+import org.mifos.sdk.office.CachedOfficeService;
 import org.mifos.sdk.office.OfficeService;
+import org.mifos.sdk.staff.AsyncStaffService;
+import org.mifos.sdk.staff.CachedStaffService;
 import org.mifos.sdk.staff.StaffService;
 
+import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
 /**
  * Principle client interface for the base authentication workflow
  */
@@ -34,12 +45,32 @@ public interface MifosXClient {
      */
     OfficeService officeService() throws MifosXConnectException;
 
+    /**
+     * Returns an instance of {@link CachedOfficeService} which keeps the offices
+     * of the {@link OfficeService} in memory for the given time.
+     * @param ttl how long the list of offices is used before it is loaded again
+     * @param unit the {@link TimeUnit} of the ttl
+     * @throws MifosXConnectException
+     */
+    CachedOfficeService cachedOfficeService(final long ttl, final TimeUnit unit) throws MifosXConnectException;
+
     /**
      * Returns an instance of {@link StaffService} to use the Staff API.
      * @throws MifosXConnectException
      */
     StaffService staffService() throws MifosXConnectException;
 
+    /**
+     * Returns an instance of {@link CachedStaffService} which keeps the staff
+     * of the {@link StaffService} in memory for the given time.
+     * @param ttl how long the staff are used before they are loaded again
+     * @param unit the {@link TimeUnit} of the ttl
+     * @param refreshExecutor Optional: the {@link Executor} loading expired staff in the background
+     * @throws MifosXConnectException
+     */
+    CachedStaffService cachedStaffService(final long ttl, final TimeUnit unit, final Executor refreshExecutor)
+        throws MifosXConnectException;
+
     /**
      * Returns an instance of {@link ClientService} to use the Client API.
      * @throws MifosXConnectException
@@ -52,4 +83,51 @@ public interface MifosXClient {
      */
     GroupService groupService() throws MifosXConnectException;
 
+    /**
+     * Returns an instance of {@link AsyncOfficeService} to use the Office API asynchronously.
+     * @param executor the {@link ExecutorService} which runs the calls
+     * @throws MifosXConnectException
+     */
+    AsyncOfficeService asyncOfficeService(final ExecutorService executor) throws MifosXConnectException;
+
+    /**
+     * Returns an instance of {@link AsyncStaffService} to use the Staff API asynchronously.
+     * @param executor the {@link ExecutorService} which runs the calls
+     * @throws MifosXConnectException
+     */
+    AsyncStaffService asyncStaffService(final ExecutorService executor) throws MifosXConnectException;
+
+    /**
+     * Returns an instance of {@link AsyncClientService} to use the Client API asynchronously.
+     * @param executor the {@link ExecutorService} which runs the calls
+     * @throws MifosXConnectException
+     */
+    AsyncClientService asyncClientService(final ExecutorService executor) throws MifosXConnectException;
+
+    /**
+     * Returns an instance of {@link AsyncGroupService} to use the Groups API asynchronously.
+     * @param executor the {@link ExecutorService} which runs the calls
+     * @throws MifosXConnectException
+     */
+    AsyncGroupService asyncGroupService(final ExecutorService executor) throws MifosXConnectException;
+
+    /**
+     * Returns a {@link MifosXBatchExecutor} which runs batches of tasks against this client
+     * on the given executor, with at most maxConcurrency of them calling the server at once.
+     * The executors of a client together never run more tasks at once than the largest
+     * maxConcurrency any of them was created with. On Java 21, pass an executor creating a virtual thread per task.
+     * @param executor the {@link ExecutorService} which runs the tasks
+     * @param maxConcurrency the maximum number of tasks running at the same time
+     */
+    MifosXBatchExecutor batchExecutor(final ExecutorService executor, final int maxConcurrency);
+
+    /**
+     * Returns a new {@link Outbox} which queues commands in a journal file and sends
+     * them with the current authentication key once the server can be reached.
+     * @param options the {@link OutboxOptions}
+     * @throws MifosXConnectException
+     * @throws IOException if the journal could not be opened, or another outbox has it open
+     */
+    Outbox outbox(final OutboxOptions options) throws MifosXConnectException, IOException;
+
 }
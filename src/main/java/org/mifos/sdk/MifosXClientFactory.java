@@ -6,69 +6,41 @@
 package org.mifos.sdk;
 
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
+import com.squareup.okhttp.ConnectionPool;
 import com.squareup.okhttp.OkHttpClient;
-import org.mifos.sdk.client.domain.Client;
-import org.mifos.sdk.client.domain.ClientIdentifier;
-import org.mifos.sdk.client.domain.commands.ActivateClientCommand;
-import org.mifos.sdk.client.domain.commands.CloseClientCommand;
-import org.mifos.sdk.group.domain.Group;
-import org.mifos.sdk.group.domain.commands.ActivateGroupCommand;
-import org.mifos.sdk.group.domain.commands.CloseGroupCommand;
-import org.mifos.sdk.group.domain.commands.GenerateCollectionSheetCommand;
 import org.mifos.sdk.group.domain.commands.SaveCollectionSheetCommand;
+import org.mifos.sdk.internal.GsonFactory;
+import org.mifos.sdk.internal.ReauthenticatingClient;
 import org.mifos.sdk.internal.RestMifosXClient;
-import org.mifos.sdk.internal.accounts.Timeline;
-import org.mifos.sdk.internal.serializers.ClientIdentifierSerializer;
-import org.mifos.sdk.internal.serializers.ClientSerializer;
-import org.mifos.sdk.internal.serializers.GroupSerializer;
-import org.mifos.sdk.internal.serializers.OfficeSerializer;
-import org.mifos.sdk.internal.serializers.StaffSerializer;
-import org.mifos.sdk.internal.serializers.TimelineSerializer;
-import org.mifos.sdk.internal.serializers.commands.client.ActivateClientSerializer;
-import org.mifos.sdk.internal.serializers.commands.client.CloseClientSerializer;
-import org.mifos.sdk.internal.serializers.commands.group.ActivateGroupSerializer;
-import org.mifos.sdk.internal.serializers.commands.group.CloseGroupSerializer;
-import org.mifos.sdk.internal.serializers.commands.group.GenerateCollectionSheetSerializer;
-import org.mifos.sdk.internal.serializers.commands.group.SaveCollectionSheetSerializer;
-import org.mifos.sdk.office.domain.Office;
-import org.mifos.sdk.staff.domain.Staff;
+import org.mifos.sdk.internal.StreamingGsonConverter;
 import retrofit.RequestInterceptor;
 import retrofit.RestAdapter;
 import retrofit.client.OkClient;
-import retrofit.converter.GsonConverter;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Utility class to return instances of {@link MifosXClient}
  */
 public final class MifosXClientFactory {
 
+    private static final ConcurrentMap<String, ConnectionPool> SHARED_POOLS =
+        new ConcurrentHashMap<String, ConnectionPool>();
+
     /**
-     * Returns a new instance of {@link MifosXClient}
+     * Returns a new instance of {@link MifosXClient}. Once logged in, it renews
+     * its authentication key by itself when the server rejects it.
      * @param properties the {@link MifosXProperties} for authentication
      */
     public static MifosXClient get(final MifosXProperties properties) {
-        final Gson gson = new GsonBuilder()
-                .registerTypeAdapter(Timeline.class, new TimelineSerializer())
-                // serializers
-                .registerTypeAdapter(Office.class, new OfficeSerializer())
-                .registerTypeAdapter(Staff.class, new StaffSerializer())
-                .registerTypeAdapter(Client.class, new ClientSerializer())
-                .registerTypeAdapter(Group.class, new GroupSerializer())
-                // commands serializers
-                .registerTypeAdapter(ActivateClientCommand.class, new ActivateClientSerializer())
-                .registerTypeAdapter(CloseClientCommand.class, new CloseClientSerializer())
-                .registerTypeAdapter(ActivateGroupCommand.class, new ActivateGroupSerializer())
-                .registerTypeAdapter(CloseGroupCommand.class, new CloseGroupSerializer())
-                .registerTypeAdapter(GenerateCollectionSheetCommand.class, new GenerateCollectionSheetSerializer())
-                .registerTypeAdapter(SaveCollectionSheetCommand.class, new SaveCollectionSheetSerializer())
-                // identifier serializers
-                .registerTypeAdapter(ClientIdentifier.class, new ClientIdentifierSerializer())
-                .create();
+        final Gson gson = GsonFactory.create();
+        final ReauthenticatingClient client = new ReauthenticatingClient(new OkClient(httpClient(properties)));
         final RestAdapter restAdapter = new RestAdapter.Builder()
-                .setClient(new OkClient(new OkHttpClient()))
+                .setClient(client)
                 .setEndpoint(properties.getUrl())
-                .setConverter(new GsonConverter(gson))
+                .setConverter(new StreamingGsonConverter(gson, SaveCollectionSheetCommand.class))
                 .setRequestInterceptor(new RequestInterceptor() {
                     @Override
                     public void intercept(RequestFacade request) {
@@ -77,7 +49,45 @@ public final class MifosXClientFactory {
                 })
                 .build();
 
-        return new RestMifosXClient(properties, restAdapter);
+        final RestMifosXClient mifosXClient = new RestMifosXClient(properties, restAdapter, gson);
+        client.bind(mifosXClient);
+        return mifosXClient;
+    }
+
+    /**
+     * Returns a new {@link OkHttpClient} configured with the pool and timeout settings
+     * of the given properties. Clients with the same pool settings share one
+     * {@link ConnectionPool} unless {@link MifosXProperties#isSharedConnectionPool()} is false.
+     * @param properties the {@link MifosXProperties} with the transport settings
+     */
+    static OkHttpClient httpClient(final MifosXProperties properties) {
+        final OkHttpClient httpClient = new OkHttpClient();
+        httpClient.setConnectionPool(connectionPool(properties));
+        if (properties.getConnectTimeout() > 0) {
+            httpClient.setConnectTimeout(properties.getConnectTimeout(), TimeUnit.MILLISECONDS);
+        }
+        if (properties.getReadTimeout() > 0) {
+            httpClient.setReadTimeout(properties.getReadTimeout(), TimeUnit.MILLISECONDS);
+        }
+        return httpClient;
+    }
+
+    private static ConnectionPool connectionPool(final MifosXProperties properties) {
+        if (!properties.isSharedConnectionPool()) {
+            return new ConnectionPool(properties.getMaxIdleConnections(),
+                properties.getKeepAliveDuration());
+        }
+        final String key = properties.getMaxIdleConnections() + ":" + properties.getKeepAliveDuration();
+        ConnectionPool pool = SHARED_POOLS.get(key);
+        if (pool == null) {
+            final ConnectionPool newPool = new ConnectionPool(properties.getMaxIdleConnections(),
+                properties.getKeepAliveDuration());
+            pool = SHARED_POOLS.putIfAbsent(key, newPool);
+            if (pool == null) {
+                pool = newPool;
+            }
+        }
+        return pool;
     }
 
 }
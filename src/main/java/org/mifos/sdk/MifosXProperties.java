@@ -5,6 +5,12 @@
  */
 package org.mifos.sdk;
 
+import com.google.common.base.Preconditions;
+import org.mifos.sdk.client.ClientCacheOptions;
+import org.mifos.sdk.client.ImageCacheOptions;
+
+import java.util.concurrent.TimeUnit;
+
 /**
  * Configures properties for authentication into the MifosX platform.
  */
@@ -20,6 +26,14 @@ public final class MifosXProperties {
         private String tenantId;
         private String username;
         private String password;
+        private int maxIdleConnections = DEFAULT_MAX_IDLE_CONNECTIONS;
+        private long keepAliveDuration = DEFAULT_KEEP_ALIVE_DURATION;
+        private long connectTimeout;
+        private long readTimeout;
+        private boolean sharedConnectionPool = true;
+        private ImageCacheOptions imageCache;
+        private ClientCacheOptions clientCache;
+        private NotFoundCacheOptions notFoundCache;
 
         private Builder(final String loginUrl) {
             this.url = loginUrl;
@@ -55,31 +69,148 @@ public final class MifosXProperties {
             return this;
         }
 
+        /**
+         * Optional method to set the maximum number of idle connections
+         * kept open in the connection pool.
+         * @param connections the maximum number of idle connections
+         * @return instance of the current {@link Builder}
+         */
+        public Builder maxIdleConnections(final int connections) {
+            Preconditions.checkArgument(connections >= 0);
+
+            this.maxIdleConnections = connections;
+            return this;
+        }
+
+        /**
+         * Optional method to set how long an idle connection is kept alive in the pool.
+         * @param duration the keep-alive duration
+         * @param unit the {@link TimeUnit} of the duration
+         * @return instance of the current {@link Builder}
+         */
+        public Builder keepAliveDuration(final long duration, final TimeUnit unit) {
+            Preconditions.checkArgument(duration >= 0);
+            Preconditions.checkNotNull(unit);
+
+            this.keepAliveDuration = unit.toMillis(duration);
+            return this;
+        }
+
+        /**
+         * Optional method to set the connect timeout. Zero means no timeout.
+         * @param timeout the connect timeout
+         * @param unit the {@link TimeUnit} of the timeout
+         * @return instance of the current {@link Builder}
+         */
+        public Builder connectTimeout(final long timeout, final TimeUnit unit) {
+            Preconditions.checkArgument(timeout >= 0);
+            Preconditions.checkNotNull(unit);
+
+            this.connectTimeout = unit.toMillis(timeout);
+            return this;
+        }
+
+        /**
+         * Optional method to set the read timeout. Zero means no timeout.
+         * @param timeout the read timeout
+         * @param unit the {@link TimeUnit} of the timeout
+         * @return instance of the current {@link Builder}
+         */
+        public Builder readTimeout(final long timeout, final TimeUnit unit) {
+            Preconditions.checkArgument(timeout >= 0);
+            Preconditions.checkNotNull(unit);
+
+            this.readTimeout = unit.toMillis(timeout);
+            return this;
+        }
+
+        /**
+         * Optional method to set whether the connection pool is shared with every
+         * other {@link MifosXClient} using the same pool settings. Defaults to true.
+         * @param shared true to share the connection pool, false for a private pool
+         * @return instance of the current {@link Builder}
+         */
+        public Builder sharedConnectionPool(final boolean shared) {
+            this.sharedConnectionPool = shared;
+            return this;
+        }
+
+        /**
+         * Optional method to cache the client images retrieved through the
+         * {@link org.mifos.sdk.client.ClientService}. Without it no image is cached.
+         * @param options the {@link ImageCacheOptions}
+         * @return instance of the current {@link Builder}
+         */
+        public Builder imageCache(final ImageCacheOptions options) {
+            this.imageCache = options;
+            return this;
+        }
+
+        /**
+         * Optional method to cache the clients retrieved through the
+         * {@link org.mifos.sdk.client.ClientService}. Without it no client is cached.
+         * @param options the {@link ClientCacheOptions}
+         * @return instance of the current {@link Builder}
+         */
+        public Builder clientCache(final ClientCacheOptions options) {
+            this.clientCache = options;
+            return this;
+        }
+
+        /**
+         * Optional method to remember the client, group, staff and office IDs the
+         * server reported as not found. Without it every lookup goes to the server.
+         * @param options the {@link NotFoundCacheOptions}
+         * @return instance of the current {@link Builder}
+         */
+        public Builder notFoundCache(final NotFoundCacheOptions options) {
+            this.notFoundCache = options;
+            return this;
+        }
+
         /**
          * Constructs a new MifosXProperties instance
          * with the provided properties.
          * @return a new instance of {@link MifosXProperties}
          */
         public MifosXProperties build() {
-            return new MifosXProperties(this.url, this.tenantId,
-                    this.username, this.password);
+            return new MifosXProperties(this);
         }
 
     }
 
+    /** Default maximum number of idle pooled connections. */
+    public static final int DEFAULT_MAX_IDLE_CONNECTIONS = 5;
+
+    /** Default keep-alive duration of idle pooled connections, in milliseconds. */
+    public static final long DEFAULT_KEEP_ALIVE_DURATION = TimeUnit.MINUTES.toMillis(5);
+
     private String url;
     private String tenantId;
     private String username;
     private String password;
+    private int maxIdleConnections;
+    private long keepAliveDuration;
+    private long connectTimeout;
+    private long readTimeout;
+    private boolean sharedConnectionPool;
+    private ImageCacheOptions imageCache;
+    private ClientCacheOptions clientCache;
+    private NotFoundCacheOptions notFoundCache;
 
-    private MifosXProperties(final String loginUrl,
-                             final String tenant,
-                             final String loginUsername,
-                             final String loginPassword) {
-        this.url = loginUrl;
-        this.tenantId = tenant;
-        this.username = loginUsername;
-        this.password = loginPassword;
+    private MifosXProperties(final Builder builder) {
+        this.url = builder.url;
+        this.tenantId = builder.tenantId;
+        this.username = builder.username;
+        this.password = builder.password;
+        this.maxIdleConnections = builder.maxIdleConnections;
+        this.keepAliveDuration = builder.keepAliveDuration;
+        this.connectTimeout = builder.connectTimeout;
+        this.readTimeout = builder.readTimeout;
+        this.sharedConnectionPool = builder.sharedConnectionPool;
+        this.imageCache = builder.imageCache;
+        this.clientCache = builder.clientCache;
+        this.notFoundCache = builder.notFoundCache;
     }
 
     /** Returns the URL. */
@@ -102,6 +233,46 @@ public final class MifosXProperties {
         return this.password;
     }
 
+    /** Returns the maximum number of idle pooled connections. */
+    public int getMaxIdleConnections() {
+        return this.maxIdleConnections;
+    }
+
+    /** Returns the keep-alive duration of idle pooled connections in milliseconds. */
+    public long getKeepAliveDuration() {
+        return this.keepAliveDuration;
+    }
+
+    /** Returns the connect timeout in milliseconds, zero for no timeout. */
+    public long getConnectTimeout() {
+        return this.connectTimeout;
+    }
+
+    /** Returns the read timeout in milliseconds, zero for no timeout. */
+    public long getReadTimeout() {
+        return this.readTimeout;
+    }
+
+    /** Returns whether the connection pool is shared across clients. */
+    public boolean isSharedConnectionPool() {
+        return this.sharedConnectionPool;
+    }
+
+    /** Returns the options of the client image cache, or null if images are not cached. */
+    public ImageCacheOptions getImageCache() {
+        return this.imageCache;
+    }
+
+    /** Returns the options of the client cache, or null if clients are not cached. */
+    public ClientCacheOptions getClientCache() {
+        return this.clientCache;
+    }
+
+    /** Returns the options of the cache of IDs not found, or null if they are not remembered. */
+    public NotFoundCacheOptions getNotFoundCache() {
+        return this.notFoundCache;
+    }
+
     /**
      * Sets the API endpoint URL.
      * @return a new {@link Builder} instance
@@ -0,0 +1,23 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk;
+
+/**
+ * A unit of work against the MifosX API, run by a {@link MifosXBatchExecutor}.
+ * @param <T> the type of the result
+ */
+public interface MifosXTask<T> {
+
+    /**
+     * Runs the task.
+     * @param client the logged in {@link MifosXClient} to use for the API calls
+     * @return the result of the task
+     * @throws MifosXConnectException
+     * @throws MifosXResourceException
+     */
+    T execute(final MifosXClient client) throws MifosXConnectException, MifosXResourceException;
+
+}
@@ -0,0 +1,90 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk;
+
+import com.google.common.base.Preconditions;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Configures how long the clients, groups, staff and offices the server reported
+ * as not found are remembered, so a repeated lookup of the same ID fails without
+ * a round trip. Creating one of them through the SDK forgets its ID at once.
+ */
+public final class NotFoundCacheOptions {
+
+    /**
+     * Utility class to ease the process of building a
+     * new instance of {@link NotFoundCacheOptions}
+     */
+    public static class Builder {
+
+        private long ttl;
+        private int maxEntries = DEFAULT_MAX_ENTRIES;
+
+        private Builder(final long duration, final TimeUnit unit) {
+            Preconditions.checkArgument(duration > 0, "The time to live must be positive!");
+            Preconditions.checkNotNull(unit);
+
+            this.ttl = unit.toMillis(duration);
+        }
+
+        /**
+         * Optional method to set how many IDs are remembered per resource, the oldest
+         * are forgotten first. Defaults to {@link #DEFAULT_MAX_ENTRIES}.
+         * @param entries the maximum number of IDs
+         * @return instance of the current {@link Builder}
+         */
+        public Builder maxEntries(final int entries) {
+            Preconditions.checkArgument(entries > 0, "The maximum number of entries must be positive!");
+
+            this.maxEntries = entries;
+            return this;
+        }
+
+        /**
+         * Constructs a new NotFoundCacheOptions instance
+         * with the provided properties.
+         * @return a new instance of {@link NotFoundCacheOptions}
+         */
+        public NotFoundCacheOptions build() {
+            return new NotFoundCacheOptions(this);
+        }
+
+    }
+
+    /** Default maximum number of IDs remembered per resource. */
+    public static final int DEFAULT_MAX_ENTRIES = 10000;
+
+    private long ttl;
+    private int maxEntries;
+
+    private NotFoundCacheOptions(final Builder builder) {
+        this.ttl = builder.ttl;
+        this.maxEntries = builder.maxEntries;
+    }
+
+    /** Returns how long in milliseconds an ID is remembered as not found. */
+    public long getTtl() {
+        return this.ttl;
+    }
+
+    /** Returns the maximum number of IDs remembered per resource. */
+    public int getMaxEntries() {
+        return this.maxEntries;
+    }
+
+    /**
+     * Sets how long an ID is remembered as not found.
+     * @param duration the time to live
+     * @param unit the {@link TimeUnit} of the duration
+     * @return a new {@link Builder} instance
+     */
+    public static Builder ttl(final long duration, final TimeUnit unit) {
+        return new Builder(duration, unit);
+    }
+
+}
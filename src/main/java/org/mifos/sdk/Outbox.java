@@ -0,0 +1,83 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk;
+
+import org.mifos.sdk.client.domain.Client;
+import org.mifos.sdk.group.domain.commands.SaveCollectionSheetCommand;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Queues commands in a journal file on disk and sends them to the server later, in
+ * the order they were queued. Queueing never touches the network, so commands are
+ * not lost while the server cannot be reached. Each command carries an idempotency
+ * key, sent as a header, so the server can drop a command delivered twice after a
+ * crash. Only one outbox may use a journal file at a time.
+ */
+public interface Outbox extends Closeable {
+
+    /**
+     * Queues the creation of a client.
+     * @param client the {@link Client} object with the details of the client
+     * @return the idempotency key of the command
+     * @throws IOException if the command could not be written to the journal
+     */
+    String createClient(final Client client) throws IOException;
+
+    /**
+     * Queues a command of the Clients API.
+     * @param clientId the client ID
+     * @param command the command, e.g. "activate"
+     * @param commandBody the command request body with all its parameters
+     * @return the idempotency key of the command
+     * @throws IOException if the command could not be written to the journal
+     */
+    String executeClientCommand(final Long clientId, final String command, final Object commandBody)
+        throws IOException;
+
+    /**
+     * Queues a command of the Groups API.
+     * @param groupId the group ID
+     * @param command the command, e.g. "activate"
+     * @param commandBody the command request body with all its parameters
+     * @return the idempotency key of the command
+     * @throws IOException if the command could not be written to the journal
+     */
+    String executeGroupCommand(final Long groupId, final String command, final Object commandBody)
+        throws IOException;
+
+    /**
+     * Queues saving the collection sheet of a group.
+     * @param groupId the group ID
+     * @param command the {@link org.mifos.sdk.group.domain.commands.SaveCollectionSheetCommand}
+     * @return the idempotency key of the command
+     * @throws IOException if the command could not be written to the journal
+     */
+    String saveCollectionSheet(final Long groupId, final SaveCollectionSheetCommand command) throws IOException;
+
+    /**
+     * Sends the queued commands to the server in order until the outbox is empty.
+     * A command the server rejects is taken off the outbox and reported to the
+     * {@link OutboxListener}.
+     * @return the number of commands taken off the outbox
+     * @throws MifosXConnectException if the server could not be reached, the remaining
+     *                                commands stay queued
+     */
+    int replay() throws MifosXConnectException;
+
+    /**
+     * Forces the queued commands to disk.
+     * @throws IOException
+     */
+    void flush() throws IOException;
+
+    /**
+     * Returns the number of queued commands.
+     */
+    int size();
+
+}
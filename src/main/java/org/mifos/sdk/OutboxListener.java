@@ -0,0 +1,29 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk;
+
+/**
+ * Receives the outcome of the commands replayed by an {@link Outbox}, one command
+ * at a time in the order they were queued. Both methods are called by the thread
+ * replaying the outbox.
+ */
+public interface OutboxListener {
+
+    /**
+     * Called when the server accepted a command.
+     * @param idempotencyKey the key returned when the command was queued
+     * @param responseBody the JSON body the server answered with, null if it had none
+     */
+    void onDelivered(final String idempotencyKey, final String responseBody);
+
+    /**
+     * Called when the server rejected a command. The command is not sent again.
+     * @param idempotencyKey the key returned when the command was queued
+     * @param exception the {@link MifosXResourceException} describing the rejection
+     */
+    void onRejected(final String idempotencyKey, final MifosXResourceException exception);
+
+}
@@ -0,0 +1,162 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk;
+
+import com.google.common.base.Preconditions;
+
+import java.nio.file.Path;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Configures an {@link Outbox}: the journal file holding the queued commands, how
+ * often it is forced to disk and who replays it.
+ */
+public final class OutboxOptions {
+
+    /**
+     * Utility class to ease the process of building a
+     * new instance of {@link OutboxOptions}
+     */
+    public static class Builder {
+
+        private Path journal;
+        private long syncInterval;
+        private long retryInterval;
+        private ScheduledExecutorService scheduler;
+        private OutboxListener listener;
+
+        private Builder(final Path file) {
+            Preconditions.checkNotNull(file);
+
+            this.journal = file;
+            this.syncInterval = DEFAULT_SYNC_INTERVAL;
+            this.retryInterval = DEFAULT_RETRY_INTERVAL;
+        }
+
+        /**
+         * Optional method to set the longest time a queued command may stay in the
+         * operating system's buffers before the journal is forced to disk. A zero
+         * interval forces every command to disk before it is queued. Defaults to
+         * {@link #DEFAULT_SYNC_INTERVAL} milliseconds.
+         * @param interval the sync interval
+         * @param unit the {@link TimeUnit} of the interval
+         * @return instance of the current {@link Builder}
+         */
+        public Builder syncInterval(final long interval, final TimeUnit unit) {
+            Preconditions.checkArgument(interval >= 0, "The sync interval must not be negative!");
+            Preconditions.checkNotNull(unit);
+
+            this.syncInterval = unit.toMillis(interval);
+            return this;
+        }
+
+        /**
+         * Optional method to set how long the scheduler waits before replaying again
+         * after the server could not be reached. Defaults to
+         * {@link #DEFAULT_RETRY_INTERVAL} milliseconds.
+         * @param interval the retry interval
+         * @param unit the {@link TimeUnit} of the interval
+         * @return instance of the current {@link Builder}
+         */
+        public Builder retryInterval(final long interval, final TimeUnit unit) {
+            Preconditions.checkArgument(interval > 0, "The retry interval must be positive!");
+            Preconditions.checkNotNull(unit);
+
+            this.retryInterval = unit.toMillis(interval);
+            return this;
+        }
+
+        /**
+         * Optional method to set the {@link ScheduledExecutorService} which syncs the
+         * journal and replays the queued commands in the background. Without it the
+         * commands are only sent by {@link Outbox#replay()}.
+         * @param executor the {@link ScheduledExecutorService}
+         * @return instance of the current {@link Builder}
+         */
+        public Builder scheduler(final ScheduledExecutorService executor) {
+            this.scheduler = executor;
+            return this;
+        }
+
+        /**
+         * Optional method to set the {@link OutboxListener} told about every command
+         * taken off the outbox.
+         * @param outboxListener the {@link OutboxListener}
+         * @return instance of the current {@link Builder}
+         */
+        public Builder listener(final OutboxListener outboxListener) {
+            this.listener = outboxListener;
+            return this;
+        }
+
+        /**
+         * Constructs a new OutboxOptions instance
+         * with the provided properties.
+         * @return a new instance of {@link OutboxOptions}
+         */
+        public OutboxOptions build() {
+            return new OutboxOptions(this);
+        }
+
+    }
+
+    /** Default sync interval in milliseconds. */
+    public static final long DEFAULT_SYNC_INTERVAL = 100;
+
+    /** Default retry interval in milliseconds. */
+    public static final long DEFAULT_RETRY_INTERVAL = 30000;
+
+    private Path journal;
+    private long syncInterval;
+    private long retryInterval;
+    private ScheduledExecutorService scheduler;
+    private OutboxListener listener;
+
+    private OutboxOptions(final Builder builder) {
+        this.journal = builder.journal;
+        this.syncInterval = builder.syncInterval;
+        this.retryInterval = builder.retryInterval;
+        this.scheduler = builder.scheduler;
+        this.listener = builder.listener;
+    }
+
+    /** Returns the journal file. */
+    public Path getJournal() {
+        return this.journal;
+    }
+
+    /** Returns the sync interval in milliseconds. */
+    public long getSyncInterval() {
+        return this.syncInterval;
+    }
+
+    /** Returns the retry interval in milliseconds. */
+    public long getRetryInterval() {
+        return this.retryInterval;
+    }
+
+    /** Returns the {@link ScheduledExecutorService} replaying the commands, or null. */
+    public ScheduledExecutorService getScheduler() {
+        return this.scheduler;
+    }
+
+    /** Returns the {@link OutboxListener}, or null. */
+    public OutboxListener getListener() {
+        return this.listener;
+    }
+
+    /**
+     * Sets the journal file of the outbox. It is created if it does not exist, and
+     * the commands it still holds are queued again.
+     * @param file the journal file
+     * @return a new {@link Builder} instance
+     */
+    public static Builder journal(final Path file) {
+        return new Builder(file);
+    }
+
+}
@@ -0,0 +1,33 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk;
+
+import java.io.Closeable;
+import java.util.Iterator;
+
+/**
+ * Lazily walks all the pages of a paged API resource, one item at a time.
+ * If the server call for a page fails, {@link #hasNext()} and {@link #next()}
+ * throw an {@link IllegalStateException} whose cause is the
+ * {@link MifosXConnectException}. Close the iterator when abandoning it early
+ * so that pages still being prefetched are cancelled.
+ * @param <T> the type of the items
+ */
+public interface PageIterator<T> extends Iterator<T>, Closeable {
+
+    /**
+     * Returns the total number of filtered records reported by the server,
+     * or null if no page was fetched yet.
+     */
+    Long getTotalFilteredRecords();
+
+    /**
+     * Cancels the pages being prefetched. Further calls to {@link #hasNext()} return false.
+     */
+    @Override
+    void close();
+
+}
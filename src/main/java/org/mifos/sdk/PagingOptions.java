@@ -0,0 +1,145 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk;
+
+import com.google.common.base.Preconditions;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Configures how the pages of a resource are walked by a {@link PageIterator}
+ * or fetched in bulk.
+ */
+public final class PagingOptions {
+
+    /**
+     * Utility class to ease the process of building a
+     * new instance of {@link PagingOptions}
+     */
+    public static class Builder {
+
+        private int pageSize;
+        private int prefetchDepth = 1;
+        private int parallelism = 1;
+        private boolean ordered = true;
+        private ExecutorService executor;
+
+        private Builder(final int size) {
+            Preconditions.checkArgument(size > 0, "The page size must be positive!");
+
+            this.pageSize = size;
+        }
+
+        /**
+         * Optional method to set how many of the following pages are fetched in the
+         * background while the current one is consumed. Defaults to 1, ignored when
+         * no executor is set.
+         * @param depth the number of pages to prefetch
+         * @return instance of the current {@link Builder}
+         */
+        public Builder prefetchDepth(final int depth) {
+            Preconditions.checkArgument(depth >= 0, "The prefetch depth cannot be negative!");
+
+            this.prefetchDepth = depth;
+            return this;
+        }
+
+        /**
+         * Optional method to set how many pages a bulk fetch requests at the same time
+         * once the total number of records is known. Defaults to 1, ignored when no
+         * executor is set.
+         * @param pages the maximum number of concurrent page requests
+         * @return instance of the current {@link Builder}
+         */
+        public Builder parallelism(final int pages) {
+            Preconditions.checkArgument(pages > 0, "The parallelism must be positive!");
+
+            this.parallelism = pages;
+            return this;
+        }
+
+        /**
+         * Optional method to set whether a bulk fetch keeps the server order of the
+         * records. Defaults to true; when false the pages are appended as they arrive.
+         * @param keepOrder true to keep the server order
+         * @return instance of the current {@link Builder}
+         */
+        public Builder ordered(final boolean keepOrder) {
+            this.ordered = keepOrder;
+            return this;
+        }
+
+        /**
+         * Optional method to set the {@link ExecutorService} which fetches pages in the
+         * background. Without one every page is fetched by the iterating thread.
+         * @param executorService the {@link ExecutorService}
+         * @return instance of the current {@link Builder}
+         */
+        public Builder executor(final ExecutorService executorService) {
+            this.executor = executorService;
+            return this;
+        }
+
+        /**
+         * Constructs a new PagingOptions instance
+         * with the provided properties.
+         * @return a new instance of {@link PagingOptions}
+         */
+        public PagingOptions build() {
+            return new PagingOptions(this);
+        }
+
+    }
+
+    private int pageSize;
+    private int prefetchDepth;
+    private int parallelism;
+    private boolean ordered;
+    private ExecutorService executor;
+
+    private PagingOptions(final Builder builder) {
+        this.pageSize = builder.pageSize;
+        this.prefetchDepth = builder.prefetchDepth;
+        this.parallelism = builder.parallelism;
+        this.ordered = builder.ordered;
+        this.executor = builder.executor;
+    }
+
+    /** Returns the number of items requested per page. */
+    public int getPageSize() {
+        return this.pageSize;
+    }
+
+    /** Returns the number of pages fetched ahead of the current one. */
+    public int getPrefetchDepth() {
+        return this.executor == null ? 0 : this.prefetchDepth;
+    }
+
+    /** Returns the number of pages a bulk fetch requests at the same time. */
+    public int getParallelism() {
+        return this.executor == null ? 1 : this.parallelism;
+    }
+
+    /** Returns whether a bulk fetch keeps the server order of the records. */
+    public boolean isOrdered() {
+        return this.ordered;
+    }
+
+    /** Returns the {@link ExecutorService} fetching pages in the background, or null. */
+    public ExecutorService getExecutor() {
+        return this.executor;
+    }
+
+    /**
+     * Sets the number of items requested per page.
+     * @param size the page size
+     * @return a new {@link Builder} instance
+     */
+    public static Builder pageSize(final int size) {
+        return new Builder(size);
+    }
+
+}
@@ -0,0 +1,215 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.client;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import org.mifos.sdk.MifosXConnectException;
+import org.mifos.sdk.MifosXResourceException;
+import org.mifos.sdk.client.domain.Client;
+import org.mifos.sdk.client.domain.ClientIdentifier;
+import org.mifos.sdk.client.domain.ClientImage;
+import org.mifos.sdk.client.domain.PageableClients;
+import org.mifos.sdk.client.domain.commands.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Asynchronous counterpart of {@link ClientService}. Every method returns immediately with a
+ * {@link ListenableFuture} which fails with the same {@link MifosXConnectException} or
+ * {@link MifosXResourceException} the blocking call would have thrown.
+ */
+public interface AsyncClientService {
+
+    /**
+     * Creates a new client.
+     * @param client the {@link Client} to create
+     * @return a {@link ListenableFuture} of a {@link Client} with the response parameters
+     */
+    ListenableFuture<Client> createClient(final Client client);
+
+    /**
+     * Retrieves all available clients.
+     * @param queryMap an {@link Map} with all the query parameters
+     * @return a {@link ListenableFuture} of a {@link PageableClients} with the list of {@link Client}s
+     */
+    ListenableFuture<PageableClients> fetchClients(final Map<String, Object> queryMap);
+
+    /**
+     * Retrieves one particular client.
+     * @param clientId the client ID
+     * @return a {@link ListenableFuture} of a {@link Client} with all the details of the searched client
+     */
+    ListenableFuture<Client> findClient(final Long clientId);
+
+    /**
+     * Updates one particular client.
+     * @param clientId the client ID
+     * @param client a {@link Client} object with all the changes to be made
+     * @return a {@link ListenableFuture} completed once the operation finishes
+     */
+    ListenableFuture<Void> updateClient(final Long clientId, final Client client);
+
+    /**
+     * Deletes one particular client.
+     * @param clientId the client ID
+     * @return a {@link ListenableFuture} completed once the operation finishes
+     */
+    ListenableFuture<Void> deleteClient(final Long clientId);
+
+    /**
+     * Activates a pending client or results in an error if the client is already activated.
+     * @param clientId the client ID
+     * @param command the {@link org.mifos.sdk.client.domain.commands.ActivateClientCommand} command
+     * @return a {@link ListenableFuture} completed once the operation finishes
+     */
+    ListenableFuture<Void> activateClient(final Long clientId, final ActivateClientCommand command);
+
+    /**
+     * Closes a client.
+     * @param clientId the client ID
+     * @param command the {@link org.mifos.sdk.client.domain.commands.CloseClientCommand} command
+     * @return a {@link ListenableFuture} completed once the operation finishes
+     */
+    ListenableFuture<Void> closeClient(final Long clientId, final CloseClientCommand command);
+
+    /**
+     * Assigns staff to the client.
+     * @param clientId the client ID
+     * @param command the {@link org.mifos.sdk.client.domain.commands.AssignUnassignStaffCommand} command
+     * @return a {@link ListenableFuture} completed once the operation finishes
+     */
+    ListenableFuture<Void> assignStaff(final Long clientId, final AssignUnassignStaffCommand command);
+
+    /**
+     * Unassigns staff from the client.
+     * @param clientId the client ID
+     * @param command the {@link org.mifos.sdk.client.domain.commands.AssignUnassignStaffCommand} command
+     * @return a {@link ListenableFuture} completed once the operation finishes
+     */
+    ListenableFuture<Void> unassignStaff(final Long clientId, final AssignUnassignStaffCommand command);
+
+    /**
+     * Updates the savings account of the client.
+     * @param clientId the client ID
+     * @param command the {@link org.mifos.sdk.client.domain.commands.UpdateSavingsAccountCommand} command
+     * @return a {@link ListenableFuture} completed once the operation finishes
+     */
+    ListenableFuture<Void> updateSavingsAccount(final Long clientId, final UpdateSavingsAccountCommand command);
+
+    /**
+     * Proposes the transfer of the client.
+     * @param clientId the client ID
+     * @param command the {@link org.mifos.sdk.client.domain.commands.ProposeClientTransferCommand} command
+     * @return a {@link ListenableFuture} completed once the operation finishes
+     */
+    ListenableFuture<Void> proposeTransfer(final Long clientId, final ProposeClientTransferCommand command);
+
+    /**
+     * Withdraws transfer of the client.
+     * @param clientId the client ID
+     * @param command the {@link org.mifos.sdk.client.domain.commands.WithdrawRejectClientTransferCommand} command
+     * @return a {@link ListenableFuture} completed once the operation finishes
+     */
+    ListenableFuture<Void> withdrawTransfer(final Long clientId, final WithdrawRejectClientTransferCommand command);
+
+    /**
+     * Rejects transfer of the client.
+     * @param clientId the client ID
+     * @param command the {@link org.mifos.sdk.client.domain.commands.WithdrawRejectClientTransferCommand} command
+     * @return a {@link ListenableFuture} completed once the operation finishes
+     */
+    ListenableFuture<Void> rejectTransfer(final Long clientId, final WithdrawRejectClientTransferCommand command);
+
+    /**
+     * Accepts the transfer of the client.
+     * @param clientId the client ID
+     * @param command the {@link org.mifos.sdk.client.domain.commands.AcceptClientTransferCommand} command
+     * @return a {@link ListenableFuture} completed once the operation finishes
+     */
+    ListenableFuture<Void> acceptTransfer(final Long clientId, final AcceptClientTransferCommand command);
+
+    /**
+     * Proposes and accepts the transfer of the client.
+     * @param clientId the client ID
+     * @param command the {@link org.mifos.sdk.client.domain.commands.ProposeAndAcceptClientTransferCommand} command
+     * @return a {@link ListenableFuture} completed once the operation finishes
+     */
+    ListenableFuture<Void> proposeAndAcceptTransfer(final Long clientId, final ProposeAndAcceptClientTransferCommand command);
+
+    /**
+     * Creates a new identifier for the client.
+     * @param clientId the client ID
+     * @param identifier a {@link ClientIdentifier} with the details of the identifier to create
+     * @return a {@link ListenableFuture} of a {@link ClientIdentifier} with the server response parameters
+     */
+    ListenableFuture<ClientIdentifier> createIdentifier(final Long clientId, final ClientIdentifier identifier);
+
+    /**
+     * Retrieves all the identifiers for the client.
+     * @param clientId the client ID
+     * @return a {@link ListenableFuture} of a list of {@link ClientIdentifier}
+     */
+    ListenableFuture<List<ClientIdentifier>> fetchIdentifiers(final Long clientId);
+
+    /**
+     * Retrieves a particular identifier.
+     * @param clientId the client ID
+     * @param identifierId the identifier ID to retrieve
+     * @return a {@link ListenableFuture} of a {@link ClientIdentifier} with the details of the identifier searched for
+     */
+    ListenableFuture<ClientIdentifier> findIdentifier(final Long clientId, final Long identifierId);
+
+    /**
+     * Updates a particular identifer.
+     * @param clientId the client ID
+     * @param identifierId the identifier ID
+     * @param identifier a {@link ClientIdentifier} with the details to update
+     * @return a {@link ListenableFuture} completed once the operation finishes
+     */
+    ListenableFuture<Void> updateIdentifier(final Long clientId, final Long identifierId, final ClientIdentifier identifier);
+
+    /**
+     * Deletes a particular identifier.
+     * @param clientId the client ID
+     * @param identifierId the identifier ID
+     * @return a {@link ListenableFuture} completed once the operation finishes
+     */
+    ListenableFuture<Void> deleteIdentifier(final Long clientId, final Long identifierId);
+
+    /**
+     * Uploads a client image.
+     * @param clientId the client ID
+     * @param clientImage the {@link ClientImage}
+     * @return a {@link ListenableFuture} of a {@link ClientImage} with the resource ID
+     */
+    ListenableFuture<ClientImage> uploadImage(final Long clientId, final ClientImage clientImage);
+
+    /**
+     * Retrieves a client image.
+     * @param clientId the client ID
+     * @param maxWidth Optional: the maximum width of the image
+     * @param maxHeight Optional: the maximum height of the image
+     * @return a {@link ListenableFuture} of a {@link ClientImage} with the image and the type if found, null otherwise
+     */
+    ListenableFuture<ClientImage> findImage(final Long clientId, final Long maxWidth, final Long maxHeight);
+
+    /**
+     * Updates a client image.
+     * @param clientId the client ID
+     * @param clientImage the {@link ClientImage}
+     * @return a {@link ListenableFuture} completed once the operation finishes
+     */
+    ListenableFuture<Void> updateImage(final Long clientId, final ClientImage clientImage);
+
+    /**
+     * Deletes a client image.
+     * @param clientId the client ID
+     * @return a {@link ListenableFuture} completed once the operation finishes
+     */
+    ListenableFuture<Void> deleteImage(final Long clientId);
+
+}
@@ -0,0 +1,92 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.client;
+
+import com.google.common.base.Preconditions;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Configures the cache of clients kept by a {@link ClientService}. A cached client
+ * with an entity tag is revalidated with the server on every lookup, which costs
+ * no body when it has not changed; a client without one is used until its time
+ * to live runs out.
+ */
+public final class ClientCacheOptions {
+
+    /**
+     * Utility class to ease the process of building a
+     * new instance of {@link ClientCacheOptions}
+     */
+    public static class Builder {
+
+        private long maxBytes;
+        private long ttl = DEFAULT_TTL;
+
+        private Builder(final long bytes) {
+            Preconditions.checkArgument(bytes > 0, "The cache size must be positive!");
+
+            this.maxBytes = bytes;
+        }
+
+        /**
+         * Optional method to set how long a client without an entity tag is used
+         * before it is requested again. Defaults to {@link #DEFAULT_TTL}.
+         * @param duration the time to live
+         * @param unit the {@link TimeUnit} of the duration
+         * @return instance of the current {@link Builder}
+         */
+        public Builder ttl(final long duration, final TimeUnit unit) {
+            Preconditions.checkArgument(duration >= 0, "The time to live cannot be negative!");
+            Preconditions.checkNotNull(unit);
+
+            this.ttl = unit.toMillis(duration);
+            return this;
+        }
+
+        /**
+         * Constructs a new ClientCacheOptions instance
+         * with the provided properties.
+         * @return a new instance of {@link ClientCacheOptions}
+         */
+        public ClientCacheOptions build() {
+            return new ClientCacheOptions(this);
+        }
+
+    }
+
+    /** Default time to live in milliseconds of a client without an entity tag. */
+    public static final long DEFAULT_TTL = TimeUnit.MINUTES.toMillis(1);
+
+    private long maxBytes;
+    private long ttl;
+
+    private ClientCacheOptions(final Builder builder) {
+        this.maxBytes = builder.maxBytes;
+        this.ttl = builder.ttl;
+    }
+
+    /** Returns the maximum size of the cached clients, measured by their response bodies. */
+    public long getMaxBytes() {
+        return this.maxBytes;
+    }
+
+    /** Returns the time to live in milliseconds of a client without an entity tag. */
+    public long getTtl() {
+        return this.ttl;
+    }
+
+    /**
+     * Sets the maximum size of the cached clients, measured by the bytes of their
+     * response bodies.
+     * @param bytes the size of the cache
+     * @return a new {@link Builder} instance
+     */
+    public static Builder maxBytes(final long bytes) {
+        return new Builder(bytes);
+    }
+
+}
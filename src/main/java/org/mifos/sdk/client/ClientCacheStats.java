@@ -0,0 +1,75 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.client;
+
+/**
+ * A snapshot of the counters of the client cache.
+ */
+public final class ClientCacheStats {
+
+    private final long hitCount;
+    private final long revalidatedCount;
+    private final long missCount;
+    private final long evictionCount;
+    private final long invalidationCount;
+    private final long size;
+
+    /**
+     * Constructs a new instance of {@link ClientCacheStats}.
+     * @param hits the number of lookups served without a request
+     * @param revalidated the number of lookups the server answered with 304 Not Modified
+     * @param misses the number of lookups which transferred the client
+     * @param evictions the number of clients dropped to make room
+     * @param invalidations the number of clients dropped after a change
+     * @param bytes the size of the cached clients
+     */
+    public ClientCacheStats(final long hits, final long revalidated, final long misses,
+                            final long evictions, final long invalidations, final long bytes) {
+        this.hitCount = hits;
+        this.revalidatedCount = revalidated;
+        this.missCount = misses;
+        this.evictionCount = evictions;
+        this.invalidationCount = invalidations;
+        this.size = bytes;
+    }
+
+    /** Returns the number of lookups served without a request. */
+    public long getHitCount() {
+        return this.hitCount;
+    }
+
+    /** Returns the number of lookups the server answered with 304 Not Modified. */
+    public long getRevalidatedCount() {
+        return this.revalidatedCount;
+    }
+
+    /** Returns the number of lookups which transferred the client. */
+    public long getMissCount() {
+        return this.missCount;
+    }
+
+    /** Returns the number of clients dropped to make room. */
+    public long getEvictionCount() {
+        return this.evictionCount;
+    }
+
+    /** Returns the number of clients dropped after a change. */
+    public long getInvalidationCount() {
+        return this.invalidationCount;
+    }
+
+    /** Returns the size of the cached clients, measured by their response bodies. */
+    public long getSize() {
+        return this.size;
+    }
+
+    /** Returns the share of lookups answered from the cache, with or without revalidation. */
+    public double getHitRatio() {
+        final long lookups = this.hitCount + this.revalidatedCount + this.missCount;
+        return lookups == 0 ? 0 : (double) (this.hitCount + this.revalidatedCount) / lookups;
+    }
+
+}
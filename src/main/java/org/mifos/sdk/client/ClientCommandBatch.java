@@ -0,0 +1,98 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.client;
+
+import org.mifos.sdk.CommandBatch;
+import org.mifos.sdk.client.domain.commands.*;
+
+/**
+ * Collects client commands to execute them through the batch API, obtained
+ * from {@link ClientService#commandBatch(org.mifos.sdk.BatchOptions)}.
+ */
+public interface ClientCommandBatch extends CommandBatch {
+
+    /**
+     * Adds the activation of a pending client.
+     * @param clientId the client ID
+     * @param command the {@link ActivateClientCommand}
+     * @return instance of the current {@link ClientCommandBatch}
+     */
+    ClientCommandBatch activate(final Long clientId, final ActivateClientCommand command);
+
+    /**
+     * Adds the closure of a client.
+     * @param clientId the client ID
+     * @param command the {@link CloseClientCommand}
+     * @return instance of the current {@link ClientCommandBatch}
+     */
+    ClientCommandBatch close(final Long clientId, final CloseClientCommand command);
+
+    /**
+     * Adds the assignment of a staff to a client.
+     * @param clientId the client ID
+     * @param command the {@link AssignUnassignStaffCommand}
+     * @return instance of the current {@link ClientCommandBatch}
+     */
+    ClientCommandBatch assignStaff(final Long clientId, final AssignUnassignStaffCommand command);
+
+    /**
+     * Adds the unassignment of the staff of a client.
+     * @param clientId the client ID
+     * @param command the {@link AssignUnassignStaffCommand}
+     * @return instance of the current {@link ClientCommandBatch}
+     */
+    ClientCommandBatch unassignStaff(final Long clientId, final AssignUnassignStaffCommand command);
+
+    /**
+     * Adds the update of the default savings account of a client.
+     * @param clientId the client ID
+     * @param command the {@link UpdateSavingsAccountCommand}
+     * @return instance of the current {@link ClientCommandBatch}
+     */
+    ClientCommandBatch updateSavingsAccount(final Long clientId, final UpdateSavingsAccountCommand command);
+
+    /**
+     * Adds the proposal of a client transfer.
+     * @param clientId the client ID
+     * @param command the {@link ProposeClientTransferCommand}
+     * @return instance of the current {@link ClientCommandBatch}
+     */
+    ClientCommandBatch proposeTransfer(final Long clientId, final ProposeClientTransferCommand command);
+
+    /**
+     * Adds the withdrawal of a client transfer.
+     * @param clientId the client ID
+     * @param command the {@link WithdrawRejectClientTransferCommand}
+     * @return instance of the current {@link ClientCommandBatch}
+     */
+    ClientCommandBatch withdrawTransfer(final Long clientId, final WithdrawRejectClientTransferCommand command);
+
+    /**
+     * Adds the rejection of a client transfer.
+     * @param clientId the client ID
+     * @param command the {@link WithdrawRejectClientTransferCommand}
+     * @return instance of the current {@link ClientCommandBatch}
+     */
+    ClientCommandBatch rejectTransfer(final Long clientId, final WithdrawRejectClientTransferCommand command);
+
+    /**
+     * Adds the acceptance of a client transfer.
+     * @param clientId the client ID
+     * @param command the {@link AcceptClientTransferCommand}
+     * @return instance of the current {@link ClientCommandBatch}
+     */
+    ClientCommandBatch acceptTransfer(final Long clientId, final AcceptClientTransferCommand command);
+
+    /**
+     * Adds the proposal and acceptance of a client transfer.
+     * @param clientId the client ID
+     * @param command the {@link ProposeAndAcceptClientTransferCommand}
+     * @return instance of the current {@link ClientCommandBatch}
+     */
+    ClientCommandBatch proposeAndAcceptTransfer(final Long clientId,
+                                                final ProposeAndAcceptClientTransferCommand command);
+
+}
@@ -0,0 +1,31 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.client;
+
+import org.mifos.sdk.client.domain.ClientImage;
+
+/**
+ * Receives the images of a prefetch by {@link ClientService}, one client at a time
+ * as they arrive. Both methods are called by the thread which started the prefetch.
+ */
+public interface ClientImageCallback {
+
+    /**
+     * Called with the image of a client.
+     * @param clientId the client ID
+     * @param clientImage the {@link org.mifos.sdk.client.domain.ClientImage}, null if the client has none
+     */
+    void onImage(final Long clientId, final ClientImage clientImage);
+
+    /**
+     * Called when the image of a client could not be retrieved.
+     * @param clientId the client ID
+     * @param exception the {@link org.mifos.sdk.MifosXConnectException} or
+     *                  {@link org.mifos.sdk.MifosXResourceException}
+     */
+    void onFailure(final Long clientId, final Exception exception);
+
+}
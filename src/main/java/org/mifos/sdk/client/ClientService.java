@@ -5,14 +5,23 @@
  */
 package org.mifos.sdk.client;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
 
+import org.mifos.sdk.BatchOptions;
 import org.mifos.sdk.MifosXConnectException;
 import org.mifos.sdk.MifosXResourceException;
+import org.mifos.sdk.PageIterator;
+import org.mifos.sdk.PagingOptions;
 import org.mifos.sdk.client.domain.Client;
 import org.mifos.sdk.client.domain.ClientIdentifier;
 import org.mifos.sdk.client.domain.ClientImage;
+import org.mifos.sdk.client.domain.EncodedClientImage;
 import org.mifos.sdk.client.domain.PageableClients;
 import org.mifos.sdk.client.domain.commands.*;
 
@@ -38,6 +47,25 @@ public interface ClientService {
      */
     PageableClients fetchClients(final Map<String, Object> queryMap) throws MifosXConnectException;
 
+    /**
+     * Lazily iterates over all the clients matching the query, page by page.
+     * @param queryMap Optional: a {@link Map} with the query parameters, the offset and limit are overridden
+     * @param options the {@link PagingOptions} with the page size and prefetch settings
+     * @return a {@link PageIterator} over the {@link Client}s
+     */
+    PageIterator<Client> iterateClients(final Map<String, Object> queryMap, final PagingOptions options);
+
+    /**
+     * Retrieves all the clients matching the query. Once the first page reports the total
+     * number of records, the remaining pages are fetched in parallel.
+     * @param queryMap Optional: a {@link Map} with the query parameters, the offset and limit are overridden
+     * @param options the {@link PagingOptions} with the page size, parallelism and ordering
+     * @return a {@link List} with all the {@link Client}s
+     * @throws MifosXConnectException
+     */
+    List<Client> fetchAllClients(final Map<String, Object> queryMap, final PagingOptions options)
+        throws MifosXConnectException;
+
     /**
      * Retrieves one particular client.
      * @param clientId the client ID
@@ -228,6 +256,17 @@ public interface ClientService {
     ClientImage uploadImage(final Long clientId, final ClientImage clientImage) throws MifosXConnectException,
         MifosXResourceException;
 
+    /**
+     * Uploads a client image which is already encoded, without decoding it again.
+     * @param clientId the client ID
+     * @param encodedImage the {@link EncodedClientImage}
+     * @return a {@link ClientImage} with the resource ID
+     * @throws MifosXConnectException
+     * @throws MifosXResourceException
+     */
+    ClientImage uploadImage(final Long clientId, final EncodedClientImage encodedImage) throws
+        MifosXConnectException, MifosXResourceException;
+
     /**
      * Retrieves a client image.
      * @param clientId the client ID
@@ -240,6 +279,118 @@ public interface ClientService {
     ClientImage findImage(final Long clientId, final Long maxWidth, final Long maxHeight) throws
         MifosXConnectException, MifosXResourceException;
 
+    /**
+     * Retrieves the encoded bytes of a client image, decoding them from the server
+     * response straight into the given stream.
+     * @param clientId the client ID
+     * @param maxWidth Optional: the maximum width of the image
+     * @param maxHeight Optional: the maximum height of the image
+     * @param outputStream the {@link OutputStream} receiving the image bytes
+     * @return the {@link ClientImage.Type} of the image
+     * @throws MifosXConnectException
+     * @throws MifosXResourceException
+     */
+    ClientImage.Type findImageBytes(final Long clientId, final Long maxWidth, final Long maxHeight,
+                                    final OutputStream outputStream) throws MifosXConnectException,
+        MifosXResourceException;
+
+    /**
+     * Retrieves the encoded bytes of a client image, decoding them from the server
+     * response straight into the given buffer.
+     * @param clientId the client ID
+     * @param maxWidth Optional: the maximum width of the image
+     * @param maxHeight Optional: the maximum height of the image
+     * @param buffer the {@link ByteBuffer} receiving the image bytes
+     * @return the {@link ClientImage.Type} of the image
+     * @throws MifosXConnectException
+     * @throws MifosXResourceException
+     * @throws java.nio.BufferOverflowException if the image does not fit in the buffer
+     */
+    ClientImage.Type findImageBytes(final Long clientId, final Long maxWidth, final Long maxHeight,
+                                    final ByteBuffer buffer) throws MifosXConnectException,
+        MifosXResourceException;
+
+    /**
+     * Retrieves a client image as a stream of its encoded bytes, decoded while read.
+     * The stream holds the connection and must be closed.
+     * @param clientId the client ID
+     * @param maxWidth Optional: the maximum width of the image
+     * @param maxHeight Optional: the maximum height of the image
+     * @return an {@link InputStream} with the image bytes
+     * @throws MifosXConnectException
+     * @throws MifosXResourceException
+     */
+    InputStream findImageStream(final Long clientId, final Long maxWidth, final Long maxHeight) throws
+        MifosXConnectException, MifosXResourceException;
+
+    /**
+     * Retrieves the image of a client read from the server, without a request when
+     * the client has no image.
+     * @param client the {@link Client} with the client ID, image ID and image flag
+     * @param maxWidth Optional: the maximum width of the image
+     * @param maxHeight Optional: the maximum height of the image
+     * @return a {@link ClientImage} with the image and the type, null if the client has none
+     * @throws MifosXConnectException
+     * @throws MifosXResourceException
+     */
+    ClientImage findImage(final Client client, final Long maxWidth, final Long maxHeight) throws
+        MifosXConnectException, MifosXResourceException;
+
+    /**
+     * Retrieves the images of the given clients, up to the given number at the same
+     * time, and passes each to the callback as soon as it arrives. A client without
+     * an image is passed with a null image. Returns once every image is handled.
+     * @param clientIds the client IDs
+     * @param maxWidth Optional: the maximum width of the images
+     * @param maxHeight Optional: the maximum height of the images
+     * @param executor Optional: the {@link ExecutorService} downloading the images,
+     *                 without one they are downloaded by the calling thread
+     * @param concurrency the maximum number of images downloaded at the same time
+     * @param callback the {@link ClientImageCallback}
+     * @throws InterruptedException if the calling thread is interrupted
+     */
+    void prefetchImages(final Collection<Long> clientIds, final Long maxWidth, final Long maxHeight,
+                        final ExecutorService executor, final int concurrency,
+                        final ClientImageCallback callback) throws InterruptedException;
+
+    /**
+     * Retrieves the images of the given clients read from the server, without a
+     * request for the clients which have no image.
+     * @param clients the {@link Client}s with the client ID, image ID and image flag
+     * @param maxWidth Optional: the maximum width of the images
+     * @param maxHeight Optional: the maximum height of the images
+     * @param executor Optional: the {@link ExecutorService} downloading the images,
+     *                 without one they are downloaded by the calling thread
+     * @param concurrency the maximum number of images downloaded at the same time
+     * @param callback the {@link ClientImageCallback}
+     * @throws InterruptedException if the calling thread is interrupted
+     */
+    void prefetchClientImages(final Collection<Client> clients, final Long maxWidth, final Long maxHeight,
+                              final ExecutorService executor, final int concurrency,
+                              final ClientImageCallback callback) throws InterruptedException;
+
+    /**
+     * Returns a new batch which collects client commands and executes them through
+     * the batch API, one request per chunk of commands.
+     * @param options the {@link BatchOptions} with the chunk size and transaction settings
+     * @return an empty {@link ClientCommandBatch}
+     */
+    ClientCommandBatch commandBatch(final BatchOptions options);
+
+    /**
+     * Returns the counters of the client cache configured with
+     * {@link org.mifos.sdk.MifosXProperties.Builder#clientCache(ClientCacheOptions)}.
+     * @return the {@link ClientCacheStats}, or null if clients are not cached
+     */
+    ClientCacheStats getClientCacheStats();
+
+    /**
+     * Returns the counters of the image cache configured with
+     * {@link org.mifos.sdk.MifosXProperties.Builder#imageCache(ImageCacheOptions)}.
+     * @return the {@link ImageCacheStats}, or null if images are not cached
+     */
+    ImageCacheStats getImageCacheStats();
+
     /**
      * Updates a client image.
      * @param clientId the client ID
@@ -250,6 +401,16 @@ public interface ClientService {
     void updateImage(final Long clientId, final ClientImage clientImage) throws MifosXConnectException,
         MifosXResourceException;
 
+    /**
+     * Updates a client image with one which is already encoded, without decoding it again.
+     * @param clientId the client ID
+     * @param encodedImage the {@link EncodedClientImage}
+     * @throws MifosXConnectException
+     * @throws MifosXResourceException
+     */
+    void updateImage(final Long clientId, final EncodedClientImage encodedImage) throws
+        MifosXConnectException, MifosXResourceException;
+
     /**
      * Deletes a client image.
      * @param clientId the client ID
@@ -0,0 +1,98 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.client;
+
+import com.google.common.base.Preconditions;
+
+import java.nio.file.Path;
+
+/**
+ * Configures the cache of client images kept by a {@link ClientService}. Images
+ * are held in memory up to {@link #getMaxMemoryBytes()} and, when a directory is
+ * set, the least recently used ones are moved to memory-mapped files there.
+ */
+public final class ImageCacheOptions {
+
+    /**
+     * Utility class to ease the process of building a
+     * new instance of {@link ImageCacheOptions}
+     */
+    public static class Builder {
+
+        private long maxMemoryBytes;
+        private Path diskDirectory;
+        private long maxDiskBytes;
+
+        private Builder(final long memoryBytes) {
+            Preconditions.checkArgument(memoryBytes > 0, "The memory size must be positive!");
+
+            this.maxMemoryBytes = memoryBytes;
+        }
+
+        /**
+         * Optional method to keep the images evicted from memory in files of the given
+         * directory, up to the given number of bytes. The directory is created if needed;
+         * every cache keeps its files in a subdirectory of its own under one per tenant,
+         * so that several clients or processes can share the directory.
+         * @param directory the directory of the cache files
+         * @param maxBytes the maximum number of bytes on disk
+         * @return instance of the current {@link Builder}
+         */
+        public Builder disk(final Path directory, final long maxBytes) {
+            Preconditions.checkNotNull(directory);
+            Preconditions.checkArgument(maxBytes > 0, "The disk size must be positive!");
+
+            this.diskDirectory = directory;
+            this.maxDiskBytes = maxBytes;
+            return this;
+        }
+
+        /**
+         * Constructs a new ImageCacheOptions instance
+         * with the provided properties.
+         * @return a new instance of {@link ImageCacheOptions}
+         */
+        public ImageCacheOptions build() {
+            return new ImageCacheOptions(this);
+        }
+
+    }
+
+    private long maxMemoryBytes;
+    private Path diskDirectory;
+    private long maxDiskBytes;
+
+    private ImageCacheOptions(final Builder builder) {
+        this.maxMemoryBytes = builder.maxMemoryBytes;
+        this.diskDirectory = builder.diskDirectory;
+        this.maxDiskBytes = builder.maxDiskBytes;
+    }
+
+    /** Returns the maximum number of image bytes held in memory. */
+    public long getMaxMemoryBytes() {
+        return this.maxMemoryBytes;
+    }
+
+    /** Returns the directory of the disk tier, or null if there is none. */
+    public Path getDiskDirectory() {
+        return this.diskDirectory;
+    }
+
+    /** Returns the maximum number of image bytes held on disk. */
+    public long getMaxDiskBytes() {
+        return this.maxDiskBytes;
+    }
+
+    /**
+     * Sets the maximum number of image bytes held in memory.
+     * @param maxBytes the size of the memory tier
+     * @return a new {@link Builder} instance
+     */
+    public static Builder maxMemoryBytes(final long maxBytes) {
+        return new Builder(maxBytes);
+    }
+
+}
@@ -0,0 +1,69 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.client;
+
+/**
+ * A snapshot of the counters of the client image cache.
+ */
+public final class ImageCacheStats {
+
+    private final long hitCount;
+    private final long diskHitCount;
+    private final long missCount;
+    private final long evictionCount;
+    private final long memoryBytes;
+    private final long diskBytes;
+
+    /**
+     * Constructs a new instance of {@link ImageCacheStats}.
+     * @param hits the number of lookups served from the cache, either tier
+     * @param diskHits the number of those lookups served from the disk tier
+     * @param misses the number of lookups sent to the server
+     * @param evictions the number of images dropped from memory
+     * @param memory the number of image bytes held in memory
+     * @param disk the number of image bytes held on disk
+     */
+    public ImageCacheStats(final long hits, final long diskHits, final long misses,
+                           final long evictions, final long memory, final long disk) {
+        this.hitCount = hits;
+        this.diskHitCount = diskHits;
+        this.missCount = misses;
+        this.evictionCount = evictions;
+        this.memoryBytes = memory;
+        this.diskBytes = disk;
+    }
+
+    /** Returns the number of lookups served from the cache. */
+    public long getHitCount() {
+        return this.hitCount;
+    }
+
+    /** Returns the number of lookups served from the disk tier. */
+    public long getDiskHitCount() {
+        return this.diskHitCount;
+    }
+
+    /** Returns the number of lookups sent to the server. */
+    public long getMissCount() {
+        return this.missCount;
+    }
+
+    /** Returns the number of images dropped from memory, whether or not moved to disk. */
+    public long getEvictionCount() {
+        return this.evictionCount;
+    }
+
+    /** Returns the number of image bytes held in memory. */
+    public long getMemoryBytes() {
+        return this.memoryBytes;
+    }
+
+    /** Returns the number of image bytes held on disk. */
+    public long getDiskBytes() {
+        return this.diskBytes;
+    }
+
+}
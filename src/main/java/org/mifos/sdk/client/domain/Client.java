@@ -676,6 +676,34 @@ public final class Client {
         this.timeline = timeline;
     }
 
+    /**
+     * Returns a deep copy of the client, which shares no mutable state with it.
+     */
+    public Client copy() {
+        final Client copy = new Client(this.fullname, this.firstname, this.middlename, this.lastname,
+            this.officeId, this.active, copyOf(this.activationDate), this.dateFormat, this.locale, this.groupId,
+            this.externalId, this.accountNo, this.staffId, this.mobileNo, this.savingsProductId, this.genderId,
+            this.clientTypeId, this.clientClassificationId, copyOf(this.submittedOnDate));
+        copy.clientId = this.clientId;
+        copy.resourceId = this.resourceId;
+        copy.displayName = this.displayName;
+        copy.timeline = this.timeline == null ? null : this.timeline.copy();
+        copy.imageId = this.imageId;
+        copy.imagePresent = this.imagePresent;
+        copy.genderName = this.genderName;
+        copy.clientTypeName = this.clientTypeName;
+        copy.status = this.status == null ? null : this.status.copy();
+        copy.staffName = this.staffName;
+        copy.officeName = this.officeName;
+        copy.savingsAccountId = this.savingsAccountId;
+        copy.savingsId = this.savingsId;
+        return copy;
+    }
+
+    private static Date copyOf(final Date date) {
+        return date == null ? null : new Date(date.getTime());
+    }
+
     /**
      * Sets the first name of the client, cannot be null or empty. Note
      * that the name cannot exceed 100 characters in length.
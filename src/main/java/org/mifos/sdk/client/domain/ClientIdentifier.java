@@ -151,6 +151,18 @@ public final class ClientIdentifier {
         this.resourceId = identifierId;
     }
 
+    /**
+     * Returns a copy of the identifier.
+     */
+    public ClientIdentifier copy() {
+        final ClientIdentifier copy = new ClientIdentifier(this.documentKey, this.documentTypeId, this.description);
+        copy.documentTypeName = this.documentTypeName;
+        copy.clientId = this.clientId;
+        copy.officeId = this.officeId;
+        copy.resourceId = this.resourceId;
+        return copy;
+    }
+
     /**
      * Sets the document key.
      * @param key the document key
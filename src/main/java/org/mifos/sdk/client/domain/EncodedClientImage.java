@@ -0,0 +1,124 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.client.domain;
+
+import com.google.common.base.Preconditions;
+
+import java.io.File;
+import java.nio.file.Path;
+
+/**
+ * A client image which is already encoded as PNG, JPEG or GIF, held as bytes
+ * or as a file. It is uploaded as it is, without being decoded and encoded again.
+ */
+public final class EncodedClientImage {
+
+    /**
+     * Utility class to ease the process of building a
+     * new instance of {@link EncodedClientImage}
+     */
+    public static class Builder {
+
+        private byte[] bytes;
+        private Path path;
+        private ClientImage.Type type;
+
+        private Builder(final byte[] imageBytes, final Path imagePath) {
+            this.bytes = imageBytes;
+            this.path = imagePath;
+        }
+
+        /**
+         * Sets the type the image is encoded with.
+         * @param imageType the image type
+         * @return the current instance of {@link Builder}
+         */
+        public Builder type(final ClientImage.Type imageType) {
+            Preconditions.checkNotNull(imageType);
+
+            this.type = imageType;
+            return this;
+        }
+
+        /**
+         * Constructs a new EncodedClientImage instance with the provided parameters.
+         * @return a new instance of {@link EncodedClientImage}
+         */
+        public EncodedClientImage build() {
+            Preconditions.checkNotNull(this.type);
+
+            return new EncodedClientImage(this.bytes, this.path, this.type);
+        }
+
+    }
+
+    private byte[] bytes;
+    private Path path;
+    private ClientImage.Type type;
+
+    private EncodedClientImage(final byte[] imageBytes,
+                               final Path imagePath,
+                               final ClientImage.Type imageType) {
+        this.bytes = imageBytes;
+        this.path = imagePath;
+        this.type = imageType;
+    }
+
+    /**
+     * Returns the encoded bytes, or null if the image is held as a file.
+     */
+    public byte[] getBytes() {
+        return this.bytes;
+    }
+
+    /**
+     * Returns the file of the image, or null if the image is held as bytes.
+     */
+    public Path getPath() {
+        return this.path;
+    }
+
+    /**
+     * Returns the image type.
+     */
+    public ClientImage.Type getType() {
+        return this.type;
+    }
+
+    /**
+     * Sets the encoded bytes of the image. The array is not copied.
+     * @param bytes the encoded image
+     * @return a new instance of {@link Builder}
+     */
+    public static Builder bytes(final byte[] bytes) {
+        Preconditions.checkNotNull(bytes);
+
+        return new Builder(bytes, null);
+    }
+
+    /**
+     * Sets the file holding the encoded image.
+     * @param file the image {@link File}
+     * @return a new instance of {@link Builder}
+     */
+    public static Builder file(final File file) {
+        Preconditions.checkNotNull(file);
+
+        return new Builder(null, file.toPath());
+    }
+
+    /**
+     * Sets the path of the file holding the encoded image.
+     * @param path the image {@link Path}
+     * @return a new instance of {@link Builder}
+     */
+    public static Builder path(final Path path) {
+        Preconditions.checkNotNull(path);
+
+        return new Builder(null, path);
+    }
+
+}
@@ -0,0 +1,190 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.client.internal;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Ticker;
+import org.mifos.sdk.client.ClientCacheOptions;
+import org.mifos.sdk.client.ClientCacheStats;
+import org.mifos.sdk.client.domain.Client;
+import org.mifos.sdk.internal.RestConstants;
+import retrofit.client.Header;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caches clients by client ID, least recently used first out, within a number
+ * of bytes measured by their response bodies. The parsed clients are kept, so a
+ * hit or a 304 Not Modified costs no parsing; they are never handed out as they
+ * are, every caller gets a copy. A client is stored with the generation the cache
+ * had when its request started, and dropped if a client was invalidated in
+ * between, so a read racing a change never caches the old client.
+ */
+final class ClientCache {
+
+    /**
+     * A cached client with its entity tag.
+     */
+    static final class Entry {
+
+        private final Client client;
+        private final String entityTag;
+        private final long weight;
+        private final long storedAt;
+
+        private Entry(final Client cachedClient, final long bodyLength, final String tag, final long time) {
+            this.client = cachedClient;
+            this.entityTag = tag;
+            this.weight = Math.max(bodyLength, 1L);
+            this.storedAt = time;
+        }
+
+        Client getClient() {
+            return this.client;
+        }
+
+        String getEntityTag() {
+            return this.entityTag;
+        }
+
+    }
+
+    private final long maxBytes;
+    private final long ttlNanos;
+    private final Ticker ticker;
+    private final LinkedHashMap<Long, Entry> entries;
+    private long bytes;
+    private long generation;
+    private long hitCount;
+    private long revalidatedCount;
+    private long missCount;
+    private long evictionCount;
+    private long invalidationCount;
+
+    /**
+     * Constructs a new instance of {@link ClientCache}.
+     * @param options the {@link ClientCacheOptions}
+     */
+    ClientCache(final ClientCacheOptions options) {
+        this(options, Ticker.systemTicker());
+    }
+
+    ClientCache(final ClientCacheOptions options, final Ticker clock) {
+        Preconditions.checkNotNull(options);
+        Preconditions.checkNotNull(clock);
+
+        this.maxBytes = options.getMaxBytes();
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(options.getTtl());
+        this.ticker = clock;
+        this.entries = new LinkedHashMap<Long, Entry>(16, 0.75f, true);
+    }
+
+    /**
+     * Returns the generation to pass to {@link #put(Long, Client, long, String, long)}
+     * for a request which starts now.
+     */
+    synchronized long generation() {
+        return this.generation;
+    }
+
+    /**
+     * Returns the cached client, or null.
+     * @param clientId the client ID
+     * @return the {@link Entry} or null
+     */
+    synchronized Entry get(final Long clientId) {
+        return this.entries.get(clientId);
+    }
+
+    /**
+     * Returns whether a cached client can be used without asking the server,
+     * counting the hit if so.
+     * @param entry the {@link Entry}
+     * @return true if the client has no entity tag and its time to live has not run out
+     */
+    synchronized boolean isFresh(final Entry entry) {
+        if (entry.entityTag == null && this.ticker.read() - entry.storedAt < this.ttlNanos) {
+            ++this.hitCount;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Counts a lookup the server answered with 304 Not Modified.
+     */
+    synchronized void revalidated() {
+        ++this.revalidatedCount;
+    }
+
+    /**
+     * Caches a client transferred by the server, unless a client was invalidated
+     * since the given generation.
+     * @param clientId the client ID
+     * @param client the {@link Client}, not changed nor handed out afterwards
+     * @param bodyLength the length of the response body
+     * @param entityTag Optional: the entity tag of the response
+     * @param requestGeneration the {@link #generation()} before the request
+     */
+    synchronized void put(final Long clientId, final Client client, final long bodyLength,
+                          final String entityTag, final long requestGeneration) {
+        ++this.missCount;
+        final Entry entry = new Entry(client, bodyLength, entityTag, this.ticker.read());
+        if (requestGeneration != this.generation || entry.weight > this.maxBytes) {
+            return;
+        }
+        final Entry previous = this.entries.put(clientId, entry);
+        if (previous != null) {
+            this.bytes -= previous.weight;
+        }
+        this.bytes += entry.weight;
+        final Iterator<Entry> eldest = this.entries.values().iterator();
+        while (this.bytes > this.maxBytes && eldest.hasNext()) {
+            this.bytes -= eldest.next().weight;
+            eldest.remove();
+            ++this.evictionCount;
+        }
+    }
+
+    /**
+     * Drops a client after a change.
+     * @param clientId the client ID
+     */
+    synchronized void invalidate(final Long clientId) {
+        ++this.generation;
+        final Entry entry = this.entries.remove(clientId);
+        if (entry != null) {
+            this.bytes -= entry.weight;
+            ++this.invalidationCount;
+        }
+    }
+
+    /**
+     * Returns a snapshot of the counters.
+     * @return the {@link ClientCacheStats}
+     */
+    synchronized ClientCacheStats stats() {
+        return new ClientCacheStats(this.hitCount, this.revalidatedCount, this.missCount, this.evictionCount,
+            this.invalidationCount, this.bytes);
+    }
+
+    /**
+     * Returns the entity tag of a set of response headers, or null.
+     * @param headers the {@link Header}s
+     * @return the entity tag or null
+     */
+    static String entityTag(final Iterable<Header> headers) {
+        for (final Header header : headers) {
+            if (RestConstants.HEADER_ETAG.equalsIgnoreCase(header.getName())) {
+                return header.getValue();
+            }
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,503 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.client.internal;
+
+import com.google.common.base.Objects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.MapMaker;
+import org.mifos.sdk.client.ImageCacheOptions;
+import org.mifos.sdk.client.ImageCacheStats;
+import org.mifos.sdk.client.domain.ClientImage;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Caches the encoded bytes of client images by client ID and requested size.
+ * The memory tier keeps the most recently used images up to a number of bytes;
+ * the images it evicts move to the optional disk tier, which drops its own least
+ * recently used files. The tiers are indexed under the monitor of the cache, but
+ * the files are read, written and deleted outside of it, so a slow disk never
+ * holds up the lookups served from memory.
+ * <p>
+ * Each instance keeps its files in its own directory under a directory of the
+ * tenant, locked for as long as the process runs, and deletes on startup the
+ * directories of the instances whose process is gone. The services of every
+ * session share one instance per {@link ImageCacheOptions} and tenant, see
+ * {@link #shared(ImageCacheOptions, String)}.
+ */
+final class ClientImageCache {
+
+    /**
+     * Identifies an image by the client and the requested size.
+     */
+    static final class Key {
+
+        private final Long clientId;
+        private final Long maxWidth;
+        private final Long maxHeight;
+
+        Key(final Long id, final Long width, final Long height) {
+            this.clientId = id;
+            this.maxWidth = width;
+            this.maxHeight = height;
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            final Key key = (Key) other;
+            return this.clientId.equals(key.clientId) && Objects.equal(this.maxWidth, key.maxWidth)
+                && Objects.equal(this.maxHeight, key.maxHeight);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(this.clientId, this.maxWidth, this.maxHeight);
+        }
+
+        private String fileName(final long sequence) {
+            return this.clientId + "-" + this.maxWidth + "-" + this.maxHeight + "-" + sequence + ".img";
+        }
+
+    }
+
+    /**
+     * The encoded bytes of an image with its type and, if known, its image ID.
+     */
+    static final class Entry {
+
+        private final ClientImage.Type type;
+        private final byte[] bytes;
+        private final Long imageId;
+
+        Entry(final ClientImage.Type imageType, final byte[] imageBytes, final Long id) {
+            this.type = imageType;
+            this.bytes = imageBytes;
+            this.imageId = id;
+        }
+
+        ClientImage.Type getType() {
+            return this.type;
+        }
+
+        byte[] getBytes() {
+            return this.bytes;
+        }
+
+        Long getImageId() {
+            return this.imageId;
+        }
+
+    }
+
+    private static final class DiskEntry {
+
+        private final ClientImage.Type type;
+        private final Path path;
+        private final long size;
+        private final Long imageId;
+
+        private DiskEntry(final ClientImage.Type imageType, final Path filePath, final long fileSize,
+                          final Long id) {
+            this.type = imageType;
+            this.path = filePath;
+            this.size = fileSize;
+            this.imageId = id;
+        }
+
+    }
+
+    /**
+     * An image evicted from memory, to be written to its file outside the monitor.
+     */
+    private static final class PendingWrite {
+
+        private final Key key;
+        private final Entry entry;
+        private final Path path;
+        private final long generation;
+
+        private PendingWrite(final Key evictedKey, final Entry evictedEntry, final Path filePath,
+                             final long evictedGeneration) {
+            this.key = evictedKey;
+            this.entry = evictedEntry;
+            this.path = filePath;
+            this.generation = evictedGeneration;
+        }
+
+    }
+
+    private static final String INSTANCE_PREFIX = "cache-";
+    private static final String LOCK_FILE = ".lock";
+    private static final ConcurrentMap<ImageCacheOptions, ConcurrentMap<String, ClientImageCache>> SHARED =
+        new MapMaker().weakKeys().makeMap();
+
+    private final long maxMemoryBytes;
+    private final Path diskDirectory;
+    // held until the process exits, tells the other instances the directory is in use
+    private final FileLock diskLock;
+    private final long maxDiskBytes;
+    private final LinkedHashMap<Key, Entry> memory;
+    private final LinkedHashMap<Key, DiskEntry> disk;
+    private long memoryBytes;
+    private long diskBytes;
+    // bumped by every invalidation, so that a file read or written meanwhile is dropped
+    private long generation;
+    private long fileSequence;
+    private long hitCount;
+    private long diskHitCount;
+    private long missCount;
+    private long evictionCount;
+
+    /**
+     * Constructs a new instance of {@link ClientImageCache}.
+     * @param options the {@link ImageCacheOptions}
+     * @param tenant the tenant the images belong to
+     */
+    ClientImageCache(final ImageCacheOptions options, final String tenant) {
+        Preconditions.checkNotNull(options);
+        Preconditions.checkNotNull(tenant);
+
+        this.maxMemoryBytes = options.getMaxMemoryBytes();
+        this.maxDiskBytes = options.getMaxDiskBytes();
+        this.memory = new LinkedHashMap<Key, Entry>(16, 0.75f, true);
+        this.disk = new LinkedHashMap<Key, DiskEntry>(16, 0.75f, true);
+        if (options.getDiskDirectory() == null) {
+            this.diskDirectory = null;
+            this.diskLock = null;
+            return;
+        }
+        try {
+            final Path tenantDirectory = options.getDiskDirectory()
+                .resolve(tenant.replaceAll("[^A-Za-z0-9_-]", "_"));
+            Files.createDirectories(tenantDirectory);
+            deleteStaleDirectories(tenantDirectory);
+            this.diskDirectory = Files.createTempDirectory(tenantDirectory, INSTANCE_PREFIX);
+            this.diskLock = FileChannel.open(this.diskDirectory.resolve(LOCK_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE).lock();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Returns the cache of the given options and tenant, creating it on first use.
+     * The cache lives as long as the options, so logging in again or creating
+     * another client with the same properties does not open another directory.
+     * @param options the {@link ImageCacheOptions}
+     * @param tenant the tenant the images belong to
+     * @return the shared {@link ClientImageCache}
+     */
+    static ClientImageCache shared(final ImageCacheOptions options, final String tenant) {
+        Preconditions.checkNotNull(options);
+        Preconditions.checkNotNull(tenant);
+
+        ConcurrentMap<String, ClientImageCache> caches = SHARED.get(options);
+        if (caches == null) {
+            final ConcurrentMap<String, ClientImageCache> created = new ConcurrentHashMap<String, ClientImageCache>();
+            caches = SHARED.putIfAbsent(options, created);
+            if (caches == null) {
+                caches = created;
+            }
+        }
+        ClientImageCache cache = caches.get(tenant);
+        if (cache == null) {
+            // a cache created and thrown away would keep its directory locked
+            synchronized (caches) {
+                cache = caches.get(tenant);
+                if (cache == null) {
+                    cache = new ClientImageCache(options, tenant);
+                    caches.put(tenant, cache);
+                }
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * Returns the directory holding the files of this instance, or null without a disk tier.
+     */
+    Path getDiskDirectory() {
+        return this.diskDirectory;
+    }
+
+    /**
+     * Returns the cached image, or null if it is not cached or was cached with a
+     * different image ID than the given one.
+     * @param key the {@link Key}
+     * @param imageId Optional: the current image ID of the client
+     * @return the {@link Entry} or null
+     */
+    Entry get(final Key key, final Long imageId) {
+        final DiskEntry diskEntry;
+        final long readGeneration;
+        synchronized (this) {
+            final Entry entry = this.memory.get(key);
+            if (entry != null && !isStale(entry.getImageId(), imageId)) {
+                ++this.hitCount;
+                return entry;
+            }
+            if (entry != null) {
+                this.memoryBytes -= this.memory.remove(key).getBytes().length;
+            }
+            // taken out of the index, so no other thread reads or deletes the file
+            diskEntry = this.disk.remove(key);
+            if (diskEntry == null) {
+                ++this.missCount;
+                return null;
+            }
+            this.diskBytes -= diskEntry.size;
+            readGeneration = this.generation;
+        }
+
+        final Entry entry = isStale(diskEntry.imageId, imageId) ? null : readFile(diskEntry);
+        deleteFile(diskEntry.path);
+
+        final List<PendingWrite> evicted;
+        synchronized (this) {
+            final Entry current = this.memory.get(key);
+            if (current != null && !isStale(current.getImageId(), imageId)) {
+                ++this.hitCount;
+                return current;
+            }
+            if (entry == null || readGeneration != this.generation) {
+                ++this.missCount;
+                return null;
+            }
+            ++this.hitCount;
+            ++this.diskHitCount;
+            evicted = this.putMemory(key, entry);
+        }
+        this.writeDisk(evicted);
+        return entry;
+    }
+
+    /**
+     * Caches an image.
+     * @param key the {@link Key}
+     * @param entry the {@link Entry}
+     */
+    void put(final Key key, final Entry entry) {
+        final DiskEntry replaced;
+        final List<PendingWrite> evicted;
+        synchronized (this) {
+            replaced = this.disk.remove(key);
+            if (replaced != null) {
+                this.diskBytes -= replaced.size;
+            }
+            evicted = this.putMemory(key, entry);
+        }
+        if (replaced != null) {
+            deleteFile(replaced.path);
+        }
+        this.writeDisk(evicted);
+    }
+
+    /**
+     * Drops every cached size of the image of a client.
+     * @param clientId the client ID
+     */
+    void invalidate(final Long clientId) {
+        final List<DiskEntry> dropped = new ArrayList<DiskEntry>();
+        synchronized (this) {
+            ++this.generation;
+            final Iterator<Map.Entry<Key, Entry>> memoryEntries = this.memory.entrySet().iterator();
+            while (memoryEntries.hasNext()) {
+                final Map.Entry<Key, Entry> entry = memoryEntries.next();
+                if (entry.getKey().clientId.equals(clientId)) {
+                    this.memoryBytes -= entry.getValue().getBytes().length;
+                    memoryEntries.remove();
+                }
+            }
+            final Iterator<Map.Entry<Key, DiskEntry>> diskEntries = this.disk.entrySet().iterator();
+            while (diskEntries.hasNext()) {
+                final Map.Entry<Key, DiskEntry> entry = diskEntries.next();
+                if (entry.getKey().clientId.equals(clientId)) {
+                    this.diskBytes -= entry.getValue().size;
+                    dropped.add(entry.getValue());
+                    diskEntries.remove();
+                }
+            }
+        }
+        for (final DiskEntry diskEntry : dropped) {
+            deleteFile(diskEntry.path);
+        }
+    }
+
+    /**
+     * Returns a snapshot of the counters.
+     * @return the {@link ImageCacheStats}
+     */
+    synchronized ImageCacheStats stats() {
+        return new ImageCacheStats(this.hitCount, this.diskHitCount, this.missCount, this.evictionCount,
+            this.memoryBytes, this.diskBytes);
+    }
+
+    private static boolean isStale(final Long cachedImageId, final Long imageId) {
+        return cachedImageId != null && imageId != null && !cachedImageId.equals(imageId);
+    }
+
+    /**
+     * Caches an image in memory, under the monitor.
+     * @return the evicted images to write to disk
+     */
+    private List<PendingWrite> putMemory(final Key key, final Entry entry) {
+        final Entry previous = this.memory.put(key, entry);
+        if (previous != null) {
+            this.memoryBytes -= previous.getBytes().length;
+        }
+        this.memoryBytes += entry.getBytes().length;
+        List<PendingWrite> evicted = Collections.emptyList();
+        final Iterator<Map.Entry<Key, Entry>> eldest = this.memory.entrySet().iterator();
+        while (this.memoryBytes > this.maxMemoryBytes && eldest.hasNext()) {
+            final Map.Entry<Key, Entry> evictedEntry = eldest.next();
+            eldest.remove();
+            this.memoryBytes -= evictedEntry.getValue().getBytes().length;
+            ++this.evictionCount;
+            if (this.diskDirectory != null && evictedEntry.getValue().getBytes().length <= this.maxDiskBytes) {
+                if (evicted.isEmpty()) {
+                    evicted = new ArrayList<PendingWrite>();
+                }
+                // a file name of its own, a write still running for the same key is never overwritten
+                evicted.add(new PendingWrite(evictedEntry.getKey(), evictedEntry.getValue(),
+                    this.diskDirectory.resolve(evictedEntry.getKey().fileName(++this.fileSequence)),
+                    this.generation));
+            }
+        }
+        return evicted;
+    }
+
+    private static Entry readFile(final DiskEntry diskEntry) {
+        try {
+            return new Entry(diskEntry.type, Files.readAllBytes(diskEntry.path), diskEntry.imageId);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Writes the evicted images outside the monitor, then adds them to the disk tier
+     * unless they were invalidated or cached again in the meantime.
+     */
+    private void writeDisk(final List<PendingWrite> evicted) {
+        for (final PendingWrite pending : evicted) {
+            try {
+                Files.write(pending.path, pending.entry.getBytes());
+            } catch (IOException e) {
+                deleteFile(pending.path);
+                continue;
+            }
+            final long size = pending.entry.getBytes().length;
+            final List<Path> dropped = new ArrayList<Path>();
+            synchronized (this) {
+                if (pending.generation != this.generation || this.memory.containsKey(pending.key)
+                    || this.disk.containsKey(pending.key)) {
+                    dropped.add(pending.path);
+                } else {
+                    this.diskBytes += size;
+                    this.disk.put(pending.key, new DiskEntry(pending.entry.getType(), pending.path, size,
+                        pending.entry.getImageId()));
+                    final Iterator<DiskEntry> eldest = this.disk.values().iterator();
+                    while (this.diskBytes > this.maxDiskBytes && eldest.hasNext()) {
+                        final DiskEntry evictedEntry = eldest.next();
+                        eldest.remove();
+                        this.diskBytes -= evictedEntry.size;
+                        dropped.add(evictedEntry.path);
+                    }
+                }
+            }
+            for (final Path path : dropped) {
+                deleteFile(path);
+            }
+        }
+    }
+
+    /**
+     * Deletes the directories of the instances whose lock is no longer held. A directory
+     * without a lock file yet belongs to an instance being created and is left alone.
+     */
+    private static void deleteStaleDirectories(final Path tenantDirectory) throws IOException {
+        final DirectoryStream<Path> directories = Files.newDirectoryStream(tenantDirectory, INSTANCE_PREFIX + "*");
+        try {
+            for (final Path directory : directories) {
+                final Path lockFile = directory.resolve(LOCK_FILE);
+                if (Files.isDirectory(directory) && Files.exists(lockFile) && isStale(lockFile)) {
+                    deleteTree(directory);
+                }
+            }
+        } finally {
+            directories.close();
+        }
+    }
+
+    private static boolean isStale(final Path lockFile) throws IOException {
+        final FileChannel channel;
+        try {
+            channel = FileChannel.open(lockFile, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            return false;
+        }
+        try {
+            final FileLock lock = channel.tryLock();
+            if (lock == null) {
+                return false;
+            }
+            lock.release();
+            return true;
+        } catch (OverlappingFileLockException e) {
+            return false;
+        } finally {
+            channel.close();
+        }
+    }
+
+    private static void deleteTree(final Path directory) throws IOException {
+        Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(final Path file, final BasicFileAttributes attributes)
+                throws IOException {
+                Files.deleteIfExists(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(final Path dir, final IOException e) throws IOException {
+                Files.deleteIfExists(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private static void deleteFile(final Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            // the file is no longer referenced, a leftover is deleted with the directory
+            // once this instance is gone
+        }
+    }
+
+}
@@ -0,0 +1,190 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.client.internal;
+
+import org.apache.commons.codec.binary.Base64InputStream;
+import org.apache.commons.codec.binary.Base64OutputStream;
+import org.mifos.sdk.client.domain.ClientImage;
+import org.mifos.sdk.client.domain.EncodedClientImage;
+import retrofit.mime.TypedOutput;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+
+/**
+ * Reads and writes the Base64 data URIs, such as "data:image/png;base64,...",
+ * in which the Clients API exchanges images, decoding and encoding them while
+ * they are streamed.
+ */
+final class ImageDataUri {
+
+    private static final int MAX_HEADER_LENGTH = 64;
+    private static final int BUFFER_SIZE = 8192;
+
+    private ImageDataUri() {}
+
+    /**
+     * Returns a request body writing the given image as a data URI. The image is
+     * Base64 encoded while it is written, so the data URI is never held in memory.
+     * @param image the {@link EncodedClientImage}
+     * @return a {@link TypedOutput} of the data URI
+     */
+    static TypedOutput encode(final EncodedClientImage image) {
+        return new EncodingTypedOutput(image);
+    }
+
+    /**
+     * Reads the header of the data URI up to and including the comma.
+     * @param in the {@link InputStream} positioned at the start of the data URI
+     * @return the {@link ClientImage.Type} of the header, or null if not supported
+     * @throws IOException
+     */
+    static ClientImage.Type readType(final InputStream in) throws IOException {
+        final StringBuilder header = new StringBuilder(MAX_HEADER_LENGTH);
+        int c;
+        while ((c = in.read()) != ',') {
+            if (c == -1 || header.length() == MAX_HEADER_LENGTH) {
+                throw new IOException("The server response is not an image data URI.");
+            }
+            header.append((char) c);
+        }
+
+        final String uri = header.toString();
+        for (final ClientImage.Type type : ClientImage.Type.values()) {
+            if (uri.startsWith("data:image/" + type.getTypeString())) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns an {@link InputStream} decoding the Base64 data following the header.
+     * @param in the {@link InputStream} positioned after the header
+     */
+    static InputStream decode(final InputStream in) {
+        return new Base64InputStream(in);
+    }
+
+    /**
+     * Decodes the Base64 data following the header into the given {@link OutputStream}.
+     * @param in the {@link InputStream} positioned after the header
+     * @param out the {@link OutputStream} receiving the image bytes
+     * @throws IOException
+     */
+    static void decodeTo(final InputStream in, final OutputStream out) throws IOException {
+        final InputStream decoded = decode(in);
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        while ((read = decoded.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+    }
+
+    /**
+     * Decodes the Base64 data following the header into the given {@link ByteBuffer}.
+     * @param in the {@link InputStream} positioned after the header
+     * @param out the {@link ByteBuffer} receiving the image bytes
+     * @throws IOException
+     * @throws BufferOverflowException if the image does not fit in the buffer
+     */
+    static void decodeTo(final InputStream in, final ByteBuffer out) throws IOException {
+        final InputStream decoded = decode(in);
+        if (out.hasArray()) {
+            int read;
+            while (out.hasRemaining()
+                && (read = decoded.read(out.array(), out.arrayOffset() + out.position(), out.remaining())) != -1) {
+                out.position(out.position() + read);
+            }
+            if (!out.hasRemaining() && decoded.read() != -1) {
+                throw new BufferOverflowException();
+            }
+            return;
+        }
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        while ((read = decoded.read(buffer)) != -1) {
+            out.put(buffer, 0, read);
+        }
+    }
+
+    /**
+     * Writes the data URI of an {@link EncodedClientImage}. Its length is known up
+     * front, so the request is not chunked, and it can be written more than once.
+     */
+    private static final class EncodingTypedOutput implements TypedOutput {
+
+        private final EncodedClientImage image;
+        private final byte[] header;
+
+        private EncodingTypedOutput(final EncodedClientImage encodedImage) {
+            this.image = encodedImage;
+            this.header = ("data:image/" + encodedImage.getType().getTypeString() + ";base64,")
+                .getBytes(Charset.forName("US-ASCII"));
+        }
+
+        @Override
+        public String fileName() {
+            return null;
+        }
+
+        @Override
+        public String mimeType() {
+            return "text/plain; charset=UTF-8";
+        }
+
+        @Override
+        public long length() {
+            final long size;
+            try {
+                size = this.image.getBytes() != null ? this.image.getBytes().length
+                    : Files.size(this.image.getPath());
+            } catch (IOException e) {
+                return -1;
+            }
+            return this.header.length + (size + 2) / 3 * 4;
+        }
+
+        @Override
+        public void writeTo(final OutputStream out) throws IOException {
+            out.write(this.header);
+            final OutputStream encoder = new Base64OutputStream(new FilterOutputStream(out) {
+                @Override
+                public void write(final byte[] b, final int off, final int len) throws IOException {
+                    this.out.write(b, off, len);
+                }
+
+                @Override
+                public void close() throws IOException {
+                    this.out.flush();
+                }
+            }, true, 0, null);
+            if (this.image.getBytes() != null) {
+                encoder.write(this.image.getBytes());
+            } else {
+                final InputStream in = Files.newInputStream(this.image.getPath());
+                try {
+                    final byte[] buffer = new byte[BUFFER_SIZE];
+                    int read;
+                    while ((read = in.read(buffer)) != -1) {
+                        encoder.write(buffer, 0, read);
+                    }
+                } finally {
+                    in.close();
+                }
+            }
+            encoder.close();
+        }
+
+    }
+
+}
@@ -0,0 +1,449 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.client.internal;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import org.mifos.sdk.MifosXConnectException;
+import org.mifos.sdk.MifosXResourceException;
+import org.mifos.sdk.client.AsyncClientService;
+import org.mifos.sdk.client.ClientService;
+import org.mifos.sdk.client.domain.Client;
+import org.mifos.sdk.client.domain.ClientIdentifier;
+import org.mifos.sdk.client.domain.ClientImage;
+import org.mifos.sdk.client.domain.PageableClients;
+import org.mifos.sdk.client.domain.commands.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Implements {@link AsyncClientService} by running the calls of a blocking {@link ClientService}
+ * on an {@link ExecutorService}, so errors are mapped exactly as in the blocking API.
+ */
+public class RestAsyncClientService implements AsyncClientService {
+
+    private final ClientService clientService;
+    private final ListeningExecutorService executor;
+
+    /**
+     * Constructs a new instance of {@link RestAsyncClientService} with the provided
+     * service and executor.
+     * @param service the blocking {@link ClientService} to delegate to
+     * @param executorService the {@link ExecutorService} which runs the calls
+     */
+    public RestAsyncClientService(final ClientService service,
+                                  final ExecutorService executorService) {
+        super();
+
+        Preconditions.checkNotNull(service);
+        Preconditions.checkNotNull(executorService);
+
+        this.clientService = service;
+        this.executor = MoreExecutors.listeningDecorator(executorService);
+    }
+
+    /**
+     * Creates a new client.
+     * @param client the {@link Client} to create
+     * @return a {@link ListenableFuture} of a {@link Client} with the response parameters
+     */
+    @Override
+    public ListenableFuture<Client> createClient(final Client client) {
+        return this.executor.submit(new Callable<Client>() {
+            @Override
+            public Client call() throws MifosXConnectException, MifosXResourceException {
+                return clientService.createClient(client);
+            }
+        });
+    }
+
+    /**
+     * Retrieves all available clients.
+     * @param queryMap an {@link Map} with all the query parameters
+     * @return a {@link ListenableFuture} of a {@link PageableClients} with the list of {@link Client}s
+     */
+    @Override
+    public ListenableFuture<PageableClients> fetchClients(final Map<String, Object> queryMap) {
+        return this.executor.submit(new Callable<PageableClients>() {
+            @Override
+            public PageableClients call() throws MifosXConnectException {
+                return clientService.fetchClients(queryMap);
+            }
+        });
+    }
+
+    /**
+     * Retrieves one particular client.
+     * @param clientId the client ID
+     * @return a {@link ListenableFuture} of a {@link Client} with all the details of the searched client
+     */
+    @Override
+    public ListenableFuture<Client> findClient(final Long clientId) {
+        return this.executor.submit(new Callable<Client>() {
+            @Override
+            public Client call() throws MifosXConnectException, MifosXResourceException {
+                return clientService.findClient(clientId);
+            }
+        });
+    }
+
+    /**
+     * Updates one particular client.
+     * @param clientId the client ID
+     * @param client a {@link Client} object with all the changes to be made
+     * @return a {@link ListenableFuture} completed once the operation finishes
+     */
+    @Override
+    public ListenableFuture<Void> updateClient(final Long clientId, final Client client) {
+        return this.executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws MifosXConnectException, MifosXResourceException {
+                clientService.updateClient(clientId, client);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Deletes one particular client.
+     * @param clientId the client ID
+     * @return a {@link ListenableFuture} completed once the operation finishes
+     */
+    @Override
+    public ListenableFuture<Void> deleteClient(final Long clientId) {
+        return this.executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws MifosXConnectException, MifosXResourceException {
+                clientService.deleteClient(clientId);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Activates a pending client or results in an error if the client is already activated.
+     * @param clientId the client ID
+     * @param command the {@link org.mifos.sdk.client.domain.commands.ActivateClientCommand} command
+     * @return a {@link ListenableFuture} completed once the operation finishes
+     */
+    @Override
+    public ListenableFuture<Void> activateClient(final Long clientId, final ActivateClientCommand command) {
+        return this.executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws MifosXConnectException, MifosXResourceException {
+                clientService.activateClient(clientId, command);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Closes a client.
+     * @param clientId the client ID
+     * @param command the {@link org.mifos.sdk.client.domain.commands.CloseClientCommand} command
+     * @return a {@link ListenableFuture} completed once the operation finishes
+     */
+    @Override
+    public ListenableFuture<Void> closeClient(final Long clientId, final CloseClientCommand command) {
+        return this.executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws MifosXConnectException, MifosXResourceException {
+                clientService.closeClient(clientId, command);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Assigns staff to the client.
+     * @param clientId the client ID
+     * @param command the {@link org.mifos.sdk.client.domain.commands.AssignUnassignStaffCommand} command
+     * @return a {@link ListenableFuture} completed once the operation finishes
+     */
+    @Override
+    public ListenableFuture<Void> assignStaff(final Long clientId, final AssignUnassignStaffCommand command) {
+        return this.executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws MifosXConnectException, MifosXResourceException {
+                clientService.assignStaff(clientId, command);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Unassigns staff from the client.
+     * @param clientId the client ID
+     * @param command the {@link org.mifos.sdk.client.domain.commands.AssignUnassignStaffCommand} command
+     * @return a {@link ListenableFuture} completed once the operation finishes
+     */
+    @Override
+    public ListenableFuture<Void> unassignStaff(final Long clientId, final AssignUnassignStaffCommand command) {
+        return this.executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws MifosXConnectException, MifosXResourceException {
+                clientService.unassignStaff(clientId, command);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Updates the savings account of the client.
+     * @param clientId the client ID
+     * @param command the {@link org.mifos.sdk.client.domain.commands.UpdateSavingsAccountCommand} command
+     * @return a {@link ListenableFuture} completed once the operation finishes
+     */
+    @Override
+    public ListenableFuture<Void> updateSavingsAccount(final Long clientId, final UpdateSavingsAccountCommand command) {
+        return this.executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws MifosXConnectException, MifosXResourceException {
+                clientService.updateSavingsAccount(clientId, command);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Proposes the transfer of the client.
+     * @param clientId the client ID
+     * @param command the {@link org.mifos.sdk.client.domain.commands.ProposeClientTransferCommand} command
+     * @return a {@link ListenableFuture} completed once the operation finishes
+     */
+    @Override
+    public ListenableFuture<Void> proposeTransfer(final Long clientId, final ProposeClientTransferCommand command) {
+        return this.executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws MifosXConnectException, MifosXResourceException {
+                clientService.proposeTransfer(clientId, command);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Withdraws transfer of the client.
+     * @param clientId the client ID
+     * @param command the {@link org.mifos.sdk.client.domain.commands.WithdrawRejectClientTransferCommand} command
+     * @return a {@link ListenableFuture} completed once the operation finishes
+     */
+    @Override
+    public ListenableFuture<Void> withdrawTransfer(final Long clientId, final WithdrawRejectClientTransferCommand command) {
+        return this.executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws MifosXConnectException, MifosXResourceException {
+                clientService.withdrawTransfer(clientId, command);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Rejects transfer of the client.
+     * @param clientId the client ID
+     * @param command the {@link org.mifos.sdk.client.domain.commands.WithdrawRejectClientTransferCommand} command
+     * @return a {@link ListenableFuture} completed once the operation finishes
+     */
+    @Override
+    public ListenableFuture<Void> rejectTransfer(final Long clientId, final WithdrawRejectClientTransferCommand command) {
+        return this.executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws MifosXConnectException, MifosXResourceException {
+                clientService.rejectTransfer(clientId, command);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Accepts the transfer of the client.
+     * @param clientId the client ID
+     * @param command the {@link org.mifos.sdk.client.domain.commands.AcceptClientTransferCommand} command
+     * @return a {@link ListenableFuture} completed once the operation finishes
+     */
+    @Override
+    public ListenableFuture<Void> acceptTransfer(final Long clientId, final AcceptClientTransferCommand command) {
+        return this.executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws MifosXConnectException, MifosXResourceException {
+                clientService.acceptTransfer(clientId, command);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Proposes and accepts the transfer of the client.
+     * @param clientId the client ID
+     * @param command the {@link org.mifos.sdk.client.domain.commands.ProposeAndAcceptClientTransferCommand} command
+     * @return a {@link ListenableFuture} completed once the operation finishes
+     */
+    @Override
+    public ListenableFuture<Void> proposeAndAcceptTransfer(final Long clientId, final ProposeAndAcceptClientTransferCommand command) {
+        return this.executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws MifosXConnectException, MifosXResourceException {
+                clientService.proposeAndAcceptTransfer(clientId, command);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Creates a new identifier for the client.
+     * @param clientId the client ID
+     * @param identifier a {@link ClientIdentifier} with the details of the identifier to create
+     * @return a {@link ListenableFuture} of a {@link ClientIdentifier} with the server response parameters
+     */
+    @Override
+    public ListenableFuture<ClientIdentifier> createIdentifier(final Long clientId, final ClientIdentifier identifier) {
+        return this.executor.submit(new Callable<ClientIdentifier>() {
+            @Override
+            public ClientIdentifier call() throws MifosXConnectException, MifosXResourceException {
+                return clientService.createIdentifier(clientId, identifier);
+            }
+        });
+    }
+
+    /**
+     * Retrieves all the identifiers for the client.
+     * @param clientId the client ID
+     * @return a {@link ListenableFuture} of a list of {@link ClientIdentifier}
+     */
+    @Override
+    public ListenableFuture<List<ClientIdentifier>> fetchIdentifiers(final Long clientId) {
+        return this.executor.submit(new Callable<List<ClientIdentifier>>() {
+            @Override
+            public List<ClientIdentifier> call() throws MifosXConnectException, MifosXResourceException {
+                return clientService.fetchIdentifiers(clientId);
+            }
+        });
+    }
+
+    /**
+     * Retrieves a particular identifier.
+     * @param clientId the client ID
+     * @param identifierId the identifier ID to retrieve
+     * @return a {@link ListenableFuture} of a {@link ClientIdentifier} with the details of the identifier searched for
+     */
+    @Override
+    public ListenableFuture<ClientIdentifier> findIdentifier(final Long clientId, final Long identifierId) {
+        return this.executor.submit(new Callable<ClientIdentifier>() {
+            @Override
+            public ClientIdentifier call() throws MifosXConnectException, MifosXResourceException {
+                return clientService.findIdentifier(clientId, identifierId);
+            }
+        });
+    }
+
+    /**
+     * Updates a particular identifer.
+     * @param clientId the client ID
+     * @param identifierId the identifier ID
+     * @param identifier a {@link ClientIdentifier} with the details to update
+     * @return a {@link ListenableFuture} completed once the operation finishes
+     */
+    @Override
+    public ListenableFuture<Void> updateIdentifier(final Long clientId, final Long identifierId, final ClientIdentifier identifier) {
+        return this.executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws MifosXConnectException, MifosXResourceException {
+                clientService.updateIdentifier(clientId, identifierId, identifier);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Deletes a particular identifier.
+     * @param clientId the client ID
+     * @param identifierId the identifier ID
+     * @return a {@link ListenableFuture} completed once the operation finishes
+     */
+    @Override
+    public ListenableFuture<Void> deleteIdentifier(final Long clientId, final Long identifierId) {
+        return this.executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws MifosXConnectException, MifosXResourceException {
+                clientService.deleteIdentifier(clientId, identifierId);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Uploads a client image.
+     * @param clientId the client ID
+     * @param clientImage the {@link ClientImage}
+     * @return a {@link ListenableFuture} of a {@link ClientImage} with the resource ID
+     */
+    @Override
+    public ListenableFuture<ClientImage> uploadImage(final Long clientId, final ClientImage clientImage) {
+        return this.executor.submit(new Callable<ClientImage>() {
+            @Override
+            public ClientImage call() throws MifosXConnectException, MifosXResourceException {
+                return clientService.uploadImage(clientId, clientImage);
+            }
+        });
+    }
+
+    /**
+     * Retrieves a client image.
+     * @param clientId the client ID
+     * @param maxWidth Optional: the maximum width of the image
+     * @param maxHeight Optional: the maximum height of the image
+     * @return a {@link ListenableFuture} of a {@link ClientImage} with the image and the type if found, null otherwise
+     */
+    @Override
+    public ListenableFuture<ClientImage> findImage(final Long clientId, final Long maxWidth, final Long maxHeight) {
+        return this.executor.submit(new Callable<ClientImage>() {
+            @Override
+            public ClientImage call() throws MifosXConnectException, MifosXResourceException {
+                return clientService.findImage(clientId, maxWidth, maxHeight);
+            }
+        });
+    }
+
+    /**
+     * Updates a client image.
+     * @param clientId the client ID
+     * @param clientImage the {@link ClientImage}
+     * @return a {@link ListenableFuture} completed once the operation finishes
+     */
+    @Override
+    public ListenableFuture<Void> updateImage(final Long clientId, final ClientImage clientImage) {
+        return this.executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws MifosXConnectException, MifosXResourceException {
+                clientService.updateImage(clientId, clientImage);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Deletes a client image.
+     * @param clientId the client ID
+     * @return a {@link ListenableFuture} completed once the operation finishes
+     */
+    @Override
+    public ListenableFuture<Void> deleteImage(final Long clientId) {
+        return this.executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws MifosXConnectException, MifosXResourceException {
+                clientService.deleteImage(clientId);
+                return null;
+            }
+        });
+    }
+
+}
@@ -0,0 +1,102 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.client.internal;
+
+import com.google.common.base.Preconditions;
+import org.mifos.sdk.BatchOptions;
+import org.mifos.sdk.MifosXProperties;
+import org.mifos.sdk.client.ClientCommandBatch;
+import org.mifos.sdk.client.domain.commands.*;
+import org.mifos.sdk.internal.ErrorCode;
+import org.mifos.sdk.internal.RestCommandBatch;
+import org.mifos.sdk.internal.RetrofitBatchService;
+
+import java.util.List;
+
+/**
+ * Implements {@link ClientCommandBatch} for a {@link RestClientService}, which
+ * drops its cached clients once their commands were submitted.
+ */
+final class RestClientCommandBatch extends RestCommandBatch implements ClientCommandBatch {
+
+    private final RestClientService clientService;
+
+    RestClientCommandBatch(final RestClientService service, final MifosXProperties properties,
+                           final RetrofitBatchService batchService, final String authKey,
+                           final BatchOptions options) {
+        super(properties, batchService, authKey, options, ErrorCode.CLIENT_NOT_FOUND);
+
+        this.clientService = service;
+    }
+
+    @Override
+    public ClientCommandBatch activate(final Long clientId, final ActivateClientCommand command) {
+        return this.command(clientId, "activate", command);
+    }
+
+    @Override
+    public ClientCommandBatch close(final Long clientId, final CloseClientCommand command) {
+        return this.command(clientId, "close", command);
+    }
+
+    @Override
+    public ClientCommandBatch assignStaff(final Long clientId, final AssignUnassignStaffCommand command) {
+        return this.command(clientId, "assignStaff", command);
+    }
+
+    @Override
+    public ClientCommandBatch unassignStaff(final Long clientId, final AssignUnassignStaffCommand command) {
+        return this.command(clientId, "unassignStaff", command);
+    }
+
+    @Override
+    public ClientCommandBatch updateSavingsAccount(final Long clientId, final UpdateSavingsAccountCommand command) {
+        return this.command(clientId, "updateSavingsAccount", command);
+    }
+
+    @Override
+    public ClientCommandBatch proposeTransfer(final Long clientId, final ProposeClientTransferCommand command) {
+        return this.command(clientId, "proposeTransfer", command);
+    }
+
+    @Override
+    public ClientCommandBatch withdrawTransfer(final Long clientId,
+                                               final WithdrawRejectClientTransferCommand command) {
+        return this.command(clientId, "withdrawTransfer", command);
+    }
+
+    @Override
+    public ClientCommandBatch rejectTransfer(final Long clientId,
+                                             final WithdrawRejectClientTransferCommand command) {
+        return this.command(clientId, "rejectTransfer", command);
+    }
+
+    @Override
+    public ClientCommandBatch acceptTransfer(final Long clientId, final AcceptClientTransferCommand command) {
+        return this.command(clientId, "acceptTransfer", command);
+    }
+
+    @Override
+    public ClientCommandBatch proposeAndAcceptTransfer(final Long clientId,
+                                                       final ProposeAndAcceptClientTransferCommand command) {
+        return this.command(clientId, "proposeAndAcceptTransfer", command);
+    }
+
+    @Override
+    protected void submitted(final List<Long> clientIds) {
+        for (final Long clientId : clientIds) {
+            this.clientService.invalidateClient(clientId);
+        }
+    }
+
+    private ClientCommandBatch command(final Long clientId, final String command, final Object body) {
+        Preconditions.checkNotNull(clientId);
+        Preconditions.checkNotNull(body);
+        this.add(clientId, "clients/" + clientId + "?command=" + command, body);
+        return this;
+    }
+
+}
@@ -7,25 +7,40 @@ package org.mifos.sdk.client.internal;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableMap;
-import com.squareup.okhttp.OkHttpClient;
+import com.google.common.io.ByteStreams;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
 import org.apache.commons.codec.binary.Base64;
+import org.mifos.sdk.BatchOptions;
 import org.mifos.sdk.MifosXConnectException;
 import org.mifos.sdk.MifosXProperties;
 import org.mifos.sdk.MifosXResourceException;
+import org.mifos.sdk.PageIterator;
+import org.mifos.sdk.PagingOptions;
+import org.mifos.sdk.client.ClientCacheStats;
+import org.mifos.sdk.client.ClientCommandBatch;
+import org.mifos.sdk.client.ClientImageCallback;
 import org.mifos.sdk.client.ClientService;
+import org.mifos.sdk.client.ImageCacheStats;
 import org.mifos.sdk.client.domain.Client;
 import org.mifos.sdk.client.domain.ClientIdentifier;
 import org.mifos.sdk.client.domain.ClientImage;
+import org.mifos.sdk.client.domain.EncodedClientImage;
 import org.mifos.sdk.client.domain.PageableClients;
 import org.mifos.sdk.client.domain.commands.*;
+import org.mifos.sdk.internal.BoundedFanOut;
 import org.mifos.sdk.internal.ErrorCode;
+import org.mifos.sdk.internal.NotFoundCache;
+import org.mifos.sdk.internal.ParallelPageFetcher;
+import org.mifos.sdk.internal.PrefetchingPageIterator;
+import org.mifos.sdk.internal.PrefetchingPageIterator.Page;
+import org.mifos.sdk.internal.RetrofitBatchService;
 import org.mifos.sdk.internal.ServerResponseUtil;
+import org.mifos.sdk.internal.SingleFlight;
+import org.mifos.sdk.internal.serializers.ClientSerializer;
 import retrofit.RestAdapter;
 import retrofit.RetrofitError;
-import retrofit.client.OkClient;
-import retrofit.converter.ConversionException;
-import retrofit.converter.Converter;
-import retrofit.mime.TypedInput;
+import retrofit.client.Response;
 import retrofit.mime.TypedOutput;
 import retrofit.mime.TypedString;
 
@@ -34,10 +49,17 @@ import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.lang.reflect.Type;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Scanner;
+import java.util.concurrent.ExecutorService;
 
 /**
  * Implements {@link ClientService} and the inner lying methods
@@ -45,9 +67,19 @@ import java.util.Scanner;
  */
 public class RestClientService implements ClientService {
 
+    private static final ClientSerializer CLIENT_ADAPTER = new ClientSerializer();
+
     private final MifosXProperties connectionProperties;
     private final RestAdapter restAdapter;
     private final String authenticationKey;
+    private final ClientImageCache imageCache;
+    private final ClientCache clientCache;
+    private final NotFoundCache notFoundCache;
+    private final SingleFlight<Long, Client> clientFlight = new SingleFlight<Long, Client>();
+    private final SingleFlight<Long, List<ClientIdentifier>> identifiersFlight =
+        new SingleFlight<Long, List<ClientIdentifier>>();
+    private volatile RetrofitClientService retrofitClientService;
+    private volatile RetrofitBatchService retrofitBatchService;
 
     /**
      * Constructs a new instance of {@link RestClientService} with the
@@ -68,6 +100,11 @@ public class RestClientService implements ClientService {
         this.connectionProperties = properties;
         this.authenticationKey = "Basic " + authKey;
         this.restAdapter = adapter;
+        this.imageCache = properties.getImageCache() == null ? null
+            : ClientImageCache.shared(properties.getImageCache(), properties.getTenant());
+        this.clientCache = properties.getClientCache() == null ? null
+            : new ClientCache(properties.getClientCache());
+        this.notFoundCache = new NotFoundCache(properties.getNotFoundCache());
     }
 
     /**
@@ -79,11 +116,12 @@ public class RestClientService implements ClientService {
      */
     public Client createClient(Client client) throws MifosXConnectException, MifosXResourceException {
         Preconditions.checkNotNull(client);
-        final RetrofitClientService clientService = this.restAdapter.create(RetrofitClientService.class);
+        final RetrofitClientService clientService = this.retrofitService();
         Client responseClient = null;
         try {
             responseClient = clientService.createClient(this.authenticationKey,
                     this.connectionProperties.getTenant(), client);
+            this.notFoundCache.forget(responseClient == null ? null : responseClient.getClientId());
         } catch (RetrofitError error) {
             if (error.getKind() == RetrofitError.Kind.NETWORK) {
                 throw new MifosXConnectException(ErrorCode.NOT_CONNECTED);
@@ -107,7 +145,7 @@ public class RestClientService implements ClientService {
      * @throws MifosXConnectException
      */
     public PageableClients fetchClients(Map<String, Object> queryMap) throws MifosXConnectException {
-        final RetrofitClientService clientService = this.restAdapter.create(RetrofitClientService.class);
+        final RetrofitClientService clientService = this.retrofitService();
         PageableClients clients = null;
         try {
             clients = clientService.fetchClients(this.authenticationKey,
@@ -125,6 +163,51 @@ public class RestClientService implements ClientService {
         return clients;
     }
 
+    /**
+     * Lazily iterates over all the clients matching the query, page by page.
+     * @param queryMap Optional: a {@link Map} with the query parameters, the offset and limit are overridden
+     * @param options the {@link PagingOptions} with the page size and prefetch settings
+     * @return a {@link PageIterator} over the {@link Client}s
+     */
+    public PageIterator<Client> iterateClients(final Map<String, Object> queryMap, final PagingOptions options) {
+        Preconditions.checkNotNull(options);
+        return new PrefetchingPageIterator<Client>(options) {
+            @Override
+            protected Page<Client> fetchPage(final long offset, final int limit) throws MifosXConnectException {
+                return fetchClientsPage(queryMap, offset, limit);
+            }
+        };
+    }
+
+    /**
+     * Retrieves all the clients matching the query. Once the first page reports the total
+     * number of records, the remaining pages are fetched in parallel.
+     * @param queryMap Optional: a {@link Map} with the query parameters, the offset and limit are overridden
+     * @param options the {@link PagingOptions} with the page size, parallelism and ordering
+     * @return a {@link List} with all the {@link Client}s
+     * @throws MifosXConnectException
+     */
+    public List<Client> fetchAllClients(final Map<String, Object> queryMap, final PagingOptions options)
+        throws MifosXConnectException {
+        Preconditions.checkNotNull(options);
+        return new ParallelPageFetcher<Client>(options) {
+            @Override
+            protected Page<Client> fetchPage(final long offset, final int limit) throws MifosXConnectException {
+                return fetchClientsPage(queryMap, offset, limit);
+            }
+        }.fetchAll();
+    }
+
+    private Page<Client> fetchClientsPage(final Map<String, Object> queryMap, final long offset,
+                                          final int limit) throws MifosXConnectException {
+        final Map<String, Object> pageQueryMap = queryMap == null ? new HashMap<String, Object>()
+            : new HashMap<String, Object>(queryMap);
+        pageQueryMap.put("offset", offset);
+        pageQueryMap.put("limit", limit);
+        final PageableClients clients = fetchClients(pageQueryMap);
+        return new Page<Client>(clients.getClients(), clients.getTotalFilteredRecords());
+    }
+
     /**
      * Retrieves one particular staff.
      * @param clientId the client ID
@@ -132,9 +215,28 @@ public class RestClientService implements ClientService {
      * @throws MifosXConnectException
      * @throws MifosXResourceException
      */
-    public Client findClient(Long clientId) throws MifosXConnectException, MifosXResourceException {
+    public Client findClient(final Long clientId) throws MifosXConnectException, MifosXResourceException {
         Preconditions.checkNotNull(clientId);
-        final RetrofitClientService clientService = this.restAdapter.create(RetrofitClientService.class);
+        final Client client = this.clientFlight.execute(clientId, new SingleFlight.Call<Client>() {
+            @Override
+            public Client call() throws MifosXConnectException, MifosXResourceException {
+                return requestClient(clientId);
+            }
+        });
+        // the coalesced callers share the result, which may be the cached client,
+        // so each one gets its own copy
+        return client == null ? null : client.copy();
+    }
+
+    private Client requestClient(Long clientId) throws MifosXConnectException, MifosXResourceException {
+        if (this.notFoundCache.contains(clientId)) {
+            throw new MifosXResourceException(ErrorCode.CLIENT_NOT_FOUND);
+        }
+        final long notFoundGeneration = this.notFoundCache.generation();
+        if (this.clientCache != null) {
+            return this.findCachedClient(clientId, notFoundGeneration);
+        }
+        final RetrofitClientService clientService = this.retrofitService();
         Client responseClient = null;
         try {
             responseClient = clientService.findClient(this.authenticationKey,
@@ -149,14 +251,74 @@ public class RestClientService implements ClientService {
                 final String message = ServerResponseUtil.parseResponse(error.getResponse());
                 throw new MifosXResourceException(message);
             } else if (error.getResponse().getStatus() == 404) {
+                this.notFoundCache.put(clientId, notFoundGeneration);
+                throw new MifosXResourceException(ErrorCode.CLIENT_NOT_FOUND);
+            } else {
+                throw new MifosXConnectException(ErrorCode.UNKNOWN);
+            }
+        }
+        return responseClient;
+    }
+
+    private Client findCachedClient(Long clientId, long notFoundGeneration) throws MifosXConnectException, MifosXResourceException {
+        final long generation = this.clientCache.generation();
+        final ClientCache.Entry cached = this.clientCache.get(clientId);
+        if (cached != null && this.clientCache.isFresh(cached)) {
+            return cached.getClient();
+        }
+        final RetrofitClientService clientService = this.retrofitService();
+        Response response = null;
+        try {
+            response = clientService.findClientIfNoneMatch(this.authenticationKey,
+                this.connectionProperties.getTenant(), cached == null ? null : cached.getEntityTag(), clientId);
+        } catch (RetrofitError error) {
+            if (error.getKind() == RetrofitError.Kind.NETWORK) {
+                throw new MifosXConnectException(ErrorCode.NOT_CONNECTED);
+            } else if (error.getKind() == RetrofitError.Kind.CONVERSION ||
+                error.getResponse().getStatus() == 401) {
+                throw new MifosXConnectException(ErrorCode.INVALID_AUTHENTICATION_TOKEN);
+            } else if (error.getResponse().getStatus() == 304 && cached != null) {
+                this.clientCache.revalidated();
+                return cached.getClient();
+            } else if (error.getResponse().getStatus() == 403) {
+                final String message = ServerResponseUtil.parseResponse(error.getResponse());
+                throw new MifosXResourceException(message);
+            } else if (error.getResponse().getStatus() == 404) {
+                this.clientCache.invalidate(clientId);
+                this.notFoundCache.put(clientId, notFoundGeneration);
                 throw new MifosXResourceException(ErrorCode.CLIENT_NOT_FOUND);
             } else {
                 throw new MifosXConnectException(ErrorCode.UNKNOWN);
             }
         }
+        final byte[] body;
+        try {
+            final InputStream inputStream = response.getBody().in();
+            try {
+                body = ByteStreams.toByteArray(inputStream);
+            } finally {
+                inputStream.close();
+            }
+        } catch (IOException e) {
+            throw new MifosXConnectException(ErrorCode.NOT_CONNECTED);
+        }
+        final Client responseClient = readClient(body);
+        this.clientCache.put(clientId, responseClient, body.length, ClientCache.entityTag(response.getHeaders()),
+            generation);
         return responseClient;
     }
 
+    private static Client readClient(final byte[] body) throws MifosXConnectException {
+        try {
+            return CLIENT_ADAPTER.read(new JsonReader(new InputStreamReader(new ByteArrayInputStream(body),
+                "UTF-8")));
+        } catch (IOException e) {
+            throw new MifosXConnectException(ErrorCode.INVALID_AUTHENTICATION_TOKEN);
+        } catch (JsonParseException e) {
+            throw new MifosXConnectException(ErrorCode.INVALID_AUTHENTICATION_TOKEN);
+        }
+    }
+
     /**
      * Updates one particular staff.
      * @param clientId the client ID
@@ -168,7 +330,7 @@ public class RestClientService implements ClientService {
             MifosXResourceException {
         Preconditions.checkNotNull(clientId);
         Preconditions.checkNotNull(client);
-        final RetrofitClientService clientService = this.restAdapter.create(RetrofitClientService.class);
+        final RetrofitClientService clientService = this.retrofitService();
         try {
             clientService.updateClient(this.authenticationKey, this.connectionProperties.getTenant(),
                     clientId, client);
@@ -186,6 +348,8 @@ public class RestClientService implements ClientService {
             } else {
                 throw new MifosXConnectException(ErrorCode.UNKNOWN);
             }
+        } finally {
+            this.invalidateClient(clientId);
         }
     }
 
@@ -197,7 +361,7 @@ public class RestClientService implements ClientService {
      */
     public void deleteClient(Long clientId) throws MifosXConnectException, MifosXResourceException {
         Preconditions.checkNotNull(clientId);
-        final RetrofitClientService clientService = this.restAdapter.create(RetrofitClientService.class);
+        final RetrofitClientService clientService = this.retrofitService();
         try {
             clientService.deleteClient(this.authenticationKey, this.connectionProperties.getTenant(),
                     clientId);
@@ -215,6 +379,8 @@ public class RestClientService implements ClientService {
             } else {
                 throw new MifosXConnectException(ErrorCode.UNKNOWN);
             }
+        } finally {
+            this.invalidateClient(clientId);
         }
     }
 
@@ -229,7 +395,7 @@ public class RestClientService implements ClientService {
             MifosXResourceException {
         Preconditions.checkNotNull(clientId);
         Preconditions.checkNotNull(command);
-        final RetrofitClientService clientService = this.restAdapter.create(RetrofitClientService.class);
+        final RetrofitClientService clientService = this.retrofitService();
         try {
             clientService.executeCommand(this.authenticationKey, this.connectionProperties.getTenant(),
                     clientId, "activate", command);
@@ -247,6 +413,8 @@ public class RestClientService implements ClientService {
             } else {
                 throw new MifosXConnectException(ErrorCode.UNKNOWN);
             }
+        } finally {
+            this.invalidateClient(clientId);
         }
     }
 
@@ -261,7 +429,7 @@ public class RestClientService implements ClientService {
             MifosXResourceException {
         Preconditions.checkNotNull(clientId);
         Preconditions.checkNotNull(command);
-        final RetrofitClientService clientService = this.restAdapter.create(RetrofitClientService.class);
+        final RetrofitClientService clientService = this.retrofitService();
         try {
             clientService.executeCommand(this.authenticationKey, this.connectionProperties.getTenant(),
                     clientId, "close", command);
@@ -279,6 +447,8 @@ public class RestClientService implements ClientService {
             } else {
                 throw new MifosXConnectException(ErrorCode.UNKNOWN);
             }
+        } finally {
+            this.invalidateClient(clientId);
         }
     }
 
@@ -293,7 +463,7 @@ public class RestClientService implements ClientService {
             MifosXResourceException {
         Preconditions.checkNotNull(clientId);
         Preconditions.checkNotNull(command);
-        final RetrofitClientService clientService = this.restAdapter.create(RetrofitClientService.class);
+        final RetrofitClientService clientService = this.retrofitService();
         try {
             clientService.executeCommand(this.authenticationKey, this.connectionProperties.getTenant(),
                     clientId, "assignStaff", command);
@@ -311,6 +481,8 @@ public class RestClientService implements ClientService {
             } else {
                 throw new MifosXConnectException(ErrorCode.UNKNOWN);
             }
+        } finally {
+            this.invalidateClient(clientId);
         }
     }
 
@@ -325,7 +497,7 @@ public class RestClientService implements ClientService {
             MifosXResourceException {
         Preconditions.checkNotNull(clientId);
         Preconditions.checkNotNull(command);
-        final RetrofitClientService clientService = this.restAdapter.create(RetrofitClientService.class);
+        final RetrofitClientService clientService = this.retrofitService();
         try {
             clientService.executeCommand(this.authenticationKey, this.connectionProperties.getTenant(),
                     clientId, "unassignStaff", command);
@@ -343,6 +515,8 @@ public class RestClientService implements ClientService {
             } else {
                 throw new MifosXConnectException(ErrorCode.UNKNOWN);
             }
+        } finally {
+            this.invalidateClient(clientId);
         }
     }
 
@@ -357,7 +531,7 @@ public class RestClientService implements ClientService {
             MifosXResourceException {
         Preconditions.checkNotNull(clientId);
         Preconditions.checkNotNull(command);
-        final RetrofitClientService clientService = this.restAdapter.create(RetrofitClientService.class);
+        final RetrofitClientService clientService = this.retrofitService();
         try {
             clientService.executeCommand(this.authenticationKey, this.connectionProperties.getTenant(),
                     clientId, "updateSavingsAccount", command);
@@ -375,6 +549,8 @@ public class RestClientService implements ClientService {
             } else {
                 throw new MifosXConnectException(ErrorCode.UNKNOWN);
             }
+        } finally {
+            this.invalidateClient(clientId);
         }
     }
 
@@ -389,7 +565,7 @@ public class RestClientService implements ClientService {
             MifosXResourceException {
         Preconditions.checkNotNull(clientId);
         Preconditions.checkNotNull(command);
-        final RetrofitClientService clientService = this.restAdapter.create(RetrofitClientService.class);
+        final RetrofitClientService clientService = this.retrofitService();
         try {
             clientService.executeCommand(this.authenticationKey, this.connectionProperties.getTenant(),
                     clientId, "proposeTransfer", command);
@@ -407,6 +583,8 @@ public class RestClientService implements ClientService {
             } else {
                 throw new MifosXConnectException(ErrorCode.UNKNOWN);
             }
+        } finally {
+            this.invalidateClient(clientId);
         }
     }
 
@@ -421,7 +599,7 @@ public class RestClientService implements ClientService {
             MifosXConnectException, MifosXResourceException {
         Preconditions.checkNotNull(clientId);
         Preconditions.checkNotNull(command);
-        final RetrofitClientService clientService = this.restAdapter.create(RetrofitClientService.class);
+        final RetrofitClientService clientService = this.retrofitService();
         try {
             clientService.executeCommand(this.authenticationKey, this.connectionProperties.getTenant(),
                     clientId, "withdrawTransfer", command);
@@ -439,6 +617,8 @@ public class RestClientService implements ClientService {
             } else {
                 throw new MifosXConnectException(ErrorCode.UNKNOWN);
             }
+        } finally {
+            this.invalidateClient(clientId);
         }
     }
 
@@ -453,7 +633,7 @@ public class RestClientService implements ClientService {
             MifosXConnectException, MifosXResourceException {
         Preconditions.checkNotNull(clientId);
         Preconditions.checkNotNull(command);
-        final RetrofitClientService clientService = this.restAdapter.create(RetrofitClientService.class);
+        final RetrofitClientService clientService = this.retrofitService();
         try {
             clientService.executeCommand(this.authenticationKey, this.connectionProperties.getTenant(),
                     clientId, "rejectTransfer", command);
@@ -471,6 +651,8 @@ public class RestClientService implements ClientService {
             } else {
                 throw new MifosXConnectException(ErrorCode.UNKNOWN);
             }
+        } finally {
+            this.invalidateClient(clientId);
         }
     }
 
@@ -485,7 +667,7 @@ public class RestClientService implements ClientService {
             MifosXResourceException {
         Preconditions.checkNotNull(clientId);
         Preconditions.checkNotNull(command);
-        final RetrofitClientService clientService = this.restAdapter.create(RetrofitClientService.class);
+        final RetrofitClientService clientService = this.retrofitService();
         try {
             clientService.executeCommand(this.authenticationKey, this.connectionProperties.getTenant(),
                     clientId, "acceptTransfer", command);
@@ -503,6 +685,8 @@ public class RestClientService implements ClientService {
             } else {
                 throw new MifosXConnectException(ErrorCode.UNKNOWN);
             }
+        } finally {
+            this.invalidateClient(clientId);
         }
     }
 
@@ -517,7 +701,7 @@ public class RestClientService implements ClientService {
             MifosXConnectException, MifosXResourceException {
         Preconditions.checkNotNull(clientId);
         Preconditions.checkNotNull(command);
-        final RetrofitClientService clientService = this.restAdapter.create(RetrofitClientService.class);
+        final RetrofitClientService clientService = this.retrofitService();
         try {
             clientService.executeCommand(this.authenticationKey, this.connectionProperties.getTenant(),
                     clientId, "proposeAndAcceptTransfer", command);
@@ -535,6 +719,8 @@ public class RestClientService implements ClientService {
             } else {
                 throw new MifosXConnectException(ErrorCode.UNKNOWN);
             }
+        } finally {
+            this.invalidateClient(clientId);
         }
     }
 
@@ -550,7 +736,7 @@ public class RestClientService implements ClientService {
             MifosXConnectException, MifosXResourceException {
         Preconditions.checkNotNull(clientId);
         Preconditions.checkNotNull(identifier);
-        final RetrofitClientService clientService = this.restAdapter.create(RetrofitClientService.class);
+        final RetrofitClientService clientService = this.retrofitService();
         ClientIdentifier responseIdentifier = null;
         try {
             responseIdentifier = clientService.createIdentifier(this.authenticationKey,
@@ -580,10 +766,30 @@ public class RestClientService implements ClientService {
      * @throws MifosXConnectException
      * @throws MifosXResourceException
      */
-    public List<ClientIdentifier> fetchIdentifiers(Long clientId) throws MifosXConnectException,
+    public List<ClientIdentifier> fetchIdentifiers(final Long clientId) throws MifosXConnectException,
             MifosXResourceException {
         Preconditions.checkNotNull(clientId);
-        final RetrofitClientService clientService = this.restAdapter.create(RetrofitClientService.class);
+        final List<ClientIdentifier> identifiers = this.identifiersFlight.execute(clientId,
+            new SingleFlight.Call<List<ClientIdentifier>>() {
+                @Override
+                public List<ClientIdentifier> call() throws MifosXConnectException, MifosXResourceException {
+                    return requestIdentifiers(clientId);
+                }
+            });
+        if (identifiers == null) {
+            return null;
+        }
+        // the coalesced callers share the result, so each one gets its own copy
+        final List<ClientIdentifier> copies = new ArrayList<ClientIdentifier>(identifiers.size());
+        for (final ClientIdentifier identifier : identifiers) {
+            copies.add(identifier == null ? null : identifier.copy());
+        }
+        return copies;
+    }
+
+    private List<ClientIdentifier> requestIdentifiers(Long clientId) throws MifosXConnectException,
+            MifosXResourceException {
+        final RetrofitClientService clientService = this.retrofitService();
         List<ClientIdentifier> identifiers = null;
         try {
             identifiers = clientService.fetchIdentifiers(this.authenticationKey,
@@ -615,7 +821,7 @@ public class RestClientService implements ClientService {
             MifosXConnectException, MifosXResourceException {
         Preconditions.checkNotNull(clientId);
         Preconditions.checkNotNull(identifierId);
-        final RetrofitClientService clientService = this.restAdapter.create(RetrofitClientService.class);
+        final RetrofitClientService clientService = this.retrofitService();
         ClientIdentifier responseIdentifier = null;
         try {
             responseIdentifier = clientService.findIdentifier(this.authenticationKey,
@@ -651,7 +857,7 @@ public class RestClientService implements ClientService {
         Preconditions.checkNotNull(clientId);
         Preconditions.checkNotNull(identifierId);
         Preconditions.checkNotNull(identifier);
-        final RetrofitClientService clientService = this.restAdapter.create(RetrofitClientService.class);
+        final RetrofitClientService clientService = this.retrofitService();
         try {
             clientService.updateIdentifier(this.authenticationKey, this.connectionProperties.getTenant(),
                     clientId, identifierId, identifier);
@@ -683,7 +889,7 @@ public class RestClientService implements ClientService {
             MifosXResourceException {
         Preconditions.checkNotNull(clientId);
         Preconditions.checkNotNull(identifierId);
-        final RetrofitClientService clientService = this.restAdapter.create(RetrofitClientService.class);
+        final RetrofitClientService clientService = this.retrofitService();
         try {
             clientService.deleteIdentifier(this.authenticationKey, this.connectionProperties.getTenant(),
                 clientId, identifierId);
@@ -716,22 +922,43 @@ public class RestClientService implements ClientService {
         MifosXConnectException, MifosXResourceException {
         Preconditions.checkNotNull(clientId);
         Preconditions.checkNotNull(clientImage);
-        final RetrofitClientService clientService = this.restAdapter.create(RetrofitClientService.class);
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        String base64Data = null;
+        try {
+            ImageIO.write(clientImage.getImage(), clientImage.getType().getTypeString(),
+                outputStream);
+            final byte[] binaryData = outputStream.toByteArray();
+            base64Data = "data:image/"+ clientImage.getType().getTypeString() +";base64," +
+                Base64.encodeBase64String(binaryData);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return this.uploadImage(clientId, new TypedString(base64Data));
+    }
+
+    /**
+     * Uploads a client image which is already encoded, Base64 encoding it while
+     * the request is written.
+     * @param clientId the client ID
+     * @param encodedImage the {@link EncodedClientImage}
+     * @return a {@link ClientImage} with the resource ID
+     * @throws MifosXConnectException
+     * @throws MifosXResourceException
+     */
+    public ClientImage uploadImage(Long clientId, EncodedClientImage encodedImage) throws
+        MifosXConnectException, MifosXResourceException {
+        Preconditions.checkNotNull(clientId);
+        Preconditions.checkNotNull(encodedImage);
+        return this.uploadImage(clientId, ImageDataUri.encode(encodedImage));
+    }
+
+    private ClientImage uploadImage(final Long clientId, final TypedOutput base64Data) throws
+        MifosXConnectException, MifosXResourceException {
+        final RetrofitClientService clientService = this.retrofitService();
         ClientImage responseClientImage = null;
         try {
-            final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-            String base64Data = null;
-            try {
-                ImageIO.write(clientImage.getImage(), clientImage.getType().getTypeString(),
-                    outputStream);
-                final byte[] binaryData = outputStream.toByteArray();
-                base64Data = "data:image/"+ clientImage.getType().getTypeString() +";base64," +
-                    Base64.encodeBase64String(binaryData);
-            } catch (IOException e) {
-                throw new IllegalStateException(e);
-            }
             responseClientImage = clientService.uploadImage(this.authenticationKey,
-                this.connectionProperties.getTenant(), clientId, new TypedString(base64Data));
+                this.connectionProperties.getTenant(), clientId, base64Data);
         } catch (RetrofitError error) {
             if (error.getKind() == RetrofitError.Kind.NETWORK) {
                 throw new MifosXConnectException(ErrorCode.NOT_CONNECTED);
@@ -746,6 +973,8 @@ public class RestClientService implements ClientService {
             } else {
                 throw new MifosXConnectException(ErrorCode.UNKNOWN);
             }
+        } finally {
+            this.invalidateImage(clientId);
         }
         return responseClientImage;
     }
@@ -762,43 +991,353 @@ public class RestClientService implements ClientService {
     public ClientImage findImage(Long clientId, Long maxWidth, Long maxHeight) throws
         MifosXConnectException, MifosXResourceException {
         Preconditions.checkNotNull(clientId);
-        final RestAdapter adapter = new RestAdapter.Builder()
-            .setClient(new OkClient(new OkHttpClient()))
-            .setEndpoint(this.connectionProperties.getUrl())
-            .setConverter(new Converter() {
-                @Override
-                public Object fromBody(TypedInput body, Type type) throws ConversionException {
-                    try {
-                        Scanner s = new Scanner(body.in()).useDelimiter("\\A");
-                        return s.hasNext() ? s.next() : "";
-                    } catch (IOException e) {}
-                    return null;
-                }
-                @Override
-                public TypedOutput toBody(Object object) { return null; }
-            })
-            .build();
-        final RetrofitClientService clientService = adapter.create(RetrofitClientService.class);
+        if (this.imageCache != null) {
+            return this.findCachedImage(clientId, maxWidth, maxHeight, null);
+        }
+        final Response response = this.openImage(clientId, maxWidth, maxHeight);
         ClientImage clientImage = null;
         try {
-            final String responseString = clientService.findImage(this.authenticationKey,
-                this.connectionProperties.getTenant(), clientId, maxWidth, maxHeight);
-            final byte[] responseBinaryData = Base64.decodeBase64(responseString.split(",")[1]);
+            final InputStream inputStream = response.getBody().in();
             try {
-                final ByteArrayInputStream inputStream = new ByteArrayInputStream(responseBinaryData);
-                final BufferedImage image = ImageIO.read(inputStream);
-                ClientImage.Type type = null;
-                if (responseString.startsWith("data:image/png")) {
-                    type = ClientImage.Type.PNG;
-                } else if (responseString.startsWith("data:image/jpeg")) {
-                    type = ClientImage.Type.JPEG;
-                } else if (responseString.startsWith("data:image/gif")) {
-                    type = ClientImage.Type.GIF;
-                }
+                final ClientImage.Type type = ImageDataUri.readType(inputStream);
+                final BufferedImage image = ImageIO.read(ImageDataUri.decode(inputStream));
                 clientImage = ClientImage.image(image).type(type).build();
+            } finally {
+                inputStream.close();
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return clientImage;
+    }
+
+    /**
+     * Retrieves the encoded bytes of a client image, decoding them from the server
+     * response straight into the given stream.
+     * @param clientId the client ID
+     * @param maxWidth Optional: the maximum width of the image
+     * @param maxHeight Optional: the maximum height of the image
+     * @param outputStream the {@link OutputStream} receiving the image bytes
+     * @return the {@link ClientImage.Type} of the image
+     * @throws MifosXConnectException
+     * @throws MifosXResourceException
+     */
+    public ClientImage.Type findImageBytes(Long clientId, Long maxWidth, Long maxHeight,
+                                           OutputStream outputStream) throws MifosXConnectException,
+        MifosXResourceException {
+        Preconditions.checkNotNull(clientId);
+        Preconditions.checkNotNull(outputStream);
+        if (this.imageCache != null) {
+            final ClientImageCache.Entry entry = this.cachedImage(clientId, maxWidth, maxHeight, null);
+            try {
+                outputStream.write(entry.getBytes());
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            return entry.getType();
+        }
+        final Response response = this.openImage(clientId, maxWidth, maxHeight);
+        ClientImage.Type type = null;
+        try {
+            final InputStream inputStream = response.getBody().in();
+            try {
+                type = ImageDataUri.readType(inputStream);
+                ImageDataUri.decodeTo(inputStream, outputStream);
+            } finally {
+                inputStream.close();
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return type;
+    }
+
+    /**
+     * Retrieves the encoded bytes of a client image, decoding them from the server
+     * response straight into the given buffer.
+     * @param clientId the client ID
+     * @param maxWidth Optional: the maximum width of the image
+     * @param maxHeight Optional: the maximum height of the image
+     * @param buffer the {@link ByteBuffer} receiving the image bytes
+     * @return the {@link ClientImage.Type} of the image
+     * @throws MifosXConnectException
+     * @throws MifosXResourceException
+     * @throws java.nio.BufferOverflowException if the image does not fit in the buffer
+     */
+    public ClientImage.Type findImageBytes(Long clientId, Long maxWidth, Long maxHeight,
+                                           ByteBuffer buffer) throws MifosXConnectException,
+        MifosXResourceException {
+        Preconditions.checkNotNull(clientId);
+        Preconditions.checkNotNull(buffer);
+        if (this.imageCache != null) {
+            final ClientImageCache.Entry entry = this.cachedImage(clientId, maxWidth, maxHeight, null);
+            if (buffer.remaining() < entry.getBytes().length) {
+                throw new BufferOverflowException();
+            }
+            buffer.put(entry.getBytes());
+            return entry.getType();
+        }
+        final Response response = this.openImage(clientId, maxWidth, maxHeight);
+        ClientImage.Type type = null;
+        try {
+            final InputStream inputStream = response.getBody().in();
+            try {
+                type = ImageDataUri.readType(inputStream);
+                ImageDataUri.decodeTo(inputStream, buffer);
+            } finally {
+                inputStream.close();
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return type;
+    }
+
+    /**
+     * Retrieves a client image as a stream of its encoded bytes, decoded while read.
+     * The stream holds the connection and must be closed.
+     * @param clientId the client ID
+     * @param maxWidth Optional: the maximum width of the image
+     * @param maxHeight Optional: the maximum height of the image
+     * @return an {@link InputStream} with the image bytes
+     * @throws MifosXConnectException
+     * @throws MifosXResourceException
+     */
+    public InputStream findImageStream(Long clientId, Long maxWidth, Long maxHeight) throws
+        MifosXConnectException, MifosXResourceException {
+        Preconditions.checkNotNull(clientId);
+        if (this.imageCache != null) {
+            return new ByteArrayInputStream(this.cachedImage(clientId, maxWidth, maxHeight, null).getBytes());
+        }
+        final Response response = this.openImage(clientId, maxWidth, maxHeight);
+        try {
+            final InputStream inputStream = response.getBody().in();
+            try {
+                ImageDataUri.readType(inputStream);
+            } catch (IOException e) {
+                inputStream.close();
+                throw e;
+            }
+            return ImageDataUri.decode(inputStream);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Retrieves the image of a client read from the server, without a request when
+     * the client has no image. With the image cache enabled, a cached image is used
+     * only if it has the image ID of the client.
+     * @param client the {@link Client} with the client ID and the image fields
+     * @param maxWidth Optional: the maximum width of the image
+     * @param maxHeight Optional: the maximum height of the image
+     * @return a {@link ClientImage} with the image and the type, null if the client has none
+     * @throws MifosXConnectException
+     * @throws MifosXResourceException
+     */
+    public ClientImage findImage(Client client, Long maxWidth, Long maxHeight) throws
+        MifosXConnectException, MifosXResourceException {
+        Preconditions.checkNotNull(client);
+        Preconditions.checkNotNull(client.getClientId());
+        if (!client.getImagePresent()) {
+            return null;
+        }
+        if (this.imageCache != null) {
+            return this.findCachedImage(client.getClientId(), maxWidth, maxHeight, client.getImageId());
+        }
+        return this.findImage(client.getClientId(), maxWidth, maxHeight);
+    }
+
+    /**
+     * Retrieves the images of the given clients, up to the given number at the same
+     * time, and passes each to the callback as soon as it arrives. A client without
+     * an image is passed with a null image. Returns once every image is handled.
+     * @param clientIds the client IDs
+     * @param maxWidth Optional: the maximum width of the images
+     * @param maxHeight Optional: the maximum height of the images
+     * @param executor Optional: the {@link ExecutorService} downloading the images,
+     *                 without one they are downloaded by the calling thread
+     * @param concurrency the maximum number of images downloaded at the same time
+     * @param callback the {@link ClientImageCallback}
+     * @throws InterruptedException if the calling thread is interrupted
+     */
+    public void prefetchImages(Collection<Long> clientIds, Long maxWidth, Long maxHeight,
+                               ExecutorService executor, int concurrency,
+                               ClientImageCallback callback) throws InterruptedException {
+        Preconditions.checkNotNull(clientIds);
+        this.prefetch(clientIds, new HashMap<Long, Long>(), maxWidth, maxHeight, executor, concurrency,
+            callback);
+    }
+
+    /**
+     * Retrieves the images of the given clients read from the server, like
+     * {@link #prefetchImages(Collection, Long, Long, ExecutorService, int, ClientImageCallback)},
+     * without a request for the clients which have no image.
+     * @param clients the {@link Client}s with the client ID and the image fields
+     * @param maxWidth Optional: the maximum width of the images
+     * @param maxHeight Optional: the maximum height of the images
+     * @param executor Optional: the {@link ExecutorService} downloading the images,
+     *                 without one they are downloaded by the calling thread
+     * @param concurrency the maximum number of images downloaded at the same time
+     * @param callback the {@link ClientImageCallback}
+     * @throws InterruptedException if the calling thread is interrupted
+     */
+    public void prefetchClientImages(Collection<Client> clients, Long maxWidth, Long maxHeight,
+                                     ExecutorService executor, int concurrency,
+                                     ClientImageCallback callback) throws InterruptedException {
+        Preconditions.checkNotNull(clients);
+        Preconditions.checkNotNull(callback);
+        final List<Long> clientIds = new ArrayList<Long>(clients.size());
+        final Map<Long, Long> imageIds = new HashMap<Long, Long>();
+        for (final Client client : clients) {
+            Preconditions.checkNotNull(client.getClientId());
+            if (client.getImagePresent()) {
+                clientIds.add(client.getClientId());
+                imageIds.put(client.getClientId(), client.getImageId());
+            } else {
+                callback.onImage(client.getClientId(), null);
+            }
+        }
+        this.prefetch(clientIds, imageIds, maxWidth, maxHeight, executor, concurrency, callback);
+    }
+
+    private void prefetch(final Collection<Long> clientIds, final Map<Long, Long> imageIds,
+                          final Long maxWidth, final Long maxHeight, final ExecutorService executor,
+                          final int concurrency, final ClientImageCallback callback)
+        throws InterruptedException {
+        Preconditions.checkArgument(concurrency > 0, "The concurrency must be positive!");
+        Preconditions.checkNotNull(callback);
+        new BoundedFanOut<Long, ClientImage>() {
+            @Override
+            protected ClientImage call(final Long clientId) throws MifosXConnectException,
+                MifosXResourceException {
+                return prefetchImage(clientId, imageIds.get(clientId), maxWidth, maxHeight);
+            }
+
+            @Override
+            protected void onResult(final Long clientId, final ClientImage image) {
+                callback.onImage(clientId, image);
+            }
+
+            @Override
+            protected boolean onFailure(final Long clientId, final Exception e) {
+                callback.onFailure(clientId, e);
+                return true;
+            }
+        }.run(clientIds.iterator(), executor, concurrency);
+    }
+
+    private ClientImage prefetchImage(Long clientId, Long imageId, Long maxWidth, Long maxHeight) throws
+        MifosXConnectException, MifosXResourceException {
+        Preconditions.checkNotNull(clientId);
+        try {
+            if (this.imageCache != null) {
+                return this.findCachedImage(clientId, maxWidth, maxHeight, imageId);
+            }
+            return this.findImage(clientId, maxWidth, maxHeight);
+        } catch (MifosXResourceException e) {
+            if (e.getErrorCode() == ErrorCode.CLIENT_IMAGE_NOT_FOUND) {
+                return null;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Returns a new batch which executes client commands through the batch API.
+     * @param options the {@link BatchOptions} with the chunk size and transaction settings
+     * @return an empty {@link ClientCommandBatch}
+     */
+    public ClientCommandBatch commandBatch(final BatchOptions options) {
+        Preconditions.checkNotNull(options);
+        return new RestClientCommandBatch(this, this.connectionProperties, this.retrofitBatchService(),
+            this.authenticationKey, options);
+    }
+
+    /**
+     * Returns the counters of the client cache.
+     * @return the {@link ClientCacheStats}, or null if clients are not cached
+     */
+    public ClientCacheStats getClientCacheStats() {
+        return this.clientCache == null ? null : this.clientCache.stats();
+    }
+
+    /**
+     * Returns the counters of the image cache.
+     * @return the {@link ImageCacheStats}, or null if images are not cached
+     */
+    public ImageCacheStats getImageCacheStats() {
+        return this.imageCache == null ? null : this.imageCache.stats();
+    }
+
+    private ClientImage findCachedImage(Long clientId, Long maxWidth, Long maxHeight, Long imageId) throws
+        MifosXConnectException, MifosXResourceException {
+        final ClientImageCache.Entry entry = this.cachedImage(clientId, maxWidth, maxHeight, imageId);
+        try {
+            final BufferedImage image = ImageIO.read(new ByteArrayInputStream(entry.getBytes()));
+            return ClientImage.image(image).type(entry.getType()).build();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private ClientImageCache.Entry cachedImage(Long clientId, Long maxWidth, Long maxHeight, Long imageId) throws
+        MifosXConnectException, MifosXResourceException {
+        final ClientImageCache.Key key = new ClientImageCache.Key(clientId, maxWidth, maxHeight);
+        ClientImageCache.Entry entry = this.imageCache.get(key, imageId);
+        if (entry == null) {
+            final Response response = this.openImage(clientId, maxWidth, maxHeight);
+            try {
+                final InputStream inputStream = response.getBody().in();
+                try {
+                    final ClientImage.Type type = ImageDataUri.readType(inputStream);
+                    final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+                    ImageDataUri.decodeTo(inputStream, outputStream);
+                    entry = new ClientImageCache.Entry(type, outputStream.toByteArray(), imageId);
+                } finally {
+                    inputStream.close();
+                }
             } catch (IOException e) {
                 throw new IllegalStateException(e);
             }
+            this.imageCache.put(key, entry);
+        }
+        return entry;
+    }
+
+    private void invalidateImage(Long clientId) {
+        if (this.imageCache != null) {
+            this.imageCache.invalidate(clientId);
+        }
+        this.invalidateClient(clientId);
+    }
+
+    /**
+     * Forgets that a client was not found, once it was created other than by
+     * {@link #createClient(Client)}, such as by a replayed outbox command.
+     * @param clientId Optional: the ID of the created client, null to forget every ID
+     */
+    public void clientCreated(final Long clientId) {
+        this.notFoundCache.forget(clientId);
+    }
+
+    /**
+     * Drops a client from the client cache after a change.
+     * @param clientId the client ID
+     */
+    void invalidateClient(Long clientId) {
+        if (this.clientCache != null) {
+            this.clientCache.invalidate(clientId);
+        }
+    }
+
+    private Response openImage(Long clientId, Long maxWidth, Long maxHeight) throws
+        MifosXConnectException, MifosXResourceException {
+        final RetrofitClientService clientService = this.retrofitService();
+        Response response = null;
+        try {
+            response = clientService.findImage(this.authenticationKey,
+                this.connectionProperties.getTenant(), clientId, maxWidth, maxHeight);
         } catch (RetrofitError error) {
             if (error.getKind() == RetrofitError.Kind.NETWORK) {
                 throw new MifosXConnectException(ErrorCode.NOT_CONNECTED);
@@ -814,7 +1353,7 @@ public class RestClientService implements ClientService {
                 throw new MifosXConnectException(ErrorCode.UNKNOWN);
             }
         }
-        return clientImage;
+        return response;
     }
 
     /**
@@ -828,21 +1367,41 @@ public class RestClientService implements ClientService {
         MifosXResourceException {
         Preconditions.checkNotNull(clientId);
         Preconditions.checkNotNull(clientImage);
-        final RetrofitClientService clientService = this.restAdapter.create(RetrofitClientService.class);
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        String base64Data = null;
+        try {
+            ImageIO.write(clientImage.getImage(), clientImage.getType().getTypeString(),
+                outputStream);
+            final byte[] binaryData = outputStream.toByteArray();
+            base64Data = "data:image/" + clientImage.getType().getTypeString() + ";base64,"
+                + Base64.encodeBase64String(binaryData);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        this.updateImage(clientId, new TypedString(base64Data));
+    }
+
+    /**
+     * Updates a client image with one which is already encoded, Base64 encoding it
+     * while the request is written.
+     * @param clientId the client ID
+     * @param encodedImage the {@link EncodedClientImage}
+     * @throws MifosXConnectException
+     * @throws MifosXResourceException
+     */
+    public void updateImage(Long clientId, EncodedClientImage encodedImage) throws MifosXConnectException,
+        MifosXResourceException {
+        Preconditions.checkNotNull(clientId);
+        Preconditions.checkNotNull(encodedImage);
+        this.updateImage(clientId, ImageDataUri.encode(encodedImage));
+    }
+
+    private void updateImage(final Long clientId, final TypedOutput base64Data) throws
+        MifosXConnectException, MifosXResourceException {
+        final RetrofitClientService clientService = this.retrofitService();
         try {
-            final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-            String base64Data = null;
-            try {
-                ImageIO.write(clientImage.getImage(), clientImage.getType().getTypeString(),
-                    outputStream);
-                final byte[] binaryData = outputStream.toByteArray();
-                base64Data = "data:image/" + clientImage.getType().getTypeString() + ";base64,"
-                    + Base64.encodeBase64String(binaryData);
-            } catch (IOException e) {
-                throw new IllegalStateException(e);
-            }
             clientService.updateImage(this.authenticationKey,
-                this.connectionProperties.getTenant(), clientId, new TypedString(base64Data));
+                this.connectionProperties.getTenant(), clientId, base64Data);
         } catch (RetrofitError error) {
             if (error.getKind() == RetrofitError.Kind.NETWORK) {
                 throw new MifosXConnectException(ErrorCode.NOT_CONNECTED);
@@ -857,6 +1416,8 @@ public class RestClientService implements ClientService {
             } else {
                 throw new MifosXConnectException(ErrorCode.UNKNOWN);
             }
+        } finally {
+            this.invalidateImage(clientId);
         }
     }
 
@@ -868,7 +1429,7 @@ public class RestClientService implements ClientService {
      */
     public void deleteImage(Long clientId) throws MifosXConnectException, MifosXResourceException {
         Preconditions.checkNotNull(clientId);
-        final RetrofitClientService clientService = this.restAdapter.create(RetrofitClientService.class);
+        final RetrofitClientService clientService = this.retrofitService();
         try {
             clientService.deleteImage(this.authenticationKey, this.connectionProperties.getTenant(),
                 clientId);
@@ -886,7 +1447,43 @@ public class RestClientService implements ClientService {
             } else {
                 throw new MifosXConnectException(ErrorCode.UNKNOWN);
             }
+        } finally {
+            this.invalidateImage(clientId);
+        }
+    }
+
+    /**
+     * Returns the Retrofit proxy for the Clients API, creating it on first use.
+     */
+    private RetrofitClientService retrofitService() {
+        RetrofitClientService service = this.retrofitClientService;
+        if (service == null) {
+            synchronized (this) {
+                service = this.retrofitClientService;
+                if (service == null) {
+                    service = this.restAdapter.create(RetrofitClientService.class);
+                    this.retrofitClientService = service;
+                }
+            }
+        }
+        return service;
+    }
+
+    /**
+     * Returns the Retrofit proxy for the Batch API, creating it on first use.
+     */
+    private RetrofitBatchService retrofitBatchService() {
+        RetrofitBatchService service = this.retrofitBatchService;
+        if (service == null) {
+            synchronized (this) {
+                service = this.retrofitBatchService;
+                if (service == null) {
+                    service = this.restAdapter.create(RetrofitBatchService.class);
+                    this.retrofitBatchService = service;
+                }
+            }
         }
+        return service;
     }
 
 }
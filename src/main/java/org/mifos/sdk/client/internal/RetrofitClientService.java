@@ -12,8 +12,7 @@ import org.mifos.sdk.client.domain.PageableClients;
 import org.mifos.sdk.internal.RestConstants;
 import retrofit.client.Response;
 import retrofit.http.*;
-import retrofit.mime.TypedFile;
-import retrofit.mime.TypedString;
+import retrofit.mime.TypedOutput;
 
 import java.util.List;
 import java.util.Map;
@@ -62,6 +61,21 @@ public interface RetrofitClientService {
                              @Header(RestConstants.HEADER_TENANTID) String tenantId,
                              @Path("clientId") Long clientId);
 
+    /**
+     * Retrieves a particular client unless it still has the given entity tag.
+     * @param authenticationKey the authentication key obtained by
+     *                          calling {@link org.mifos.sdk.MifosXClient#login()}
+     * @param tenantId the tenant ID
+     * @param entityTag Optional: the entity tag of the cached client
+     * @param clientId the client ID
+     * @return the {@link Response} with the client and its entity tag
+     */
+    @GET("/clients/{clientId}")
+    public Response findClientIfNoneMatch(@Header(RestConstants.HEADER_AUTHORIZATION) String authenticationKey,
+                                          @Header(RestConstants.HEADER_TENANTID) String tenantId,
+                                          @Header(RestConstants.HEADER_IF_NONE_MATCH) String entityTag,
+                                          @Path("clientId") Long clientId);
+
     /**
      * Updates one particular client.
      * @param authenticationKey the authentication key obtained by
@@ -194,7 +208,7 @@ public interface RetrofitClientService {
     public ClientImage uploadImage(@Header(RestConstants.HEADER_AUTHORIZATION) String authenticationKey,
                             @Header(RestConstants.HEADER_TENANTID) String tenantId,
                             @Path("clientId") Long clientId,
-                            @Body TypedString base64Data);
+                            @Body TypedOutput base64Data);
 
     /**
      * Retrieves the client image.
@@ -204,10 +218,12 @@ public interface RetrofitClientService {
      * @param clientId the client ID
      * @param maxWidth Optional: the maximum width of the image
      * @param maxHeight Optional: the maximum height of the image
-     * @return a {@link TypedFile} of the client image if found, null otherwise
+     * @return the server {@link retrofit.client.Response} with the Base64 Data URI of the image,
+     *         whose body is read from the connection and must be closed
      */
     @GET("/clients/{clientId}/images")
-    public String findImage(@Header(RestConstants.HEADER_AUTHORIZATION) String authenticationKey,
+    @Streaming
+    public Response findImage(@Header(RestConstants.HEADER_AUTHORIZATION) String authenticationKey,
                             @Header(RestConstants.HEADER_TENANTID) String tenantId,
                             @Path("clientId") Long clientId,
                             @Query("maxWidth") Long maxWidth,
@@ -226,7 +242,7 @@ public interface RetrofitClientService {
     public Response updateImage(@Header(RestConstants.HEADER_AUTHORIZATION) String authenticationKey,
                                 @Header(RestConstants.HEADER_TENANTID) String tenantId,
                                 @Path("clientId") Long clientId,
-                                @Body TypedString base64Data);
+                                @Body TypedOutput base64Data);
 
     /**
      * Deletes the client image.
@@ -0,0 +1,29 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.group;
+
+/**
+ * Receives the outcome of each collection sheet saved by {@link GroupService},
+ * one group at a time as the server answers. Both methods are called by the
+ * thread which started the submission.
+ */
+public interface CollectionSheetCallback {
+
+    /**
+     * Called when the collection sheet of a group was saved.
+     * @param groupId the group ID
+     */
+    void onSaved(final Long groupId);
+
+    /**
+     * Called when the collection sheet of a group could not be saved.
+     * @param groupId the group ID
+     * @param exception the {@link org.mifos.sdk.MifosXConnectException} or
+     *                  {@link org.mifos.sdk.MifosXResourceException}
+     */
+    void onFailure(final Long groupId, final Exception exception);
+
+}
@@ -0,0 +1,103 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.group;
+
+import org.mifos.sdk.CommandBatch;
+import org.mifos.sdk.group.domain.commands.ActivateGroupCommand;
+import org.mifos.sdk.group.domain.commands.AssignUnassignStaffCommand;
+import org.mifos.sdk.group.domain.commands.AssignUpdateRoleCommand;
+import org.mifos.sdk.group.domain.commands.AssociateDisassociateClientsCommand;
+import org.mifos.sdk.group.domain.commands.CloseGroupCommand;
+import org.mifos.sdk.group.domain.commands.TransferClientsCommand;
+
+/**
+ * Collects group commands to execute them through the batch API, obtained
+ * from {@link GroupService#commandBatch(org.mifos.sdk.BatchOptions)}.
+ */
+public interface GroupCommandBatch extends CommandBatch {
+
+    /**
+     * Adds the activation of a group.
+     * @param groupId the group ID
+     * @param command the {@link ActivateGroupCommand}
+     * @return instance of the current {@link GroupCommandBatch}
+     */
+    GroupCommandBatch activate(final Long groupId, final ActivateGroupCommand command);
+
+    /**
+     * Adds the closure of a group.
+     * @param groupId the group ID
+     * @param command the {@link CloseGroupCommand}
+     * @return instance of the current {@link GroupCommandBatch}
+     */
+    GroupCommandBatch close(final Long groupId, final CloseGroupCommand command);
+
+    /**
+     * Adds the assignment of a staff to a group.
+     * @param groupId the group ID
+     * @param command the {@link AssignUnassignStaffCommand}
+     * @return instance of the current {@link GroupCommandBatch}
+     */
+    GroupCommandBatch assignStaff(final Long groupId, final AssignUnassignStaffCommand command);
+
+    /**
+     * Adds the unassignment of the staff of a group.
+     * @param groupId the group ID
+     * @param command the {@link AssignUnassignStaffCommand}
+     * @return instance of the current {@link GroupCommandBatch}
+     */
+    GroupCommandBatch unassignStaff(final Long groupId, final AssignUnassignStaffCommand command);
+
+    /**
+     * Adds the association of clients with a group.
+     * @param groupId the group ID
+     * @param command the {@link AssociateDisassociateClientsCommand}
+     * @return instance of the current {@link GroupCommandBatch}
+     */
+    GroupCommandBatch associateClients(final Long groupId, final AssociateDisassociateClientsCommand command);
+
+    /**
+     * Adds the disassociation of clients from a group.
+     * @param groupId the group ID
+     * @param command the {@link AssociateDisassociateClientsCommand}
+     * @return instance of the current {@link GroupCommandBatch}
+     */
+    GroupCommandBatch disassociateClients(final Long groupId, final AssociateDisassociateClientsCommand command);
+
+    /**
+     * Adds the transfer of clients from a group to another.
+     * @param groupId the group ID
+     * @param command the {@link TransferClientsCommand}
+     * @return instance of the current {@link GroupCommandBatch}
+     */
+    GroupCommandBatch transferClients(final Long groupId, final TransferClientsCommand command);
+
+    /**
+     * Adds the assignment of a role to a group.
+     * @param groupId the group ID
+     * @param command the {@link AssignUpdateRoleCommand}
+     * @return instance of the current {@link GroupCommandBatch}
+     */
+    GroupCommandBatch assignRole(final Long groupId, final AssignUpdateRoleCommand command);
+
+    /**
+     * Adds the unassignment of a role from a group.
+     * @param groupId the group ID
+     * @param roleId the role ID
+     * @return instance of the current {@link GroupCommandBatch}
+     */
+    GroupCommandBatch unassignRole(final Long groupId, final Long roleId);
+
+    /**
+     * Adds the update of a role of a group.
+     * @param groupId the group ID
+     * @param roleId the role ID
+     * @param command the {@link AssignUpdateRoleCommand}
+     * @return instance of the current {@link GroupCommandBatch}
+     */
+    GroupCommandBatch updateRole(final Long groupId, final Long roleId, final AssignUpdateRoleCommand command);
+
+}
@@ -5,8 +5,12 @@
  */
 package org.mifos.sdk.group;
 
+import org.mifos.sdk.BatchOptions;
 import org.mifos.sdk.MifosXConnectException;
 import org.mifos.sdk.MifosXResourceException;
+import org.mifos.sdk.PageIterator;
+import org.mifos.sdk.PagingOptions;
+import org.mifos.sdk.group.domain.CollectionSheet;
 import org.mifos.sdk.group.domain.Group;
 import org.mifos.sdk.group.domain.GroupAccountsSummary;
 import org.mifos.sdk.group.domain.PageableGroups;
@@ -21,6 +25,7 @@ import org.mifos.sdk.group.domain.commands.TransferClientsCommand;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
 
 /**
  * Interface to communicate with the Groups API.
@@ -44,6 +49,25 @@ public interface GroupService {
      */
     PageableGroups fetchGroups(final Map<String, Object> queryMap) throws MifosXConnectException;
 
+    /**
+     * Lazily iterates over all the groups matching the query, page by page.
+     * @param queryMap Optional: a {@link Map} with the query parameters, the offset and limit are overridden
+     * @param options the {@link PagingOptions} with the page size and prefetch settings
+     * @return a {@link PageIterator} over the {@link Group}s
+     */
+    PageIterator<Group> iterateGroups(final Map<String, Object> queryMap, final PagingOptions options);
+
+    /**
+     * Retrieves all the groups matching the query. Once the first page reports the total
+     * number of records, the remaining pages are fetched in parallel.
+     * @param queryMap Optional: a {@link Map} with the query parameters, the offset and limit are overridden
+     * @param options the {@link PagingOptions} with the page size, parallelism and ordering
+     * @return a {@link List} with all the {@link Group}s
+     * @throws MifosXConnectException
+     */
+    List<Group> fetchAllGroups(final Map<String, Object> queryMap, final PagingOptions options)
+        throws MifosXConnectException;
+
     /**
      * Retrieves oe particular group.
      * @param groupId the group ID
@@ -128,11 +152,35 @@ public interface GroupService {
      * Generates the collection sheet for the group.
      * @param groupId the group ID
      * @param command the {@link org.mifos.sdk.group.domain.commands.GenerateCollectionSheetCommand}
+     * @return the {@link CollectionSheet} with the clients and the loans due
      * @throws MifosXConnectException
      * @throws MifosXResourceException
      */
-    void generateCollectionSheet(final Long groupId, final GenerateCollectionSheetCommand command) throws
-        MifosXConnectException, MifosXResourceException;
+    CollectionSheet generateCollectionSheet(final Long groupId, final GenerateCollectionSheetCommand command)
+        throws MifosXConnectException, MifosXResourceException;
+
+    /**
+     * Generates the collection sheets of all the groups of an office, or of one center
+     * of the office, up to the given number at the same time, and merges them into one
+     * sheet in the order the groups are listed. Each sheet is generated with the meeting
+     * calendar of the group's center, or of the group itself when it is not part of a
+     * center, in place of the command's calendar; the groups without a meeting are left
+     * out. The first failure is thrown and the calls still running are cancelled.
+     * @param officeId the office ID
+     * @param centerId Optional: the center ID, to generate the sheets of its groups only
+     * @param command the {@link org.mifos.sdk.group.domain.commands.GenerateCollectionSheetCommand}
+     * @param executor Optional: the {@link ExecutorService} generating the sheets,
+     *                 without one they are generated by the calling thread
+     * @param concurrency the maximum number of calls made at the same time
+     * @return the merged {@link CollectionSheet}
+     * @throws MifosXConnectException
+     * @throws MifosXResourceException
+     * @throws InterruptedException if the calling thread is interrupted
+     */
+    CollectionSheet generateCollectionSheets(final Long officeId, final Long centerId,
+                                             final GenerateCollectionSheetCommand command,
+                                             final ExecutorService executor, final int concurrency)
+        throws MifosXConnectException, MifosXResourceException, InterruptedException;
 
     /**
      * Saves the collection sheet of a group.
@@ -144,6 +192,23 @@ public interface GroupService {
     void saveCollectionSheet(final Long groupId, final SaveCollectionSheetCommand command) throws
         MifosXConnectException, MifosXResourceException;
 
+    /**
+     * Saves the collection sheets of many groups. The calling thread serializes the
+     * sheets one ahead of the sends, while the executor sends up to the given number
+     * at the same time. A new sheet is only serialized and sent once a slot is free,
+     * so a slow server slows the submission down instead of piling up requests.
+     * Returns once every sheet is handled.
+     * @param sheets the {@link SaveCollectionSheetCommand}s by group ID, sent in iteration order
+     * @param executor Optional: the {@link ExecutorService} sending the sheets,
+     *                 without one they are sent by the calling thread
+     * @param concurrency the maximum number of sheets sent at the same time
+     * @param callback the {@link CollectionSheetCallback}
+     * @throws InterruptedException if the calling thread is interrupted
+     */
+    void saveCollectionSheets(final Map<Long, SaveCollectionSheetCommand> sheets, final ExecutorService executor,
+                              final int concurrency, final CollectionSheetCallback callback)
+        throws InterruptedException;
+
     /**
      * Un-assigns staff from a group.
      * @param groupId the group ID
@@ -205,4 +270,12 @@ public interface GroupService {
     void updateRole(final Long groupId, final Long roleId, final AssignUpdateRoleCommand command) throws
         MifosXConnectException, MifosXResourceException;
 
+    /**
+     * Returns a new batch which collects group commands and executes them through
+     * the batch API, one request per chunk of commands.
+     * @param options the {@link BatchOptions} with the chunk size and transaction settings
+     * @return an empty {@link GroupCommandBatch}
+     */
+    GroupCommandBatch commandBatch(final BatchOptions options);
+
 }
@@ -0,0 +1,81 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.group.domain;
+
+import com.google.common.base.Preconditions;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Holds a generated collection sheet: the groups, their clients and the loans due
+ * on the due date.
+ */
+public final class CollectionSheet {
+
+    private final Date dueDate;
+    private final List<CollectionSheetGroup> groups;
+
+    /**
+     * Constructs a new instance of {@link CollectionSheet}.
+     * @param date Optional: the due date
+     * @param sheetGroups the {@link CollectionSheetGroup}s
+     */
+    public CollectionSheet(final Date date, final List<CollectionSheetGroup> sheetGroups) {
+        Preconditions.checkNotNull(sheetGroups);
+
+        this.dueDate = date;
+        this.groups = Collections.unmodifiableList(new ArrayList<CollectionSheetGroup>(sheetGroups));
+    }
+
+    /**
+     * Returns the due date.
+     */
+    public Date getDueDate() {
+        return this.dueDate;
+    }
+
+    /**
+     * Returns the list of groups.
+     */
+    public List<CollectionSheetGroup> getGroups() {
+        return this.groups;
+    }
+
+    /**
+     * Returns the total amount due from all the groups.
+     */
+    public BigDecimal getTotalDue() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (final CollectionSheetGroup group : this.groups) {
+            total = total.add(group.getTotalDue());
+        }
+        return total;
+    }
+
+    /**
+     * Merges collection sheets into one holding the groups of all of them, in order.
+     * @param sheets the {@link CollectionSheet}s
+     * @return a new {@link CollectionSheet} with the due date of the first sheet which has one
+     */
+    public static CollectionSheet merge(final List<CollectionSheet> sheets) {
+        Preconditions.checkNotNull(sheets);
+
+        Date dueDate = null;
+        final List<CollectionSheetGroup> groups = new ArrayList<CollectionSheetGroup>();
+        for (final CollectionSheet sheet : sheets) {
+            if (dueDate == null) {
+                dueDate = sheet.getDueDate();
+            }
+            groups.addAll(sheet.getGroups());
+        }
+        return new CollectionSheet(dueDate, groups);
+    }
+
+}
@@ -0,0 +1,55 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.group.domain;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Holds a client of a collection sheet and the loans due from the client.
+ */
+public final class CollectionSheetClient {
+
+    private Long clientId;
+    private String clientName;
+    private List<CollectionSheetLoan> loans;
+
+    /**
+     * Returns the client ID.
+     */
+    public Long getClientId() {
+        return this.clientId;
+    }
+
+    /**
+     * Returns the client name.
+     */
+    public String getClientName() {
+        return this.clientName;
+    }
+
+    /**
+     * Returns the list of loans due.
+     */
+    public List<CollectionSheetLoan> getLoans() {
+        return this.loans != null ? this.loans : Collections.<CollectionSheetLoan>emptyList();
+    }
+
+    /**
+     * Returns the total amount due from the client.
+     */
+    public BigDecimal getTotalDue() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (final CollectionSheetLoan loan : this.getLoans()) {
+            if (loan.getTotalDue() != null) {
+                total = total.add(loan.getTotalDue());
+            }
+        }
+        return total;
+    }
+
+}
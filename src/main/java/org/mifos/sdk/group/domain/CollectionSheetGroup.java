@@ -0,0 +1,69 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.group.domain;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Holds a group of a collection sheet and its clients.
+ */
+public final class CollectionSheetGroup {
+
+    private Long groupId;
+    private String groupName;
+    private Long staffId;
+    private String staffName;
+    private List<CollectionSheetClient> clients;
+
+    /**
+     * Returns the group ID.
+     */
+    public Long getGroupId() {
+        return this.groupId;
+    }
+
+    /**
+     * Returns the group name.
+     */
+    public String getGroupName() {
+        return this.groupName;
+    }
+
+    /**
+     * Returns the staff ID.
+     */
+    public Long getStaffId() {
+        return this.staffId;
+    }
+
+    /**
+     * Returns the staff name.
+     */
+    public String getStaffName() {
+        return this.staffName;
+    }
+
+    /**
+     * Returns the list of clients.
+     */
+    public List<CollectionSheetClient> getClients() {
+        return this.clients != null ? this.clients : Collections.<CollectionSheetClient>emptyList();
+    }
+
+    /**
+     * Returns the total amount due from the clients of the group.
+     */
+    public BigDecimal getTotalDue() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (final CollectionSheetClient client : this.getClients()) {
+            total = total.add(client.getTotalDue());
+        }
+        return total;
+    }
+
+}
@@ -0,0 +1,88 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.group.domain;
+
+import java.math.BigDecimal;
+
+/**
+ * Holds a loan due on a collection sheet.
+ */
+public final class CollectionSheetLoan {
+
+    private Long loanId;
+    private String accountId;
+    private Long productId;
+    private String productShortName;
+    private BigDecimal disbursementAmount;
+    private BigDecimal principalDue;
+    private BigDecimal interestDue;
+    private BigDecimal chargesDue;
+    private BigDecimal totalDue;
+
+    /**
+     * Returns the loan ID.
+     */
+    public Long getLoanId() {
+        return this.loanId;
+    }
+
+    /**
+     * Returns the account number.
+     */
+    public String getAccountId() {
+        return this.accountId;
+    }
+
+    /**
+     * Returns the product ID.
+     */
+    public Long getProductId() {
+        return this.productId;
+    }
+
+    /**
+     * Returns the short product name.
+     */
+    public String getProductShortName() {
+        return this.productShortName;
+    }
+
+    /**
+     * Returns the amount to disburse.
+     */
+    public BigDecimal getDisbursementAmount() {
+        return this.disbursementAmount;
+    }
+
+    /**
+     * Returns the principal due.
+     */
+    public BigDecimal getPrincipalDue() {
+        return this.principalDue;
+    }
+
+    /**
+     * Returns the interest due.
+     */
+    public BigDecimal getInterestDue() {
+        return this.interestDue;
+    }
+
+    /**
+     * Returns the charges due.
+     */
+    public BigDecimal getChargesDue() {
+        return this.chargesDue;
+    }
+
+    /**
+     * Returns the total amount due.
+     */
+    public BigDecimal getTotalDue() {
+        return this.totalDue;
+    }
+
+}
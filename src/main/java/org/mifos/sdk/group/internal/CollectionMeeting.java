@@ -0,0 +1,56 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.group.internal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The collection meeting of a center or a group: the calendar the collection
+ * sheets are generated with and, for a center, the groups attending it.
+ */
+public final class CollectionMeeting {
+
+    private static final class Reference {
+
+        private Long id;
+
+    }
+
+    private Long officeId;
+    private List<Reference> groupMembers;
+    private Reference collectionMeetingCalendar;
+
+    /**
+     * Returns the office ID.
+     */
+    public Long getOfficeId() {
+        return this.officeId;
+    }
+
+    /**
+     * Returns the meeting calendar ID, or null without a meeting.
+     */
+    public Long getCalendarId() {
+        return this.collectionMeetingCalendar == null ? null : this.collectionMeetingCalendar.id;
+    }
+
+    /**
+     * Returns the IDs of the groups of a center.
+     */
+    public List<Long> getGroupIds() {
+        if (this.groupMembers == null) {
+            return Collections.emptyList();
+        }
+        final List<Long> groupIds = new ArrayList<Long>(this.groupMembers.size());
+        for (final Reference group : this.groupMembers) {
+            groupIds.add(group.id);
+        }
+        return groupIds;
+    }
+
+}
@@ -0,0 +1,360 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.group.internal;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import org.mifos.sdk.MifosXConnectException;
+import org.mifos.sdk.MifosXResourceException;
+import org.mifos.sdk.group.AsyncGroupService;
+import org.mifos.sdk.group.GroupService;
+import org.mifos.sdk.group.domain.CollectionSheet;
+import org.mifos.sdk.group.domain.Group;
+import org.mifos.sdk.group.domain.GroupAccountsSummary;
+import org.mifos.sdk.group.domain.PageableGroups;
+import org.mifos.sdk.group.domain.commands.ActivateGroupCommand;
+import org.mifos.sdk.group.domain.commands.AssignUnassignStaffCommand;
+import org.mifos.sdk.group.domain.commands.AssignUpdateRoleCommand;
+import org.mifos.sdk.group.domain.commands.AssociateDisassociateClientsCommand;
+import org.mifos.sdk.group.domain.commands.CloseGroupCommand;
+import org.mifos.sdk.group.domain.commands.GenerateCollectionSheetCommand;
+import org.mifos.sdk.group.domain.commands.SaveCollectionSheetCommand;
+import org.mifos.sdk.group.domain.commands.TransferClientsCommand;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Implements {@link AsyncGroupService} by running the calls of a blocking {@link GroupService}
+ * on an {@link ExecutorService}, so errors are mapped exactly as in the blocking API.
+ */
+public class RestAsyncGroupService implements AsyncGroupService {
+
+    private final GroupService groupService;
+    private final ListeningExecutorService executor;
+
+    /**
+     * Constructs a new instance of {@link RestAsyncGroupService} with the provided
+     * service and executor.
+     * @param service the blocking {@link GroupService} to delegate to
+     * @param executorService the {@link ExecutorService} which runs the calls
+     */
+    public RestAsyncGroupService(final GroupService service,
+                                 final ExecutorService executorService) {
+        super();
+
+        Preconditions.checkNotNull(service);
+        Preconditions.checkNotNull(executorService);
+
+        this.groupService = service;
+        this.executor = MoreExecutors.listeningDecorator(executorService);
+    }
+
+    /**
+     * Creates a new group.
+     * @param group the {@link Group} to create
+     * @return a {@link ListenableFuture} of a {@link Group} with the response parameters
+     */
+    @Override
+    public ListenableFuture<Group> createGroup(final Group group) {
+        return this.executor.submit(new Callable<Group>() {
+            @Override
+            public Group call() throws MifosXConnectException, MifosXResourceException {
+                return groupService.createGroup(group);
+            }
+        });
+    }
+
+    /**
+     * Retrieves all available groups.
+     * @param queryMap a {@link Map} with all the query parameters
+     * @return a {@link ListenableFuture} of a {@link PageableGroups} with the list of {@link Group}s
+     */
+    @Override
+    public ListenableFuture<PageableGroups> fetchGroups(final Map<String, Object> queryMap) {
+        return this.executor.submit(new Callable<PageableGroups>() {
+            @Override
+            public PageableGroups call() throws MifosXConnectException {
+                return groupService.fetchGroups(queryMap);
+            }
+        });
+    }
+
+    /**
+     * Retrieves oe particular group.
+     * @param groupId the group ID
+     * @param queryMap a {@link Map} with all the query parameters
+     * @return a {@link ListenableFuture} of the {@link Group} with all the details of the searched group
+     */
+    @Override
+    public ListenableFuture<Group> findGroup(final Long groupId, final Map<String, Object> queryMap) {
+        return this.executor.submit(new Callable<Group>() {
+            @Override
+            public Group call() throws MifosXConnectException, MifosXResourceException {
+                return groupService.findGroup(groupId, queryMap);
+            }
+        });
+    }
+
+    /**
+     * Retrieves the accounts summary of a group.
+     * @param groupId the group ID
+     * @param fields a {@link List} of fields to include in the response
+     * @return a {@link ListenableFuture} of the {@link Group} with its accounts summary
+     */
+    @Override
+    public ListenableFuture<GroupAccountsSummary> findGroupsAccountsSummary(final Long groupId, final List<String> fields) {
+        return this.executor.submit(new Callable<GroupAccountsSummary>() {
+            @Override
+            public GroupAccountsSummary call() throws MifosXConnectException, MifosXResourceException {
+                return groupService.findGroupsAccountsSummary(groupId, fields);
+            }
+        });
+    }
+
+    /**
+     * Updates a particular group.
+     * @param groupId the group ID
+     * @param group the {@link Group} object with all the changes to be made
+     * @return a {@link ListenableFuture} completed once the operation finishes
+     */
+    @Override
+    public ListenableFuture<Void> updateGroup(final Long groupId, final Group group) {
+        return this.executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws MifosXConnectException, MifosXResourceException {
+                groupService.updateGroup(groupId, group);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Deletes a particular group.
+     * @param groupId the group ID
+     * @return a {@link ListenableFuture} completed once the operation finishes
+     */
+    @Override
+    public ListenableFuture<Void> deleteGroup(final Long groupId) {
+        return this.executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws MifosXConnectException, MifosXResourceException {
+                groupService.deleteGroup(groupId);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Activates a pending group or results in an error if the group is already activated.
+     * @param groupId the group ID
+     * @param command the {@link org.mifos.sdk.group.domain.commands.ActivateGroupCommand}
+     * @return a {@link ListenableFuture} completed once the operation finishes
+     */
+    @Override
+    public ListenableFuture<Void> activateGroup(final Long groupId, final ActivateGroupCommand command) {
+        return this.executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws MifosXConnectException, MifosXResourceException {
+                groupService.activateGroup(groupId, command);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Associates clients with a group.
+     * @param groupId the group ID
+     * @param command the {@link org.mifos.sdk.group.domain.commands.AssociateDisassociateClientsCommand}
+     * @return a {@link ListenableFuture} completed once the operation finishes
+     */
+    @Override
+    public ListenableFuture<Void> associateClients(final Long groupId, final AssociateDisassociateClientsCommand command) {
+        return this.executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws MifosXConnectException, MifosXResourceException {
+                groupService.associateClients(groupId, command);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Disassociates clients from a group.
+     * @param groupId the group ID
+     * @param command the {@link org.mifos.sdk.group.domain.commands.AssociateDisassociateClientsCommand}
+     * @return a {@link ListenableFuture} completed once the operation finishes
+     */
+    @Override
+    public ListenableFuture<Void> disassociateClients(final Long groupId, final AssociateDisassociateClientsCommand command) {
+        return this.executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws MifosXConnectException, MifosXResourceException {
+                groupService.disassociateClients(groupId, command);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Transfers clients from a group to another.
+     * @param groupId the group ID
+     * @param command the {@link org.mifos.sdk.group.domain.commands.TransferClientsCommand}
+     * @return a {@link ListenableFuture} completed once the operation finishes
+     */
+    @Override
+    public ListenableFuture<Void> transferClients(final Long groupId, final TransferClientsCommand command) {
+        return this.executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws MifosXConnectException, MifosXResourceException {
+                groupService.transferClients(groupId, command);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Generates the collection sheet for the group.
+     * @param groupId the group ID
+     * @param command the {@link org.mifos.sdk.group.domain.commands.GenerateCollectionSheetCommand}
+     * @return a {@link ListenableFuture} with the {@link CollectionSheet}
+     */
+    @Override
+    public ListenableFuture<CollectionSheet> generateCollectionSheet(final Long groupId,
+                                                                     final GenerateCollectionSheetCommand command) {
+        return this.executor.submit(new Callable<CollectionSheet>() {
+            @Override
+            public CollectionSheet call() throws MifosXConnectException, MifosXResourceException {
+                return groupService.generateCollectionSheet(groupId, command);
+            }
+        });
+    }
+
+    /**
+     * Saves the collection sheet of a group.
+     * @param groupId the group ID
+     * @param command the {@link org.mifos.sdk.group.domain.commands.SaveCollectionSheetCommand}
+     * @return a {@link ListenableFuture} completed once the operation finishes
+     */
+    @Override
+    public ListenableFuture<Void> saveCollectionSheet(final Long groupId, final SaveCollectionSheetCommand command) {
+        return this.executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws MifosXConnectException, MifosXResourceException {
+                groupService.saveCollectionSheet(groupId, command);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Un-assigns staff from a group.
+     * @param groupId the group ID
+     * @param command the {@link org.mifos.sdk.group.domain.commands.AssignUnassignStaffCommand}
+     * @return a {@link ListenableFuture} completed once the operation finishes
+     */
+    @Override
+    public ListenableFuture<Void> unassignStaff(final Long groupId, final AssignUnassignStaffCommand command) {
+        return this.executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws MifosXConnectException, MifosXResourceException {
+                groupService.unassignStaff(groupId, command);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Assigns staff to a group.
+     * @param groupId the group ID
+     * @param command the {@link org.mifos.sdk.group.domain.commands.AssignUnassignStaffCommand}
+     * @return a {@link ListenableFuture} completed once the operation finishes
+     */
+    @Override
+    public ListenableFuture<Void> assignStaff(final Long groupId, final AssignUnassignStaffCommand command) {
+        return this.executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws MifosXConnectException, MifosXResourceException {
+                groupService.assignStaff(groupId, command);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Closes a group.
+     * @param groupId the group ID
+     * @param command the {@link org.mifos.sdk.group.domain.commands.CloseGroupCommand}
+     * @return a {@link ListenableFuture} completed once the operation finishes
+     */
+    @Override
+    public ListenableFuture<Void> closeGroup(final Long groupId, final CloseGroupCommand command) {
+        return this.executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws MifosXConnectException, MifosXResourceException {
+                groupService.closeGroup(groupId, command);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Assigns a role to a group.
+     * @param groupId the group ID
+     * @param command the {@link org.mifos.sdk.group.domain.commands.AssignUpdateRoleCommand}
+     * @return a {@link ListenableFuture} completed once the operation finishes
+     */
+    @Override
+    public ListenableFuture<Void> assignRole(final Long groupId, final AssignUpdateRoleCommand command) {
+        return this.executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws MifosXConnectException, MifosXResourceException {
+                groupService.assignRole(groupId, command);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Un-assigns a role from a group.
+     * @param groupId the group ID
+     * @param roleId the role ID
+     * @return a {@link ListenableFuture} completed once the operation finishes
+     */
+    @Override
+    public ListenableFuture<Void> unassignRole(final Long groupId, final Long roleId) {
+        return this.executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws MifosXConnectException, MifosXResourceException {
+                groupService.unassignRole(groupId, roleId);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Updates an existing role of a group.
+     * @param groupId the group ID
+     * @param roleId the role ID
+     * @param command the {@link org.mifos.sdk.group.domain.commands.AssignUpdateRoleCommand}
+     * @return a {@link ListenableFuture} completed once the operation finishes
+     */
+    @Override
+    public ListenableFuture<Void> updateRole(final Long groupId, final Long roleId, final AssignUpdateRoleCommand command) {
+        return this.executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws MifosXConnectException, MifosXResourceException {
+                groupService.updateRole(groupId, roleId, command);
+                return null;
+            }
+        });
+    }
+
+}
@@ -0,0 +1,104 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.group.internal;
+
+import com.google.common.base.Preconditions;
+import org.mifos.sdk.BatchOptions;
+import org.mifos.sdk.MifosXProperties;
+import org.mifos.sdk.group.GroupCommandBatch;
+import org.mifos.sdk.group.domain.commands.ActivateGroupCommand;
+import org.mifos.sdk.group.domain.commands.AssignUnassignStaffCommand;
+import org.mifos.sdk.group.domain.commands.AssignUpdateRoleCommand;
+import org.mifos.sdk.group.domain.commands.AssociateDisassociateClientsCommand;
+import org.mifos.sdk.group.domain.commands.CloseGroupCommand;
+import org.mifos.sdk.group.domain.commands.TransferClientsCommand;
+import org.mifos.sdk.internal.ErrorCode;
+import org.mifos.sdk.internal.RestCommandBatch;
+import org.mifos.sdk.internal.RetrofitBatchService;
+
+/**
+ * Implements {@link GroupCommandBatch} for a {@link RestGroupService}.
+ */
+final class RestGroupCommandBatch extends RestCommandBatch implements GroupCommandBatch {
+
+    RestGroupCommandBatch(final MifosXProperties properties, final RetrofitBatchService service,
+                          final String authKey, final BatchOptions options) {
+        super(properties, service, authKey, options, ErrorCode.GROUP_NOT_FOUND);
+    }
+
+    @Override
+    public GroupCommandBatch activate(final Long groupId, final ActivateGroupCommand command) {
+        Preconditions.checkNotNull(command);
+        return this.command(groupId, "activate", null, command);
+    }
+
+    @Override
+    public GroupCommandBatch close(final Long groupId, final CloseGroupCommand command) {
+        Preconditions.checkNotNull(command);
+        return this.command(groupId, "close", null, command);
+    }
+
+    @Override
+    public GroupCommandBatch assignStaff(final Long groupId, final AssignUnassignStaffCommand command) {
+        Preconditions.checkNotNull(command);
+        return this.command(groupId, "assignStaff", null, command);
+    }
+
+    @Override
+    public GroupCommandBatch unassignStaff(final Long groupId, final AssignUnassignStaffCommand command) {
+        Preconditions.checkNotNull(command);
+        return this.command(groupId, "unassignStaff", null, command);
+    }
+
+    @Override
+    public GroupCommandBatch associateClients(final Long groupId,
+                                              final AssociateDisassociateClientsCommand command) {
+        Preconditions.checkNotNull(command);
+        return this.command(groupId, "associateClients", null, command);
+    }
+
+    @Override
+    public GroupCommandBatch disassociateClients(final Long groupId,
+                                                 final AssociateDisassociateClientsCommand command) {
+        Preconditions.checkNotNull(command);
+        return this.command(groupId, "disassociateClients", null, command);
+    }
+
+    @Override
+    public GroupCommandBatch transferClients(final Long groupId, final TransferClientsCommand command) {
+        Preconditions.checkNotNull(command);
+        return this.command(groupId, "transferClients", null, command);
+    }
+
+    @Override
+    public GroupCommandBatch assignRole(final Long groupId, final AssignUpdateRoleCommand command) {
+        Preconditions.checkNotNull(command);
+        return this.command(groupId, "assignRole", null, command);
+    }
+
+    @Override
+    public GroupCommandBatch unassignRole(final Long groupId, final Long roleId) {
+        Preconditions.checkNotNull(roleId);
+        return this.command(groupId, "unassignRole", roleId, null);
+    }
+
+    @Override
+    public GroupCommandBatch updateRole(final Long groupId, final Long roleId,
+                                        final AssignUpdateRoleCommand command) {
+        Preconditions.checkNotNull(roleId);
+        Preconditions.checkNotNull(command);
+        return this.command(groupId, "updateRole", roleId, command);
+    }
+
+    private GroupCommandBatch command(final Long groupId, final String command, final Long roleId,
+                                      final Object body) {
+        Preconditions.checkNotNull(groupId);
+        final String relativeUrl = "groups/" + groupId + "?command=" + command;
+        this.add(groupId, roleId == null ? relativeUrl : relativeUrl + "&roleId=" + roleId, body);
+        return this;
+    }
+
+}
@@ -6,10 +6,18 @@
 package org.mifos.sdk.group.internal;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.AbstractIterator;
+import com.google.gson.Gson;
+import org.mifos.sdk.BatchOptions;
 import org.mifos.sdk.MifosXConnectException;
 import org.mifos.sdk.MifosXProperties;
 import org.mifos.sdk.MifosXResourceException;
+import org.mifos.sdk.PageIterator;
+import org.mifos.sdk.PagingOptions;
+import org.mifos.sdk.group.CollectionSheetCallback;
+import org.mifos.sdk.group.GroupCommandBatch;
 import org.mifos.sdk.group.GroupService;
+import org.mifos.sdk.group.domain.CollectionSheet;
 import org.mifos.sdk.group.domain.Group;
 import org.mifos.sdk.group.domain.GroupAccountsSummary;
 import org.mifos.sdk.group.domain.PageableGroups;
@@ -21,14 +29,32 @@ import org.mifos.sdk.group.domain.commands.CloseGroupCommand;
 import org.mifos.sdk.group.domain.commands.GenerateCollectionSheetCommand;
 import org.mifos.sdk.group.domain.commands.SaveCollectionSheetCommand;
 import org.mifos.sdk.group.domain.commands.TransferClientsCommand;
+import org.mifos.sdk.internal.BoundedFanOut;
 import org.mifos.sdk.internal.ErrorCode;
+import org.mifos.sdk.internal.GsonFactory;
+import org.mifos.sdk.internal.NotFoundCache;
+import org.mifos.sdk.internal.ParallelPageFetcher;
+import org.mifos.sdk.internal.PrefetchingPageIterator;
+import org.mifos.sdk.internal.PrefetchingPageIterator.Page;
+import org.mifos.sdk.internal.RetrofitBatchService;
 import org.mifos.sdk.internal.ServerResponseUtil;
+import org.mifos.sdk.internal.SingleFlight;
 import retrofit.RestAdapter;
 import retrofit.RetrofitError;
+import retrofit.mime.TypedByteArray;
+import retrofit.mime.TypedOutput;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutorService;
 
 /**
  * Implements {@link GroupService} and the inner lying methods
@@ -36,9 +62,46 @@ import java.util.Map;
  */
 public class RestGroupService implements GroupService {
 
+    private static final class SerializedSheet {
+
+        private final Long groupId;
+        private final TypedOutput body;
+
+        private SerializedSheet(final Long id, final TypedOutput sheetBody) {
+            this.groupId = id;
+            this.body = sheetBody;
+        }
+
+        private static SerializedSheet of(final Gson gson, final Map.Entry<Long, SaveCollectionSheetCommand> sheet) {
+            Preconditions.checkNotNull(sheet.getKey());
+            Preconditions.checkNotNull(sheet.getValue());
+            return new SerializedSheet(sheet.getKey(), new TypedByteArray("application/json; charset=UTF-8",
+                gson.toJson(sheet.getValue()).getBytes(StandardCharsets.UTF_8)));
+        }
+
+        private static Iterator<SerializedSheet> serialize(final Gson gson,
+            final Iterator<Map.Entry<Long, SaveCollectionSheetCommand>> sheets) {
+            // serializes the next sheet as soon as one is submitted, while the sends run
+            return new AbstractIterator<SerializedSheet>() {
+                @Override
+                protected SerializedSheet computeNext() {
+                    return sheets.hasNext() ? of(gson, sheets.next()) : this.endOfData();
+                }
+            };
+        }
+
+    }
+
+    private static final int GROUPS_PAGE_SIZE = 200;
+
     private final MifosXProperties connectionProperties;
     private final RestAdapter restAdapter;
     private final String authenticationKey;
+    private final Gson gson;
+    private final NotFoundCache notFoundCache;
+    private final SingleFlight<List<Object>, Group> groupFlight = new SingleFlight<List<Object>, Group>();
+    private volatile RetrofitGroupService retrofitGroupService;
+    private volatile RetrofitBatchService retrofitBatchService;
 
     /**
      * Constructs a new instance of {@link RestGroupService} with the
@@ -50,15 +113,33 @@ public class RestGroupService implements GroupService {
     public RestGroupService(final MifosXProperties properties,
                             final RestAdapter adapter,
                             final String authKey) {
+        this(properties, adapter, authKey, GsonFactory.create());
+    }
+
+    /**
+     * Constructs a new instance of {@link RestGroupService} with the
+     * provided properties, adapter, authKey and the {@link Gson} of the adapter.
+     * @param properties the {@link MifosXProperties} with the API URL endpoint
+     * @param adapter the rest adapter used for creating Retrofit services
+     * @param authKey the authentication key obtain by calling {@link org.mifos.sdk.MifosXClient#login()}
+     * @param apiGson the {@link Gson} serializing the collection sheets sent in bulk
+     */
+    public RestGroupService(final MifosXProperties properties,
+                            final RestAdapter adapter,
+                            final String authKey,
+                            final Gson apiGson) {
         super();
 
         Preconditions.checkNotNull(properties);
         Preconditions.checkNotNull(adapter);
         Preconditions.checkNotNull(authKey);
+        Preconditions.checkNotNull(apiGson);
 
         this.connectionProperties = properties;
         this.authenticationKey = "Basic " + authKey;
         this.restAdapter = adapter;
+        this.gson = apiGson;
+        this.notFoundCache = new NotFoundCache(properties.getNotFoundCache());
     }
 
     /**
@@ -71,11 +152,12 @@ public class RestGroupService implements GroupService {
     public Group createGroup(final Group group) throws MifosXConnectException,
         MifosXResourceException {
         Preconditions.checkNotNull(group);
-        final RetrofitGroupService groupService = this.restAdapter.create(RetrofitGroupService.class);
+        final RetrofitGroupService groupService = this.retrofitService();
         Group responseGroup = null;
         try {
             responseGroup = groupService.createGroup(this.authenticationKey,
                 this.connectionProperties.getTenant(), group);
+            this.notFoundCache.forget(responseGroup == null ? null : responseGroup.getResourceId());
         } catch (RetrofitError error) {
             if (error.getKind() == RetrofitError.Kind.NETWORK) {
                 throw new MifosXConnectException(ErrorCode.NOT_CONNECTED);
@@ -100,7 +182,7 @@ public class RestGroupService implements GroupService {
      */
     public PageableGroups fetchGroups(Map<String, Object> queryMap) throws
         MifosXConnectException {
-        final RetrofitGroupService groupService = this.restAdapter.create(RetrofitGroupService.class);
+        final RetrofitGroupService groupService = this.retrofitService();
         PageableGroups groups = null;
         if (queryMap == null) {
             queryMap = new HashMap<String, Object>();
@@ -124,6 +206,52 @@ public class RestGroupService implements GroupService {
         return groups;
     }
 
+    /**
+     * Lazily iterates over all the groups matching the query, page by page.
+     * @param queryMap Optional: a {@link Map} with the query parameters, the offset and limit are overridden
+     * @param options the {@link PagingOptions} with the page size and prefetch settings
+     * @return a {@link PageIterator} over the {@link Group}s
+     */
+    public PageIterator<Group> iterateGroups(final Map<String, Object> queryMap, final PagingOptions options) {
+        Preconditions.checkNotNull(options);
+        return new PrefetchingPageIterator<Group>(options) {
+            @Override
+            protected Page<Group> fetchPage(final long offset, final int limit) throws MifosXConnectException {
+                return fetchGroupsPage(queryMap, offset, limit);
+            }
+        };
+    }
+
+    /**
+     * Retrieves all the groups matching the query. Once the first page reports the total
+     * number of records, the remaining pages are fetched in parallel.
+     * @param queryMap Optional: a {@link Map} with the query parameters, the offset and limit are overridden
+     * @param options the {@link PagingOptions} with the page size, parallelism and ordering
+     * @return a {@link List} with all the {@link Group}s
+     * @throws MifosXConnectException
+     */
+    public List<Group> fetchAllGroups(final Map<String, Object> queryMap, final PagingOptions options)
+        throws MifosXConnectException {
+        Preconditions.checkNotNull(options);
+        return new ParallelPageFetcher<Group>(options) {
+            @Override
+            protected Page<Group> fetchPage(final long offset, final int limit) throws MifosXConnectException {
+                return fetchGroupsPage(queryMap, offset, limit);
+            }
+        }.fetchAll();
+    }
+
+    private Page<Group> fetchGroupsPage(final Map<String, Object> queryMap, final long offset,
+                                        final int limit) throws MifosXConnectException {
+        final Map<String, Object> pageQueryMap = queryMap == null ? new HashMap<String, Object>()
+            : new HashMap<String, Object>(queryMap);
+        pageQueryMap.put("paged", true);
+        pageQueryMap.put("offset", offset);
+        pageQueryMap.put("limit", limit);
+        final PageableGroups groups = fetchGroups(pageQueryMap);
+        return new Page<Group>(groups.getGroups(), groups.getTotalFilteredRecords());
+    }
+
     /**
      * Retrieves oe particular group.
      * @param groupId the group ID
@@ -135,7 +263,23 @@ public class RestGroupService implements GroupService {
     public Group findGroup(final Long groupId, final Map<String, Object> queryMap) throws
         MifosXConnectException, MifosXResourceException {
         Preconditions.checkNotNull(groupId);
-        final RetrofitGroupService groupService = this.restAdapter.create(RetrofitGroupService.class);
+        final List<Object> key = Arrays.<Object>asList(groupId,
+            queryMap == null ? null : new HashMap<String, Object>(queryMap));
+        return this.groupFlight.execute(key, new SingleFlight.Call<Group>() {
+            @Override
+            public Group call() throws MifosXConnectException, MifosXResourceException {
+                return requestGroup(groupId, queryMap);
+            }
+        });
+    }
+
+    private Group requestGroup(final Long groupId, final Map<String, Object> queryMap) throws
+        MifosXConnectException, MifosXResourceException {
+        if (this.notFoundCache.contains(groupId)) {
+            throw new MifosXResourceException(ErrorCode.GROUP_NOT_FOUND);
+        }
+        final long generation = this.notFoundCache.generation();
+        final RetrofitGroupService groupService = this.retrofitService();
         Group responseGroup = null;
         try {
             responseGroup = groupService.findGroup(this.authenticationKey,
@@ -150,6 +294,7 @@ public class RestGroupService implements GroupService {
                 final String message = ServerResponseUtil.parseResponse(error.getResponse());
                 throw new MifosXResourceException(message);
             } else if (error.getResponse().getStatus() == 404) {
+                this.notFoundCache.put(groupId, generation);
                 throw new MifosXResourceException(ErrorCode.GROUP_NOT_FOUND);
             } else {
                 throw new MifosXConnectException(ErrorCode.UNKNOWN);
@@ -170,7 +315,7 @@ public class RestGroupService implements GroupService {
                                                           final List<String> fields) throws
         MifosXConnectException, MifosXResourceException {
         Preconditions.checkNotNull(groupId);
-        final RetrofitGroupService groupService = this.restAdapter.create(RetrofitGroupService.class);
+        final RetrofitGroupService groupService = this.retrofitService();
         final String allFields = null;
         if (fields != null) {
             for (int i = 0; i < fields.size(); ++i) {
@@ -213,7 +358,7 @@ public class RestGroupService implements GroupService {
         MifosXResourceException {
         Preconditions.checkNotNull(groupId);
         Preconditions.checkNotNull(group);
-        final RetrofitGroupService groupService = this.restAdapter.create(RetrofitGroupService.class);
+        final RetrofitGroupService groupService = this.retrofitService();
         try {
             groupService.updateGroup(this.authenticationKey, this.connectionProperties.getTenant(),
                 groupId, group);
@@ -243,7 +388,7 @@ public class RestGroupService implements GroupService {
     public void deleteGroup(final Long groupId) throws MifosXConnectException,
         MifosXResourceException {
         Preconditions.checkNotNull(groupId);
-        final RetrofitGroupService groupService = this.restAdapter.create(RetrofitGroupService.class);
+        final RetrofitGroupService groupService = this.retrofitService();
         try {
             groupService.deleteGroup(this.authenticationKey, this.connectionProperties.getTenant(),
                 groupId);
@@ -275,7 +420,7 @@ public class RestGroupService implements GroupService {
         MifosXConnectException, MifosXResourceException {
         Preconditions.checkNotNull(groupId);
         Preconditions.checkNotNull(command);
-        final RetrofitGroupService groupService = this.restAdapter.create(RetrofitGroupService.class);
+        final RetrofitGroupService groupService = this.retrofitService();
         try {
             groupService.executeCommand(this.authenticationKey, this.connectionProperties
                 .getTenant(), groupId, "activate", null, command);
@@ -307,7 +452,7 @@ public class RestGroupService implements GroupService {
         MifosXConnectException, MifosXResourceException {
         Preconditions.checkNotNull(groupId);
         Preconditions.checkNotNull(command);
-        final RetrofitGroupService groupService = this.restAdapter.create(RetrofitGroupService.class);
+        final RetrofitGroupService groupService = this.retrofitService();
         try {
             groupService.executeCommand(this.authenticationKey, this.connectionProperties
                 .getTenant(), groupId, "associateClients", null, command);
@@ -339,7 +484,7 @@ public class RestGroupService implements GroupService {
         MifosXConnectException, MifosXResourceException {
         Preconditions.checkNotNull(groupId);
         Preconditions.checkNotNull(command);
-        final RetrofitGroupService groupService = this.restAdapter.create(RetrofitGroupService.class);
+        final RetrofitGroupService groupService = this.retrofitService();
         try {
             groupService.executeCommand(this.authenticationKey, this.connectionProperties
                 .getTenant(), groupId, "disassociateClients", null, command);
@@ -371,7 +516,7 @@ public class RestGroupService implements GroupService {
         MifosXConnectException, MifosXResourceException {
         Preconditions.checkNotNull(groupId);
         Preconditions.checkNotNull(command);
-        final RetrofitGroupService groupService = this.restAdapter.create(RetrofitGroupService.class);
+        final RetrofitGroupService groupService = this.retrofitService();
         try {
             groupService.executeCommand(this.authenticationKey, this.connectionProperties
                 .getTenant(), groupId, "transferClients", null, command);
@@ -396,17 +541,189 @@ public class RestGroupService implements GroupService {
      * Generates the collection sheet for the group.
      * @param groupId the group ID
      * @param command the {@link org.mifos.sdk.group.domain.commands.GenerateCollectionSheetCommand}
+     * @return the {@link CollectionSheet} with the clients and the loans due
      * @throws MifosXConnectException
      * @throws MifosXResourceException
      */
-    public void generateCollectionSheet(final Long groupId, final GenerateCollectionSheetCommand command) throws
-        MifosXConnectException, MifosXResourceException {
+    public CollectionSheet generateCollectionSheet(final Long groupId, final GenerateCollectionSheetCommand command)
+        throws MifosXConnectException, MifosXResourceException {
         Preconditions.checkNotNull(groupId);
         Preconditions.checkNotNull(command);
-        final RetrofitGroupService groupService = this.restAdapter.create(RetrofitGroupService.class);
+        final RetrofitGroupService groupService = this.retrofitService();
         try {
-            groupService.executeCommand(this.authenticationKey, this.connectionProperties
-                .getTenant(), groupId, "generateCollectionSheet", null, command);
+            return groupService.generateCollectionSheet(this.authenticationKey, this.connectionProperties
+                .getTenant(), groupId, "generateCollectionSheet", command);
+        } catch (RetrofitError error) {
+            if (error.getKind() == RetrofitError.Kind.NETWORK) {
+                throw new MifosXConnectException(ErrorCode.NOT_CONNECTED);
+            } else if (error.getKind() == RetrofitError.Kind.CONVERSION ||
+                error.getResponse().getStatus() == 401) {
+                throw new MifosXConnectException(ErrorCode.INVALID_AUTHENTICATION_TOKEN);
+            } else if (error.getResponse().getStatus() == 403) {
+                final String message = ServerResponseUtil.parseResponse(error.getResponse());
+                throw new MifosXResourceException(message);
+            } else if (error.getResponse().getStatus() == 404) {
+                throw new MifosXResourceException(ErrorCode.GROUP_NOT_FOUND);
+            } else {
+                throw new MifosXConnectException(ErrorCode.UNKNOWN);
+            }
+        }
+    }
+
+    /**
+     * Generates the collection sheets of all the groups of an office, or of one center
+     * of the office, up to the given number at the same time, and merges them into one
+     * sheet in the order the groups are listed. Each sheet is generated with the meeting
+     * calendar of the group's center, or of the group itself when it is not part of a
+     * center, in place of the command's calendar; the groups without a meeting are left
+     * out. With a center only the center is fetched, else the groups of the office are
+     * listed and the calendar of each center or lone group is fetched once. The first
+     * failure is thrown and the calls still running are cancelled.
+     * @param officeId the office ID
+     * @param centerId Optional: the center ID, to generate the sheets of its groups only
+     * @param command the {@link org.mifos.sdk.group.domain.commands.GenerateCollectionSheetCommand}
+     * @param executor Optional: the {@link ExecutorService} generating the sheets,
+     *                 without one they are generated by the calling thread
+     * @param concurrency the maximum number of calls made at the same time
+     * @return the merged {@link CollectionSheet}
+     * @throws MifosXConnectException
+     * @throws MifosXResourceException
+     * @throws InterruptedException if the calling thread is interrupted
+     */
+    public CollectionSheet generateCollectionSheets(final Long officeId, final Long centerId,
+                                                    final GenerateCollectionSheetCommand command,
+                                                    final ExecutorService executor, final int concurrency)
+        throws MifosXConnectException, MifosXResourceException, InterruptedException {
+        Preconditions.checkNotNull(officeId);
+        Preconditions.checkNotNull(command);
+        Preconditions.checkArgument(concurrency > 0, "The concurrency must be positive!");
+        final List<Long> groupIds = new ArrayList<Long>();
+        final List<Long> calendarIds = new ArrayList<Long>();
+        if (centerId != null) {
+            final CollectionMeeting center = this.findCenterMeeting(centerId);
+            if (!officeId.equals(center.getOfficeId())) {
+                throw new MifosXResourceException(ErrorCode.CENTER_NOT_FOUND);
+            }
+            if (center.getCalendarId() != null) {
+                for (final Long groupId : center.getGroupIds()) {
+                    groupIds.add(groupId);
+                    calendarIds.add(center.getCalendarId());
+                }
+            }
+        } else {
+            this.findOfficeMeetings(officeId, executor, concurrency, groupIds, calendarIds);
+        }
+
+        final List<Integer> indexes = new ArrayList<Integer>(groupIds.size());
+        for (int i = 0; i < groupIds.size(); ++i) {
+            indexes.add(i);
+        }
+        final CollectionSheet[] generated = new CollectionSheet[groupIds.size()];
+        final Exception[] failure = new Exception[1];
+        new BoundedFanOut<Integer, CollectionSheet>() {
+            @Override
+            protected CollectionSheet call(final Integer index) throws MifosXConnectException,
+                MifosXResourceException {
+                return generateCollectionSheet(groupIds.get(index), withCalendar(command, calendarIds.get(index)));
+            }
+
+            @Override
+            protected void onResult(final Integer index, final CollectionSheet sheet) {
+                generated[index] = sheet;
+            }
+
+            @Override
+            protected boolean onFailure(final Integer index, final Exception e) {
+                failure[0] = e;
+                return false;
+            }
+        }.run(indexes.iterator(), executor, concurrency);
+        rethrow(failure[0]);
+        return CollectionSheet.merge(Arrays.asList(generated));
+    }
+
+    private void findOfficeMeetings(final Long officeId, final ExecutorService executor, final int concurrency,
+                                    final List<Long> groupIds, final List<Long> calendarIds)
+        throws MifosXConnectException, MifosXResourceException, InterruptedException {
+        final Map<String, Object> queryMap = new HashMap<String, Object>();
+        queryMap.put("officeId", officeId);
+        final List<Group> groups = this.fetchAllGroups(queryMap, PagingOptions.pageSize(GROUPS_PAGE_SIZE)
+            .parallelism(concurrency).executor(executor).build());
+
+        // the groups of a center share its meeting, so one group per center is enough
+        final Map<Long, Long> centerCalendars = new HashMap<Long, Long>();
+        final Map<Long, Long> groupCalendars = new HashMap<Long, Long>();
+        final List<Group> lookups = new ArrayList<Group>();
+        final Set<Long> centers = new HashSet<Long>();
+        for (final Group group : groups) {
+            if (group.getCenterId() == null || centers.add(group.getCenterId())) {
+                lookups.add(group);
+            }
+        }
+        final Exception[] failure = new Exception[1];
+        new BoundedFanOut<Group, Long>() {
+            @Override
+            protected Long call(final Group group) throws MifosXConnectException, MifosXResourceException {
+                return group.getCenterId() != null ? findCenterMeeting(group.getCenterId()).getCalendarId()
+                    : findGroupMeeting(group.getResourceId()).getCalendarId();
+            }
+
+            @Override
+            protected void onResult(final Group group, final Long calendarId) {
+                if (group.getCenterId() != null) {
+                    centerCalendars.put(group.getCenterId(), calendarId);
+                } else {
+                    groupCalendars.put(group.getResourceId(), calendarId);
+                }
+            }
+
+            @Override
+            protected boolean onFailure(final Group group, final Exception e) {
+                failure[0] = e;
+                return false;
+            }
+        }.run(lookups.iterator(), executor, concurrency);
+        rethrow(failure[0]);
+
+        for (final Group group : groups) {
+            final Long calendarId = group.getCenterId() != null ? centerCalendars.get(group.getCenterId())
+                : groupCalendars.get(group.getResourceId());
+            if (calendarId != null) {
+                groupIds.add(group.getResourceId());
+                calendarIds.add(calendarId);
+            }
+        }
+    }
+
+    private CollectionMeeting findCenterMeeting(final Long centerId)
+        throws MifosXConnectException, MifosXResourceException {
+        final RetrofitGroupService groupService = this.retrofitService();
+        try {
+            return groupService.findCenterMeeting(this.authenticationKey, this.connectionProperties.getTenant(),
+                centerId, "groupMembers,collectionMeetingCalendar");
+        } catch (RetrofitError error) {
+            if (error.getKind() == RetrofitError.Kind.NETWORK) {
+                throw new MifosXConnectException(ErrorCode.NOT_CONNECTED);
+            } else if (error.getKind() == RetrofitError.Kind.CONVERSION ||
+                error.getResponse().getStatus() == 401) {
+                throw new MifosXConnectException(ErrorCode.INVALID_AUTHENTICATION_TOKEN);
+            } else if (error.getResponse().getStatus() == 403) {
+                final String message = ServerResponseUtil.parseResponse(error.getResponse());
+                throw new MifosXResourceException(message);
+            } else if (error.getResponse().getStatus() == 404) {
+                throw new MifosXResourceException(ErrorCode.CENTER_NOT_FOUND);
+            } else {
+                throw new MifosXConnectException(ErrorCode.UNKNOWN);
+            }
+        }
+    }
+
+    private CollectionMeeting findGroupMeeting(final Long groupId)
+        throws MifosXConnectException, MifosXResourceException {
+        final RetrofitGroupService groupService = this.retrofitService();
+        try {
+            return groupService.findGroupMeeting(this.authenticationKey, this.connectionProperties.getTenant(),
+                groupId, "collectionMeetingCalendar");
         } catch (RetrofitError error) {
             if (error.getKind() == RetrofitError.Kind.NETWORK) {
                 throw new MifosXConnectException(ErrorCode.NOT_CONNECTED);
@@ -424,6 +741,23 @@ public class RestGroupService implements GroupService {
         }
     }
 
+    private static GenerateCollectionSheetCommand withCalendar(final GenerateCollectionSheetCommand command,
+                                                               final Long calendarId) {
+        if (calendarId.equals(command.getCalendarId())) {
+            return command;
+        }
+        return GenerateCollectionSheetCommand.locale(command.getLocale()).dateFormat(command.getDateFormat())
+            .calendarId(calendarId).transactionDate(command.getTransactionDate()).build();
+    }
+
+    private static void rethrow(final Exception failure) throws MifosXConnectException, MifosXResourceException {
+        if (failure instanceof MifosXConnectException) {
+            throw (MifosXConnectException) failure;
+        } else if (failure instanceof MifosXResourceException) {
+            throw (MifosXResourceException) failure;
+        }
+    }
+
     /**
      * Saves the collection sheet of a group.
      * @param groupId the group ID
@@ -435,10 +769,55 @@ public class RestGroupService implements GroupService {
         MifosXConnectException, MifosXResourceException {
         Preconditions.checkNotNull(groupId);
         Preconditions.checkNotNull(command);
-        final RetrofitGroupService groupService = this.restAdapter.create(RetrofitGroupService.class);
+        this.sendCollectionSheet(groupId, command);
+    }
+
+    /**
+     * Saves the collection sheets of many groups. The calling thread serializes the
+     * sheets one ahead of the sends, while the executor sends up to the given number
+     * at the same time. A new sheet is only serialized and sent once a slot is free,
+     * so a slow server slows the submission down instead of piling up requests.
+     * Returns once every sheet is handled.
+     * @param sheets the {@link SaveCollectionSheetCommand}s by group ID, sent in iteration order
+     * @param executor Optional: the {@link ExecutorService} sending the sheets,
+     *                 without one they are sent by the calling thread
+     * @param concurrency the maximum number of sheets sent at the same time
+     * @param callback the {@link CollectionSheetCallback}
+     * @throws InterruptedException if the calling thread is interrupted
+     */
+    public void saveCollectionSheets(final Map<Long, SaveCollectionSheetCommand> sheets,
+                                     final ExecutorService executor, final int concurrency,
+                                     final CollectionSheetCallback callback) throws InterruptedException {
+        Preconditions.checkNotNull(sheets);
+        Preconditions.checkArgument(concurrency > 0, "The concurrency must be positive!");
+        Preconditions.checkNotNull(callback);
+        new BoundedFanOut<SerializedSheet, Void>() {
+            @Override
+            protected Void call(final SerializedSheet sheet) throws MifosXConnectException,
+                MifosXResourceException {
+                sendCollectionSheet(sheet.groupId, sheet.body);
+                return null;
+            }
+
+            @Override
+            protected void onResult(final SerializedSheet sheet, final Void result) {
+                callback.onSaved(sheet.groupId);
+            }
+
+            @Override
+            protected boolean onFailure(final SerializedSheet sheet, final Exception e) {
+                callback.onFailure(sheet.groupId, e);
+                return true;
+            }
+        }.run(SerializedSheet.serialize(this.gson, sheets.entrySet().iterator()), executor, concurrency);
+    }
+
+    private void sendCollectionSheet(final Long groupId, final Object body) throws MifosXConnectException,
+        MifosXResourceException {
+        final RetrofitGroupService groupService = this.retrofitService();
         try {
             groupService.executeCommand(this.authenticationKey, this.connectionProperties
-                .getTenant(), groupId, "saveCollectionSheet", null, command);
+                .getTenant(), groupId, "saveCollectionSheet", null, body);
         } catch (RetrofitError error) {
             if (error.getKind() == RetrofitError.Kind.NETWORK) {
                 throw new MifosXConnectException(ErrorCode.NOT_CONNECTED);
@@ -467,7 +846,7 @@ public class RestGroupService implements GroupService {
         MifosXConnectException, MifosXResourceException {
         Preconditions.checkNotNull(groupId);
         Preconditions.checkNotNull(command);
-        final RetrofitGroupService groupService = this.restAdapter.create(RetrofitGroupService.class);
+        final RetrofitGroupService groupService = this.retrofitService();
         try {
             groupService.executeCommand(this.authenticationKey, this.connectionProperties
                 .getTenant(), groupId, "unassignStaff", null, command);
@@ -499,7 +878,7 @@ public class RestGroupService implements GroupService {
         MifosXConnectException, MifosXResourceException {
         Preconditions.checkNotNull(groupId);
         Preconditions.checkNotNull(command);
-        final RetrofitGroupService groupService = this.restAdapter.create(RetrofitGroupService.class);
+        final RetrofitGroupService groupService = this.retrofitService();
         try {
             groupService.executeCommand(this.authenticationKey, this.connectionProperties
                 .getTenant(), groupId, "assignStaff", null, command);
@@ -531,7 +910,7 @@ public class RestGroupService implements GroupService {
         MifosXResourceException {
         Preconditions.checkNotNull(groupId);
         Preconditions.checkNotNull(command);
-        final RetrofitGroupService groupService = this.restAdapter.create(RetrofitGroupService.class);
+        final RetrofitGroupService groupService = this.retrofitService();
         try {
             groupService.executeCommand(this.authenticationKey, this.connectionProperties
                 .getTenant(), groupId, "close", null, command);
@@ -563,7 +942,7 @@ public class RestGroupService implements GroupService {
         MifosXConnectException, MifosXResourceException {
         Preconditions.checkNotNull(groupId);
         Preconditions.checkNotNull(command);
-        final RetrofitGroupService groupService = this.restAdapter.create(RetrofitGroupService.class);
+        final RetrofitGroupService groupService = this.retrofitService();
         try {
             groupService.executeCommand(this.authenticationKey, this.connectionProperties
                 .getTenant(), groupId, "assignRole", null, command);
@@ -595,7 +974,7 @@ public class RestGroupService implements GroupService {
         MifosXResourceException {
         Preconditions.checkNotNull(groupId);
         Preconditions.checkNotNull(roleId);
-        final RetrofitGroupService groupService = this.restAdapter.create(RetrofitGroupService.class);
+        final RetrofitGroupService groupService = this.retrofitService();
         try {
             groupService.executeCommand(this.authenticationKey, this.connectionProperties
                 .getTenant(), groupId, "unassignRole", roleId, null);
@@ -629,7 +1008,7 @@ public class RestGroupService implements GroupService {
         Preconditions.checkNotNull(groupId);
         Preconditions.checkNotNull(roleId);
         Preconditions.checkNotNull(command);
-        final RetrofitGroupService groupService = this.restAdapter.create(RetrofitGroupService.class);
+        final RetrofitGroupService groupService = this.retrofitService();
         try {
             groupService.executeCommand(this.authenticationKey, this.connectionProperties
                 .getTenant(), groupId, "updateRole", roleId, command);
@@ -650,4 +1029,49 @@ public class RestGroupService implements GroupService {
         }
     }
 
+    /**
+     * Returns a new batch which executes group commands through the batch API.
+     * @param options the {@link BatchOptions} with the chunk size and transaction settings
+     * @return an empty {@link GroupCommandBatch}
+     */
+    public GroupCommandBatch commandBatch(final BatchOptions options) {
+        Preconditions.checkNotNull(options);
+        return new RestGroupCommandBatch(this.connectionProperties, this.retrofitBatchService(),
+            this.authenticationKey, options);
+    }
+
+    /**
+     * Returns the Retrofit proxy for the Groups API, creating it on first use.
+     */
+    private RetrofitGroupService retrofitService() {
+        RetrofitGroupService service = this.retrofitGroupService;
+        if (service == null) {
+            synchronized (this) {
+                service = this.retrofitGroupService;
+                if (service == null) {
+                    service = this.restAdapter.create(RetrofitGroupService.class);
+                    this.retrofitGroupService = service;
+                }
+            }
+        }
+        return service;
+    }
+
+    /**
+     * Returns the Retrofit proxy for the Batch API, creating it on first use.
+     */
+    private RetrofitBatchService retrofitBatchService() {
+        RetrofitBatchService service = this.retrofitBatchService;
+        if (service == null) {
+            synchronized (this) {
+                service = this.retrofitBatchService;
+                if (service == null) {
+                    service = this.restAdapter.create(RetrofitBatchService.class);
+                    this.retrofitBatchService = service;
+                }
+            }
+        }
+        return service;
+    }
+
 }
@@ -5,6 +5,7 @@
  */
 package org.mifos.sdk.group.internal;
 
+import org.mifos.sdk.group.domain.CollectionSheet;
 import org.mifos.sdk.group.domain.Group;
 import org.mifos.sdk.group.domain.GroupAccountsSummary;
 import org.mifos.sdk.group.domain.PageableGroups;
@@ -131,4 +132,51 @@ public interface RetrofitGroupService {
                                    @Query(RestConstants.QUERY_ROLEID) Long roleId,
                                    @Body Object commandBody);
 
+    /**
+     * Generates the collection sheet of a group.
+     * @param authenticationKey the authentication key obtained by
+     *                          calling {@link org.mifos.sdk.MifosXClient#login()}
+     * @param tenantId the tenant ID
+     * @param groupId the group ID
+     * @param command the command, generateCollectionSheet
+     * @param commandBody the {@link org.mifos.sdk.group.domain.commands.GenerateCollectionSheetCommand}
+     * @return the generated {@link CollectionSheet}
+     */
+    @POST("/groups/{groupId}")
+    public CollectionSheet generateCollectionSheet(@Header(RestConstants.HEADER_AUTHORIZATION) String authenticationKey,
+                                                   @Header(RestConstants.HEADER_TENANTID) String tenantId,
+                                                   @Path("groupId") Long groupId,
+                                                   @Query(RestConstants.QUERY_COMMAND) String command,
+                                                   @Body Object commandBody);
+
+    /**
+     * Retrieves the collection meeting of a center, with the groups attending it.
+     * @param authenticationKey the authentication key obtained by
+     *                          calling {@link org.mifos.sdk.MifosXClient#login()}
+     * @param tenantId the tenant ID
+     * @param centerId the center ID
+     * @param associations the associations, groupMembers,collectionMeetingCalendar
+     * @return the {@link CollectionMeeting} of the center
+     */
+    @GET("/centers/{centerId}")
+    public CollectionMeeting findCenterMeeting(@Header(RestConstants.HEADER_AUTHORIZATION) String authenticationKey,
+                                               @Header(RestConstants.HEADER_TENANTID) String tenantId,
+                                               @Path("centerId") Long centerId,
+                                               @Query("associations") String associations);
+
+    /**
+     * Retrieves the collection meeting of a group.
+     * @param authenticationKey the authentication key obtained by
+     *                          calling {@link org.mifos.sdk.MifosXClient#login()}
+     * @param tenantId the tenant ID
+     * @param groupId the group ID
+     * @param associations the associations, collectionMeetingCalendar
+     * @return the {@link CollectionMeeting} of the group
+     */
+    @GET("/groups/{groupId}")
+    public CollectionMeeting findGroupMeeting(@Header(RestConstants.HEADER_AUTHORIZATION) String authenticationKey,
+                                              @Header(RestConstants.HEADER_TENANTID) String tenantId,
+                                              @Path("groupId") Long groupId,
+                                              @Query("associations") String associations);
+
 }
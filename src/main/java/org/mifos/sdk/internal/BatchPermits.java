@@ -0,0 +1,49 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.internal;
+
+import com.google.common.base.Preconditions;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * The permits shared by the batch executors of one client. The pool grows to the
+ * largest concurrency any of them asked for, so together they never call the server
+ * more often at once than the most permissive one alone.
+ */
+final class BatchPermits {
+
+    private final Semaphore semaphore = new Semaphore(0, true);
+    private int size;
+
+    /**
+     * Grows the pool to at least the given number of permits.
+     * @param concurrency the concurrency of a new executor
+     */
+    synchronized void ensure(final int concurrency) {
+        Preconditions.checkArgument(concurrency > 0, "The concurrency must be positive!");
+        if (concurrency > this.size) {
+            this.semaphore.release(concurrency - this.size);
+            this.size = concurrency;
+        }
+    }
+
+    /**
+     * Takes a permit, waiting for one to be free.
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    void acquire() throws InterruptedException {
+        this.semaphore.acquire();
+    }
+
+    /**
+     * Gives a permit back.
+     */
+    void release() {
+        this.semaphore.release();
+    }
+
+}
@@ -0,0 +1,53 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.internal;
+
+/**
+ * One request of a call to the batch API. The body is serialized to JSON with
+ * the serializer of its type and sent as a string.
+ */
+public final class BatchRequest {
+
+    private final Long requestId;
+    private final String relativeUrl;
+    private final String method;
+    private final Object body;
+
+    /**
+     * Constructs a new instance of {@link BatchRequest}.
+     * @param id the ID of the request within its call
+     * @param url the URL of the request relative to the API endpoint
+     * @param httpMethod the HTTP method
+     * @param requestBody Optional: the request body
+     */
+    public BatchRequest(final Long id, final String url, final String httpMethod, final Object requestBody) {
+        this.requestId = id;
+        this.relativeUrl = url;
+        this.method = httpMethod;
+        this.body = requestBody;
+    }
+
+    /** Returns the ID of the request within its call. */
+    public Long getRequestId() {
+        return this.requestId;
+    }
+
+    /** Returns the URL of the request relative to the API endpoint. */
+    public String getRelativeUrl() {
+        return this.relativeUrl;
+    }
+
+    /** Returns the HTTP method. */
+    public String getMethod() {
+        return this.method;
+    }
+
+    /** Returns the request body, or null. */
+    public Object getBody() {
+        return this.body;
+    }
+
+}
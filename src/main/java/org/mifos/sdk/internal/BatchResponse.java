@@ -0,0 +1,44 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.internal;
+
+/**
+ * The response to one {@link BatchRequest} returned by the batch API.
+ */
+public final class BatchResponse {
+
+    private Long requestId;
+    private Integer statusCode;
+    private String body;
+
+    /**
+     * Constructs a new instance of {@link BatchResponse}.
+     * @param id the ID of the request
+     * @param status the HTTP status
+     * @param responseBody Optional: the JSON body
+     */
+    public BatchResponse(final Long id, final Integer status, final String responseBody) {
+        this.requestId = id;
+        this.statusCode = status;
+        this.body = responseBody;
+    }
+
+    /** Returns the ID of the request. */
+    public Long getRequestId() {
+        return this.requestId;
+    }
+
+    /** Returns the HTTP status. */
+    public Integer getStatusCode() {
+        return this.statusCode;
+    }
+
+    /** Returns the JSON body, or null. */
+    public String getBody() {
+        return this.body;
+    }
+
+}
@@ -0,0 +1,137 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.internal;
+
+import com.google.common.base.Preconditions;
+import org.mifos.sdk.MifosXConnectException;
+import org.mifos.sdk.MifosXResourceException;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Makes one call per key on an executor, with at most a given number of calls
+ * running at the same time. A new key is only submitted once a slot is free, so a
+ * slow server slows the submission down instead of piling up requests. The results
+ * and failures are handed over on the calling thread in the order the calls finish.
+ * Without an executor the calls are made one after another by the calling thread.
+ * @param <K> the type of the keys
+ * @param <V> the type of the results
+ */
+public abstract class BoundedFanOut<K, V> {
+
+    /**
+     * Makes the call for one key.
+     * @param key the key
+     * @return the result
+     * @throws MifosXConnectException
+     * @throws MifosXResourceException
+     */
+    protected abstract V call(final K key) throws MifosXConnectException, MifosXResourceException;
+
+    /**
+     * Receives the result of a call, on the calling thread.
+     * @param key the key
+     * @param result the result
+     */
+    protected abstract void onResult(final K key, final V result);
+
+    /**
+     * Receives the failure of a call, on the calling thread.
+     * @param key the key
+     * @param failure the {@link MifosXConnectException} or {@link MifosXResourceException}
+     * @return true to go on with the remaining keys, false to stop and cancel the
+     *         calls still running
+     */
+    protected abstract boolean onFailure(final K key, final Exception failure);
+
+    /**
+     * Makes the calls and returns once every one is handled, or a failure stopped them.
+     * {@link Iterator#hasNext()} is asked right after each submission, so the keys
+     * can prepare the next one while the calls run.
+     * @param keys the keys, submitted in iteration order
+     * @param executor Optional: the {@link ExecutorService} making the calls
+     * @param concurrency the maximum number of calls running at the same time
+     * @throws InterruptedException if the calling thread is interrupted
+     */
+    public final void run(final Iterator<K> keys, final ExecutorService executor, final int concurrency)
+        throws InterruptedException {
+        Preconditions.checkNotNull(keys);
+        Preconditions.checkArgument(concurrency > 0, "The concurrency must be positive!");
+        if (executor == null) {
+            while (keys.hasNext()) {
+                final K key = keys.next();
+                final V result;
+                try {
+                    result = this.call(key);
+                } catch (MifosXConnectException e) {
+                    if (this.onFailure(key, e)) {
+                        continue;
+                    }
+                    return;
+                } catch (MifosXResourceException e) {
+                    if (this.onFailure(key, e)) {
+                        continue;
+                    }
+                    return;
+                }
+                this.onResult(key, result);
+            }
+            return;
+        }
+
+        final CompletionService<V> completionService = new ExecutorCompletionService<V>(executor);
+        final Map<Future<V>, K> running = new HashMap<Future<V>, K>();
+        try {
+            while (true) {
+                while (keys.hasNext() && running.size() < concurrency) {
+                    final K key = keys.next();
+                    running.put(completionService.submit(new Callable<V>() {
+                        @Override
+                        public V call() throws MifosXConnectException, MifosXResourceException {
+                            return BoundedFanOut.this.call(key);
+                        }
+                    }), key);
+                }
+                if (running.isEmpty()) {
+                    break;
+                }
+                final Future<V> future = completionService.take();
+                final K key = running.remove(future);
+                final V result;
+                try {
+                    result = future.get();
+                } catch (ExecutionException e) {
+                    final Throwable cause = e.getCause();
+                    if (cause instanceof MifosXConnectException || cause instanceof MifosXResourceException) {
+                        if (this.onFailure(key, (Exception) cause)) {
+                            continue;
+                        }
+                        return;
+                    } else if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    } else if (cause instanceof Error) {
+                        throw (Error) cause;
+                    }
+                    throw new IllegalStateException(cause);
+                }
+                this.onResult(key, result);
+            }
+        } finally {
+            for (final Future<V> future : running.keySet()) {
+                future.cancel(true);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,67 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.internal;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.mifos.sdk.client.domain.Client;
+import org.mifos.sdk.client.domain.ClientIdentifier;
+import org.mifos.sdk.client.domain.commands.ActivateClientCommand;
+import org.mifos.sdk.client.domain.commands.CloseClientCommand;
+import org.mifos.sdk.group.domain.Group;
+import org.mifos.sdk.group.domain.commands.ActivateGroupCommand;
+import org.mifos.sdk.group.domain.commands.CloseGroupCommand;
+import org.mifos.sdk.group.domain.commands.GenerateCollectionSheetCommand;
+import org.mifos.sdk.internal.accounts.Timeline;
+import org.mifos.sdk.internal.serializers.BatchRequestSerializer;
+import org.mifos.sdk.internal.serializers.ClientIdentifierSerializer;
+import org.mifos.sdk.internal.serializers.ClientSerializer;
+import org.mifos.sdk.internal.serializers.CollectionSheetSerializer;
+import org.mifos.sdk.internal.serializers.GroupSerializer;
+import org.mifos.sdk.internal.serializers.OfficeSerializer;
+import org.mifos.sdk.internal.serializers.StaffSerializer;
+import org.mifos.sdk.internal.serializers.TimelineSerializer;
+import org.mifos.sdk.internal.serializers.commands.client.ActivateClientSerializer;
+import org.mifos.sdk.internal.serializers.commands.client.CloseClientSerializer;
+import org.mifos.sdk.internal.serializers.commands.group.ActivateGroupSerializer;
+import org.mifos.sdk.internal.serializers.commands.group.CloseGroupSerializer;
+import org.mifos.sdk.internal.serializers.commands.group.GenerateCollectionSheetSerializer;
+import org.mifos.sdk.internal.serializers.commands.group.SaveCollectionSheetSerializer;
+import org.mifos.sdk.office.domain.Office;
+import org.mifos.sdk.staff.domain.Staff;
+
+/**
+ * Utility class to build the {@link Gson} with the serializers of all the API resources.
+ */
+public final class GsonFactory {
+
+    /**
+     * Returns a new {@link Gson} with the serializers of all the API resources.
+     */
+    public static Gson create() {
+        return new GsonBuilder()
+                .registerTypeAdapter(Timeline.class, new TimelineSerializer())
+                // serializers
+                .registerTypeAdapter(Office.class, new OfficeSerializer())
+                .registerTypeAdapter(Staff.class, new StaffSerializer())
+                .registerTypeAdapter(Client.class, new ClientSerializer())
+                .registerTypeAdapter(Group.class, new GroupSerializer())
+                .registerTypeAdapterFactory(new CollectionSheetSerializer())
+                // commands serializers
+                .registerTypeAdapter(ActivateClientCommand.class, new ActivateClientSerializer())
+                .registerTypeAdapter(CloseClientCommand.class, new CloseClientSerializer())
+                .registerTypeAdapter(ActivateGroupCommand.class, new ActivateGroupSerializer())
+                .registerTypeAdapter(CloseGroupCommand.class, new CloseGroupSerializer())
+                .registerTypeAdapter(GenerateCollectionSheetCommand.class, new GenerateCollectionSheetSerializer())
+                .registerTypeAdapterFactory(new SaveCollectionSheetSerializer())
+                // identifier serializers
+                .registerTypeAdapter(ClientIdentifier.class, new ClientIdentifierSerializer())
+                // batch serializers
+                .registerTypeAdapter(BatchRequest.class, new BatchRequestSerializer())
+                .create();
+    }
+
+}
@@ -0,0 +1,112 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.internal;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Ticker;
+import org.mifos.sdk.NotFoundCacheOptions;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Remembers the IDs of one resource the server answered with 404 Not Found. An ID
+ * is stored with the generation the cache had when its request started, and
+ * dropped if an ID was forgotten in between, so a lookup racing the creation of
+ * the resource never remembers it as missing. Without options the cache is
+ * disabled and remembers nothing.
+ */
+public final class NotFoundCache {
+
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final Ticker ticker;
+    private final LinkedHashMap<Long, Long> storedAt;
+    private long generation;
+
+    /**
+     * Constructs a new instance of {@link NotFoundCache}.
+     * @param options Optional: the {@link NotFoundCacheOptions}, null to disable the cache
+     */
+    public NotFoundCache(final NotFoundCacheOptions options) {
+        this(options, Ticker.systemTicker());
+    }
+
+    NotFoundCache(final NotFoundCacheOptions options, final Ticker clock) {
+        Preconditions.checkNotNull(clock);
+
+        this.ttlNanos = options == null ? 0 : TimeUnit.MILLISECONDS.toNanos(options.getTtl());
+        this.maxEntries = options == null ? 0 : options.getMaxEntries();
+        this.ticker = clock;
+        this.storedAt = new LinkedHashMap<Long, Long>() {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Long, Long> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Returns the generation to pass to {@link #put(Long, long)} for a request
+     * which starts now.
+     */
+    public synchronized long generation() {
+        return this.generation;
+    }
+
+    /**
+     * Returns whether the server recently reported the ID as not found.
+     * @param id the resource ID
+     * @return true if the ID is remembered and its time to live has not run out
+     */
+    public synchronized boolean contains(final Long id) {
+        final Long time = this.storedAt.get(id);
+        if (time == null) {
+            return false;
+        }
+        if (this.ticker.read() - time < this.ttlNanos) {
+            return true;
+        }
+        this.storedAt.remove(id);
+        return false;
+    }
+
+    /**
+     * Remembers an ID the server reported as not found, unless an ID was forgotten
+     * since the given generation.
+     * @param id the resource ID
+     * @param requestGeneration the {@link #generation()} before the request
+     */
+    public synchronized void put(final Long id, final long requestGeneration) {
+        if (this.maxEntries == 0 || requestGeneration != this.generation) {
+            return;
+        }
+        this.storedAt.remove(id);
+        this.storedAt.put(id, this.ticker.read());
+    }
+
+    /**
+     * Forgets an ID after the resource was created.
+     * @param id Optional: the ID of the created resource, null to forget every ID
+     */
+    public synchronized void forget(final Long id) {
+        ++this.generation;
+        if (id == null) {
+            this.storedAt.clear();
+        } else {
+            this.storedAt.remove(id);
+        }
+    }
+
+    /**
+     * Returns the number of remembered IDs, including expired ones not yet dropped.
+     */
+    public synchronized int size() {
+        return this.storedAt.size();
+    }
+
+}
@@ -0,0 +1,348 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.internal;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Ticker;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An append-only journal of the commands queued by {@link RestOutbox}, one JSON
+ * record per line. A queued command is written as an entry record and taken off
+ * by an acknowledgement record. Writes are forced to disk at most once per sync
+ * interval. Once the acknowledgements outnumber the queued commands the journal is
+ * rewritten with the queued commands only, and atomically moved over the old one.
+ * A torn last line, left by a crash in the middle of a write, is dropped when the
+ * journal is opened. An open journal holds a lock on a sidecar lock file, so a
+ * second outbox on the same journal, in this process or another, fails to open
+ * instead of replaying the same commands.
+ */
+final class OutboxJournal implements Closeable {
+
+    /**
+     * A queued command.
+     */
+    static final class Entry {
+
+        private final String key;
+        private final String path;
+        private final String command;
+        private final String body;
+
+        Entry(final String idempotencyKey, final String relativePath, final String commandName,
+              final String commandBody) {
+            this.key = idempotencyKey;
+            this.path = relativePath;
+            this.command = commandName;
+            this.body = commandBody;
+        }
+
+        /** Returns the idempotency key. */
+        String getKey() {
+            return this.key;
+        }
+
+        /** Returns the path relative to the API endpoint. */
+        String getPath() {
+            return this.path;
+        }
+
+        /** Returns the command query parameter, or null. */
+        String getCommand() {
+            return this.command;
+        }
+
+        /** Returns the JSON request body. */
+        String getBody() {
+            return this.body;
+        }
+
+    }
+
+    private static final class Record {
+
+        private String op;
+        private String key;
+        private String path;
+        private String command;
+        private String body;
+
+    }
+
+    private static final String OP_ENTRY = "entry";
+    private static final String OP_ACK = "ack";
+    private static final int COMPACT_THRESHOLD = 256;
+
+    private final Path journal;
+    private final FileChannel lockChannel;
+    private final long syncInterval;
+    private final Ticker ticker;
+    private final Gson gson;
+    private final Map<String, Entry> entries;
+    private FileChannel channel;
+    private int acknowledged;
+    private boolean dirty;
+    private long lastSync;
+
+    /**
+     * Opens the journal, creating it if it does not exist.
+     * @param file the journal file
+     * @param interval the sync interval
+     * @param unit the {@link TimeUnit} of the interval
+     * @throws IOException if the journal could not be opened, or another journal has it open
+     */
+    OutboxJournal(final Path file, final long interval, final TimeUnit unit) throws IOException {
+        this(file, interval, unit, Ticker.systemTicker());
+    }
+
+    OutboxJournal(final Path file, final long interval, final TimeUnit unit, final Ticker clock)
+        throws IOException {
+        Preconditions.checkNotNull(file);
+        Preconditions.checkArgument(interval >= 0);
+        Preconditions.checkNotNull(unit);
+        Preconditions.checkNotNull(clock);
+
+        this.journal = file;
+        this.syncInterval = unit.toNanos(interval);
+        this.ticker = clock;
+        this.gson = new Gson();
+        this.entries = new LinkedHashMap<String, Entry>();
+        this.lockChannel = lock(file);
+        boolean opened = false;
+        try {
+            final boolean clean = this.recover();
+            if (!clean || this.acknowledged > 0) {
+                this.compact();
+            } else {
+                this.channel = FileChannel.open(this.journal, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            }
+            opened = true;
+        } finally {
+            if (!opened) {
+                this.lockChannel.close();
+            }
+        }
+        this.lastSync = this.ticker.read();
+    }
+
+    /**
+     * Appends a command.
+     * @param entry the {@link Entry}
+     * @throws IOException
+     */
+    synchronized void append(final Entry entry) throws IOException {
+        Preconditions.checkNotNull(entry);
+        Preconditions.checkState(this.channel != null, "The journal is closed!");
+
+        final Record record = new Record();
+        record.op = OP_ENTRY;
+        record.key = entry.getKey();
+        record.path = entry.getPath();
+        record.command = entry.getCommand();
+        record.body = entry.getBody();
+        this.write(record);
+        this.entries.put(entry.getKey(), entry);
+        this.maybeSync();
+    }
+
+    /**
+     * Takes a command off the journal.
+     * @param key the idempotency key of the command
+     * @throws IOException
+     */
+    synchronized void acknowledge(final String key) throws IOException {
+        Preconditions.checkNotNull(key);
+        Preconditions.checkState(this.channel != null, "The journal is closed!");
+
+        if (this.entries.remove(key) == null) {
+            return;
+        }
+        if (this.entries.isEmpty()) {
+            this.channel.truncate(0);
+            this.channel.force(true);
+            this.acknowledged = 0;
+            this.dirty = false;
+            this.lastSync = this.ticker.read();
+            return;
+        }
+        final Record record = new Record();
+        record.op = OP_ACK;
+        record.key = key;
+        this.write(record);
+        ++this.acknowledged;
+        if (this.acknowledged >= COMPACT_THRESHOLD && this.acknowledged >= this.entries.size()) {
+            this.channel.close();
+            this.channel = null;
+            this.compact();
+        } else {
+            this.maybeSync();
+        }
+    }
+
+    /**
+     * Returns the queued commands in the order they were appended.
+     */
+    synchronized List<Entry> entries() {
+        return new ArrayList<Entry>(this.entries.values());
+    }
+
+    /**
+     * Returns the number of queued commands.
+     */
+    synchronized int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * Forces the appended records to disk.
+     * @throws IOException
+     */
+    synchronized void sync() throws IOException {
+        if (this.channel != null && this.dirty) {
+            this.channel.force(false);
+            this.dirty = false;
+            this.lastSync = this.ticker.read();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            if (this.channel != null) {
+                try {
+                    this.sync();
+                } finally {
+                    this.channel.close();
+                    this.channel = null;
+                }
+            }
+        } finally {
+            // closing the channel releases the lock, the lock file itself is left in place
+            this.lockChannel.close();
+        }
+    }
+
+    private static FileChannel lock(final Path file) throws IOException {
+        final Path lockFile = file.resolveSibling(file.getFileName() + ".lock");
+        final FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            if (channel.tryLock() != null) {
+                return channel;
+            }
+        } catch (OverlappingFileLockException e) {
+            // held by another journal of this process
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        channel.close();
+        throw new IOException("The journal " + file + " is already open!");
+    }
+
+    private void write(final Record record) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.wrap((this.gson.toJson(record) + "\n")
+            .getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            this.channel.write(buffer);
+        }
+        this.dirty = true;
+    }
+
+    private void maybeSync() throws IOException {
+        if (this.ticker.read() - this.lastSync >= this.syncInterval) {
+            this.sync();
+        }
+    }
+
+    private boolean recover() throws IOException {
+        if (!Files.exists(this.journal)) {
+            return true;
+        }
+        final String content = new String(Files.readAllBytes(this.journal), StandardCharsets.UTF_8);
+        int start = 0;
+        int end;
+        while ((end = content.indexOf('\n', start)) >= 0) {
+            final Record record;
+            try {
+                record = this.gson.fromJson(content.substring(start, end), Record.class);
+            } catch (JsonParseException e) {
+                return false;
+            }
+            if (record == null || record.key == null) {
+                return false;
+            }
+            if (OP_ENTRY.equals(record.op)) {
+                this.entries.put(record.key, new Entry(record.key, record.path, record.command, record.body));
+            } else if (OP_ACK.equals(record.op)) {
+                this.entries.remove(record.key);
+                ++this.acknowledged;
+            } else {
+                return false;
+            }
+            start = end + 1;
+        }
+        return start == content.length();
+    }
+
+    private void compact() throws IOException {
+        final Path compacted = this.journal.resolveSibling(this.journal.getFileName() + ".tmp");
+        this.channel = FileChannel.open(compacted, StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            for (final Entry entry : this.entries.values()) {
+                final Record record = new Record();
+                record.op = OP_ENTRY;
+                record.key = entry.getKey();
+                record.path = entry.getPath();
+                record.command = entry.getCommand();
+                record.body = entry.getBody();
+                this.write(record);
+            }
+            this.channel.force(true);
+        } finally {
+            this.channel.close();
+            this.channel = null;
+        }
+        Files.move(compacted, this.journal, StandardCopyOption.ATOMIC_MOVE);
+        this.syncDirectory();
+        this.channel = FileChannel.open(this.journal, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.acknowledged = 0;
+        this.dirty = false;
+        this.lastSync = this.ticker.read();
+    }
+
+    private void syncDirectory() {
+        final Path directory = this.journal.toAbsolutePath().getParent();
+        if (directory == null) {
+            return;
+        }
+        // makes the rename durable, not every platform can open a directory
+        try (FileChannel directoryChannel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            directoryChannel.force(true);
+        } catch (IOException e) {
+            // the rename is still atomic, only its durability is left to the file system
+        }
+    }
+
+}
@@ -0,0 +1,153 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.internal;
+
+import com.google.common.base.Preconditions;
+import org.mifos.sdk.MifosXConnectException;
+import org.mifos.sdk.PagingOptions;
+import org.mifos.sdk.internal.PrefetchingPageIterator.Page;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Fetches all the pages of a resource. The first page is fetched by the calling
+ * thread; once it reports the total number of filtered records the remaining
+ * offsets are known and up to {@link PagingOptions#getParallelism()} of them
+ * are requested at the same time. The first failing page cancels the others.
+ * Without a known total, or without an executor, the pages are fetched one
+ * after another.
+ * @param <T> the type of the items
+ */
+public abstract class ParallelPageFetcher<T> {
+
+    private final int pageSize;
+    private final int parallelism;
+    private final boolean ordered;
+    private final ExecutorService executor;
+
+    /**
+     * Constructs a new {@link ParallelPageFetcher} with the given options.
+     * @param options the {@link PagingOptions}
+     */
+    protected ParallelPageFetcher(final PagingOptions options) {
+        Preconditions.checkNotNull(options);
+
+        this.pageSize = options.getPageSize();
+        this.parallelism = options.getParallelism();
+        this.ordered = options.isOrdered();
+        this.executor = options.getExecutor();
+    }
+
+    /**
+     * Fetches one page from the server.
+     * @param offset the offset of the first item
+     * @param limit the maximum number of items
+     * @return the {@link Page}
+     * @throws MifosXConnectException
+     */
+    protected abstract Page<T> fetchPage(final long offset, final int limit) throws MifosXConnectException;
+
+    /**
+     * Fetches all the pages and merges their items.
+     * @return a {@link List} with all the items
+     * @throws MifosXConnectException if any page fails
+     */
+    public List<T> fetchAll() throws MifosXConnectException {
+        final Page<T> first = fetchPage(0L, this.pageSize);
+        final Long total = first.getTotal();
+        final List<T> items = new ArrayList<T>(total == null ? first.getItems().size()
+            : (int) Math.min(total, Integer.MAX_VALUE));
+        items.addAll(first.getItems());
+        if (first.getItems().isEmpty()) {
+            return items;
+        }
+
+        if (total == null) {
+            Page<T> page = first;
+            while (page.getItems().size() >= this.pageSize) {
+                page = fetchPage(items.size(), this.pageSize);
+                items.addAll(page.getItems());
+            }
+        } else if (this.executor == null || this.parallelism == 1) {
+            for (long offset = this.pageSize; offset < total; offset += this.pageSize) {
+                items.addAll(fetchPage(offset, this.pageSize).getItems());
+            }
+        } else {
+            fetchRemaining(total, items);
+        }
+        return items;
+    }
+
+    private void fetchRemaining(final long total, final List<T> items) throws MifosXConnectException {
+        final CompletionService<Page<T>> completionService = new ExecutorCompletionService<Page<T>>(this.executor);
+        final Map<Future<Page<T>>, Integer> indexes = new HashMap<Future<Page<T>>, Integer>();
+        final int pages = (int) ((total - 1) / this.pageSize);
+        final List<List<T>> received = new ArrayList<List<T>>(pages);
+        int submitted = 0;
+        int completed = 0;
+        try {
+            while (submitted < pages && submitted < this.parallelism) {
+                indexes.put(submit(completionService, submitted), submitted);
+                ++submitted;
+            }
+            while (completed < pages) {
+                final Future<Page<T>> future = completionService.take();
+                final int index = indexes.remove(future);
+                final List<T> pageItems = future.get().getItems();
+                ++completed;
+                if (submitted < pages) {
+                    indexes.put(submit(completionService, submitted), submitted);
+                    ++submitted;
+                }
+                if (!this.ordered) {
+                    items.addAll(pageItems);
+                    continue;
+                }
+                while (received.size() <= index) {
+                    received.add(null);
+                }
+                received.set(index, pageItems);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof MifosXConnectException) {
+                throw (MifosXConnectException) e.getCause();
+            } else if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            for (final Future<Page<T>> future : indexes.keySet()) {
+                future.cancel(true);
+            }
+        }
+        for (final List<T> pageItems : received) {
+            items.addAll(pageItems);
+        }
+    }
+
+    private Future<Page<T>> submit(final CompletionService<Page<T>> completionService, final int index) {
+        final long offset = (index + 1L) * this.pageSize;
+        return completionService.submit(new Callable<Page<T>>() {
+            @Override
+            public Page<T> call() throws MifosXConnectException {
+                return fetchPage(offset, pageSize);
+            }
+        });
+    }
+
+}
@@ -12,13 +12,39 @@ import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.GregorianCalendar;
+import java.util.HashMap;
 import java.util.Locale;
+import java.util.Map;
 
 /**
  * Utility class with many useful parsing methods.
  */
 public class ParseUtil {
 
+    /**
+     * Formatters of each thread, by pattern and then by language, since
+     * {@link SimpleDateFormat} cannot be shared between threads. They use
+     * the default time zone of the JVM when they are first created.
+     */
+    private static final ThreadLocal<Map<String, Map<String, SimpleDateFormat>>> FORMATTERS =
+        new ThreadLocal<Map<String, Map<String, SimpleDateFormat>>>() {
+            @Override
+            protected Map<String, Map<String, SimpleDateFormat>> initialValue() {
+                return new HashMap<String, Map<String, SimpleDateFormat>>();
+            }
+        };
+
+    /**
+     * Calendar of each thread used to turn [year, month, day] into a {@link Date},
+     * in the default time zone of the JVM when it was first created.
+     */
+    private static final ThreadLocal<GregorianCalendar> CALENDAR = new ThreadLocal<GregorianCalendar>() {
+        @Override
+        protected GregorianCalendar initialValue() {
+            return new GregorianCalendar();
+        }
+    };
+
     /**
      * Parses a date to a particular format and returns the formatted {@link String}.
      * @param date the {@link Date} to parse
@@ -33,26 +59,57 @@ public class ParseUtil {
         Preconditions.checkNotNull(dateFormat);
         Preconditions.checkNotNull(lang);
 
-        final Locale locale = new Locale(lang);
-        final SimpleDateFormat format = new SimpleDateFormat(dateFormat, locale);
+        return formatter(dateFormat, lang).format(date);
+    }
 
-        return format.format(date);
+    /**
+     * Returns the formatter of the current thread for the given pattern and language,
+     * creating it on first use.
+     * @param dateFormat the date format
+     * @param lang the language/locale
+     * @return a {@link SimpleDateFormat} owned by the current thread
+     */
+    private static SimpleDateFormat formatter(final String dateFormat, final String lang) {
+        final Map<String, Map<String, SimpleDateFormat>> patterns = FORMATTERS.get();
+        Map<String, SimpleDateFormat> locales = patterns.get(dateFormat);
+        if (locales == null) {
+            locales = new HashMap<String, SimpleDateFormat>();
+            patterns.put(dateFormat, locales);
+        }
+        SimpleDateFormat format = locales.get(lang);
+        if (format == null) {
+            format = new SimpleDateFormat(dateFormat, new Locale(lang));
+            locales.put(lang, format);
+        }
+        return format;
     }
 
     /**
      * Parses a {@link JsonArray} to a {@link Date}.
      * @param array the {@link JsonArray} of the date in the form of [year, month, day]
-     * @return a {@link Date} parsed in the "dd MMMM yyyy" format
+     * @return a {@link Date} at the start of the day in the default time zone
      * @throws ParseException
      */
     public static Date parseDateFromJsonArray(final JsonArray array) throws ParseException {
         Preconditions.checkNotNull(array);
 
-        final GregorianCalendar calendar = new GregorianCalendar(array.get(0).getAsInt(),
-                array.get(1).getAsInt() - 1, array.get(2).getAsInt());
-        final SimpleDateFormat format = new SimpleDateFormat("dd MMMM yyyy");
+        return parseDate(array.get(0).getAsInt(), array.get(1).getAsInt(), array.get(2).getAsInt());
+    }
+
+    /**
+     * Parses the parts of a date to a {@link Date}.
+     * @param year the year
+     * @param month the month, starting from 1
+     * @param day the day of the month
+     * @return a {@link Date} at the start of the day in the default time zone
+     * @throws ParseException
+     */
+    public static Date parseDate(final int year, final int month, final int day) throws ParseException {
+        final GregorianCalendar calendar = CALENDAR.get();
+        calendar.clear();
+        calendar.set(year, month - 1, day);
 
-        return format.parse(format.format(calendar.getTime()));
+        return new Date(calendar.getTimeInMillis());
     }
 
 }
@@ -0,0 +1,188 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.internal;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import org.mifos.sdk.MifosXConnectException;
+import org.mifos.sdk.PageIterator;
+import org.mifos.sdk.PagingOptions;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * {@link PageIterator} which requests pages by offset and limit and keeps up to
+ * {@link PagingOptions#getPrefetchDepth()} of the following pages in flight while
+ * the current page is consumed. At most the current page plus the prefetched
+ * ones are held in memory.
+ * @param <T> the type of the items
+ */
+public abstract class PrefetchingPageIterator<T> implements PageIterator<T> {
+
+    /**
+     * One page of items with the total number of filtered records.
+     * @param <T> the type of the items
+     */
+    public static final class Page<T> {
+
+        private final List<T> items;
+        private final Long total;
+
+        /**
+         * Constructs a new {@link Page}.
+         * @param pageItems the items of the page, may be null for an empty page
+         * @param totalFilteredRecords the total number of records, may be null if unknown
+         */
+        public Page(final List<T> pageItems, final Long totalFilteredRecords) {
+            this.items = pageItems == null ? Collections.<T>emptyList() : pageItems;
+            this.total = totalFilteredRecords;
+        }
+
+        /** Returns the items of the page. */
+        public List<T> getItems() {
+            return this.items;
+        }
+
+        /** Returns the total number of filtered records, or null if unknown. */
+        public Long getTotal() {
+            return this.total;
+        }
+
+    }
+
+    private final int pageSize;
+    private final int prefetchDepth;
+    private final ListeningExecutorService executor;
+    private final Deque<Future<Page<T>>> pending;
+    private Iterator<T> current;
+    private Long total;
+    private long nextOffset;
+    private boolean exhausted;
+    private boolean closed;
+
+    /**
+     * Constructs a new {@link PrefetchingPageIterator} with the given options.
+     * @param options the {@link PagingOptions}
+     */
+    protected PrefetchingPageIterator(final PagingOptions options) {
+        Preconditions.checkNotNull(options);
+
+        this.pageSize = options.getPageSize();
+        this.prefetchDepth = options.getPrefetchDepth();
+        this.executor = options.getExecutor() == null ? MoreExecutors.sameThreadExecutor()
+            : MoreExecutors.listeningDecorator(options.getExecutor());
+        this.pending = new ArrayDeque<Future<Page<T>>>();
+        this.current = Collections.<T>emptyList().iterator();
+    }
+
+    /**
+     * Fetches one page from the server.
+     * @param offset the offset of the first item
+     * @param limit the maximum number of items
+     * @return the {@link Page}
+     * @throws MifosXConnectException
+     */
+    protected abstract Page<T> fetchPage(final long offset, final int limit) throws MifosXConnectException;
+
+    @Override
+    public boolean hasNext() {
+        while (!this.current.hasNext()) {
+            if (this.closed) {
+                return false;
+            }
+            if (this.pending.isEmpty()) {
+                if (!hasMorePages()) {
+                    return false;
+                }
+                schedule();
+            }
+            final Page<T> page = await(this.pending.poll());
+            if (this.total == null) {
+                this.total = page.getTotal();
+            }
+            if (page.getItems().isEmpty() || (this.total == null && page.getItems().size() < this.pageSize)) {
+                this.exhausted = true;
+            }
+            this.current = page.getItems().iterator();
+            while (this.pending.size() < this.prefetchDepth && hasMorePages()) {
+                schedule();
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return this.current.next();
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Long getTotalFilteredRecords() {
+        return this.total;
+    }
+
+    @Override
+    public void close() {
+        this.closed = true;
+        this.current = Collections.<T>emptyList().iterator();
+        for (final Future<Page<T>> future : this.pending) {
+            future.cancel(true);
+        }
+        this.pending.clear();
+    }
+
+    private boolean hasMorePages() {
+        if (this.exhausted) {
+            return false;
+        }
+        return this.total == null || this.nextOffset < this.total;
+    }
+
+    private void schedule() {
+        final long offset = this.nextOffset;
+        this.nextOffset += this.pageSize;
+        this.pending.add(this.executor.submit(new Callable<Page<T>>() {
+            @Override
+            public Page<T> call() throws MifosXConnectException {
+                return fetchPage(offset, pageSize);
+            }
+        }));
+    }
+
+    private Page<T> await(final Future<Page<T>> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            close();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            close();
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+}
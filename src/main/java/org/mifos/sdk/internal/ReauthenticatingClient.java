@@ -0,0 +1,109 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.internal;
+
+import com.google.common.base.Preconditions;
+import org.mifos.sdk.MifosXConnectException;
+import retrofit.client.Client;
+import retrofit.client.Header;
+import retrofit.client.Request;
+import retrofit.client.Response;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Wraps the HTTP {@link Client} of a {@link RestMifosXClient} to renew its
+ * authentication key transparently. Every request is sent with the current key of
+ * the client, whatever key the service which built it was created with. When the
+ * server answers 401, the key is renewed once through
+ * {@link RestMifosXClient#reauthenticate(String)} and the request is retried once
+ * with the new key; a second 401 is returned to the caller as usual.
+ */
+public final class ReauthenticatingClient implements Client {
+
+    private static final String BASIC = "Basic ";
+
+    private final Client delegate;
+    private volatile RestMifosXClient mifosXClient;
+
+    /**
+     * Constructs a new instance of {@link ReauthenticatingClient}.
+     * @param client the {@link Client} sending the requests
+     */
+    public ReauthenticatingClient(final Client client) {
+        Preconditions.checkNotNull(client);
+
+        this.delegate = client;
+    }
+
+    /**
+     * Binds the {@link RestMifosXClient} whose key is renewed. Until then requests
+     * are sent unchanged.
+     * @param client the {@link RestMifosXClient} using this client
+     */
+    public void bind(final RestMifosXClient client) {
+        Preconditions.checkNotNull(client);
+
+        this.mifosXClient = client;
+    }
+
+    @Override
+    public Response execute(final Request request) throws IOException {
+        final RestMifosXClient client = this.mifosXClient;
+        String key = authenticationKey(request);
+        if (client == null || key == null) {
+            return this.delegate.execute(request);
+        }
+
+        final String currentKey = client.getAuthenticationKey();
+        if (currentKey != null) {
+            key = currentKey;
+        }
+        final Response response = this.delegate.execute(withKey(request, key));
+        if (response.getStatus() != 401) {
+            return response;
+        }
+
+        final String renewedKey;
+        try {
+            renewedKey = client.reauthenticate(key);
+        } catch (MifosXConnectException e) {
+            return response;
+        }
+        if (renewedKey == null || renewedKey.equals(key)) {
+            return response;
+        }
+        if (response.getBody() != null) {
+            response.getBody().in().close();
+        }
+        return this.delegate.execute(withKey(request, renewedKey));
+    }
+
+    private static String authenticationKey(final Request request) {
+        for (final Header header : request.getHeaders()) {
+            if (RestConstants.HEADER_AUTHORIZATION.equalsIgnoreCase(header.getName())
+                && header.getValue() != null && header.getValue().startsWith(BASIC)) {
+                return header.getValue().substring(BASIC.length());
+            }
+        }
+        return null;
+    }
+
+    private static Request withKey(final Request request, final String key) {
+        final List<Header> headers = new ArrayList<Header>(request.getHeaders().size());
+        for (final Header header : request.getHeaders()) {
+            if (RestConstants.HEADER_AUTHORIZATION.equalsIgnoreCase(header.getName())) {
+                headers.add(new Header(header.getName(), BASIC + key));
+            } else {
+                headers.add(header);
+            }
+        }
+        return new Request(request.getMethod(), request.getUrl(), headers, request.getBody());
+    }
+
+}
@@ -0,0 +1,199 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.internal;
+
+import com.google.common.base.Preconditions;
+import org.mifos.sdk.BatchOptions;
+import org.mifos.sdk.BatchResult;
+import org.mifos.sdk.CommandBatch;
+import org.mifos.sdk.MifosXConnectException;
+import org.mifos.sdk.MifosXProperties;
+import org.mifos.sdk.MifosXResourceException;
+import retrofit.RetrofitError;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Implements {@link CommandBatch} on top of the Batch API. Subclasses add the
+ * commands of their resource with {@link #add(Long, String, Object)}.
+ */
+public abstract class RestCommandBatch implements CommandBatch {
+
+    private static final class Command {
+
+        private final Long resourceId;
+        private final String relativeUrl;
+        private final Object body;
+
+        private Command(final Long id, final String url, final Object commandBody) {
+            this.resourceId = id;
+            this.relativeUrl = url;
+            this.body = commandBody;
+        }
+
+    }
+
+    private final MifosXProperties connectionProperties;
+    private final RetrofitBatchService batchService;
+    private final String authenticationKey;
+    private final BatchOptions batchOptions;
+    private final ErrorCode notFoundCode;
+    private final List<Command> commands;
+
+    /**
+     * Constructs a new {@link RestCommandBatch}.
+     * @param properties the {@link MifosXProperties} with the API URL endpoint
+     * @param service the Retrofit proxy for the Batch API, shared by the batches of a service
+     * @param authKey the authorization header value of the service creating the batch
+     * @param options the {@link BatchOptions}
+     * @param notFound the {@link ErrorCode} of a command answered with 404 Not Found
+     */
+    protected RestCommandBatch(final MifosXProperties properties, final RetrofitBatchService service,
+                               final String authKey, final BatchOptions options, final ErrorCode notFound) {
+        Preconditions.checkNotNull(properties);
+        Preconditions.checkNotNull(service);
+        Preconditions.checkNotNull(authKey);
+        Preconditions.checkNotNull(options);
+        Preconditions.checkNotNull(notFound);
+
+        this.connectionProperties = properties;
+        this.batchService = service;
+        this.authenticationKey = authKey;
+        this.batchOptions = options;
+        this.notFoundCode = notFound;
+        this.commands = new ArrayList<Command>();
+    }
+
+    /**
+     * Adds a command to the batch.
+     * @param resourceId the ID of the resource the command is executed on
+     * @param relativeUrl the URL of the command relative to the API endpoint
+     * @param body Optional: the command request body
+     */
+    protected final void add(final Long resourceId, final String relativeUrl, final Object body) {
+        Preconditions.checkNotNull(resourceId);
+        Preconditions.checkNotNull(relativeUrl);
+        this.commands.add(new Command(resourceId, relativeUrl, body));
+    }
+
+    /**
+     * Called once the commands were submitted, even if the submission failed.
+     * @param resourceIds the IDs of the resources the submitted commands were executed on
+     */
+    protected void submitted(final List<Long> resourceIds) {
+    }
+
+    @Override
+    public int size() {
+        return this.commands.size();
+    }
+
+    @Override
+    public List<BatchResult> submit() {
+        final List<Command> pending = new ArrayList<Command>(this.commands);
+        this.commands.clear();
+        final List<BatchResult> results = new ArrayList<BatchResult>(pending.size());
+        try {
+            for (int start = 0; start < pending.size(); start += this.batchOptions.getChunkSize()) {
+                final int end = Math.min(pending.size(), start + this.batchOptions.getChunkSize());
+                try {
+                    results.addAll(this.submitChunk(pending.subList(start, end)));
+                } catch (MifosXConnectException e) {
+                    for (final Command command : pending.subList(start, pending.size())) {
+                        results.add(new BatchResult(command.resourceId, e));
+                    }
+                    break;
+                } catch (MifosXResourceException e) {
+                    for (final Command command : pending.subList(start, pending.size())) {
+                        results.add(new BatchResult(command.resourceId, null, null, e));
+                    }
+                    break;
+                }
+            }
+        } finally {
+            final List<Long> resourceIds = new ArrayList<Long>(pending.size());
+            for (final Command command : pending) {
+                resourceIds.add(command.resourceId);
+            }
+            this.submitted(resourceIds);
+        }
+        return results;
+    }
+
+    private List<BatchResult> submitChunk(final List<Command> chunk)
+        throws MifosXConnectException, MifosXResourceException {
+        final List<BatchRequest> requests = new ArrayList<BatchRequest>(chunk.size());
+        for (int i = 0; i < chunk.size(); ++i) {
+            final Command command = chunk.get(i);
+            requests.add(new BatchRequest((long) i + 1, command.relativeUrl, "POST", command.body));
+        }
+        List<BatchResponse> responses = null;
+        try {
+            responses = this.batchService.executeBatch(this.authenticationKey, this.connectionProperties.getTenant(),
+                this.batchOptions.isEnclosingTransaction() ? Boolean.TRUE : null, requests);
+        } catch (RetrofitError error) {
+            if (error.getKind() == RetrofitError.Kind.NETWORK) {
+                throw new MifosXConnectException(ErrorCode.NOT_CONNECTED);
+            } else if (error.getKind() == RetrofitError.Kind.CONVERSION ||
+                error.getResponse().getStatus() == 401) {
+                throw new MifosXConnectException(ErrorCode.INVALID_AUTHENTICATION_TOKEN);
+            } else if (error.getResponse().getStatus() == 403) {
+                final String message = ServerResponseUtil.parseResponse(error.getResponse());
+                throw new MifosXResourceException(message);
+            } else {
+                throw new MifosXConnectException(ErrorCode.UNKNOWN);
+            }
+        }
+        final Map<Long, BatchResponse> responsesById = new HashMap<Long, BatchResponse>();
+        boolean failed = false;
+        if (responses != null) {
+            for (final BatchResponse response : responses) {
+                responsesById.put(response.getRequestId(), response);
+                failed |= !isSuccessful(response);
+            }
+        }
+        failed |= responsesById.size() < chunk.size();
+
+        final List<BatchResult> results = new ArrayList<BatchResult>(chunk.size());
+        for (int i = 0; i < chunk.size(); ++i) {
+            final Long resourceId = chunk.get(i).resourceId;
+            final BatchResponse response = responsesById.get((long) i + 1);
+            if (response == null) {
+                results.add(new BatchResult(resourceId, null, null, new MifosXResourceException(
+                    this.batchOptions.isEnclosingTransaction() ? ErrorCode.BATCH_ROLLED_BACK : ErrorCode.UNKNOWN)));
+            } else if (!isSuccessful(response)) {
+                results.add(new BatchResult(resourceId, response.getStatusCode(), response.getBody(),
+                    this.exception(response)));
+            } else if (failed && this.batchOptions.isEnclosingTransaction()) {
+                results.add(new BatchResult(resourceId, response.getStatusCode(), response.getBody(),
+                    new MifosXResourceException(ErrorCode.BATCH_ROLLED_BACK)));
+            } else {
+                results.add(new BatchResult(resourceId, response.getStatusCode(), response.getBody(), null));
+            }
+        }
+        return results;
+    }
+
+    private static boolean isSuccessful(final BatchResponse response) {
+        return response.getStatusCode() != null && response.getStatusCode() >= 200
+            && response.getStatusCode() < 300;
+    }
+
+    private MifosXResourceException exception(final BatchResponse response) {
+        if (response.getStatusCode() != null && response.getStatusCode() == 404) {
+            return new MifosXResourceException(this.notFoundCode);
+        }
+        final String message = ServerResponseUtil.parseMessage(response.getBody());
+        if (message != null) {
+            return new MifosXResourceException(message);
+        }
+        return new MifosXResourceException(ErrorCode.UNKNOWN);
+    }
+
+}
@@ -14,6 +14,12 @@ public interface RestConstants {
 
     public static String HEADER_TENANTID = "X-Mifos-Platform-TenantId";
 
+    public static String HEADER_ETAG = "ETag";
+
+    public static String HEADER_IF_NONE_MATCH = "If-None-Match";
+
+    public static String HEADER_IDEMPOTENCY_KEY = "Idempotency-Key";
+
     public static String QUERY_COMMAND = "command";
 
     public static String QUERY_ROLEID = "roleId";
@@ -0,0 +1,143 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.internal;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import org.mifos.sdk.MifosXBatchExecutor;
+import org.mifos.sdk.MifosXClient;
+import org.mifos.sdk.MifosXConnectException;
+import org.mifos.sdk.MifosXResourceException;
+import org.mifos.sdk.MifosXTask;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Implements {@link MifosXBatchExecutor} on top of an {@link ExecutorService}.
+ * Every task first takes a permit from a semaphore, so at most
+ * {@link #getMaxConcurrency()} tasks call the server at once, whatever the
+ * size of the executor, then one from the {@link BatchPermits} shared with the
+ * other executors of the same client. On Java 21 an executor creating one
+ * virtual thread per task makes waiting for a permit essentially free.
+ */
+public class RestMifosXBatchExecutor implements MifosXBatchExecutor {
+
+    private final MifosXClient mifosXClient;
+    private final ListeningExecutorService executor;
+    private final Semaphore permits;
+    private final BatchPermits sharedPermits;
+    private final int maxConcurrency;
+
+    /**
+     * Constructs a new instance of {@link RestMifosXBatchExecutor}.
+     * @param client the {@link MifosXClient} passed to every task
+     * @param executorService the {@link ExecutorService} which runs the tasks
+     * @param concurrency the maximum number of tasks running at the same time
+     */
+    public RestMifosXBatchExecutor(final MifosXClient client,
+                                   final ExecutorService executorService,
+                                   final int concurrency) {
+        this(client, executorService, concurrency, new BatchPermits());
+    }
+
+    /**
+     * Constructs a new instance of {@link RestMifosXBatchExecutor} sharing its permits.
+     * @param client the {@link MifosXClient} passed to every task
+     * @param executorService the {@link ExecutorService} which runs the tasks
+     * @param concurrency the maximum number of tasks running at the same time
+     * @param shared the {@link BatchPermits} of the client
+     */
+    RestMifosXBatchExecutor(final MifosXClient client,
+                            final ExecutorService executorService,
+                            final int concurrency,
+                            final BatchPermits shared) {
+        super();
+
+        Preconditions.checkNotNull(client);
+        Preconditions.checkNotNull(executorService);
+        Preconditions.checkArgument(concurrency > 0, "The concurrency must be positive!");
+        Preconditions.checkNotNull(shared);
+
+        this.mifosXClient = client;
+        this.executor = MoreExecutors.listeningDecorator(executorService);
+        this.permits = new Semaphore(concurrency, true);
+        this.sharedPermits = shared;
+        this.maxConcurrency = concurrency;
+        shared.ensure(concurrency);
+    }
+
+    @Override
+    public <T> List<ListenableFuture<T>> submitAll(final List<? extends MifosXTask<T>> tasks) {
+        Preconditions.checkNotNull(tasks);
+        final List<ListenableFuture<T>> futures = new ArrayList<ListenableFuture<T>>(tasks.size());
+        for (final MifosXTask<T> task : tasks) {
+            Preconditions.checkNotNull(task);
+            futures.add(this.executor.submit(new Callable<T>() {
+                @Override
+                public T call() throws Exception {
+                    permits.acquire();
+                    try {
+                        sharedPermits.acquire();
+                        try {
+                            return task.execute(mifosXClient);
+                        } finally {
+                            sharedPermits.release();
+                        }
+                    } finally {
+                        permits.release();
+                    }
+                }
+            }));
+        }
+        return futures;
+    }
+
+    @Override
+    public <T> List<T> invokeAll(final List<? extends MifosXTask<T>> tasks) throws MifosXConnectException,
+        MifosXResourceException, InterruptedException {
+        final List<ListenableFuture<T>> futures = submitAll(tasks);
+        final List<T> results = new ArrayList<T>(futures.size());
+        try {
+            for (final ListenableFuture<T> future : futures) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    final Throwable cause = e.getCause();
+                    if (cause instanceof MifosXConnectException) {
+                        throw (MifosXConnectException) cause;
+                    } else if (cause instanceof MifosXResourceException) {
+                        throw (MifosXResourceException) cause;
+                    } else if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    } else if (cause instanceof Error) {
+                        throw (Error) cause;
+                    }
+                    throw new IllegalStateException(cause);
+                }
+            }
+        } finally {
+            if (results.size() < futures.size()) {
+                for (final ListenableFuture<T> future : futures) {
+                    future.cancel(true);
+                }
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public int getMaxConcurrency() {
+        return this.maxConcurrency;
+    }
+
+}
@@ -5,35 +5,97 @@
  */
 package org.mifos.sdk.internal;
 
+import com.google.common.base.Preconditions;
+import com.google.gson.Gson;
 import org.mifos.sdk.MifosXConnectException;
+import org.mifos.sdk.MifosXResourceException;
+import org.mifos.sdk.client.AsyncClientService;
 import org.mifos.sdk.client.ClientService;
+import org.mifos.sdk.client.internal.RestAsyncClientService;
 import org.mifos.sdk.client.internal.RestClientService;
+import org.mifos.sdk.group.AsyncGroupService;
 import org.mifos.sdk.group.GroupService;
+import org.mifos.sdk.group.internal.RestAsyncGroupService;
 import org.mifos.sdk.group.internal.RestGroupService;
+import org.mifos.sdk.office.AsyncOfficeService;
+import org.mifos.sdk.office.CachedOfficeService;
 import org.mifos.sdk.office.OfficeService;
+import org.mifos.sdk.office.internal.CachingOfficeService;
+import org.mifos.sdk.office.internal.RestAsyncOfficeService;
 import org.mifos.sdk.office.internal.RestOfficeService;
+import org.mifos.sdk.staff.AsyncStaffService;
+import org.mifos.sdk.staff.CachedStaffService;
 import org.mifos.sdk.staff.StaffService;
+import org.mifos.sdk.staff.internal.CachingStaffService;
+import org.mifos.sdk.staff.internal.RestAsyncStaffService;
 import org.mifos.sdk.staff.internal.RestStaffService;
 import retrofit.RestAdapter;
 import retrofit.RetrofitError;
 
+import org.mifos.sdk.MifosXBatchExecutor;
 import org.mifos.sdk.MifosXClient;
 import org.mifos.sdk.MifosXProperties;
+import org.mifos.sdk.Outbox;
+import org.mifos.sdk.OutboxOptions;
+
+import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Implements {@link MifosXClient} and the inner lying methods
- * for the basic authentication workflow.
+ * for the basic authentication workflow. The login state is one immutable
+ * session swapped atomically by login and logout, so the client can be shared
+ * between threads and the service accessors never lock.
  */
 public class RestMifosXClient implements MifosXClient {
 
+    /**
+     * An immutable login session: the authentication key and the services bound to
+     * it. The services are created on first use without locking; when two threads
+     * race, both get the one which was published first. A session renewed after the
+     * key expired shares the services of the session it replaces.
+     */
+    private static final class Session {
+
+        private final String authenticationKey;
+        private final AtomicReference<OfficeService> officeService;
+        private final AtomicReference<StaffService> staffService;
+        private final AtomicReference<RestClientService> clientService;
+        private final AtomicReference<GroupService> groupService;
+
+        private Session(final String key) {
+            this.authenticationKey = key;
+            this.officeService = new AtomicReference<OfficeService>();
+            this.staffService = new AtomicReference<StaffService>();
+            this.clientService = new AtomicReference<RestClientService>();
+            this.groupService = new AtomicReference<GroupService>();
+        }
+
+        private Session(final String key, final Session renewed) {
+            this.authenticationKey = key;
+            this.officeService = renewed.officeService;
+            this.staffService = renewed.staffService;
+            this.clientService = renewed.clientService;
+            this.groupService = renewed.groupService;
+        }
+
+        private boolean isLoggedIn() {
+            return this.authenticationKey != null;
+        }
+
+    }
+
+    private static final Session LOGGED_OUT = new Session(null);
+
     private final MifosXProperties connectionProperties;
     private final RestAdapter restAdapter;
-    private OfficeService officeService;
-    private StaffService staffService;
-    private ClientService clientService;
-    private GroupService groupService;
-    private String authenticationKey;
-    private boolean loggedIn;
+    private final Gson gson;
+    private final AtomicReference<Session> session;
+    private final SingleFlight<String, String> authenticationFlight;
+    private final BatchPermits batchPermits;
 
     /**
      * Constructor to initialise a new instance of {@link RestMifosXClient}
@@ -42,11 +104,26 @@ public class RestMifosXClient implements MifosXClient {
      */
     public RestMifosXClient(final MifosXProperties properties,
                             final RestAdapter adapter) {
+        this(properties, adapter, GsonFactory.create());
+    }
+
+    /**
+     * Constructor to initialise a new instance of {@link RestMifosXClient}
+     * with parameter properties.
+     * @param properties the {@link MifosXProperties} for authentication
+     * @param adapter the rest adapter used for creating Retrofit services
+     * @param apiGson the {@link Gson} the rest adapter converts the API resources with
+     */
+    public RestMifosXClient(final MifosXProperties properties,
+                            final RestAdapter adapter,
+                            final Gson apiGson) {
         super();
         this.connectionProperties = properties;
         this.restAdapter = adapter;
-        this.authenticationKey = null;
-        this.loggedIn = false;
+        this.gson = apiGson;
+        this.session = new AtomicReference<Session>(LOGGED_OUT);
+        this.authenticationFlight = new SingleFlight<String, String>();
+        this.batchPermits = new BatchPermits();
     }
 
     /**
@@ -56,25 +133,57 @@ public class RestMifosXClient implements MifosXClient {
      */
     @Override
     public void login() throws MifosXConnectException {
-        if (!loggedIn) {
-            try {
-                final RetrofitMifosService mifosService = this.restAdapter.create(RetrofitMifosService.class);
-                final AuthenticationToken authenticationToken = mifosService.authenticate(this.connectionProperties.getUsername(),
-                        this.connectionProperties.getPassword(),
-                        this.connectionProperties.getTenant());
-                this.authenticationKey = authenticationToken.getAuthenticationToken();
-                this.loggedIn = true;
-            } catch (RetrofitError error) {
-                if (error.getKind() == RetrofitError.Kind.NETWORK) {
-                    throw new MifosXConnectException(ErrorCode.NOT_CONNECTED);
-                } else if (error.getKind() == RetrofitError.Kind.CONVERSION ||
-                           error.getResponse().getStatus() == 401) {
-                    this.loggedIn = false;
-                    this.authenticationKey = null;
-                    throw new MifosXConnectException(ErrorCode.UNAUTHENTICATED);
-                } else {
-                    throw new MifosXConnectException(ErrorCode.UNKNOWN);
+        final Session current = this.session.get();
+        if (!current.isLoggedIn()) {
+            // a concurrent login which finished first keeps its session
+            this.session.compareAndSet(current, new Session(this.authenticate()));
+        }
+    }
+
+    /**
+     * Obtains a new authentication key after the server rejected the given one. Only
+     * one thread asks the server, the others rejected with the same key wait for its
+     * result. The services of the session are kept, the transport sends the new key
+     * in their place.
+     * @param staleKey the authentication key the server rejected
+     * @return the new authentication key, or null if the client was logged out
+     * @throws MifosXConnectException
+     */
+    String reauthenticate(final String staleKey) throws MifosXConnectException {
+        Preconditions.checkNotNull(staleKey);
+        try {
+            return this.authenticationFlight.execute(staleKey, new SingleFlight.Call<String>() {
+                @Override
+                public String call() throws MifosXConnectException {
+                    final Session current = session.get();
+                    if (!staleKey.equals(current.authenticationKey)) {
+                        // logged out, or another thread renewed the key already
+                        return current.authenticationKey;
+                    }
+                    session.compareAndSet(current, new Session(authenticate(), current));
+                    return session.get().authenticationKey;
                 }
+            });
+        } catch (MifosXResourceException e) {
+            throw new IllegalStateException(e.getMessage());
+        }
+    }
+
+    private String authenticate() throws MifosXConnectException {
+        try {
+            final RetrofitMifosService mifosService = this.restAdapter.create(RetrofitMifosService.class);
+            final AuthenticationToken authenticationToken = mifosService.authenticate(this.connectionProperties.getUsername(),
+                    this.connectionProperties.getPassword(),
+                    this.connectionProperties.getTenant());
+            return authenticationToken.getAuthenticationToken();
+        } catch (RetrofitError error) {
+            if (error.getKind() == RetrofitError.Kind.NETWORK) {
+                throw new MifosXConnectException(ErrorCode.NOT_CONNECTED);
+            } else if (error.getKind() == RetrofitError.Kind.CONVERSION ||
+                       error.getResponse().getStatus() == 401) {
+                throw new MifosXConnectException(ErrorCode.UNAUTHENTICATED);
+            } else {
+                throw new MifosXConnectException(ErrorCode.UNKNOWN);
             }
         }
     }
@@ -84,12 +193,7 @@ public class RestMifosXClient implements MifosXClient {
      */
     @Override
     public void logout() {
-        this.officeService = null;
-        this.staffService = null;
-        this.clientService = null;
-        this.groupService = null;
-        this.authenticationKey = null;
-        this.loggedIn = false;
+        this.session.set(LOGGED_OUT);
     }
 
     /**
@@ -98,20 +202,25 @@ public class RestMifosXClient implements MifosXClient {
      */
     @Override
     public OfficeService officeService() throws MifosXConnectException {
-        if (!this.loggedIn) {
-            throw new MifosXConnectException(ErrorCode.NOT_LOGGED_IN);
+        final Session current = this.loggedInSession();
+        if (current.officeService.get() == null) {
+            current.officeService.compareAndSet(null, new RestOfficeService(this.connectionProperties,
+                this.restAdapter, current.authenticationKey));
         }
 
-        if (this.officeService == null) {
-            synchronized(RestOfficeService.class) {
-                if (this.officeService == null) {
-                    this.officeService = new RestOfficeService(this.connectionProperties,
-                        this.restAdapter, this.authenticationKey);
-                }
-            }
-        }
+        return current.officeService.get();
+    }
 
-        return this.officeService;
+    /**
+     * Returns an instance of {@link CachedOfficeService} backed by the {@link OfficeService}.
+     * @param ttl how long the list of offices is used before it is loaded again
+     * @param unit the {@link TimeUnit} of the ttl
+     * @throws MifosXConnectException
+     */
+    @Override
+    public CachedOfficeService cachedOfficeService(final long ttl, final TimeUnit unit) throws
+        MifosXConnectException {
+        return new CachingOfficeService(officeService(), ttl, unit);
     }
 
     /**
@@ -120,20 +229,26 @@ public class RestMifosXClient implements MifosXClient {
      */
     @Override
     public StaffService staffService() throws MifosXConnectException {
-        if (!this.loggedIn) {
-            throw new MifosXConnectException(ErrorCode.NOT_LOGGED_IN);
+        final Session current = this.loggedInSession();
+        if (current.staffService.get() == null) {
+            current.staffService.compareAndSet(null, new RestStaffService(this.connectionProperties,
+                this.restAdapter, current.authenticationKey));
         }
 
-        if (this.staffService == null) {
-            synchronized(RestStaffService.class) {
-                if (this.staffService == null) {
-                    this.staffService = new RestStaffService(this.connectionProperties,
-                        this.restAdapter, this.authenticationKey);
-                }
-            }
-        }
+        return current.staffService.get();
+    }
 
-        return this.staffService;
+    /**
+     * Returns an instance of {@link CachedStaffService} backed by the {@link StaffService}.
+     * @param ttl how long the staff are used before they are loaded again
+     * @param unit the {@link TimeUnit} of the ttl
+     * @param refreshExecutor Optional: the {@link Executor} loading expired staff in the background
+     * @throws MifosXConnectException
+     */
+    @Override
+    public CachedStaffService cachedStaffService(final long ttl, final TimeUnit unit,
+                                                 final Executor refreshExecutor) throws MifosXConnectException {
+        return new CachingStaffService(staffService(), ttl, unit, refreshExecutor);
     }
 
     /**
@@ -142,20 +257,17 @@ public class RestMifosXClient implements MifosXClient {
      */
     @Override
     public ClientService clientService() throws MifosXConnectException {
-        if (!this.loggedIn) {
-            throw new MifosXConnectException(ErrorCode.NOT_LOGGED_IN);
-        }
+        return this.restClientService();
+    }
 
-        if (this.clientService == null) {
-            synchronized(RestClientService.class) {
-                if (this.clientService == null) {
-                    this.clientService = new RestClientService(this.connectionProperties,
-                        this.restAdapter, this.authenticationKey);
-                }
-            }
+    private RestClientService restClientService() throws MifosXConnectException {
+        final Session current = this.loggedInSession();
+        if (current.clientService.get() == null) {
+            current.clientService.compareAndSet(null, new RestClientService(this.connectionProperties,
+                this.restAdapter, current.authenticationKey));
         }
 
-        return this.clientService;
+        return current.clientService.get();
     }
 
     /**
@@ -164,34 +276,103 @@ public class RestMifosXClient implements MifosXClient {
      */
     @Override
     public GroupService groupService() throws MifosXConnectException {
-        if (!this.loggedIn) {
-            throw new MifosXConnectException(ErrorCode.NOT_LOGGED_IN);
+        final Session current = this.loggedInSession();
+        if (current.groupService.get() == null) {
+            current.groupService.compareAndSet(null, new RestGroupService(this.connectionProperties,
+                this.restAdapter, current.authenticationKey, this.gson));
         }
 
-        if (this.groupService == null) {
-            synchronized(RestGroupService.class) {
-                if (this.groupService == null) {
-                    this.groupService = new RestGroupService(this.connectionProperties,
-                        this.restAdapter, this.authenticationKey);
-                }
-            }
-        }
+        return current.groupService.get();
+    }
+
+    /**
+     * Returns an instance of {@link AsyncOfficeService} backed by the {@link OfficeService}.
+     * @param executor the {@link ExecutorService} which runs the calls
+     * @throws MifosXConnectException
+     */
+    @Override
+    public AsyncOfficeService asyncOfficeService(final ExecutorService executor) throws
+        MifosXConnectException {
+        return new RestAsyncOfficeService(officeService(), executor);
+    }
+
+    /**
+     * Returns an instance of {@link AsyncStaffService} backed by the {@link StaffService}.
+     * @param executor the {@link ExecutorService} which runs the calls
+     * @throws MifosXConnectException
+     */
+    @Override
+    public AsyncStaffService asyncStaffService(final ExecutorService executor) throws
+        MifosXConnectException {
+        return new RestAsyncStaffService(staffService(), executor);
+    }
+
+    /**
+     * Returns an instance of {@link AsyncClientService} backed by the {@link ClientService}.
+     * @param executor the {@link ExecutorService} which runs the calls
+     * @throws MifosXConnectException
+     */
+    @Override
+    public AsyncClientService asyncClientService(final ExecutorService executor) throws
+        MifosXConnectException {
+        return new RestAsyncClientService(clientService(), executor);
+    }
+
+    /**
+     * Returns an instance of {@link AsyncGroupService} backed by the {@link GroupService}.
+     * @param executor the {@link ExecutorService} which runs the calls
+     * @throws MifosXConnectException
+     */
+    @Override
+    public AsyncGroupService asyncGroupService(final ExecutorService executor) throws
+        MifosXConnectException {
+        return new RestAsyncGroupService(groupService(), executor);
+    }
+
+    /**
+     * Returns a {@link MifosXBatchExecutor} running tasks against this client. All the
+     * executors of this client share one pool of permits, as large as the largest
+     * maxConcurrency asked for.
+     * @param executor the {@link ExecutorService} which runs the tasks
+     * @param maxConcurrency the maximum number of tasks running at the same time
+     */
+    @Override
+    public MifosXBatchExecutor batchExecutor(final ExecutorService executor, final int maxConcurrency) {
+        return new RestMifosXBatchExecutor(this, executor, maxConcurrency, this.batchPermits);
+    }
 
-        return this.groupService;
+    /**
+     * Returns a new {@link Outbox} backed by the given journal file.
+     * @param options the {@link OutboxOptions}
+     * @throws MifosXConnectException
+     * @throws IOException if the journal could not be opened, or another outbox has it open
+     */
+    @Override
+    public Outbox outbox(final OutboxOptions options) throws MifosXConnectException, IOException {
+        return new RestOutbox(this.connectionProperties, this.restAdapter,
+            this.loggedInSession().authenticationKey, this.gson, options, this.restClientService());
     }
 
     /**
      * Returns the authentication key.
      */
     String getAuthenticationKey() {
-        return this.authenticationKey;
+        return this.session.get().authenticationKey;
     }
 
     /**
      * Returns whether the client is logged in.
      */
     public boolean isLoggedIn() {
-        return this.loggedIn;
+        return this.session.get().isLoggedIn();
+    }
+
+    private Session loggedInSession() throws MifosXConnectException {
+        final Session current = this.session.get();
+        if (!current.isLoggedIn()) {
+            throw new MifosXConnectException(ErrorCode.NOT_LOGGED_IN);
+        }
+        return current;
     }
 
 }
@@ -0,0 +1,295 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.internal;
+
+import com.google.common.base.Preconditions;
+import com.google.common.io.CharStreams;
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import org.mifos.sdk.MifosXConnectException;
+import org.mifos.sdk.MifosXProperties;
+import org.mifos.sdk.MifosXResourceException;
+import org.mifos.sdk.Outbox;
+import org.mifos.sdk.OutboxListener;
+import org.mifos.sdk.OutboxOptions;
+import org.mifos.sdk.client.domain.Client;
+import org.mifos.sdk.client.internal.RestClientService;
+import org.mifos.sdk.group.domain.commands.SaveCollectionSheetCommand;
+import retrofit.RestAdapter;
+import retrofit.RetrofitError;
+import retrofit.client.Response;
+import retrofit.mime.TypedByteArray;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Implements {@link Outbox} with an {@link OutboxJournal} and replays the queued
+ * commands one at a time, so they reach the server in order.
+ */
+public final class RestOutbox implements Outbox {
+
+    private static final String MIME_TYPE = "application/json; charset=UTF-8";
+    private static final String CLIENTS_PATH = "clients";
+
+    private final MifosXProperties connectionProperties;
+    private final RestAdapter restAdapter;
+    private final String authenticationKey;
+    private final Gson gson;
+    private final OutboxOptions outboxOptions;
+    private final RestClientService clientService;
+    private final OutboxJournal journal;
+    private final Lock replayLock;
+    private final AtomicBoolean replayScheduled;
+    private final ScheduledFuture<?> syncTask;
+    private volatile boolean closed;
+
+    /**
+     * Constructs a new {@link RestOutbox} and opens its journal. With a scheduler,
+     * the commands left in the journal are replayed right away.
+     * @param properties the {@link MifosXProperties} with the API URL endpoint
+     * @param adapter the rest adapter used for creating Retrofit services
+     * @param authKey the authentication key obtained by calling {@link org.mifos.sdk.MifosXClient#login()}
+     * @param apiGson the {@link Gson} serializing the command bodies
+     * @param options the {@link OutboxOptions}
+     * @param clients Optional: the {@link RestClientService} told about the clients created by a replay
+     * @throws IOException if the journal could not be opened, or another outbox has it open
+     */
+    public RestOutbox(final MifosXProperties properties, final RestAdapter adapter, final String authKey,
+                      final Gson apiGson, final OutboxOptions options, final RestClientService clients)
+        throws IOException {
+        Preconditions.checkNotNull(properties);
+        Preconditions.checkNotNull(adapter);
+        Preconditions.checkNotNull(authKey);
+        Preconditions.checkNotNull(apiGson);
+        Preconditions.checkNotNull(options);
+
+        this.connectionProperties = properties;
+        this.restAdapter = adapter;
+        this.authenticationKey = "Basic " + authKey;
+        this.gson = apiGson;
+        this.outboxOptions = options;
+        this.clientService = clients;
+        this.journal = new OutboxJournal(options.getJournal(), options.getSyncInterval(), TimeUnit.MILLISECONDS);
+        this.replayLock = new ReentrantLock();
+        this.replayScheduled = new AtomicBoolean();
+
+        final ScheduledExecutorService scheduler = options.getScheduler();
+        if (scheduler != null && options.getSyncInterval() > 0) {
+            this.syncTask = scheduler.scheduleWithFixedDelay(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        flush();
+                    } catch (IOException e) {
+                        // the next append or replay syncs again
+                    }
+                }
+            }, options.getSyncInterval(), options.getSyncInterval(), TimeUnit.MILLISECONDS);
+        } else {
+            this.syncTask = null;
+        }
+        if (this.journal.size() > 0) {
+            this.scheduleReplay(0);
+        }
+    }
+
+    @Override
+    public String createClient(final Client client) throws IOException {
+        Preconditions.checkNotNull(client);
+        return this.enqueue(CLIENTS_PATH, null, client);
+    }
+
+    @Override
+    public String executeClientCommand(final Long clientId, final String command, final Object commandBody)
+        throws IOException {
+        Preconditions.checkNotNull(clientId);
+        Preconditions.checkNotNull(command);
+        Preconditions.checkNotNull(commandBody);
+        return this.enqueue("clients/" + clientId, command, commandBody);
+    }
+
+    @Override
+    public String executeGroupCommand(final Long groupId, final String command, final Object commandBody)
+        throws IOException {
+        Preconditions.checkNotNull(groupId);
+        Preconditions.checkNotNull(command);
+        Preconditions.checkNotNull(commandBody);
+        return this.enqueue("groups/" + groupId, command, commandBody);
+    }
+
+    @Override
+    public String saveCollectionSheet(final Long groupId, final SaveCollectionSheetCommand command)
+        throws IOException {
+        Preconditions.checkNotNull(groupId);
+        Preconditions.checkNotNull(command);
+        return this.enqueue("groups/" + groupId, "saveCollectionSheet", command);
+    }
+
+    @Override
+    public int replay() throws MifosXConnectException {
+        final RetrofitOutboxService outboxService = this.restAdapter.create(RetrofitOutboxService.class);
+        this.replayLock.lock();
+        try {
+            if (this.closed) {
+                return 0;
+            }
+            this.journal.sync();
+            int replayed = 0;
+            for (final OutboxJournal.Entry entry : this.journal.entries()) {
+                if (this.closed) {
+                    break;
+                }
+                String responseBody = null;
+                MifosXResourceException rejection = null;
+                try {
+                    final Response response = outboxService.post(this.authenticationKey,
+                        this.connectionProperties.getTenant(), entry.getKey(), entry.getPath(),
+                        entry.getCommand(), new TypedByteArray(MIME_TYPE,
+                            entry.getBody().getBytes(StandardCharsets.UTF_8)));
+                    responseBody = readBody(response);
+                } catch (RetrofitError error) {
+                    if (error.getKind() == RetrofitError.Kind.NETWORK) {
+                        throw new MifosXConnectException(ErrorCode.NOT_CONNECTED);
+                    } else if (error.getKind() == RetrofitError.Kind.CONVERSION ||
+                        error.getResponse().getStatus() == 401) {
+                        throw new MifosXConnectException(ErrorCode.INVALID_AUTHENTICATION_TOKEN);
+                    } else if (error.getResponse().getStatus() >= 500) {
+                        throw new MifosXConnectException(ErrorCode.UNKNOWN);
+                    } else if (error.getResponse().getStatus() == 404) {
+                        rejection = new MifosXResourceException(entry.getPath().startsWith("groups") ?
+                            ErrorCode.GROUP_NOT_FOUND : ErrorCode.CLIENT_NOT_FOUND);
+                    } else {
+                        final String message = ServerResponseUtil.parseMessage(readBody(error.getResponse()));
+                        rejection = message != null ? new MifosXResourceException(message) :
+                            new MifosXResourceException(ErrorCode.UNKNOWN);
+                    }
+                }
+                this.journal.acknowledge(entry.getKey());
+                ++replayed;
+                if (rejection == null && this.clientService != null && CLIENTS_PATH.equals(entry.getPath())
+                    && entry.getCommand() == null) {
+                    // as after createClient(), a lookup made before the client existed is forgotten
+                    this.clientService.clientCreated(createdClientId(responseBody));
+                }
+
+                final OutboxListener listener = this.outboxOptions.getListener();
+                if (listener == null) {
+                    continue;
+                }
+                if (rejection == null) {
+                    listener.onDelivered(entry.getKey(), responseBody);
+                } else {
+                    listener.onRejected(entry.getKey(), rejection);
+                }
+            }
+            return replayed;
+        } catch (IOException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        } finally {
+            this.replayLock.unlock();
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        this.journal.sync();
+    }
+
+    @Override
+    public int size() {
+        return this.journal.size();
+    }
+
+    /**
+     * Stops the background replay, waits for a running replay to finish its current
+     * command and closes the journal. The queued commands stay in the journal.
+     * @throws IOException
+     */
+    @Override
+    public void close() throws IOException {
+        this.closed = true;
+        if (this.syncTask != null) {
+            this.syncTask.cancel(false);
+        }
+        this.replayLock.lock();
+        try {
+            this.journal.close();
+        } finally {
+            this.replayLock.unlock();
+        }
+    }
+
+    private String enqueue(final String path, final String command, final Object commandBody)
+        throws IOException {
+        Preconditions.checkState(!this.closed, "The outbox is closed!");
+
+        final String key = UUID.randomUUID().toString();
+        this.journal.append(new OutboxJournal.Entry(key, path, command, this.gson.toJson(commandBody)));
+        this.scheduleReplay(0);
+        return key;
+    }
+
+    private void scheduleReplay(final long delay) {
+        final ScheduledExecutorService scheduler = this.outboxOptions.getScheduler();
+        if (scheduler == null || this.closed || !this.replayScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        scheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                replayScheduled.set(false);
+                try {
+                    replay();
+                } catch (MifosXConnectException e) {
+                    scheduleReplay(outboxOptions.getRetryInterval());
+                } catch (RuntimeException e) {
+                    scheduleReplay(outboxOptions.getRetryInterval());
+                }
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private static Long createdClientId(final String responseBody) {
+        try {
+            final JsonElement response = responseBody == null ? null : new JsonParser().parse(responseBody);
+            if (response != null && response.isJsonObject()) {
+                final JsonElement clientId = response.getAsJsonObject().get("clientId");
+                if (clientId != null && clientId.isJsonPrimitive()) {
+                    return clientId.getAsLong();
+                }
+            }
+        } catch (JsonParseException e) {
+            // without the ID every client is forgotten
+        } catch (NumberFormatException e) {
+            // without the ID every client is forgotten
+        }
+        return null;
+    }
+
+    private static String readBody(final Response response) throws IOException {
+        if (response == null || response.getBody() == null) {
+            return null;
+        }
+        final InputStreamReader reader = new InputStreamReader(response.getBody().in(), StandardCharsets.UTF_8);
+        try {
+            return CharStreams.toString(reader);
+        } finally {
+            reader.close();
+        }
+    }
+
+}
@@ -0,0 +1,35 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.internal;
+
+import retrofit.http.Body;
+import retrofit.http.Header;
+import retrofit.http.POST;
+import retrofit.http.Query;
+
+import java.util.List;
+
+/**
+ * Retrofit service interface for communication with the Batch API.
+ */
+public interface RetrofitBatchService {
+
+    /**
+     * Executes many requests in one call.
+     * @param authenticationKey the authentication key obtained by
+     *                          calling {@link org.mifos.sdk.MifosXClient#login()}
+     * @param tenantId the tenant ID
+     * @param enclosingTransaction Optional: true to run all the requests in one transaction
+     * @param requests the {@link BatchRequest}s
+     * @return the {@link BatchResponse}s
+     */
+    @POST("/batches")
+    public List<BatchResponse> executeBatch(@Header(RestConstants.HEADER_AUTHORIZATION) String authenticationKey,
+                                            @Header(RestConstants.HEADER_TENANTID) String tenantId,
+                                            @Query("enclosingTransaction") Boolean enclosingTransaction,
+                                            @Body List<BatchRequest> requests);
+
+}
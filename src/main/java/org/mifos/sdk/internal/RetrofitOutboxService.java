@@ -0,0 +1,40 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.internal;
+
+import retrofit.client.Response;
+import retrofit.http.Body;
+import retrofit.http.Header;
+import retrofit.http.POST;
+import retrofit.http.Path;
+import retrofit.http.Query;
+import retrofit.mime.TypedOutput;
+
+/**
+ * Retrofit service interface replaying the commands queued by an outbox.
+ */
+public interface RetrofitOutboxService {
+
+    /**
+     * Sends a command with its already serialized body.
+     * @param authenticationKey the authentication key obtained by
+     *                          calling {@link org.mifos.sdk.MifosXClient#login()}
+     * @param tenantId the tenant ID
+     * @param idempotencyKey the idempotency key of the command
+     * @param path the path of the command relative to the API endpoint
+     * @param command Optional: the command which is to be executed
+     * @param commandBody the JSON request body
+     * @return the {@link Response} of the server
+     */
+    @POST("/{path}")
+    public Response post(@Header(RestConstants.HEADER_AUTHORIZATION) String authenticationKey,
+                         @Header(RestConstants.HEADER_TENANTID) String tenantId,
+                         @Header(RestConstants.HEADER_IDEMPOTENCY_KEY) String idempotencyKey,
+                         @Path(value = "path", encode = false) String path,
+                         @Query(RestConstants.QUERY_COMMAND) String command,
+                         @Body TypedOutput commandBody);
+
+}
@@ -39,4 +39,23 @@ public class ServerResponseUtil {
         }
     }
 
+    /**
+     * Parses a JSON error body to extract the useful message.
+     * @param body the JSON body of the error
+     * @return the error message, or null if the body does not contain one
+     */
+    public static String parseMessage(final String body) {
+        if (body == null) {
+            return null;
+        }
+        try {
+            final JsonObject responseJSON = new Gson().fromJson(body, JsonObject.class);
+            final JsonObject message = responseJSON.get("errors").getAsJsonArray()
+                .get(0).getAsJsonObject();
+            return message.get("developerMessage").getAsString();
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
 }
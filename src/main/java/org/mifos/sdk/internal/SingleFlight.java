@@ -0,0 +1,103 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.internal;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.Uninterruptibles;
+import org.mifos.sdk.MifosXConnectException;
+import org.mifos.sdk.MifosXResourceException;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Coalesces concurrent identical calls: the first caller for a key runs the call
+ * while every caller arriving before it finishes waits and shares its result, or
+ * gets its error rethrown with its own stack trace. Callers share the returned
+ * object, so a mutable result must be copied for each caller before it is handed
+ * out. The calls in flight are tracked without locking.
+ * @param <K> the type of the keys identifying identical calls
+ * @param <V> the type of the results
+ */
+public final class SingleFlight<K, V> {
+
+    /**
+     * A call against the MifosX API.
+     * @param <V> the type of the result
+     */
+    public interface Call<V> {
+
+        /**
+         * Runs the call.
+         * @return the result of the call
+         * @throws MifosXConnectException
+         * @throws MifosXResourceException
+         */
+        V call() throws MifosXConnectException, MifosXResourceException;
+
+    }
+
+    private final ConcurrentMap<K, FutureTask<V>> inFlight = new ConcurrentHashMap<K, FutureTask<V>>();
+
+    /**
+     * Runs the call, or joins the identical call already in flight.
+     * @param key the key identifying identical calls
+     * @param call the {@link Call}
+     * @return the result of the call
+     * @throws MifosXConnectException
+     * @throws MifosXResourceException
+     */
+    public V execute(final K key, final Call<V> call) throws MifosXConnectException, MifosXResourceException {
+        Preconditions.checkNotNull(key);
+        Preconditions.checkNotNull(call);
+
+        final FutureTask<V> task = new FutureTask<V>(new Callable<V>() {
+            @Override
+            public V call() throws MifosXConnectException, MifosXResourceException {
+                return call.call();
+            }
+        });
+        FutureTask<V> flight = this.inFlight.putIfAbsent(key, task);
+        if (flight == null) {
+            flight = task;
+            try {
+                task.run();
+            } finally {
+                this.inFlight.remove(key, task);
+            }
+        }
+        try {
+            return Uninterruptibles.getUninterruptibly(flight);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof MifosXConnectException) {
+                throw new MifosXConnectException(((MifosXConnectException) cause).getErrorCode());
+            } else if (cause instanceof MifosXResourceException) {
+                final MifosXResourceException resourceException = (MifosXResourceException) cause;
+                if (resourceException.getErrorCode() != null) {
+                    throw new MifosXResourceException(resourceException.getErrorCode());
+                }
+                throw new MifosXResourceException(resourceException.getMessage());
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * Returns the number of calls in flight.
+     */
+    public int size() {
+        return this.inFlight.size();
+    }
+
+}
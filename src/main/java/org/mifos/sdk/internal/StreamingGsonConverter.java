@@ -0,0 +1,106 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.internal;
+
+import com.google.common.base.Preconditions;
+import com.google.gson.Gson;
+import retrofit.converter.ConversionException;
+import retrofit.converter.Converter;
+import retrofit.converter.GsonConverter;
+import retrofit.mime.TypedInput;
+import retrofit.mime.TypedOutput;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * {@link Converter} which writes the request bodies of the given types with
+ * {@link Gson} straight to the connection instead of first building the whole
+ * JSON string and its bytes. Their length is unknown up front, so they are sent
+ * with chunked encoding; this only pays off for large bodies such as collection
+ * sheets. The other request bodies and the responses are handled by a
+ * {@link GsonConverter} sharing the same {@link Gson}.
+ */
+public class StreamingGsonConverter implements Converter {
+
+    private static final String CHARSET = "UTF-8";
+
+    private final Gson gson;
+    private final GsonConverter gsonConverter;
+    private final Set<Class<?>> streamedTypes;
+
+    /**
+     * Constructs a new instance of {@link StreamingGsonConverter}.
+     * @param gson the {@link Gson} used for the requests and the responses
+     * @param types the types whose request bodies are streamed
+     */
+    public StreamingGsonConverter(final Gson gson, final Class<?>... types) {
+        Preconditions.checkNotNull(gson);
+        Preconditions.checkNotNull(types);
+
+        this.gson = gson;
+        this.gsonConverter = new GsonConverter(gson, CHARSET);
+        this.streamedTypes = new HashSet<Class<?>>(Arrays.asList(types));
+    }
+
+    @Override
+    public Object fromBody(final TypedInput body, final Type type) throws ConversionException {
+        return this.gsonConverter.fromBody(body, type);
+    }
+
+    @Override
+    public TypedOutput toBody(final Object object) {
+        if (object == null || !this.streamedTypes.contains(object.getClass())) {
+            return this.gsonConverter.toBody(object);
+        }
+        return new JsonTypedOutput(this.gson, object);
+    }
+
+    /**
+     * Serializes the object again on every write, so the request can be retried.
+     */
+    private static final class JsonTypedOutput implements TypedOutput {
+
+        private final Gson gson;
+        private final Object object;
+
+        private JsonTypedOutput(final Gson jsonGson, final Object jsonObject) {
+            this.gson = jsonGson;
+            this.object = jsonObject;
+        }
+
+        @Override
+        public String fileName() {
+            return null;
+        }
+
+        @Override
+        public String mimeType() {
+            return "application/json; charset=" + CHARSET;
+        }
+
+        @Override
+        public long length() {
+            return -1;
+        }
+
+        @Override
+        public void writeTo(final OutputStream out) throws IOException {
+            final Writer writer = new BufferedWriter(new OutputStreamWriter(out, CHARSET));
+            this.gson.toJson(this.object, writer);
+            writer.flush();
+        }
+
+    }
+
+}
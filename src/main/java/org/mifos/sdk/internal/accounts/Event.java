@@ -103,4 +103,17 @@ public final class Event {
     public void setLastname(final String lastname) {
         this.lastname = lastname;
     }
+
+    /**
+     * Returns a copy of the event, with its own date.
+     */
+    public Event copy() {
+        final Event copy = new Event();
+        copy.type = this.type;
+        copy.date = this.date == null ? null : new Date(this.date.getTime());
+        copy.username = this.username;
+        copy.firstname = this.firstname;
+        copy.lastname = this.lastname;
+        return copy;
+    }
 }
@@ -58,4 +58,15 @@ public final class StatusCode {
     public void setValue(String value) {
         this.value = value;
     }
+
+    /**
+     * Returns a copy of the status.
+     */
+    public StatusCode copy() {
+        final StatusCode copy = new StatusCode();
+        copy.id = this.id;
+        copy.code = this.code;
+        copy.value = this.value;
+        return copy;
+    }
 }
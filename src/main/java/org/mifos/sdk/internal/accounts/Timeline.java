@@ -5,6 +5,7 @@
  */
 package org.mifos.sdk.internal.accounts;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -28,4 +29,18 @@ public final class Timeline {
     public void setEvents(List<Event> events) {
         this.events = events;
     }
+
+    /**
+     * Returns a copy of the timeline, with its own list of copied events.
+     */
+    public Timeline copy() {
+        final Timeline copy = new Timeline();
+        if (this.events != null) {
+            copy.events = new ArrayList<Event>(this.events.size());
+            for (final Event event : this.events) {
+                copy.events.add(event == null ? null : event.copy());
+            }
+        }
+        return copy;
+    }
 }
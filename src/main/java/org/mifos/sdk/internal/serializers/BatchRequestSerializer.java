@@ -0,0 +1,43 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.internal.serializers;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonSerializationContext;
+import com.google.gson.JsonSerializer;
+import org.mifos.sdk.internal.BatchRequest;
+
+import java.lang.reflect.Type;
+
+/**
+ * JSON serializer for BatchRequest. The body is serialized with the serializer
+ * of its own type and embedded as a string, as the batch API expects.
+ */
+public class BatchRequestSerializer implements JsonSerializer<BatchRequest> {
+
+    @Override
+    public JsonElement serialize(final BatchRequest src, Type typeOfSrc,
+                                 JsonSerializationContext context) {
+        JsonObject jsonObject = new JsonObject();
+        jsonObject.addProperty("requestId", src.getRequestId());
+        jsonObject.addProperty("relativeUrl", src.getRelativeUrl());
+        jsonObject.addProperty("method", src.getMethod());
+        final JsonObject contentType = new JsonObject();
+        contentType.addProperty("name", "Content-Type");
+        contentType.addProperty("value", "application/json");
+        final JsonArray headers = new JsonArray();
+        headers.add(contentType);
+        jsonObject.add("headers", headers);
+        if (src.getBody() != null) {
+            jsonObject.addProperty("body", context.serialize(src.getBody()).toString());
+        }
+
+        return jsonObject;
+    }
+
+}
@@ -5,29 +5,40 @@
  */
 package org.mifos.sdk.internal.serializers;
 
-import com.google.gson.*;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 import org.mifos.sdk.client.domain.Client;
 import org.mifos.sdk.internal.ParseUtil;
+import org.mifos.sdk.internal.accounts.Event;
 import org.mifos.sdk.internal.accounts.StatusCode;
 import org.mifos.sdk.internal.accounts.Timeline;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
 import java.text.ParseException;
+import java.util.Date;
 
 /**
- * JSON serializer for Client.
+ * Streaming JSON adapter for Client. Every field of the server response is
+ * read once, straight from the {@link JsonReader}, without building a tree.
  */
-public class ClientSerializer implements JsonSerializer<Client>, JsonDeserializer<Client> {
+public class ClientSerializer extends TypeAdapter<Client> {
 
     @Override
-    public JsonElement serialize(final Client src, Type typeOfSrc, JsonSerializationContext context) {
-        JsonObject jsonObject = new JsonObject();
+    public void write(final JsonWriter out, final Client src) throws IOException {
+        if (src == null) {
+            out.nullValue();
+            return;
+        }
+
+        out.beginObject();
 
         if (src.getOfficeId() == null) {
             throw new IllegalArgumentException("The office ID cannot be null!");
         }
 
-        jsonObject.addProperty("officeId", src.getOfficeId());
+        out.name("officeId").value(src.getOfficeId());
 
         if (src.getFullname() == null && src.getFirstname() == null && src.getLastname() == null) {
             throw new IllegalArgumentException("Client full name or first name & last name " +
@@ -41,18 +52,18 @@ public class ClientSerializer implements JsonSerializer<Client>, JsonDeserialize
                         "be null or empty when full name is not provided.");
             }
 
-            jsonObject.addProperty("firstname", src.getFirstname());
-            jsonObject.addProperty("middlename", src.getMiddlename());
-            jsonObject.addProperty("lastname", src.getLastname());
+            out.name("firstname").value(src.getFirstname());
+            out.name("middlename").value(src.getMiddlename());
+            out.name("lastname").value(src.getLastname());
         }  else {
             if (src.getFullname().isEmpty()) {
                 throw new IllegalArgumentException("Client full name cannot be empty!");
             }
 
-            jsonObject.addProperty("fullname", src.getFullname());
+            out.name("fullname").value(src.getFullname());
         }
 
-        jsonObject.addProperty("active", src.getActive());
+        out.name("active").value(src.getActive());
         if (src.getActive()) {
             if (src.getActivationDate() == null) {
                 throw new IllegalArgumentException("Client activation date cannot be " +
@@ -63,15 +74,15 @@ public class ClientSerializer implements JsonSerializer<Client>, JsonDeserialize
                         "be null or empty when activation date is provided!");
             }
 
-            jsonObject.addProperty("activationDate", ParseUtil
+            out.name("activationDate").value(ParseUtil
                     .parseDateToString(src.getActivationDate(), src.getDateFormat(),
                             src.getLocale()));
-            jsonObject.addProperty("dateFormat", src.getDateFormat());
-            jsonObject.addProperty("locale", src.getLocale());
+            out.name("dateFormat").value(src.getDateFormat());
+            out.name("locale").value(src.getLocale());
         }
 
         if (src.getGroupId() != null) {
-            jsonObject.addProperty("groupId", src.getGroupId());
+            out.name("groupId").value(src.getGroupId());
         }
         if (src.getExternalId() != null) {
             if (src.getExternalId().length() > 100) {
@@ -79,145 +90,239 @@ public class ClientSerializer implements JsonSerializer<Client>, JsonDeserialize
                         "100 characters in length!");
             }
 
-            jsonObject.addProperty("externalId", src.getExternalId());
+            out.name("externalId").value(src.getExternalId());
         }
         if (src.getAccountNo() != null) {
-            jsonObject.addProperty("accountNo", src.getAccountNo());
+            out.name("accountNo").value(src.getAccountNo());
         }
         if (src.getStaffId() != null) {
-            jsonObject.addProperty("staffId", src.getStaffId());
+            out.name("staffId").value(src.getStaffId());
         }
         if (src.getMobileNo() != null) {
             if (src.getMobileNo().isEmpty()) {
                 throw new IllegalArgumentException("Client mobile number cannot be empty!");
             }
 
-            jsonObject.addProperty("mobileNo", src.getMobileNo());
+            out.name("mobileNo").value(src.getMobileNo());
         }
         if (src.getSavingsProductId() != null) {
-            jsonObject.addProperty("savingsProductId", src.getSavingsProductId());
+            out.name("savingsProductId").value(src.getSavingsProductId());
         }
         if (src.getGenderId() != null) {
-            jsonObject.addProperty("genderId", src.getGenderId());
+            out.name("genderId").value(src.getGenderId());
         }
         if (src.getClientTypeId() != null) {
-            jsonObject.addProperty("clientTypeId", src.getClientTypeId());
+            out.name("clientTypeId").value(src.getClientTypeId());
         }
         if (src.getClientClassificationId() != null) {
-            jsonObject.addProperty("clientClassificationId", src.getClientClassificationId());
+            out.name("clientClassificationId").value(src.getClientClassificationId());
         }
 
-        return jsonObject;
+        out.endObject();
     }
 
     @Override
-    public Client deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context) {
-        Client.Builder clientBuilder = null;
-        Client client = null;
-        final JsonObject jsonObject = json.getAsJsonObject();
+    public Client read(final JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        String fullname = null;
+        String firstname = null;
+        String middlename = null;
+        String lastname = null;
+        final IdName clientClassification = new IdName();
+        final IdName clientType = new IdName();
+        final IdName gender = new IdName();
+        String accountNo = null;
+        Date activationDate = null;
+        boolean active = false;
+        String externalId = null;
+        String mobileNo = null;
+        Long officeId = null;
+        Long staffId = null;
+        Long clientId = null;
+        Long id = null;
+        Timeline timeline = null;
+        Long imageId = null;
+        Boolean imagePresent = null;
+        Long resourceId = null;
+        Long savingsAccountId = null;
+        Long savingsId = null;
+        String staffName = null;
+        String displayName = null;
+        String officeName = null;
+        StatusCode status = null;
 
         try {
-            if (jsonObject.has("fullname")) {
-                clientBuilder = Client.fullname(jsonObject.get("fullname").getAsString());
-            } else {
-                clientBuilder = Client.firstname(jsonObject.has("firstname") ? jsonObject
-                        .get("firstname").getAsString() : null)
-                        .middlename(jsonObject.has("middlename") ? jsonObject
-                                .get("middlename").getAsString() : null)
-                        .lastname(jsonObject.has("lastname") ? jsonObject
-                                .get("lastname").getAsString() : null);
+            in.beginObject();
+            while (in.hasNext()) {
+                final String name = in.nextName();
+                if ("fullname".equals(name)) {
+                    fullname = JsonReadUtil.nextString(in);
+                } else if ("firstname".equals(name)) {
+                    firstname = JsonReadUtil.nextString(in);
+                } else if ("middlename".equals(name)) {
+                    middlename = JsonReadUtil.nextString(in);
+                } else if ("lastname".equals(name)) {
+                    lastname = JsonReadUtil.nextString(in);
+                } else if ("clientClassification".equals(name)) {
+                    clientClassification.read(in);
+                } else if ("clientType".equals(name)) {
+                    clientType.read(in);
+                } else if ("gender".equals(name)) {
+                    gender.read(in);
+                } else if ("accountNo".equals(name)) {
+                    accountNo = JsonReadUtil.nextString(in);
+                } else if ("activationDate".equals(name)) {
+                    activationDate = JsonReadUtil.nextDate(in);
+                } else if ("active".equals(name)) {
+                    active = JsonReadUtil.nextBoolean(in);
+                } else if ("externalId".equals(name)) {
+                    externalId = JsonReadUtil.nextString(in);
+                } else if ("mobileNo".equals(name)) {
+                    mobileNo = JsonReadUtil.nextString(in);
+                } else if ("officeId".equals(name)) {
+                    officeId = JsonReadUtil.nextLong(in);
+                } else if ("staffId".equals(name)) {
+                    staffId = JsonReadUtil.nextLong(in);
+                } else if ("clientId".equals(name)) {
+                    clientId = JsonReadUtil.nextLong(in);
+                } else if ("id".equals(name)) {
+                    id = JsonReadUtil.nextLong(in);
+                } else if ("timeline".equals(name)) {
+                    timeline = new TimelineSerializer().read(in);
+                } else if ("imageId".equals(name)) {
+                    imageId = JsonReadUtil.nextLong(in);
+                } else if ("imagePresent".equals(name)) {
+                    imagePresent = JsonReadUtil.nextBoolean(in);
+                } else if ("resourceId".equals(name)) {
+                    resourceId = JsonReadUtil.nextLong(in);
+                } else if ("savingsAccountId".equals(name)) {
+                    savingsAccountId = JsonReadUtil.nextLong(in);
+                } else if ("savingsId".equals(name)) {
+                    savingsId = JsonReadUtil.nextLong(in);
+                } else if ("staffName".equals(name)) {
+                    staffName = JsonReadUtil.nextString(in);
+                } else if ("displayName".equals(name)) {
+                    displayName = JsonReadUtil.nextString(in);
+                } else if ("officeName".equals(name)) {
+                    officeName = JsonReadUtil.nextString(in);
+                } else if ("status".equals(name)) {
+                    status = new StatusCodeSerializer().read(in);
+                } else {
+                    in.skipValue();
+                }
             }
+            in.endObject();
+        } catch (ParseException e) {
+            throw new IllegalStateException("There was error while deserializing the server" +
+                " response from the clients API endpoint.");
+        }
 
-            client = clientBuilder.clientClassificationId(jsonObject.has("clientClassification") &&
-                    jsonObject.get("clientClassification")
-                            .getAsJsonObject().has("id") ?
-                    jsonObject.get("clientClassification")
-                            .getAsJsonObject().get("id").getAsLong() : null)
-                    .clientTypeId(jsonObject.has("clientType") && jsonObject
-                            .get("clientType").getAsJsonObject().has("id") ?
-                            jsonObject.get("clientType").getAsJsonObject()
-                                    .get("id").getAsLong() : null)
-                    .accountNo(jsonObject.has("accountNo") ? jsonObject
-                            .get("accountNo").getAsString() : null)
-                    .activationDate(jsonObject.has("activationDate") ?
-                            ParseUtil.parseDateFromJsonArray(jsonObject
-                                    .get("activationDate").getAsJsonArray()) : null)
-                    .active(jsonObject.has("active") && jsonObject.get("active")
-                            .getAsBoolean())
-                    .externalId(jsonObject.has("externalId") ? jsonObject
-                            .get("externalId").getAsString() : null)
-                    .genderId(jsonObject.has("gender") && jsonObject.get("gender")
-                            .getAsJsonObject().has("id") ? jsonObject.get("gender")
-                            .getAsJsonObject().get("id").getAsLong() : null)
-                    .mobileNo(jsonObject.has("mobileNo") ? jsonObject
-                            .get("mobileNo").getAsString() : null)
-                    .officeId(jsonObject.get("officeId").getAsLong())
-                    .staffId(jsonObject.has("staffId") ? jsonObject
-                            .get("staffId").getAsLong() : null)
-                    .submittedOnDate(jsonObject.has("timeline") && jsonObject.get("timeline")
-                            .getAsJsonObject().has("submittedOnDate") ?
-                            ParseUtil.parseDateFromJsonArray(jsonObject.get("timeline")
-                                    .getAsJsonObject().get("submittedOnDate").getAsJsonArray()) : null)
-                    .build();
-
-            if (jsonObject.has("clientId")) {
-                client.setClientId(jsonObject.get("clientId").getAsLong());
-            } else {
-                client.setClientId(jsonObject.get("id").getAsLong());
-            }
+        final Client.Builder clientBuilder;
+        if (fullname != null) {
+            clientBuilder = Client.fullname(fullname);
+        } else {
+            clientBuilder = Client.firstname(firstname)
+                    .middlename(middlename)
+                    .lastname(lastname);
+        }
 
-            if (jsonObject.has("clientType") && jsonObject.get("clientType").getAsJsonObject()
-                    .has("name")) {
-                client.setClientTypeName(jsonObject.get("clientType").getAsJsonObject()
-                        .get("name").getAsString());
-            }
-            if (jsonObject.has("timeline")) {
-                final Timeline timeline = new TimelineSerializer().deserialize(jsonObject
-                    .get("timeline"), null ,null);
+        final Client client = clientBuilder.clientClassificationId(clientClassification.id)
+                .clientTypeId(clientType.id)
+                .accountNo(accountNo)
+                .activationDate(activationDate)
+                .active(active)
+                .externalId(externalId)
+                .genderId(gender.id)
+                .mobileNo(mobileNo)
+                .officeId(officeId)
+                .staffId(staffId)
+                .submittedOnDate(submittedOnDate(timeline))
+                .build();
 
-                client.setTimeline(timeline);
-            }
-            if (jsonObject.has("gender") && jsonObject.get("gender")
-                    .getAsJsonObject().has("name")) {
-                client.setGenderName(jsonObject.get("gender").getAsJsonObject()
-                        .get("name").getAsString());
-            }
-            if (jsonObject.has("imageId")) {
-                client.setImageId(jsonObject.get("imageId").getAsLong());
-            }
-            if (jsonObject.has("imagePresent")) {
-                client.setImagePresent(jsonObject.get("imagePresent").getAsBoolean());
-            }
-            if (jsonObject.has("resourceId")) {
-                client.setResourceId(jsonObject.get("resourceId").getAsLong());
-            }
-            if (jsonObject.has("savingsAccountId")) {
-                client.setSavingsAccountId(jsonObject.get("savingsAccountId").getAsLong());
-            }
-            if (jsonObject.has("savingsId")) {
-                client.setSavingsId(jsonObject.get("savingsId").getAsLong());
-            }
-            if (jsonObject.has("staffName")) {
-                client.setStaffName(jsonObject.get("staffName").getAsString());
-            }
-            if (jsonObject.has("displayName")) {
-                client.setDisplayName(jsonObject.get("displayName").getAsString());
-            }
-            if (jsonObject.has("officeName")) {
-                client.setOfficeName(jsonObject.get("officeName").getAsString());
+        client.setClientId(clientId != null ? clientId : id);
+        if (clientType.name != null) {
+            client.setClientTypeName(clientType.name);
+        }
+        if (timeline != null) {
+            client.setTimeline(timeline);
+        }
+        if (gender.name != null) {
+            client.setGenderName(gender.name);
+        }
+        if (imageId != null) {
+            client.setImageId(imageId);
+        }
+        if (imagePresent != null) {
+            client.setImagePresent(imagePresent);
+        }
+        if (resourceId != null) {
+            client.setResourceId(resourceId);
+        }
+        if (savingsAccountId != null) {
+            client.setSavingsAccountId(savingsAccountId);
+        }
+        if (savingsId != null) {
+            client.setSavingsId(savingsId);
+        }
+        if (staffName != null) {
+            client.setStaffName(staffName);
+        }
+        if (displayName != null) {
+            client.setDisplayName(displayName);
+        }
+        if (officeName != null) {
+            client.setOfficeName(officeName);
+        }
+        if (status != null) {
+            client.setStatus(status);
+        }
+
+        return client;
+    }
+
+    private static Date submittedOnDate(final Timeline timeline) {
+        if (timeline == null) {
+            return null;
+        }
+        for (final Event event : timeline.getEvents()) {
+            if (event.getType() == Event.Type.SUBMITTED) {
+                return event.getDate();
             }
-            if (jsonObject.has("status")) {
-                final StatusCode statusCode = new StatusCodeSerializer().deserialize(jsonObject
-                    .get("status"), null, null);
+        }
+        return null;
+    }
+
+    /**
+     * Holds the "id" and "name" of a nested code value such as the gender.
+     */
+    private static final class IdName {
+
+        private Long id;
+        private String name;
 
-                client.setStatus(statusCode);
+        private void read(final JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return;
             }
-        } catch (ParseException e) {
-            throw new IllegalStateException("There was error while deserializing the server" +
-                " response from the clients API endpoint.");
+            in.beginObject();
+            while (in.hasNext()) {
+                final String field = in.nextName();
+                if ("id".equals(field)) {
+                    this.id = JsonReadUtil.nextLong(in);
+                } else if ("name".equals(field)) {
+                    this.name = JsonReadUtil.nextString(in);
+                } else {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
         }
 
-        return client;
     }
 
 }
@@ -0,0 +1,104 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.internal.serializers;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.mifos.sdk.group.domain.CollectionSheet;
+import org.mifos.sdk.group.domain.CollectionSheetGroup;
+
+import java.io.IOException;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.List;
+
+/**
+ * JSON serializer for CollectionSheet. The due date is read and written in its
+ * [year, month, day] form and the groups with the adapters of the {@link Gson}
+ * instance the sheet is read with; the product and attendance options are skipped.
+ */
+public class CollectionSheetSerializer implements TypeAdapterFactory {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(final Gson gson, final TypeToken<T> type) {
+        if (type.getRawType() != CollectionSheet.class) {
+            return null;
+        }
+        return (TypeAdapter<T>) new Adapter(gson.getAdapter(new TypeToken<List<CollectionSheetGroup>>() {}));
+    }
+
+    private static final class Adapter extends TypeAdapter<CollectionSheet> {
+
+        private final TypeAdapter<List<CollectionSheetGroup>> groupsAdapter;
+
+        private Adapter(final TypeAdapter<List<CollectionSheetGroup>> groups) {
+            this.groupsAdapter = groups;
+        }
+
+        @Override
+        public void write(final JsonWriter out, final CollectionSheet src) throws IOException {
+            if (src == null) {
+                out.nullValue();
+                return;
+            }
+
+            out.beginObject();
+            if (src.getDueDate() != null) {
+                final GregorianCalendar calendar = new GregorianCalendar();
+                calendar.setTime(src.getDueDate());
+                out.name("dueDate").beginArray()
+                    .value(calendar.get(Calendar.YEAR))
+                    .value(calendar.get(Calendar.MONTH) + 1)
+                    .value(calendar.get(Calendar.DAY_OF_MONTH))
+                    .endArray();
+            }
+            out.name("groups");
+            this.groupsAdapter.write(out, src.getGroups());
+            out.endObject();
+        }
+
+        @Override
+        public CollectionSheet read(final JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+
+            Date dueDate = null;
+            List<CollectionSheetGroup> groups = null;
+
+            try {
+                in.beginObject();
+                while (in.hasNext()) {
+                    final String field = in.nextName();
+                    if ("dueDate".equals(field)) {
+                        dueDate = JsonReadUtil.nextDate(in);
+                    } else if ("groups".equals(field)) {
+                        groups = this.groupsAdapter.read(in);
+                    } else {
+                        in.skipValue();
+                    }
+                }
+                in.endObject();
+            } catch (ParseException e) {
+                throw new IllegalStateException("There was error while deserializing the server response from the collection sheet API endpoint.");
+            }
+
+            return new CollectionSheet(dueDate, groups != null ? groups : new ArrayList<CollectionSheetGroup>());
+        }
+
+    }
+
+}
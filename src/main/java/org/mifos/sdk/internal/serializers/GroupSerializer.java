@@ -6,40 +6,44 @@
 package org.mifos.sdk.internal.serializers;
 
 import com.google.gson.Gson;
-import com.google.gson.JsonDeserializationContext;
-import com.google.gson.JsonDeserializer;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonSerializationContext;
-import com.google.gson.JsonSerializer;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 import org.mifos.sdk.group.domain.Group;
 import org.mifos.sdk.internal.ParseUtil;
 import org.mifos.sdk.internal.accounts.StatusCode;
 import org.mifos.sdk.internal.accounts.Timeline;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
 
 /**
- * JSON serializer for Group.
+ * Streaming JSON adapter for Group. Every field of the server response is
+ * read once, straight from the {@link JsonReader}, without building a tree.
  */
-public class GroupSerializer implements JsonSerializer<Group>, JsonDeserializer<Group> {
+public class GroupSerializer extends TypeAdapter<Group> {
 
     @Override
-    public JsonElement serialize(final Group src, Type typeOfSrc, JsonSerializationContext context) {
-        final JsonObject jsonObject = new JsonObject();
+    public void write(final JsonWriter out, final Group src) throws IOException {
+        if (src == null) {
+            out.nullValue();
+            return;
+        }
+
+        out.beginObject();
 
         if (src.getName() == null || src.getName().isEmpty()) {
             throw new IllegalArgumentException("Group name cannot be null or empty!");
         }
 
-        jsonObject.addProperty("name", src.getName());
+        out.name("name").value(src.getName());
 
         if (src.getOfficeId() == null) {
             throw new IllegalArgumentException("Office ID for the group cannot be null!");
         }
 
-        jsonObject.addProperty("officeId", src.getOfficeId());
-        jsonObject.addProperty("active", src.isActive());
+        out.name("officeId").value(src.getOfficeId());
+        out.name("active").value(src.isActive());
 
         if (src.isActive()) {
             if (src.getActivationDate() == null) {
@@ -51,25 +55,25 @@ public class GroupSerializer implements JsonSerializer<Group>, JsonDeserializer<
                     "be null or empty when activation date is provided!");
             }
 
-            jsonObject.addProperty("activationDate", ParseUtil
+            out.name("activationDate").value(ParseUtil
                 .parseDateToString(src.getActivationDate(), src.getDateFormat(),
                     src.getLocale()));
-            jsonObject.addProperty("dateFormat", src.getDateFormat());
-            jsonObject.addProperty("locale", src.getLocale());
+            out.name("dateFormat").value(src.getDateFormat());
+            out.name("locale").value(src.getLocale());
         }
 
         if (src.getExternalId() != null && !src.getExternalId().isEmpty()) {
-            jsonObject.addProperty("externalId", src.getExternalId());
+            out.name("externalId").value(src.getExternalId());
         }
         if (src.getClientMembers() != null) {
-            jsonObject.addProperty("clientMembers", new Gson().toJson(src.getClientMembers()));
+            out.name("clientMembers").value(new Gson().toJson(src.getClientMembers()));
         }
         if (src.getStaffId() != null) {
-            jsonObject.addProperty("staffId", src.getStaffId());
+            out.name("staffId").value(src.getStaffId());
         }
         if (src.getSubmittedOnDate() != null) {
-            if (jsonObject.has("locale")) {
-                jsonObject.addProperty("submittedOnDate", ParseUtil
+            if (src.isActive()) {
+                out.name("submittedOnDate").value(ParseUtil
                     .parseDateToString(src.getSubmittedOnDate(), src.getDateFormat(),
                         src.getLocale()));
             } else {
@@ -79,56 +83,99 @@ public class GroupSerializer implements JsonSerializer<Group>, JsonDeserializer<
                         "be null or empty when submission date is provided!");
                 }
 
-                jsonObject.addProperty("submittedOnDate", ParseUtil
+                out.name("submittedOnDate").value(ParseUtil
                     .parseDateToString(src.getSubmittedOnDate(), src.getDateFormat(),
                         src.getLocale()));
-                jsonObject.addProperty("dateFormat", src.getDateFormat());
-                jsonObject.addProperty("locale", src.getLocale());
+                out.name("dateFormat").value(src.getDateFormat());
+                out.name("locale").value(src.getLocale());
             }
         }
 
-        return jsonObject;
+        out.endObject();
     }
 
     @Override
-    public Group deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context) {
-        final JsonObject jsonObject = json.getAsJsonObject();
-        Group group = Group.name(jsonObject.has("name") ? jsonObject
-            .get("name").getAsString() : null)
-            .active(jsonObject.has("active") && jsonObject.get("active")
-                .getAsBoolean())
-            .externalId(jsonObject.has("externalId") ? jsonObject
-                .get("externalId").getAsString() : null)
-            .officeId(jsonObject.get("officeId").getAsLong())
-            .staffId(jsonObject.has("staffId") ? jsonObject
-                .get("staffId").getAsLong() : null)
-            .build();
+    public Group read(final JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
 
-        if (jsonObject.has("status")) {
-            final StatusCode status = new StatusCodeSerializer().deserialize(jsonObject
-                .get("status"), null, null);
+        String name = null;
+        boolean active = false;
+        String externalId = null;
+        Long officeId = null;
+        Long staffId = null;
+        StatusCode status = null;
+        Long id = null;
+        Long resourceId = null;
+        String officeName = null;
+        Long centerId = null;
+        String centerName = null;
+        String staffName = null;
+        Timeline timeline = null;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            final String field = in.nextName();
+            if ("name".equals(field)) {
+                name = JsonReadUtil.nextString(in);
+            } else if ("active".equals(field)) {
+                active = JsonReadUtil.nextBoolean(in);
+            } else if ("externalId".equals(field)) {
+                externalId = JsonReadUtil.nextString(in);
+            } else if ("officeId".equals(field)) {
+                officeId = JsonReadUtil.nextLong(in);
+            } else if ("staffId".equals(field)) {
+                staffId = JsonReadUtil.nextLong(in);
+            } else if ("status".equals(field)) {
+                status = new StatusCodeSerializer().read(in);
+            } else if ("id".equals(field)) {
+                id = JsonReadUtil.nextLong(in);
+            } else if ("resourceId".equals(field)) {
+                resourceId = JsonReadUtil.nextLong(in);
+            } else if ("officeName".equals(field)) {
+                officeName = JsonReadUtil.nextString(in);
+            } else if ("centerId".equals(field)) {
+                centerId = JsonReadUtil.nextLong(in);
+            } else if ("centerName".equals(field)) {
+                centerName = JsonReadUtil.nextString(in);
+            } else if ("staffName".equals(field)) {
+                staffName = JsonReadUtil.nextString(in);
+            } else if ("timeline".equals(field)) {
+                timeline = new TimelineSerializer().read(in);
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+
+        final Group group = Group.name(name)
+            .active(active)
+            .externalId(externalId)
+            .officeId(officeId)
+            .staffId(staffId)
+            .build();
 
+        if (status != null) {
             group.setStatus(status);
         }
-        if (jsonObject.has("id") || jsonObject.has("resourceId")) {
-            final String idParam = jsonObject.has("id") ? "id" : "resourceId";
-            group.setResourceId(jsonObject.get(idParam).getAsLong());
+        if (id != null || resourceId != null) {
+            group.setResourceId(id != null ? id : resourceId);
         }
-        if (jsonObject.has("officeName")) {
-            group.setOfficeName(jsonObject.get("officeName").getAsString());
+        if (officeName != null) {
+            group.setOfficeName(officeName);
         }
-        if (jsonObject.has("centerId")) {
-            group.setCenterId(jsonObject.get("centerId").getAsLong());
+        if (centerId != null) {
+            group.setCenterId(centerId);
         }
-        if (jsonObject.has("centerName")) {
-            group.setCenterName(jsonObject.get("centerName").getAsString());
+        if (centerName != null) {
+            group.setCenterName(centerName);
         }
-        if (jsonObject.has("staffName")) {
-            group.setStaffName(jsonObject.get("staffName").getAsString());
+        if (staffName != null) {
+            group.setStaffName(staffName);
         }
-        if (jsonObject.has("timeline")) {
-            final Timeline timeline = new TimelineSerializer().deserialize(jsonObject
-                .get("timeline"), null, null);
+        if (timeline != null) {
             group.setTimeline(timeline);
         }
 
@@ -0,0 +1,89 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.internal.serializers;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import org.mifos.sdk.internal.ParseUtil;
+
+import java.io.IOException;
+import java.text.ParseException;
+import java.util.Date;
+
+/**
+ * Utility methods to read nullable values from a {@link JsonReader}.
+ * A JSON null is consumed and returned as null, as if the field was absent.
+ */
+final class JsonReadUtil {
+
+    private JsonReadUtil() {}
+
+    /**
+     * Reads the next value as a {@link String}.
+     * @param in the {@link JsonReader}
+     * @return the value or null
+     * @throws IOException
+     */
+    static String nextString(final JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return in.nextString();
+    }
+
+    /**
+     * Reads the next value as a {@link Long}.
+     * @param in the {@link JsonReader}
+     * @return the value or null
+     * @throws IOException
+     */
+    static Long nextLong(final JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return in.nextLong();
+    }
+
+    /**
+     * Reads the next value as a boolean.
+     * @param in the {@link JsonReader}
+     * @return the value, false for null
+     * @throws IOException
+     */
+    static boolean nextBoolean(final JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return false;
+        }
+        return in.nextBoolean();
+    }
+
+    /**
+     * Reads the next value as a {@link Date} in the form of [year, month, day].
+     * @param in the {@link JsonReader}
+     * @return the {@link Date} or null
+     * @throws IOException
+     * @throws ParseException
+     */
+    static Date nextDate(final JsonReader in) throws IOException, ParseException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        in.beginArray();
+        final int year = in.nextInt();
+        final int month = in.nextInt();
+        final int day = in.nextInt();
+        while (in.hasNext()) {
+            in.skipValue();
+        }
+        in.endArray();
+        return ParseUtil.parseDate(year, month, day);
+    }
+
+}
@@ -5,26 +5,31 @@
  */
 package org.mifos.sdk.internal.serializers;
 
-import com.google.gson.JsonDeserializationContext;
-import com.google.gson.JsonDeserializer;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonSerializationContext;
-import com.google.gson.JsonSerializer;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 import org.mifos.sdk.internal.ParseUtil;
 import org.mifos.sdk.office.domain.Office;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
 import java.text.ParseException;
+import java.util.Date;
 
 /**
- * JSON serializer for Office.
+ * Streaming JSON adapter for Office. Every field of the server response is
+ * read once, straight from the {@link JsonReader}, without building a tree.
  */
-public class OfficeSerializer implements JsonSerializer<Office>, JsonDeserializer<Office> {
+public class OfficeSerializer extends TypeAdapter<Office> {
 
     @Override
-    public JsonElement serialize(final Office src, Type typeOfSrc, JsonSerializationContext context) {
-        final JsonObject jsonObject = new JsonObject();
+    public void write(final JsonWriter out, final Office src) throws IOException {
+        if (src == null) {
+            out.nullValue();
+            return;
+        }
+
+        out.beginObject();
 
         if (src.getName() == null || src.getParentId() == null || src.getOpeningDate() == null) {
             throw new IllegalArgumentException("Office name, parent ID and opening date cannot be null!");
@@ -36,11 +41,11 @@ public class OfficeSerializer implements JsonSerializer<Office>, JsonDeserialize
                     "by opening date and cannot be null and/or empty!");
         }
 
-        jsonObject.addProperty("name", src.getName());
-        jsonObject.addProperty("dateFormat", src.getDateFormat());
-        jsonObject.addProperty("locale", src.getLocale());
-        jsonObject.addProperty("parentId", src.getParentId());
-        jsonObject.addProperty("openingDate", ParseUtil.parseDateToString(src.getOpeningDate(),
+        out.name("name").value(src.getName());
+        out.name("dateFormat").value(src.getDateFormat());
+        out.name("locale").value(src.getLocale());
+        out.name("parentId").value(src.getParentId());
+        out.name("openingDate").value(ParseUtil.parseDateToString(src.getOpeningDate(),
                 src.getDateFormat(), src.getLocale()));
 
         if (src.getNameDecorated() != null) {
@@ -48,7 +53,7 @@ public class OfficeSerializer implements JsonSerializer<Office>, JsonDeserialize
                 throw new IllegalArgumentException("Office name decorated cannot be empty!");
             }
 
-            jsonObject.addProperty("nameDecorated", src.getNameDecorated());
+            out.name("nameDecorated").value(src.getNameDecorated());
         }
         if (src.getExternalId() != null) {
             if (src.getExternalId().isEmpty()) {
@@ -58,43 +63,73 @@ public class OfficeSerializer implements JsonSerializer<Office>, JsonDeserialize
                         "than 100 characters in length!");
             }
 
-            jsonObject.addProperty("externalId", src.getExternalId());
+            out.name("externalId").value(src.getExternalId());
         }
 
-        return jsonObject;
+        out.endObject();
     }
 
     @Override
-    public Office deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context) {
-        Office office = null;
-        final JsonObject jsonObject = json.getAsJsonObject();
+    public Office read(final JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        String name = null;
+        String externalId = null;
+        String nameDecorated = null;
+        Date openingDate = null;
+        Long officeId = null;
+        Long id = null;
+        Long resourceId = null;
+        Long parentId = null;
+        String hierarchy = null;
 
         try {
-            office  = Office.name(jsonObject.has("name") ? jsonObject
-                    .get("name").getAsString() : null)
-                    .externalId(jsonObject.has("externalId") ? jsonObject
-                            .get("externalId").getAsString() : null)
-                    .nameDecorated(jsonObject.has("nameDecorated") ? jsonObject
-                            .get("nameDecorated").getAsString() : null)
-                    .openingDate(jsonObject.has("openingDate") ? ParseUtil
-                            .parseDateFromJsonArray(jsonObject.get("openingDate")
-                                    .getAsJsonArray()) : null)
-                    .build();
-
-            String idParam = null;
-            if (jsonObject.has("officeId")) {
-                idParam = "officeId";
-            } else {
-                idParam = "id";
+            in.beginObject();
+            while (in.hasNext()) {
+                final String field = in.nextName();
+                if ("name".equals(field)) {
+                    name = JsonReadUtil.nextString(in);
+                } else if ("externalId".equals(field)) {
+                    externalId = JsonReadUtil.nextString(in);
+                } else if ("nameDecorated".equals(field)) {
+                    nameDecorated = JsonReadUtil.nextString(in);
+                } else if ("openingDate".equals(field)) {
+                    openingDate = JsonReadUtil.nextDate(in);
+                } else if ("officeId".equals(field)) {
+                    officeId = JsonReadUtil.nextLong(in);
+                } else if ("id".equals(field)) {
+                    id = JsonReadUtil.nextLong(in);
+                } else if ("resourceId".equals(field)) {
+                    resourceId = JsonReadUtil.nextLong(in);
+                } else if ("parentId".equals(field)) {
+                    parentId = JsonReadUtil.nextLong(in);
+                } else if ("hierarchy".equals(field)) {
+                    hierarchy = JsonReadUtil.nextString(in);
+                } else {
+                    in.skipValue();
+                }
             }
-
-            office.setResourceId(jsonObject.has("resourceId") ? jsonObject
-                    .get("resourceId").getAsLong() : null);
-            office.setOfficeId(jsonObject.get(idParam).getAsLong());
-        } catch (ParseException e){
+            in.endObject();
+        } catch (ParseException e) {
             throw new IllegalStateException("There was error while deserializing the server response from the office API endpoint.");
         }
 
+        final Office.Builder builder = Office.name(name)
+                .externalId(externalId)
+                .nameDecorated(nameDecorated)
+                .openingDate(openingDate);
+        if (parentId != null) {
+            builder.parentId(parentId);
+        }
+        final Office office = builder.build();
+
+        office.setResourceId(resourceId);
+        office.setHierarchy(hierarchy);
+        office.setOfficeId(officeId != null ? officeId : id);
+
         return office;
     }
 
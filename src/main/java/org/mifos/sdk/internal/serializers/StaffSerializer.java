@@ -5,27 +5,32 @@
  */
 package org.mifos.sdk.internal.serializers;
 
-import com.google.gson.JsonDeserializationContext;
-import com.google.gson.JsonDeserializer;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonSerializationContext;
-import com.google.gson.JsonSerializer;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 import org.mifos.sdk.internal.ParseUtil;
 import org.mifos.sdk.staff.domain.Staff;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
 import java.text.ParseException;
+import java.util.Date;
 
 /**
- * JSON serializer for Staff.
+ * Streaming JSON adapter for Staff. Every field of the server response is
+ * read once, straight from the {@link JsonReader}, without building a tree.
  */
-public class StaffSerializer implements JsonSerializer<Staff>, JsonDeserializer<Staff> {
+public class StaffSerializer extends TypeAdapter<Staff> {
 
     @Override
-    public JsonElement serialize(final Staff src, Type typeOfSrc, JsonSerializationContext context) {
-        final JsonObject jsonObject = new JsonObject();
-        jsonObject.addProperty("officeId", src.getOfficeId());
+    public void write(final JsonWriter out, final Staff src) throws IOException {
+        if (src == null) {
+            out.nullValue();
+            return;
+        }
+
+        out.beginObject();
+        out.name("officeId").value(src.getOfficeId());
 
         if (src.getFirstname() == null || src.getLastname() == null) {
             throw new IllegalArgumentException("Staff first name and last name cannot be null!");
@@ -33,8 +38,8 @@ public class StaffSerializer implements JsonSerializer<Staff>, JsonDeserializer<
             throw new IllegalArgumentException("Staff first name and last name cannot be empty!");
         }
 
-        jsonObject.addProperty("firstname", src.getFirstname());
-        jsonObject.addProperty("lastname", src.getLastname());
+        out.name("firstname").value(src.getFirstname());
+        out.name("lastname").value(src.getLastname());
 
         if (src.getExternalId() != null) {
             if (src.getExternalId().isEmpty()) {
@@ -44,20 +49,20 @@ public class StaffSerializer implements JsonSerializer<Staff>, JsonDeserializer<
                         "than 100 characters in length!");
             }
 
-            jsonObject.addProperty("externalId", src.getExternalId());
+            out.name("externalId").value(src.getExternalId());
         }
         if (src.getMobileNo() != null) {
             if (src.getMobileNo().isEmpty()) {
                 throw new IllegalArgumentException("Staff mobile number cannot be empty!");
             }
 
-            jsonObject.addProperty("mobileNo", src.getMobileNo());
+            out.name("mobileNo").value(src.getMobileNo());
         }
         if (src.getIsActive()) {
-            jsonObject.addProperty("isActive", src.getIsActive());
+            out.name("isActive").value(src.getIsActive());
         }
         if (src.getIsLoanOfficer()) {
-            jsonObject.addProperty("isLoanOfficer", src.getIsLoanOfficer());
+            out.name("isLoanOfficer").value(src.getIsLoanOfficer());
         }
         if (src.getJoiningDate() != null) {
             if (src.getLocale() == null || src.getDateFormat() == null ||
@@ -66,52 +71,88 @@ public class StaffSerializer implements JsonSerializer<Staff>, JsonDeserializer<
                         "by joining date and cannot be null and/or empty!");
             }
 
-            jsonObject.addProperty("locale", src.getLocale());
-            jsonObject.addProperty("dateFormat", src.getDateFormat());
-            jsonObject.addProperty("joiningDate", ParseUtil.parseDateToString(src.getJoiningDate(),
+            out.name("locale").value(src.getLocale());
+            out.name("dateFormat").value(src.getDateFormat());
+            out.name("joiningDate").value(ParseUtil.parseDateToString(src.getJoiningDate(),
                 src.getDateFormat(), src.getLocale()));
         }
 
-        return jsonObject;
+        out.endObject();
     }
 
     @Override
-    public Staff deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context) {
-        Staff staff = null;
-        final JsonObject jsonObject = json.getAsJsonObject();
+    public Staff read(final JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        Long officeId = null;
+        String externalId = null;
+        String firstname = null;
+        String lastname = null;
+        boolean isActive = false;
+        boolean isLoanOfficer = false;
+        Date joiningDate = null;
+        String mobileNo = null;
+        String displayName = null;
+        Long resourceId = null;
+        Long id = null;
+        String officeName = null;
 
         try {
-            staff = Staff.officeId(jsonObject.has("officeId") ? jsonObject.get("officeId")
-                            .getAsLong() : null)
-                    .externalId(jsonObject.has("externalId") ? jsonObject
-                            .get("externalId").getAsString() : null)
-                    .firstname(jsonObject.has("firstname") ? jsonObject.get("firstname")
-                            .getAsString() : null)
-                    .lastname(jsonObject.has("lastname") ? jsonObject
-                            .get("lastname").getAsString() : null)
-                    .isActive(jsonObject.has("isActive") && jsonObject.get("isActive").getAsBoolean())
-                    .isLoanOfficer(jsonObject.has("isLoanOfficer") && jsonObject
-                            .get("isLoanOfficer").getAsBoolean())
-                    .joiningDate(jsonObject.has("joiningDate") ? ParseUtil
-                            .parseDateFromJsonArray(jsonObject
-                                    .get("joiningDate").getAsJsonArray()) : null)
-                    .mobileNo(jsonObject.has("mobileNo") ? jsonObject
-                            .get("mobileNo").getAsString() : null)
-                    .build();
-
-            staff.setDisplayName(jsonObject.has("displayName") ? jsonObject
-                    .get("displayName").getAsString() : null);
-            if (jsonObject.has("resourceId")) {
-                staff.setResourceId(jsonObject.get("resourceId").getAsLong());
-            } else if (jsonObject.has("id")) {
-                staff.setResourceId(jsonObject.get("id").getAsLong());
+            in.beginObject();
+            while (in.hasNext()) {
+                final String name = in.nextName();
+                if ("officeId".equals(name)) {
+                    officeId = JsonReadUtil.nextLong(in);
+                } else if ("externalId".equals(name)) {
+                    externalId = JsonReadUtil.nextString(in);
+                } else if ("firstname".equals(name)) {
+                    firstname = JsonReadUtil.nextString(in);
+                } else if ("lastname".equals(name)) {
+                    lastname = JsonReadUtil.nextString(in);
+                } else if ("isActive".equals(name)) {
+                    isActive = JsonReadUtil.nextBoolean(in);
+                } else if ("isLoanOfficer".equals(name)) {
+                    isLoanOfficer = JsonReadUtil.nextBoolean(in);
+                } else if ("joiningDate".equals(name)) {
+                    joiningDate = JsonReadUtil.nextDate(in);
+                } else if ("mobileNo".equals(name)) {
+                    mobileNo = JsonReadUtil.nextString(in);
+                } else if ("displayName".equals(name)) {
+                    displayName = JsonReadUtil.nextString(in);
+                } else if ("resourceId".equals(name)) {
+                    resourceId = JsonReadUtil.nextLong(in);
+                } else if ("id".equals(name)) {
+                    id = JsonReadUtil.nextLong(in);
+                } else if ("officeName".equals(name)) {
+                    officeName = JsonReadUtil.nextString(in);
+                } else {
+                    in.skipValue();
+                }
             }
-            staff.setOfficeName(jsonObject.has("officeName") ? jsonObject
-                    .get("officeName").getAsString() : null);
+            in.endObject();
         } catch (ParseException e) {
             throw new IllegalStateException("There was error while deserializing the server response from the staff API endpoint.");
         }
 
+        final Staff staff = Staff.officeId(officeId)
+                .externalId(externalId)
+                .firstname(firstname)
+                .lastname(lastname)
+                .isActive(isActive)
+                .isLoanOfficer(isLoanOfficer)
+                .joiningDate(joiningDate)
+                .mobileNo(mobileNo)
+                .build();
+
+        staff.setDisplayName(displayName);
+        if (resourceId != null || id != null) {
+            staff.setResourceId(resourceId != null ? resourceId : id);
+        }
+        staff.setOfficeName(officeName);
+
         return staff;
     }
 
@@ -5,386 +5,163 @@
  */
 package org.mifos.sdk.internal.serializers;
 
-import com.google.gson.JsonDeserializationContext;
-import com.google.gson.JsonDeserializer;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import org.mifos.sdk.internal.ParseUtil;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 import org.mifos.sdk.internal.accounts.Event;
 import org.mifos.sdk.internal.accounts.Timeline;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
 import java.text.ParseException;
 import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.GregorianCalendar;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
- * JSON deserializer for Timeline.
+ * Streaming JSON adapter for Timeline. The server sends a timeline as flat
+ * fields such as "activatedOnDate" or "activatedByUsername"; a table built
+ * once maps every such key to the event type and the field it fills, so the
+ * events are built in a single walk over the object.
  */
-public class TimelineSerializer implements JsonDeserializer<Timeline> {
+public class TimelineSerializer extends TypeAdapter<Timeline> {
 
-    @Override
-    public Timeline deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context) {
-        final JsonObject jsonObject = json.getAsJsonObject();
-        final Timeline timeline = new Timeline();
-        Event submittedEvent = null;
-        Event activatedEvent = null;
-        Event approvedEvent = null;
-        Event withdrawnEvent = null;
-        Event closedEvent = null;
-        Event rejectedEvent = null;
-        Event writeOffEvent = null;
-        Event disbursedEvent = null;
-        final List<Event> events = new ArrayList<>();
+    /**
+     * The field of an {@link Event} a timeline key fills.
+     */
+    private enum Field {
+        DATE, USERNAME, FIRSTNAME, LASTNAME
+    }
 
-        try {
-            // Submitted Event
-            if (jsonObject.has("submittedOnDate")) {
-                if (submittedEvent == null) {
-                    submittedEvent = new Event();
-                    submittedEvent.setType(Event.Type.SUBMITTED);
-                }
-                submittedEvent.setDate(ParseUtil.parseDateFromJsonArray(jsonObject
-                    .get("submittedOnDate").getAsJsonArray()));
-                if (!events.contains(submittedEvent)) {
-                    events.add(submittedEvent);
-                }
-            }
-            if (jsonObject.has("submittedByUsername")) {
-                if (submittedEvent == null) {
-                    submittedEvent = new Event();
-                    submittedEvent.setType(Event.Type.SUBMITTED);
-                }
-                submittedEvent.setUsername(jsonObject.get("submittedByUsername").getAsString());
-                if (!events.contains(submittedEvent)) {
-                    events.add(submittedEvent);
-                }
-            }
-            if (jsonObject.has("submittedByFirstname")) {
-                if (submittedEvent == null) {
-                    submittedEvent = new Event();
-                    submittedEvent.setType(Event.Type.SUBMITTED);
-                }
-                submittedEvent.setFirstname(jsonObject.get("submittedByFirstname").getAsString());
-                if (!events.contains(submittedEvent)) {
-                    events.add(submittedEvent);
-                }
-            }
-            if (jsonObject.has("submittedByLastname")) {
-                if (submittedEvent == null) {
-                    submittedEvent = new Event();
-                    submittedEvent.setType(Event.Type.SUBMITTED);
-                }
-                submittedEvent.setLastname(jsonObject.get("submittedByLastname").getAsString());
-                if (!events.contains(submittedEvent)) {
-                    events.add(submittedEvent);
-                }
-            }
+    /**
+     * The event type and field a timeline key maps to.
+     */
+    private static final class Slot {
 
-            // Activated Event
-            if (jsonObject.has("activatedOnDate")) {
-                if (activatedEvent == null) {
-                    activatedEvent = new Event();
-                    activatedEvent.setType(Event.Type.ACTIVATED);
-                }
-                activatedEvent.setDate(ParseUtil.parseDateFromJsonArray(jsonObject
-                    .get("activatedOnDate").getAsJsonArray()));
-                if (!events.contains(activatedEvent)) {
-                    events.add(activatedEvent);
-                }
-            }
-            if (jsonObject.has("activatedByUsername")) {
-                if (activatedEvent == null) {
-                    activatedEvent = new Event();
-                    activatedEvent.setType(Event.Type.ACTIVATED);
-                }
-                activatedEvent.setUsername(jsonObject.get("activatedByUsername").getAsString());
-                if (!events.contains(activatedEvent)) {
-                    events.add(activatedEvent);
-                }
-            }
-            if (jsonObject.has("activatedByFirstname")) {
-                if (activatedEvent == null) {
-                    activatedEvent = new Event();
-                    activatedEvent.setType(Event.Type.ACTIVATED);
-                }
-                activatedEvent.setFirstname(jsonObject.get("activatedByFirstname").getAsString());
-                if (!events.contains(activatedEvent)) {
-                    events.add(activatedEvent);
-                }
-            }
-            if (jsonObject.has("activatedByLastname")) {
-                if (activatedEvent == null) {
-                    activatedEvent = new Event();
-                    activatedEvent.setType(Event.Type.ACTIVATED);
-                }
-                activatedEvent.setLastname(jsonObject.get("activatedByLastname").getAsString());
-                if (!events.contains(activatedEvent)) {
-                    events.add(activatedEvent);
-                }
-            }
+        private final Event.Type type;
+        private final Field field;
 
-            // Approved Event
-            if (jsonObject.has("approvedOnDate")) {
-                if (approvedEvent == null) {
-                    approvedEvent = new Event();
-                    approvedEvent.setType(Event.Type.APPROVED);
-                }
-                approvedEvent.setDate(ParseUtil.parseDateFromJsonArray(jsonObject
-                    .get("approvedOnDate").getAsJsonArray()));
-                if (!events.contains(approvedEvent)) {
-                    events.add(approvedEvent);
-                }
-            }
-            if (jsonObject.has("approvedByUsername")) {
-                if (approvedEvent == null) {
-                    approvedEvent = new Event();
-                    approvedEvent.setType(Event.Type.APPROVED);
-                }
-                approvedEvent.setUsername(jsonObject.get("approvedByUsername").getAsString());
-                if (!events.contains(approvedEvent)) {
-                    events.add(approvedEvent);
-                }
-            }
-            if (jsonObject.has("approvedByFirstname")) {
-                if (approvedEvent == null) {
-                    approvedEvent = new Event();
-                    approvedEvent.setType(Event.Type.APPROVED);
-                }
-                approvedEvent.setFirstname(jsonObject.get("approvedByFirstname").getAsString());
-                if (!events.contains(approvedEvent)) {
-                    events.add(approvedEvent);
-                }
-            }
-            if (jsonObject.has("approvedByLastname")) {
-                if (approvedEvent == null) {
-                    approvedEvent = new Event();
-                    approvedEvent.setType(Event.Type.APPROVED);
-                }
-                approvedEvent.setLastname(jsonObject.get("approvedByLastname").getAsString());
-                if (!events.contains(approvedEvent)) {
-                    events.add(approvedEvent);
-                }
-            }
+        private Slot(final Event.Type eventType, final Field eventField) {
+            this.type = eventType;
+            this.field = eventField;
+        }
 
-            // Withdrawn Event
-            if (jsonObject.has("withdrawnOnDate")) {
-                if (withdrawnEvent == null) {
-                    withdrawnEvent = new Event();
-                    withdrawnEvent.setType(Event.Type.WITHDRAWN);
-                }
-                withdrawnEvent.setDate(ParseUtil.parseDateFromJsonArray(jsonObject
-                    .get("withdrawnOnDate").getAsJsonArray()));
-                if (!events.contains(withdrawnEvent)) {
-                    events.add(withdrawnEvent);
-                }
-            }
-            if (jsonObject.has("withdrawnByUsername")) {
-                if (withdrawnEvent == null) {
-                    withdrawnEvent = new Event();
-                    withdrawnEvent.setType(Event.Type.WITHDRAWN);
-                }
-                withdrawnEvent.setUsername(jsonObject.get("withdrawnByUsername").getAsString());
-                if (!events.contains(withdrawnEvent)) {
-                    events.add(withdrawnEvent);
-                }
-            }
-            if (jsonObject.has("withdrawnByFirstname")) {
-                if (withdrawnEvent == null) {
-                    withdrawnEvent = new Event();
-                    withdrawnEvent.setType(Event.Type.WITHDRAWN);
-                }
-                withdrawnEvent.setFirstname(jsonObject.get("withdrawnByFirstname").getAsString());
-                if (!events.contains(withdrawnEvent)) {
-                    events.add(withdrawnEvent);
-                }
-            }
-            if (jsonObject.has("withdrawnByLastname")) {
-                if (withdrawnEvent == null) {
-                    withdrawnEvent = new Event();
-                    withdrawnEvent.setType(Event.Type.WITHDRAWN);
-                }
-                withdrawnEvent.setLastname(jsonObject.get("withdrawnByLastname").getAsString());
-                if (!events.contains(withdrawnEvent)) {
-                    events.add(withdrawnEvent);
-                }
-            }
+    }
 
-            // Closed Event
-            if (jsonObject.has("closedOnDate")) {
-                if (closedEvent == null) {
-                    closedEvent = new Event();
-                    closedEvent.setType(Event.Type.CLOSED);
-                }
-                closedEvent.setDate(ParseUtil.parseDateFromJsonArray(jsonObject
-                    .get("closedOnDate").getAsJsonArray()));
-                if (!events.contains(closedEvent)) {
-                    events.add(closedEvent);
-                }
-            }
-            if (jsonObject.has("closedByUsername")) {
-                if (closedEvent == null) {
-                    closedEvent = new Event();
-                    closedEvent.setType(Event.Type.CLOSED);
-                }
-                closedEvent.setUsername(jsonObject.get("closedByUsername").getAsString());
-                if (!events.contains(closedEvent)) {
-                    events.add(closedEvent);
-                }
-            }
-            if (jsonObject.has("closedByFirstname")) {
-                if (closedEvent == null) {
-                    closedEvent = new Event();
-                    closedEvent.setType(Event.Type.CLOSED);
-                }
-                closedEvent.setFirstname(jsonObject.get("closedByFirstname").getAsString());
-                if (!events.contains(closedEvent)) {
-                    events.add(closedEvent);
-                }
-            }
-            if (jsonObject.has("closedByLastname")) {
-                if (closedEvent == null) {
-                    closedEvent = new Event();
-                    closedEvent.setType(Event.Type.CLOSED);
-                }
-                closedEvent.setLastname(jsonObject.get("closedByLastname").getAsString());
-                if (!events.contains(closedEvent)) {
-                    events.add(closedEvent);
-                }
-            }
+    private static final Map<String, Slot> SLOTS;
+    private static final Map<Event.Type, String[]> KEYS;
 
-            // Rejected Event
-            if (jsonObject.has("rejectedOnDate")) {
-                if (rejectedEvent == null) {
-                    rejectedEvent = new Event();
-                    rejectedEvent.setType(Event.Type.REJECTED);
-                }
-                rejectedEvent.setDate(ParseUtil.parseDateFromJsonArray(jsonObject
-                    .get("rejectedOnDate").getAsJsonArray()));
-                if (!events.contains(rejectedEvent)) {
-                    events.add(rejectedEvent);
-                }
-            }
-            if (jsonObject.has("rejectedByUsername")) {
-                if (rejectedEvent == null) {
-                    rejectedEvent = new Event();
-                    rejectedEvent.setType(Event.Type.REJECTED);
-                }
-                rejectedEvent.setUsername(jsonObject.get("rejectedByUsername").getAsString());
-                if (!events.contains(rejectedEvent)) {
-                    events.add(rejectedEvent);
-                }
-            }
-            if (jsonObject.has("rejectedByFirstname")) {
-                if (rejectedEvent == null) {
-                    rejectedEvent = new Event();
-                    rejectedEvent.setType(Event.Type.REJECTED);
-                }
-                rejectedEvent.setFirstname(jsonObject.get("rejectedByFirstname").getAsString());
-                if (!events.contains(rejectedEvent)) {
-                    events.add(rejectedEvent);
-                }
-            }
-            if (jsonObject.has("rejectedByLastname")) {
-                if (rejectedEvent == null) {
-                    rejectedEvent = new Event();
-                    rejectedEvent.setType(Event.Type.REJECTED);
-                }
-                rejectedEvent.setLastname(jsonObject.get("rejectedByLastname").getAsString());
-                if (!events.contains(rejectedEvent)) {
-                    events.add(rejectedEvent);
-                }
-            }
+    static {
+        final Map<String, Slot> slots = new HashMap<String, Slot>();
+        final Map<Event.Type, String[]> keys = new EnumMap<Event.Type, String[]>(Event.Type.class);
+        addKeys(slots, keys, Event.Type.SUBMITTED, "submittedOnDate", "submittedBy");
+        addKeys(slots, keys, Event.Type.ACTIVATED, "activatedOnDate", "activatedBy");
+        addKeys(slots, keys, Event.Type.APPROVED, "approvedOnDate", "approvedBy");
+        addKeys(slots, keys, Event.Type.WITHDRAWN, "withdrawnOnDate", "withdrawnBy");
+        addKeys(slots, keys, Event.Type.CLOSED, "closedOnDate", "closedBy");
+        addKeys(slots, keys, Event.Type.REJECTED, "rejectedOnDate", "rejectedBy");
+        addKeys(slots, keys, Event.Type.WRITEOFF, "writeOffOnDate", "writeOffBy");
+        addKeys(slots, keys, Event.Type.DISBURSED, "actualDisbursementDate", "disbursedBy");
+        SLOTS = Collections.unmodifiableMap(slots);
+        KEYS = Collections.unmodifiableMap(keys);
+    }
 
-            // Write Off Event
-            if (jsonObject.has("writeOffOnDate")) {
-                if (writeOffEvent == null) {
-                    writeOffEvent = new Event();
-                    writeOffEvent.setType(Event.Type.WRITEOFF);
-                }
-                writeOffEvent.setDate(ParseUtil.parseDateFromJsonArray(jsonObject
-                    .get("writeOffOnDate").getAsJsonArray()));
-                if (!events.contains(writeOffEvent)) {
-                    events.add(writeOffEvent);
-                }
-            }
-            if (jsonObject.has("writeOffByUsername")) {
-                if (writeOffEvent == null) {
-                    writeOffEvent = new Event();
-                    writeOffEvent.setType(Event.Type.WRITEOFF);
-                }
-                writeOffEvent.setUsername(jsonObject.get("writeOffByUsername").getAsString());
-                if (!events.contains(writeOffEvent)) {
-                    events.add(writeOffEvent);
-                }
-            }
-            if (jsonObject.has("writeOffByFirstname")) {
-                if (writeOffEvent == null) {
-                    writeOffEvent = new Event();
-                    writeOffEvent.setType(Event.Type.WRITEOFF);
-                }
-                writeOffEvent.setFirstname(jsonObject.get("writeOffByFirstname").getAsString());
-                if (!events.contains(writeOffEvent)) {
-                    events.add(writeOffEvent);
-                }
-            }
-            if (jsonObject.has("writeOffByLastname")) {
-                if (writeOffEvent == null) {
-                    writeOffEvent = new Event();
-                    writeOffEvent.setType(Event.Type.WRITEOFF);
-                }
-                writeOffEvent.setLastname(jsonObject.get("writeOffByLastname").getAsString());
-                if (!events.contains(writeOffEvent)) {
-                    events.add(writeOffEvent);
-                }
-            }
+    private static void addKeys(final Map<String, Slot> slots, final Map<Event.Type, String[]> keys,
+                                final Event.Type type, final String dateKey, final String byPrefix) {
+        final String[] typeKeys = new String[Field.values().length];
+        typeKeys[Field.DATE.ordinal()] = dateKey;
+        typeKeys[Field.USERNAME.ordinal()] = byPrefix + "Username";
+        typeKeys[Field.FIRSTNAME.ordinal()] = byPrefix + "Firstname";
+        typeKeys[Field.LASTNAME.ordinal()] = byPrefix + "Lastname";
+        for (final Field field : Field.values()) {
+            slots.put(typeKeys[field.ordinal()], new Slot(type, field));
+        }
+        keys.put(type, typeKeys);
+    }
 
-            // Disbursed Event
-            if (jsonObject.has("actualDisbursementDate")) {
-                if (disbursedEvent == null) {
-                    disbursedEvent = new Event();
-                    disbursedEvent.setType(Event.Type.DISBURSED);
-                }
-                disbursedEvent.setDate(ParseUtil.parseDateFromJsonArray(jsonObject
-                    .get("actualDisbursementDate").getAsJsonArray()));
-                if (!events.contains(disbursedEvent)) {
-                    events.add(disbursedEvent);
-                }
-            }
-            if (jsonObject.has("disbursedByUsername")) {
-                if (disbursedEvent == null) {
-                    disbursedEvent = new Event();
-                    disbursedEvent.setType(Event.Type.DISBURSED);
-                }
-                disbursedEvent.setUsername(jsonObject.get("disbursedByUsername").getAsString());
-                if (!events.contains(disbursedEvent)) {
-                    events.add(disbursedEvent);
-                }
-            }
-            if (jsonObject.has("disbursedByFirstname")) {
-                if (disbursedEvent == null) {
-                    disbursedEvent = new Event();
-                    disbursedEvent.setType(Event.Type.DISBURSED);
-                }
-                disbursedEvent.setFirstname(jsonObject.get("disbursedByFirstname").getAsString());
-                if (!events.contains(disbursedEvent)) {
-                    events.add(disbursedEvent);
-                }
+    @Override
+    public void write(final JsonWriter out, final Timeline src) throws IOException {
+        if (src == null) {
+            out.nullValue();
+            return;
+        }
+
+        out.beginObject();
+        if (src.getEvents() != null) {
+            for (final Event event : src.getEvents()) {
+                final String[] keys = KEYS.get(event.getType());
+                if (event.getDate() != null) {
+                    final GregorianCalendar calendar = new GregorianCalendar();
+                    calendar.setTime(event.getDate());
+                    out.name(keys[Field.DATE.ordinal()]).beginArray()
+                        .value(calendar.get(Calendar.YEAR))
+                        .value(calendar.get(Calendar.MONTH) + 1)
+                        .value(calendar.get(Calendar.DAY_OF_MONTH))
+                        .endArray();
+                }
+                out.name(keys[Field.USERNAME.ordinal()]).value(event.getUsername());
+                out.name(keys[Field.FIRSTNAME.ordinal()]).value(event.getFirstname());
+                out.name(keys[Field.LASTNAME.ordinal()]).value(event.getLastname());
             }
-            if (jsonObject.has("disbursedByLastname")) {
-                if (disbursedEvent == null) {
-                    disbursedEvent = new Event();
-                    disbursedEvent.setType(Event.Type.DISBURSED);
-                }
-                disbursedEvent.setLastname(jsonObject.get("disbursedByLastname").getAsString());
-                if (!events.contains(disbursedEvent)) {
-                    events.add(disbursedEvent);
+        }
+        out.endObject();
+    }
+
+    @Override
+    public Timeline read(final JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        final Event[] slots = new Event[Event.Type.values().length];
+        try {
+            in.beginObject();
+            while (in.hasNext()) {
+                final Slot slot = SLOTS.get(in.nextName());
+                if (slot == null || in.peek() == JsonToken.NULL) {
+                    in.skipValue();
+                    continue;
                 }
-            }
+
+                Event event = slots[slot.type.ordinal()];
+                if (event == null) {
+                    event = new Event();
+                    event.setType(slot.type);
+                    slots[slot.type.ordinal()] = event;
+                }
+                switch (slot.field) {
+                    case DATE:
+                        event.setDate(JsonReadUtil.nextDate(in));
+                        break;
+                    case USERNAME:
+                        event.setUsername(in.nextString());
+                        break;
+                    case FIRSTNAME:
+                        event.setFirstname(in.nextString());
+                        break;
+                    default:
+                        event.setLastname(in.nextString());
+                        break;
+                }
+            }
+            in.endObject();
         } catch (ParseException e) {
             throw new IllegalStateException("There was error while deserializing. " + e.getMessage());
         }
 
+        final List<Event> events = new ArrayList<Event>(slots.length);
+        for (final Event event : slots) {
+            if (event != null) {
+                events.add(event);
+            }
+        }
+        final Timeline timeline = new Timeline();
         timeline.setEvents(events);
 
         return timeline;
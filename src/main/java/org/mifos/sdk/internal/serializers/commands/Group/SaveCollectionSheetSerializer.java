@@ -6,36 +6,87 @@
 package org.mifos.sdk.internal.serializers.commands.group;
 
 import com.google.gson.Gson;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonSerializationContext;
-import com.google.gson.JsonSerializer;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import org.mifos.sdk.group.domain.commands.SaveCollectionSheetCommand;
+import org.mifos.sdk.group.domain.commands.SaveCollectionSheetCommand.BulkDisbursementTransaction;
+import org.mifos.sdk.group.domain.commands.SaveCollectionSheetCommand.BulkRepaymentTransaction;
+import org.mifos.sdk.group.domain.commands.SaveCollectionSheetCommand.ClientAttendance;
 import org.mifos.sdk.internal.ParseUtil;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
+import java.util.List;
 
 /**
- * JSON serializer for SaveCollectionSheetCommand.
+ * JSON serializer for SaveCollectionSheetCommand. The attendance and the bulk
+ * transactions are written as nested arrays, straight to the writer, with the
+ * adapters of the {@link Gson} instance the command is serialized with.
  */
-public class SaveCollectionSheetSerializer implements JsonSerializer<SaveCollectionSheetCommand> {
+public class SaveCollectionSheetSerializer implements TypeAdapterFactory {
 
     @Override
-    public JsonElement serialize(final SaveCollectionSheetCommand src, Type typeOfSrc,
-                                 JsonSerializationContext context) {
-        final JsonObject jsonObject = new JsonObject();
-        jsonObject.addProperty("dateFormat", src.getDateFormat());
-        jsonObject.addProperty("locale", src.getLocale());
-        jsonObject.addProperty("calendarId", src.getCalendarId());
-        jsonObject.addProperty("transactionDate", ParseUtil.parseDateToString(src.getTransactionDate(),
-            src.getDateFormat(), src.getLocale()));
-        jsonObject.addProperty("actualDisbursementDate", ParseUtil.parseDateToString(src.getActualDisbursementDate(),
-            src.getDateFormat(), src.getLocale()));
-        jsonObject.addProperty("clientsAttendance", new Gson().toJson(src.getClientsAttendance()));
-        jsonObject.addProperty("bulkDisbursementTransactions", new Gson().toJson(src.getBulkDisbursementTransactions()));
-        jsonObject.addProperty("bulkRepaymentTransactions", new Gson().toJson(src.getBulkRepaymentTransactions()));
-
-        return jsonObject;
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(final Gson gson, final TypeToken<T> type) {
+        if (type.getRawType() != SaveCollectionSheetCommand.class) {
+            return null;
+        }
+        return (TypeAdapter<T>) new Adapter(
+            (TypeAdapter<SaveCollectionSheetCommand>) gson.getDelegateAdapter(this, type),
+            gson.getAdapter(new TypeToken<List<ClientAttendance>>() {}),
+            gson.getAdapter(new TypeToken<List<BulkRepaymentTransaction>>() {}),
+            gson.getAdapter(new TypeToken<List<BulkDisbursementTransaction>>() {}));
+    }
+
+    private static final class Adapter extends TypeAdapter<SaveCollectionSheetCommand> {
+
+        private final TypeAdapter<SaveCollectionSheetCommand> delegate;
+        private final TypeAdapter<List<ClientAttendance>> attendanceAdapter;
+        private final TypeAdapter<List<BulkRepaymentTransaction>> repaymentAdapter;
+        private final TypeAdapter<List<BulkDisbursementTransaction>> disbursementAdapter;
+
+        private Adapter(final TypeAdapter<SaveCollectionSheetCommand> reflective,
+                        final TypeAdapter<List<ClientAttendance>> attendance,
+                        final TypeAdapter<List<BulkRepaymentTransaction>> repayments,
+                        final TypeAdapter<List<BulkDisbursementTransaction>> disbursements) {
+            this.delegate = reflective;
+            this.attendanceAdapter = attendance;
+            this.repaymentAdapter = repayments;
+            this.disbursementAdapter = disbursements;
+        }
+
+        @Override
+        public void write(final JsonWriter out, final SaveCollectionSheetCommand src) throws IOException {
+            if (src == null) {
+                out.nullValue();
+                return;
+            }
+
+            out.beginObject();
+            out.name("dateFormat").value(src.getDateFormat());
+            out.name("locale").value(src.getLocale());
+            out.name("calendarId").value(src.getCalendarId());
+            out.name("transactionDate").value(ParseUtil.parseDateToString(src.getTransactionDate(),
+                src.getDateFormat(), src.getLocale()));
+            out.name("actualDisbursementDate").value(ParseUtil.parseDateToString(src.getActualDisbursementDate(),
+                src.getDateFormat(), src.getLocale()));
+            out.name("clientsAttendance");
+            this.attendanceAdapter.write(out, src.getClientsAttendance());
+            out.name("bulkDisbursementTransactions");
+            this.disbursementAdapter.write(out, src.getBulkDisbursementTransactions());
+            out.name("bulkRepaymentTransactions");
+            this.repaymentAdapter.write(out, src.getBulkRepaymentTransactions());
+            out.endObject();
+        }
+
+        @Override
+        public SaveCollectionSheetCommand read(final JsonReader in) throws IOException {
+            // the command is only ever written, reading falls back to the field mapping of Gson
+            return this.delegate.read(in);
+        }
+
     }
 
 }
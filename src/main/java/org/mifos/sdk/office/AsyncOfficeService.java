@@ -0,0 +1,49 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.office;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import org.mifos.sdk.MifosXConnectException;
+import org.mifos.sdk.MifosXResourceException;
+import org.mifos.sdk.office.domain.Office;
+
+import java.util.List;
+
+/**
+ * Asynchronous counterpart of {@link OfficeService}. Every method returns immediately with a
+ * {@link ListenableFuture} which fails with the same {@link MifosXConnectException} or
+ * {@link MifosXResourceException} the blocking call would have thrown.
+ */
+public interface AsyncOfficeService {
+
+    /**
+     * Creates a new office using the Office API.
+     * @param office the {@link Office} object to create
+     * @return a {@link ListenableFuture} of the office ID
+     */
+    ListenableFuture<Long> createOffice(final Office office);
+
+    /**
+     * Retrieves the list of all available offices.
+     * @return a {@link ListenableFuture} of list of all offices
+     */
+    ListenableFuture<List<Office>> fetchOffices();
+
+    /**
+     * Retrieves a particular office by the id given.
+     * @param id the office ID to look for
+     * @return a {@link ListenableFuture} of the office for the given ID
+     */
+    ListenableFuture<Office> findOffice(final Long id);
+
+    /**
+     * Updates a particular office.
+     * @param office the {@link Office} object to update
+     * @return a {@link ListenableFuture} completed once the operation finishes
+     */
+    ListenableFuture<Void> updateOffice(final Long id, final Office office);
+
+}
@@ -0,0 +1,62 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.office;
+
+import org.mifos.sdk.MifosXConnectException;
+import org.mifos.sdk.MifosXResourceException;
+import org.mifos.sdk.office.domain.Office;
+
+import java.util.List;
+
+/**
+ * {@link OfficeService} which keeps the whole list of offices in memory for a
+ * limited time and answers lookups and hierarchy queries from it. Creating or
+ * updating an office through it drops the list, which is loaded again on the
+ * next call. Every call returns copies of the cached {@link Office}s, which the
+ * caller is free to modify.
+ */
+public interface CachedOfficeService extends OfficeService {
+
+    /**
+     * Retrieves the offices whose parent is the given office.
+     * @param id the office ID
+     * @return the list of child offices
+     * @throws MifosXConnectException
+     * @throws MifosXResourceException if the office does not exist
+     */
+    List<Office> findChildren(final Long id) throws MifosXConnectException, MifosXResourceException;
+
+    /**
+     * Retrieves every office under the given office, each one before its own children.
+     * The given office is not included.
+     * @param id the office ID
+     * @return the list of descendant offices
+     * @throws MifosXConnectException
+     * @throws MifosXResourceException if the office does not exist
+     */
+    List<Office> findDescendants(final Long id) throws MifosXConnectException, MifosXResourceException;
+
+    /**
+     * Retrieves the parent of the given office, its parent, and so on up to the head office.
+     * @param id the office ID
+     * @return the list of ancestor offices, nearest first
+     * @throws MifosXConnectException
+     * @throws MifosXResourceException if the office does not exist
+     */
+    List<Office> findAncestors(final Long id) throws MifosXConnectException, MifosXResourceException;
+
+    /**
+     * Loads the list of offices from the server now, whether or not it has expired.
+     * @throws MifosXConnectException
+     */
+    void refresh() throws MifosXConnectException;
+
+    /**
+     * Drops the list of offices, so the next call loads it from the server.
+     */
+    void invalidate();
+
+}
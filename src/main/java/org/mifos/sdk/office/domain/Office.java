@@ -115,6 +115,7 @@ public final class Office {
     private Date openingDate;
     private Long parentId;
     private String externalId;
+    private String hierarchy;
 
     private Office(final String officeName, final String officeNameDecorated,
                    final String format, final String lang, final Date officeOpeningDate,
@@ -191,6 +192,14 @@ public final class Office {
         return this.externalId;
     }
 
+    /**
+     * Returns the hierarchy of the office as returned by the server, the IDs of
+     * the office and its ancestors from the head office down, '.1.2.' for instance.
+     */
+    public String getHierarchy() {
+        return this.hierarchy;
+    }
+
     /**
      * Sets the resource ID.
      * @param id the resource ID
@@ -207,6 +216,27 @@ public final class Office {
         this.officeId = id;
     }
 
+    /**
+     * Sets the hierarchy of the office.
+     * @param officeHierarchy the hierarchy
+     */
+    public void setHierarchy(final String officeHierarchy) {
+        this.hierarchy = officeHierarchy;
+    }
+
+    /**
+     * Returns a copy of the office, with its own opening date.
+     */
+    public Office copy() {
+        final Office copy = new Office(this.name, this.nameDecorated, this.dateFormat, this.locale,
+            this.openingDate == null ? null : new Date(this.openingDate.getTime()), this.parentId,
+            this.externalId);
+        copy.officeId = this.officeId;
+        copy.resourceId = this.resourceId;
+        copy.hierarchy = this.hierarchy;
+        return copy;
+    }
+
     /**
      * Sets the name of the office, cannot be null or empty. Note
      * that the name cannot exceed 100 characters in length.
@@ -0,0 +1,260 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.office.internal;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+import org.mifos.sdk.MifosXConnectException;
+import org.mifos.sdk.MifosXResourceException;
+import org.mifos.sdk.internal.ErrorCode;
+import org.mifos.sdk.office.CachedOfficeService;
+import org.mifos.sdk.office.OfficeService;
+import org.mifos.sdk.office.domain.Office;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Implements {@link CachedOfficeService} on top of another {@link OfficeService}.
+ * The offices are held in an immutable snapshot, indexed by ID and by parent ID,
+ * which readers use without locking; only one thread at a time loads a new one.
+ * Invalidating moves to a new generation, so a list which was being loaded at
+ * that time is not used afterwards. The cached offices are never handed out, every
+ * caller gets copies it is free to change.
+ */
+public class CachingOfficeService implements CachedOfficeService {
+
+    /**
+     * The offices loaded at one time, indexed by ID and by parent ID.
+     */
+    private static final class Snapshot {
+
+        private final List<Office> offices;
+        private final ImmutableMap<Long, Office> byId;
+        private final ImmutableListMultimap<Long, Office> byParentId;
+        private final long loadedAt;
+        private final long generation;
+
+        private Snapshot(final List<Office> officeList, final long loadTime, final long loadGeneration) {
+            final ImmutableMap.Builder<Long, Office> ids = ImmutableMap.builder();
+            final ImmutableListMultimap.Builder<Long, Office> parentIds = ImmutableListMultimap.builder();
+            for (final Office office : officeList) {
+                ids.put(office.getOfficeId(), office);
+                if (office.getParentId() != null) {
+                    parentIds.put(office.getParentId(), office);
+                }
+            }
+            this.offices = ImmutableList.copyOf(officeList);
+            this.byId = ids.build();
+            this.byParentId = parentIds.build();
+            this.loadedAt = loadTime;
+            this.generation = loadGeneration;
+        }
+
+    }
+
+    private final OfficeService officeService;
+    private final long ttlNanos;
+    private final Ticker ticker;
+    private final Lock loadLock;
+    private final AtomicLong generation;
+    private volatile Snapshot snapshot;
+
+    /**
+     * Constructs a new instance of {@link CachingOfficeService}.
+     * @param service the {@link OfficeService} to delegate to
+     * @param ttl how long the list of offices is used before it is loaded again
+     * @param unit the {@link TimeUnit} of the ttl
+     */
+    public CachingOfficeService(final OfficeService service, final long ttl, final TimeUnit unit) {
+        this(service, ttl, unit, Ticker.systemTicker());
+    }
+
+    CachingOfficeService(final OfficeService service, final long ttl, final TimeUnit unit,
+                         final Ticker clock) {
+        super();
+
+        Preconditions.checkNotNull(service);
+        Preconditions.checkArgument(ttl > 0, "The time to live must be positive!");
+        Preconditions.checkNotNull(unit);
+        Preconditions.checkNotNull(clock);
+
+        this.officeService = service;
+        this.ttlNanos = unit.toNanos(ttl);
+        this.ticker = clock;
+        this.loadLock = new ReentrantLock();
+        this.generation = new AtomicLong();
+    }
+
+    /**
+     * Creates a new office and drops the cached offices.
+     * @param office the {@link Office} object to create
+     * @return the office ID
+     * @throws MifosXConnectException
+     * @throws MifosXResourceException
+     */
+    @Override
+    public Long createOffice(final Office office) throws MifosXConnectException, MifosXResourceException {
+        try {
+            return this.officeService.createOffice(office);
+        } finally {
+            this.invalidate();
+        }
+    }
+
+    /**
+     * Retrieves the list of all available offices.
+     * @return a list with copies of all offices
+     * @throws MifosXConnectException
+     */
+    @Override
+    public List<Office> fetchOffices() throws MifosXConnectException {
+        return copies(this.snapshot().offices);
+    }
+
+    /**
+     * Retrieves a particular office by the id given. An office missing from the
+     * cached list is requested from the server.
+     * @param id the office ID to look for
+     * @return the office for the given ID
+     * @throws MifosXConnectException
+     * @throws MifosXResourceException
+     */
+    @Override
+    public Office findOffice(final Long id) throws MifosXConnectException, MifosXResourceException {
+        Preconditions.checkNotNull(id);
+        final Office office = this.snapshot().byId.get(id);
+        if (office != null) {
+            return office.copy();
+        }
+        return this.officeService.findOffice(id);
+    }
+
+    /**
+     * Updates a particular office and drops the cached offices.
+     * @param id the office ID
+     * @param office the {@link Office} object to update
+     * @throws MifosXConnectException
+     * @throws MifosXResourceException
+     */
+    @Override
+    public void updateOffice(final Long id, final Office office) throws MifosXConnectException,
+        MifosXResourceException {
+        try {
+            this.officeService.updateOffice(id, office);
+        } finally {
+            this.invalidate();
+        }
+    }
+
+    @Override
+    public List<Office> findChildren(final Long id) throws MifosXConnectException, MifosXResourceException {
+        final Snapshot current = this.snapshotWith(id);
+        return copies(current.byParentId.get(id));
+    }
+
+    @Override
+    public List<Office> findDescendants(final Long id) throws MifosXConnectException, MifosXResourceException {
+        final Snapshot current = this.snapshotWith(id);
+        final List<Office> descendants = new ArrayList<Office>();
+        final Deque<Office> pending = new ArrayDeque<Office>(current.byParentId.get(id));
+        while (!pending.isEmpty()) {
+            final Office office = pending.pop();
+            descendants.add(office.copy());
+            for (final Office child : current.byParentId.get(office.getOfficeId()).reverse()) {
+                pending.push(child);
+            }
+        }
+        return descendants;
+    }
+
+    @Override
+    public List<Office> findAncestors(final Long id) throws MifosXConnectException, MifosXResourceException {
+        final Snapshot current = this.snapshotWith(id);
+        final List<Office> ancestors = new ArrayList<Office>();
+        Office office = current.byId.get(current.byId.get(id).getParentId());
+        while (office != null && ancestors.size() < current.offices.size()) {
+            ancestors.add(office.copy());
+            office = current.byId.get(office.getParentId());
+        }
+        return ancestors;
+    }
+
+    @Override
+    public void refresh() throws MifosXConnectException {
+        this.loadLock.lock();
+        try {
+            this.load();
+        } finally {
+            this.loadLock.unlock();
+        }
+    }
+
+    @Override
+    public void invalidate() {
+        this.generation.incrementAndGet();
+        this.snapshot = null;
+    }
+
+    private static List<Office> copies(final List<Office> offices) {
+        final List<Office> copies = new ArrayList<Office>(offices.size());
+        for (final Office office : offices) {
+            copies.add(office.copy());
+        }
+        return copies;
+    }
+
+    private Snapshot snapshotWith(final Long id) throws MifosXConnectException, MifosXResourceException {
+        Preconditions.checkNotNull(id);
+        final Snapshot current = this.snapshot();
+        if (!current.byId.containsKey(id)) {
+            throw new MifosXResourceException(ErrorCode.OFFICE_NOT_FOUND);
+        }
+        return current;
+    }
+
+    private Snapshot snapshot() throws MifosXConnectException {
+        Snapshot current = this.snapshot;
+        if (this.isValid(current)) {
+            return current;
+        }
+        this.loadLock.lock();
+        try {
+            current = this.snapshot;
+            if (!this.isValid(current)) {
+                current = this.load();
+            }
+        } finally {
+            this.loadLock.unlock();
+        }
+        return current;
+    }
+
+    private boolean isValid(final Snapshot current) {
+        return current != null && current.generation == this.generation.get()
+            && this.ticker.read() - current.loadedAt < this.ttlNanos;
+    }
+
+    private Snapshot load() throws MifosXConnectException {
+        final long loadGeneration = this.generation.get();
+        final long loadTime = this.ticker.read();
+        final List<Office> offices = this.officeService.fetchOffices();
+        final Snapshot loaded = new Snapshot(offices == null ? new ArrayList<Office>() : offices, loadTime,
+            loadGeneration);
+        this.snapshot = loaded;
+        return loaded;
+    }
+
+}
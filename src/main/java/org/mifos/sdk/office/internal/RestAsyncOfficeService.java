@@ -0,0 +1,108 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.office.internal;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import org.mifos.sdk.MifosXConnectException;
+import org.mifos.sdk.MifosXResourceException;
+import org.mifos.sdk.office.AsyncOfficeService;
+import org.mifos.sdk.office.OfficeService;
+import org.mifos.sdk.office.domain.Office;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Implements {@link AsyncOfficeService} by running the calls of a blocking {@link OfficeService}
+ * on an {@link ExecutorService}, so errors are mapped exactly as in the blocking API.
+ */
+public class RestAsyncOfficeService implements AsyncOfficeService {
+
+    private final OfficeService officeService;
+    private final ListeningExecutorService executor;
+
+    /**
+     * Constructs a new instance of {@link RestAsyncOfficeService} with the provided
+     * service and executor.
+     * @param service the blocking {@link OfficeService} to delegate to
+     * @param executorService the {@link ExecutorService} which runs the calls
+     */
+    public RestAsyncOfficeService(final OfficeService service,
+                                  final ExecutorService executorService) {
+        super();
+
+        Preconditions.checkNotNull(service);
+        Preconditions.checkNotNull(executorService);
+
+        this.officeService = service;
+        this.executor = MoreExecutors.listeningDecorator(executorService);
+    }
+
+    /**
+     * Creates a new office using the Office API.
+     * @param office the {@link Office} object to create
+     * @return a {@link ListenableFuture} of the office ID
+     */
+    @Override
+    public ListenableFuture<Long> createOffice(final Office office) {
+        return this.executor.submit(new Callable<Long>() {
+            @Override
+            public Long call() throws MifosXConnectException, MifosXResourceException {
+                return officeService.createOffice(office);
+            }
+        });
+    }
+
+    /**
+     * Retrieves the list of all available offices.
+     * @return a {@link ListenableFuture} of list of all offices
+     */
+    @Override
+    public ListenableFuture<List<Office>> fetchOffices() {
+        return this.executor.submit(new Callable<List<Office>>() {
+            @Override
+            public List<Office> call() throws MifosXConnectException {
+                return officeService.fetchOffices();
+            }
+        });
+    }
+
+    /**
+     * Retrieves a particular office by the id given.
+     * @param id the office ID to look for
+     * @return a {@link ListenableFuture} of the office for the given ID
+     */
+    @Override
+    public ListenableFuture<Office> findOffice(final Long id) {
+        return this.executor.submit(new Callable<Office>() {
+            @Override
+            public Office call() throws MifosXConnectException, MifosXResourceException {
+                return officeService.findOffice(id);
+            }
+        });
+    }
+
+    /**
+     * Updates a particular office.
+     * @param office the {@link Office} object to update
+     * @return a {@link ListenableFuture} completed once the operation finishes
+     */
+    @Override
+    public ListenableFuture<Void> updateOffice(final Long id, final Office office) {
+        return this.executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws MifosXConnectException, MifosXResourceException {
+                officeService.updateOffice(id, office);
+                return null;
+            }
+        });
+    }
+
+}
@@ -10,7 +10,9 @@ import org.mifos.sdk.MifosXConnectException;
 import org.mifos.sdk.MifosXProperties;
 import org.mifos.sdk.MifosXResourceException;
 import org.mifos.sdk.internal.ErrorCode;
+import org.mifos.sdk.internal.NotFoundCache;
 import org.mifos.sdk.internal.ServerResponseUtil;
+import org.mifos.sdk.internal.SingleFlight;
 import org.mifos.sdk.office.OfficeService;
 import org.mifos.sdk.office.domain.Office;
 import retrofit.RestAdapter;
@@ -27,6 +29,9 @@ public class RestOfficeService implements OfficeService {
     private final MifosXProperties connectionProperties;
     private final RestAdapter restAdapter;
     private final String authenticationKey;
+    private final NotFoundCache notFoundCache;
+    private final SingleFlight<Long, Office> officeFlight = new SingleFlight<Long, Office>();
+    private volatile RetrofitOfficeService retrofitOfficeService;
 
     /**
      * Constructs a new instance of {@link RestOfficeService} with the
@@ -47,6 +52,7 @@ public class RestOfficeService implements OfficeService {
         this.connectionProperties = properties;
         this.authenticationKey = "Basic " + authKey;
         this.restAdapter = adapter;
+        this.notFoundCache = new NotFoundCache(properties.getNotFoundCache());
     }
 
     /**
@@ -60,12 +66,13 @@ public class RestOfficeService implements OfficeService {
     public Long createOffice(final Office office) throws MifosXConnectException,
             MifosXResourceException {
         Preconditions.checkNotNull(office);
-        final RetrofitOfficeService officeService = this.restAdapter.create(RetrofitOfficeService.class);
+        final RetrofitOfficeService officeService = this.retrofitService();
         Long officeId = null;
         try {
             final Office createdOffice = officeService.createOffice(this.authenticationKey,
                     this.connectionProperties.getTenant(), office);
             officeId = createdOffice.getOfficeId();
+            this.notFoundCache.forget(officeId);
         } catch (RetrofitError error) {
             if (error.getKind() == RetrofitError.Kind.NETWORK) {
                 throw new MifosXConnectException(ErrorCode.NOT_CONNECTED);
@@ -89,7 +96,7 @@ public class RestOfficeService implements OfficeService {
      */
     @Override
     public List<Office> fetchOffices() throws MifosXConnectException {
-        final RetrofitOfficeService officeService = this.restAdapter.create(RetrofitOfficeService.class);
+        final RetrofitOfficeService officeService = this.retrofitService();
         List<Office> offices = null;
         try {
             offices = officeService.fetchOffices(this.authenticationKey,
@@ -118,7 +125,21 @@ public class RestOfficeService implements OfficeService {
     public Office findOffice(final Long id) throws MifosXConnectException,
             MifosXResourceException {
         Preconditions.checkNotNull(id);
-        final RetrofitOfficeService officeService = this.restAdapter.create(RetrofitOfficeService.class);
+        return this.officeFlight.execute(id, new SingleFlight.Call<Office>() {
+            @Override
+            public Office call() throws MifosXConnectException, MifosXResourceException {
+                return requestOffice(id);
+            }
+        });
+    }
+
+    private Office requestOffice(final Long id) throws MifosXConnectException,
+            MifosXResourceException {
+        if (this.notFoundCache.contains(id)) {
+            throw new MifosXResourceException(ErrorCode.OFFICE_NOT_FOUND);
+        }
+        final long generation = this.notFoundCache.generation();
+        final RetrofitOfficeService officeService = this.retrofitService();
         Office office = null;
         try {
             office = officeService.findOffice(this.authenticationKey, this.connectionProperties.getTenant(), id);
@@ -129,6 +150,7 @@ public class RestOfficeService implements OfficeService {
                        error.getResponse().getStatus() == 401) {
                 throw new MifosXConnectException(ErrorCode.INVALID_AUTHENTICATION_TOKEN);
             } else if (error.getResponse().getStatus() == 404) {
+                this.notFoundCache.put(id, generation);
                 throw new MifosXResourceException(ErrorCode.OFFICE_NOT_FOUND);
             } else if (error.getResponse().getStatus() == 403) {
                 final String message = ServerResponseUtil.parseResponse(error.getResponse());
@@ -151,7 +173,7 @@ public class RestOfficeService implements OfficeService {
             MifosXResourceException {
         Preconditions.checkNotNull(id);
         Preconditions.checkNotNull(office);
-        final RetrofitOfficeService officeService = this.restAdapter.create(RetrofitOfficeService.class);
+        final RetrofitOfficeService officeService = this.retrofitService();
         try {
             officeService.updateOffice(this.authenticationKey,
                     this.connectionProperties.getTenant(), id, office);
@@ -171,4 +193,21 @@ public class RestOfficeService implements OfficeService {
         }
     }
 
+    /**
+     * Returns the Retrofit proxy for the Office API, creating it on first use.
+     */
+    private RetrofitOfficeService retrofitService() {
+        RetrofitOfficeService service = this.retrofitOfficeService;
+        if (service == null) {
+            synchronized (this) {
+                service = this.retrofitOfficeService;
+                if (service == null) {
+                    service = this.restAdapter.create(RetrofitOfficeService.class);
+                    this.retrofitOfficeService = service;
+                }
+            }
+        }
+        return service;
+    }
+
 }
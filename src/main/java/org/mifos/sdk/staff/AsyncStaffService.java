@@ -0,0 +1,57 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.staff;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import org.mifos.sdk.MifosXConnectException;
+import org.mifos.sdk.MifosXResourceException;
+import org.mifos.sdk.staff.domain.Staff;
+
+import java.util.List;
+
+/**
+ * Asynchronous counterpart of {@link StaffService}. Every method returns immediately with a
+ * {@link ListenableFuture} which fails with the same {@link MifosXConnectException} or
+ * {@link MifosXResourceException} the blocking call would have thrown.
+ */
+public interface AsyncStaffService {
+
+    /**
+     * Creates a new staff.
+     * @param staff the {@link Staff} to create
+     * @return a {@link ListenableFuture} of a {@link Staff} with the office ID and the resource ID
+     */
+    ListenableFuture<Staff> createStaff(final Staff staff);
+
+    /**
+     * Retrieves all the available staff.
+     * @return a {@link ListenableFuture} of a list of {@link Staff}
+     */
+    ListenableFuture<List<Staff>> fetchStaff();
+
+    /**
+     * Retrieves one particular staff.
+     * @param id the staff ID
+     * @return a {@link ListenableFuture} of a {@link Staff} with all the details of the searched staff
+     */
+    ListenableFuture<Staff> findStaff(final Long id);
+
+    /**
+     * Retrieves all staff by their status.
+     * @param status the status of the staff
+     * @return a {@link ListenableFuture} of a list of {@link Staff}
+     */
+    ListenableFuture<List<Staff>> findStaffByStatus(final String status);
+
+    /**
+     * Updates one particular staff.
+     * @param id the staff ID
+     * @param staff a {@link Staff} object with all the changes to be made
+     * @return a {@link ListenableFuture} completed once the operation finishes
+     */
+    ListenableFuture<Void> updateStaff(final Long id, final Staff staff);
+
+}
@@ -0,0 +1,49 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.staff;
+
+import org.mifos.sdk.MifosXConnectException;
+import org.mifos.sdk.staff.domain.Staff;
+
+import java.util.List;
+
+/**
+ * {@link StaffService} which keeps every staff, active or not, in memory and
+ * answers lookups by ID, office, status and loan officer flag from indexes.
+ * Staff created or updated through it are read back from the server into the
+ * cache. Every call returns copies of the cached {@link Staff}, which the
+ * caller is free to modify.
+ */
+public interface CachedStaffService extends StaffService {
+
+    /**
+     * Retrieves all the staff of an office, active or not.
+     * @param officeId the office ID
+     * @return a list of {@link Staff}, empty if the office has none
+     * @throws MifosXConnectException
+     */
+    List<Staff> findStaffByOffice(final Long officeId) throws MifosXConnectException;
+
+    /**
+     * Retrieves the active loan officers of an office.
+     * @param officeId Optional: the office ID, null for every office
+     * @return a list of {@link Staff}, empty if there are none
+     * @throws MifosXConnectException
+     */
+    List<Staff> findLoanOfficers(final Long officeId) throws MifosXConnectException;
+
+    /**
+     * Loads the staff from the server now, whether or not they have expired.
+     * @throws MifosXConnectException
+     */
+    void refresh() throws MifosXConnectException;
+
+    /**
+     * Drops the staff, so the next call loads them from the server.
+     */
+    void invalidate();
+
+}
@@ -296,6 +296,19 @@ public final class Staff {
         this.displayName = name;
     }
 
+    /**
+     * Returns a copy of the staff, with its own joining date.
+     */
+    public Staff copy() {
+        final Staff copy = new Staff(this.officeId, this.firstname, this.lastname, this.isLoanOfficer,
+            this.externalId, this.mobileNo, this.isActive, this.locale, this.dateFormat,
+            this.joiningDate == null ? null : new Date(this.joiningDate.getTime()));
+        copy.resourceId = this.resourceId;
+        copy.displayName = this.displayName;
+        copy.officeName = this.officeName;
+        return copy;
+    }
+
     /**
      * Sets the office ID.
      * @param id the office ID
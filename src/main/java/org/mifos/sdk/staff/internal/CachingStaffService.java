@@ -0,0 +1,364 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.staff.internal;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+import org.mifos.sdk.MifosXConnectException;
+import org.mifos.sdk.MifosXResourceException;
+import org.mifos.sdk.internal.ErrorCode;
+import org.mifos.sdk.staff.CachedStaffService;
+import org.mifos.sdk.staff.StaffService;
+import org.mifos.sdk.staff.domain.Staff;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Implements {@link CachedStaffService} on top of another {@link StaffService}.
+ * Every staff is loaded at once with the status "all" into an immutable
+ * snapshot with its indexes, which readers use without locking. With a refresh
+ * executor an expired snapshot keeps being served while a new one is loaded in
+ * the background; without one the calling thread loads it. The cached staff
+ * are never handed out, every caller gets copies it is free to change.
+ */
+public class CachingStaffService implements CachedStaffService {
+
+    private static final String STATUS_ACTIVE = "active";
+    private static final String STATUS_INACTIVE = "inactive";
+    private static final String STATUS_ALL = "all";
+
+    /**
+     * The staff loaded at one time with their indexes.
+     */
+    private static final class Snapshot {
+
+        private final List<Staff> all;
+        private final List<Staff> active;
+        private final List<Staff> inactive;
+        private final List<Staff> loanOfficers;
+        private final ImmutableMap<Long, Staff> byId;
+        private final ImmutableListMultimap<Long, Staff> byOfficeId;
+        private final ImmutableListMultimap<Long, Staff> loanOfficersByOfficeId;
+        private final long loadedAt;
+        private final long generation;
+
+        private Snapshot(final List<Staff> staffList, final long loadTime, final long loadGeneration) {
+            final ImmutableList.Builder<Staff> activeStaff = ImmutableList.builder();
+            final ImmutableList.Builder<Staff> inactiveStaff = ImmutableList.builder();
+            final ImmutableList.Builder<Staff> activeLoanOfficers = ImmutableList.builder();
+            final ImmutableMap.Builder<Long, Staff> ids = ImmutableMap.builder();
+            final ImmutableListMultimap.Builder<Long, Staff> officeIds = ImmutableListMultimap.builder();
+            final ImmutableListMultimap.Builder<Long, Staff> loanOfficerOfficeIds =
+                ImmutableListMultimap.builder();
+            for (final Staff staff : staffList) {
+                if (staff.getResourceId() != null) {
+                    ids.put(staff.getResourceId(), staff);
+                }
+                if (staff.getOfficeId() != null) {
+                    officeIds.put(staff.getOfficeId(), staff);
+                }
+                if (!staff.getIsActive()) {
+                    inactiveStaff.add(staff);
+                    continue;
+                }
+                activeStaff.add(staff);
+                if (staff.getIsLoanOfficer()) {
+                    activeLoanOfficers.add(staff);
+                    if (staff.getOfficeId() != null) {
+                        loanOfficerOfficeIds.put(staff.getOfficeId(), staff);
+                    }
+                }
+            }
+            this.all = ImmutableList.copyOf(staffList);
+            this.active = activeStaff.build();
+            this.inactive = inactiveStaff.build();
+            this.loanOfficers = activeLoanOfficers.build();
+            this.byId = ids.build();
+            this.byOfficeId = officeIds.build();
+            this.loanOfficersByOfficeId = loanOfficerOfficeIds.build();
+            this.loadedAt = loadTime;
+            this.generation = loadGeneration;
+        }
+
+    }
+
+    private final StaffService staffService;
+    private final long ttlNanos;
+    private final Executor refreshExecutor;
+    private final Ticker ticker;
+    private final Lock loadLock;
+    private final AtomicLong generation;
+    private final AtomicBoolean refreshing;
+    private volatile Snapshot snapshot;
+
+    /**
+     * Constructs a new instance of {@link CachingStaffService}.
+     * @param service the {@link StaffService} to delegate to
+     * @param ttl how long the staff are used before they are loaded again
+     * @param unit the {@link TimeUnit} of the ttl
+     * @param executor Optional: the {@link Executor} loading expired staff in the background
+     */
+    public CachingStaffService(final StaffService service, final long ttl, final TimeUnit unit,
+                               final Executor executor) {
+        this(service, ttl, unit, executor, Ticker.systemTicker());
+    }
+
+    CachingStaffService(final StaffService service, final long ttl, final TimeUnit unit,
+                        final Executor executor, final Ticker clock) {
+        super();
+
+        Preconditions.checkNotNull(service);
+        Preconditions.checkArgument(ttl > 0, "The time to live must be positive!");
+        Preconditions.checkNotNull(unit);
+        Preconditions.checkNotNull(clock);
+
+        this.staffService = service;
+        this.ttlNanos = unit.toNanos(ttl);
+        this.refreshExecutor = executor;
+        this.ticker = clock;
+        this.loadLock = new ReentrantLock();
+        this.generation = new AtomicLong();
+        this.refreshing = new AtomicBoolean();
+    }
+
+    /**
+     * Creates a new staff and adds it, as read back from the server, to the cache.
+     * @param staff the {@link Staff} to create
+     * @return a {@link Staff} with the office ID and the resource ID
+     * @throws MifosXConnectException
+     * @throws MifosXResourceException
+     */
+    @Override
+    public Staff createStaff(final Staff staff) throws MifosXConnectException, MifosXResourceException {
+        final Staff responseStaff = this.staffService.createStaff(staff);
+        if (responseStaff != null && responseStaff.getResourceId() != null) {
+            this.writeThrough(responseStaff.getResourceId());
+        } else {
+            this.invalidate();
+        }
+        return responseStaff;
+    }
+
+    /**
+     * Retrieves the active staff, like the Staff API does without a status.
+     * @return a list with copies of the {@link Staff}
+     * @throws MifosXConnectException
+     */
+    @Override
+    public List<Staff> fetchStaff() throws MifosXConnectException {
+        return copies(this.snapshot().active);
+    }
+
+    /**
+     * Retrieves one particular staff. A staff missing from the cache is
+     * requested from the server.
+     * @param id the staff ID
+     * @return a {@link Staff} with all the details of the searched staff
+     * @throws MifosXConnectException
+     * @throws MifosXResourceException
+     */
+    @Override
+    public Staff findStaff(final Long id) throws MifosXConnectException, MifosXResourceException {
+        Preconditions.checkNotNull(id);
+        final Staff staff = this.snapshot().byId.get(id);
+        if (staff != null) {
+            return staff.copy();
+        }
+        return this.staffService.findStaff(id);
+    }
+
+    /**
+     * Retrieves all staff by their status.
+     * @param status the status of the staff, active, inactive or all
+     * @return a list with copies of the {@link Staff}
+     * @throws MifosXConnectException
+     * @throws MifosXResourceException
+     */
+    @Override
+    public List<Staff> findStaffByStatus(final String status) throws MifosXConnectException,
+        MifosXResourceException {
+        Preconditions.checkNotNull(status);
+        if (STATUS_ACTIVE.equals(status)) {
+            return copies(this.snapshot().active);
+        } else if (STATUS_INACTIVE.equals(status)) {
+            return copies(this.snapshot().inactive);
+        } else if (STATUS_ALL.equals(status)) {
+            return copies(this.snapshot().all);
+        }
+        throw new MifosXResourceException(ErrorCode.INVALID_STATUS);
+    }
+
+    /**
+     * Updates one particular staff and replaces it in the cache with the staff
+     * read back from the server.
+     * @param id the staff ID
+     * @param staff a {@link Staff} object with all the changes to be made
+     * @throws MifosXConnectException
+     * @throws MifosXResourceException
+     */
+    @Override
+    public void updateStaff(final Long id, final Staff staff) throws MifosXConnectException,
+        MifosXResourceException {
+        this.staffService.updateStaff(id, staff);
+        this.writeThrough(id);
+    }
+
+    @Override
+    public List<Staff> findStaffByOffice(final Long officeId) throws MifosXConnectException {
+        Preconditions.checkNotNull(officeId);
+        return copies(this.snapshot().byOfficeId.get(officeId));
+    }
+
+    @Override
+    public List<Staff> findLoanOfficers(final Long officeId) throws MifosXConnectException {
+        final Snapshot current = this.snapshot();
+        return copies(officeId == null ? current.loanOfficers : current.loanOfficersByOfficeId.get(officeId));
+    }
+
+    @Override
+    public void refresh() throws MifosXConnectException {
+        this.loadLock.lock();
+        try {
+            this.load();
+        } finally {
+            this.loadLock.unlock();
+        }
+    }
+
+    @Override
+    public void invalidate() {
+        this.generation.incrementAndGet();
+        this.snapshot = null;
+    }
+
+    private static List<Staff> copies(final List<Staff> staffList) {
+        final List<Staff> copies = new ArrayList<Staff>(staffList.size());
+        for (final Staff staff : staffList) {
+            copies.add(staff.copy());
+        }
+        return copies;
+    }
+
+    private void writeThrough(final Long id) {
+        // the write succeeded, a failed read back only drops the cache
+        final Staff staff;
+        try {
+            staff = this.staffService.findStaff(id);
+        } catch (MifosXResourceException e) {
+            this.invalidate();
+            return;
+        } catch (MifosXConnectException e) {
+            this.invalidate();
+            return;
+        }
+        if (staff == null) {
+            this.invalidate();
+            return;
+        }
+        if (staff.getResourceId() == null) {
+            staff.setResourceId(id);
+        }
+        this.loadLock.lock();
+        try {
+            final Snapshot current = this.snapshot;
+            if (current == null || current.generation != this.generation.get()) {
+                return;
+            }
+            final List<Staff> staffList = new ArrayList<Staff>(current.all.size() + 1);
+            boolean replaced = false;
+            for (final Staff cached : current.all) {
+                if (id.equals(cached.getResourceId())) {
+                    staffList.add(staff);
+                    replaced = true;
+                } else {
+                    staffList.add(cached);
+                }
+            }
+            if (!replaced) {
+                staffList.add(staff);
+            }
+            this.snapshot = new Snapshot(staffList, current.loadedAt, current.generation);
+        } finally {
+            this.loadLock.unlock();
+        }
+    }
+
+    private Snapshot snapshot() throws MifosXConnectException {
+        Snapshot current = this.snapshot;
+        if (current != null && current.generation == this.generation.get()) {
+            if (!this.isExpired(current)) {
+                return current;
+            }
+            if (this.refreshExecutor != null) {
+                this.refreshInBackground();
+                return current;
+            }
+        }
+        this.loadLock.lock();
+        try {
+            current = this.snapshot;
+            if (current == null || current.generation != this.generation.get() || this.isExpired(current)) {
+                current = this.load();
+            }
+        } finally {
+            this.loadLock.unlock();
+        }
+        return current;
+    }
+
+    private void refreshInBackground() {
+        if (!this.refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            this.refreshExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        refresh();
+                    } catch (MifosXConnectException e) {
+                        // the expired staff are served until a later refresh succeeds
+                    } finally {
+                        refreshing.set(false);
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            this.refreshing.set(false);
+            throw e;
+        }
+    }
+
+    private boolean isExpired(final Snapshot current) {
+        return this.ticker.read() - current.loadedAt >= this.ttlNanos;
+    }
+
+    private Snapshot load() throws MifosXConnectException {
+        final long loadGeneration = this.generation.get();
+        final long loadTime = this.ticker.read();
+        final List<Staff> staffList;
+        try {
+            staffList = this.staffService.findStaffByStatus(STATUS_ALL);
+        } catch (MifosXResourceException e) {
+            throw new IllegalStateException(e);
+        }
+        final Snapshot loaded = new Snapshot(staffList == null ? new ArrayList<Staff>() : staffList, loadTime,
+            loadGeneration);
+        this.snapshot = loaded;
+        return loaded;
+    }
+
+}
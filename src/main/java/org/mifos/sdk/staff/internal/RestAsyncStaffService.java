@@ -0,0 +1,124 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.staff.internal;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import org.mifos.sdk.MifosXConnectException;
+import org.mifos.sdk.MifosXResourceException;
+import org.mifos.sdk.staff.AsyncStaffService;
+import org.mifos.sdk.staff.StaffService;
+import org.mifos.sdk.staff.domain.Staff;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Implements {@link AsyncStaffService} by running the calls of a blocking {@link StaffService}
+ * on an {@link ExecutorService}, so errors are mapped exactly as in the blocking API.
+ */
+public class RestAsyncStaffService implements AsyncStaffService {
+
+    private final StaffService staffService;
+    private final ListeningExecutorService executor;
+
+    /**
+     * Constructs a new instance of {@link RestAsyncStaffService} with the provided
+     * service and executor.
+     * @param service the blocking {@link StaffService} to delegate to
+     * @param executorService the {@link ExecutorService} which runs the calls
+     */
+    public RestAsyncStaffService(final StaffService service,
+                                 final ExecutorService executorService) {
+        super();
+
+        Preconditions.checkNotNull(service);
+        Preconditions.checkNotNull(executorService);
+
+        this.staffService = service;
+        this.executor = MoreExecutors.listeningDecorator(executorService);
+    }
+
+    /**
+     * Creates a new staff.
+     * @param staff the {@link Staff} to create
+     * @return a {@link ListenableFuture} of a {@link Staff} with the office ID and the resource ID
+     */
+    @Override
+    public ListenableFuture<Staff> createStaff(final Staff staff) {
+        return this.executor.submit(new Callable<Staff>() {
+            @Override
+            public Staff call() throws MifosXConnectException, MifosXResourceException {
+                return staffService.createStaff(staff);
+            }
+        });
+    }
+
+    /**
+     * Retrieves all the available staff.
+     * @return a {@link ListenableFuture} of a list of {@link Staff}
+     */
+    @Override
+    public ListenableFuture<List<Staff>> fetchStaff() {
+        return this.executor.submit(new Callable<List<Staff>>() {
+            @Override
+            public List<Staff> call() throws MifosXConnectException {
+                return staffService.fetchStaff();
+            }
+        });
+    }
+
+    /**
+     * Retrieves one particular staff.
+     * @param id the staff ID
+     * @return a {@link ListenableFuture} of a {@link Staff} with all the details of the searched staff
+     */
+    @Override
+    public ListenableFuture<Staff> findStaff(final Long id) {
+        return this.executor.submit(new Callable<Staff>() {
+            @Override
+            public Staff call() throws MifosXConnectException, MifosXResourceException {
+                return staffService.findStaff(id);
+            }
+        });
+    }
+
+    /**
+     * Retrieves all staff by their status.
+     * @param status the status of the staff
+     * @return a {@link ListenableFuture} of a list of {@link Staff}
+     */
+    @Override
+    public ListenableFuture<List<Staff>> findStaffByStatus(final String status) {
+        return this.executor.submit(new Callable<List<Staff>>() {
+            @Override
+            public List<Staff> call() throws MifosXConnectException, MifosXResourceException {
+                return staffService.findStaffByStatus(status);
+            }
+        });
+    }
+
+    /**
+     * Updates one particular staff.
+     * @param id the staff ID
+     * @param staff a {@link Staff} object with all the changes to be made
+     * @return a {@link ListenableFuture} completed once the operation finishes
+     */
+    @Override
+    public ListenableFuture<Void> updateStaff(final Long id, final Staff staff) {
+        return this.executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws MifosXConnectException, MifosXResourceException {
+                staffService.updateStaff(id, staff);
+                return null;
+            }
+        });
+    }
+
+}
@@ -10,7 +10,9 @@ import org.mifos.sdk.MifosXConnectException;
 import org.mifos.sdk.MifosXProperties;
 import org.mifos.sdk.MifosXResourceException;
 import org.mifos.sdk.internal.ErrorCode;
+import org.mifos.sdk.internal.NotFoundCache;
 import org.mifos.sdk.internal.ServerResponseUtil;
+import org.mifos.sdk.internal.SingleFlight;
 import org.mifos.sdk.staff.StaffService;
 import org.mifos.sdk.staff.domain.Staff;
 import retrofit.RestAdapter;
@@ -28,6 +30,9 @@ public class RestStaffService implements StaffService {
     private final MifosXProperties connectionProperties;
     private final RestAdapter restAdapter;
     private final String authenticationKey;
+    private final NotFoundCache notFoundCache;
+    private final SingleFlight<Long, Staff> staffFlight = new SingleFlight<Long, Staff>();
+    private volatile RetrofitStaffService retrofitStaffService;
     private final List<String> allowedStatuses;
 
     /**
@@ -49,6 +54,7 @@ public class RestStaffService implements StaffService {
         this.connectionProperties = properties;
         this.restAdapter = adapter;
         this.authenticationKey = "Basic " + authKey;
+        this.notFoundCache = new NotFoundCache(properties.getNotFoundCache());
         this.allowedStatuses = Arrays.asList("active", "inactive", "all");
     }
 
@@ -63,11 +69,12 @@ public class RestStaffService implements StaffService {
     public Staff createStaff(final Staff staff) throws MifosXConnectException,
             MifosXResourceException {
         Preconditions.checkNotNull(staff);
-        final RetrofitStaffService staffService = this.restAdapter.create(RetrofitStaffService.class);
+        final RetrofitStaffService staffService = this.retrofitService();
         Staff responseStaff = null;
         try {
             responseStaff = staffService.createStaff(this.authenticationKey,
                     this.connectionProperties.getTenant(), staff);
+            this.notFoundCache.forget(responseStaff == null ? null : responseStaff.getResourceId());
         } catch (RetrofitError error) {
             if (error.getKind() == RetrofitError.Kind.NETWORK) {
                 throw new MifosXConnectException(ErrorCode.NOT_CONNECTED);
@@ -91,7 +98,7 @@ public class RestStaffService implements StaffService {
      */
     @Override
     public List<Staff> fetchStaff() throws MifosXConnectException {
-        final RetrofitStaffService staffService = this.restAdapter.create(RetrofitStaffService.class);
+        final RetrofitStaffService staffService = this.retrofitService();
         List<Staff> staffList = null;
         try {
             staffList = staffService.fetchStaff(this.authenticationKey, this.connectionProperties.getTenant());
@@ -118,7 +125,20 @@ public class RestStaffService implements StaffService {
     @Override
     public Staff findStaff(final Long id) throws MifosXConnectException, MifosXResourceException {
         Preconditions.checkNotNull(id);
-        final RetrofitStaffService staffService = this.restAdapter.create(RetrofitStaffService.class);
+        return this.staffFlight.execute(id, new SingleFlight.Call<Staff>() {
+            @Override
+            public Staff call() throws MifosXConnectException, MifosXResourceException {
+                return requestStaff(id);
+            }
+        });
+    }
+
+    private Staff requestStaff(final Long id) throws MifosXConnectException, MifosXResourceException {
+        if (this.notFoundCache.contains(id)) {
+            throw new MifosXResourceException(ErrorCode.STAFF_NOT_FOUND);
+        }
+        final long generation = this.notFoundCache.generation();
+        final RetrofitStaffService staffService = this.retrofitService();
         Staff responseStaff = null;
         try {
             responseStaff = staffService.findStaff(this.authenticationKey,
@@ -133,6 +153,7 @@ public class RestStaffService implements StaffService {
                 final String message = ServerResponseUtil.parseResponse(error.getResponse());
                 throw new MifosXResourceException(message);
             } else if (error.getResponse().getStatus() == 404) {
+                this.notFoundCache.put(id, generation);
                 throw new MifosXResourceException(ErrorCode.STAFF_NOT_FOUND);
             } else {
                 throw new MifosXConnectException(ErrorCode.UNKNOWN);
@@ -156,7 +177,7 @@ public class RestStaffService implements StaffService {
         if (!this.allowedStatuses.contains(status)) {
             throw new MifosXResourceException(ErrorCode.INVALID_STATUS);
         }
-        final RetrofitStaffService staffService = this.restAdapter.create(RetrofitStaffService.class);
+        final RetrofitStaffService staffService = this.retrofitService();
         List<Staff> staffList = null;
         try {
             staffList = staffService.findStaffByStatus(this.authenticationKey,
@@ -191,7 +212,7 @@ public class RestStaffService implements StaffService {
             MifosXResourceException {
         Preconditions.checkNotNull(id);
         Preconditions.checkNotNull(staff);
-        final RetrofitStaffService staffService = this.restAdapter.create(RetrofitStaffService.class);
+        final RetrofitStaffService staffService = this.retrofitService();
         try {
             staffService.updateStaff(this.authenticationKey,
                     this.connectionProperties.getTenant(), id, staff);
@@ -214,4 +235,21 @@ public class RestStaffService implements StaffService {
         }
     }
 
+    /**
+     * Returns the Retrofit proxy for the Staff API, creating it on first use.
+     */
+    private RetrofitStaffService retrofitService() {
+        RetrofitStaffService service = this.retrofitStaffService;
+        if (service == null) {
+            synchronized (this) {
+                service = this.retrofitStaffService;
+                if (service == null) {
+                    service = this.restAdapter.create(RetrofitStaffService.class);
+                    this.retrofitStaffService = service;
+                }
+            }
+        }
+        return service;
+    }
+
 }
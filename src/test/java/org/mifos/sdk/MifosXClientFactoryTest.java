@@ -0,0 +1,202 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.squareup.okhttp.OkHttpClient;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mifos.sdk.client.domain.commands.ActivateClientCommand;
+import org.mifos.sdk.group.domain.CollectionSheet;
+import org.mifos.sdk.group.domain.CollectionSheetGroup;
+import org.mifos.sdk.group.domain.CollectionSheetLoan;
+import org.mifos.sdk.group.domain.commands.SaveCollectionSheetCommand;
+import org.mifos.sdk.internal.BatchRequest;
+import org.mifos.sdk.internal.GsonFactory;
+import org.mifos.sdk.internal.StreamingGsonConverter;
+import retrofit.mime.TypedOutput;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Test for {@link MifosXClientFactory}, its transport configuration and serializers.
+ */
+public class MifosXClientFactoryTest {
+
+    private MifosXProperties.Builder defaultBuilder() {
+        return MifosXProperties
+            .url("http://demo.openmf.org/mifosng-provider/api/v1")
+            .username("mifos")
+            .password("password")
+            .tenant("default");
+    }
+
+    /**
+     * Test that clients with the same pool settings share one connection pool.
+     */
+    @Test
+    public void testSharedConnectionPool() {
+        final OkHttpClient first = MifosXClientFactory.httpClient(defaultBuilder().build());
+        final OkHttpClient second = MifosXClientFactory.httpClient(defaultBuilder().tenant("other").build());
+
+        Assert.assertNotSame(first, second);
+        Assert.assertSame(first.getConnectionPool(), second.getConnectionPool());
+    }
+
+    /**
+     * Test that a private connection pool is not shared.
+     */
+    @Test
+    public void testPrivateConnectionPool() {
+        final OkHttpClient shared = MifosXClientFactory.httpClient(defaultBuilder().build());
+        final OkHttpClient unshared = MifosXClientFactory.httpClient(defaultBuilder()
+            .sharedConnectionPool(false).build());
+
+        Assert.assertNotSame(shared.getConnectionPool(), unshared.getConnectionPool());
+    }
+
+    /**
+     * Test that different pool settings result in different pools.
+     */
+    @Test
+    public void testConnectionPoolSettings() {
+        final OkHttpClient defaults = MifosXClientFactory.httpClient(defaultBuilder().build());
+        final OkHttpClient tuned = MifosXClientFactory.httpClient(defaultBuilder()
+            .maxIdleConnections(20)
+            .keepAliveDuration(30, TimeUnit.SECONDS)
+            .build());
+
+        Assert.assertNotSame(defaults.getConnectionPool(), tuned.getConnectionPool());
+    }
+
+    /**
+     * Test that the connect and read timeouts are applied.
+     */
+    @Test
+    public void testTimeouts() {
+        final OkHttpClient httpClient = MifosXClientFactory.httpClient(defaultBuilder()
+            .connectTimeout(5, TimeUnit.SECONDS)
+            .readTimeout(30, TimeUnit.SECONDS)
+            .build());
+
+        Assert.assertEquals(httpClient.getConnectTimeout(), 5000);
+        Assert.assertEquals(httpClient.getReadTimeout(), 30000);
+    }
+
+    /**
+     * Test that a collection sheet is written with nested arrays through the streaming converter.
+     */
+    @Test
+    public void testSaveCollectionSheetNestedArrays() throws Exception {
+        final SaveCollectionSheetCommand.Builder builder = SaveCollectionSheetCommand.calendarId(1L)
+            .locale("en")
+            .dateFormat("dd MMMM yyyy")
+            .transactionDate(new Date())
+            .actualDisbursementDate(new Date());
+        final SaveCollectionSheetCommand outer = builder.build();
+        final SaveCollectionSheetCommand.ClientAttendance attendance = outer.new ClientAttendance();
+        attendance.setClientId(5L);
+        attendance.setAttendanceType(1L);
+        final SaveCollectionSheetCommand.BulkRepaymentTransaction repayment = outer.new BulkRepaymentTransaction();
+        repayment.setLoanId(7L);
+        repayment.setTransactionAmount(new BigDecimal("12.50"));
+        final SaveCollectionSheetCommand command = builder
+            .clientsAttendance(Arrays.asList(attendance))
+            .bulkRepaymentTransactions(Arrays.asList(repayment))
+            .bulkDisbursementTransactions(new ArrayList<SaveCollectionSheetCommand.BulkDisbursementTransaction>())
+            .build();
+
+        final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        final TypedOutput output = new StreamingGsonConverter(GsonFactory.create(),
+            SaveCollectionSheetCommand.class).toBody(command);
+        output.writeTo(body);
+        final JsonObject json = new JsonParser().parse(body.toString("UTF-8")).getAsJsonObject();
+
+        Assert.assertEquals(output.length(), -1);
+        Assert.assertEquals(json.get("calendarId").getAsLong(), 1L);
+        Assert.assertEquals(json.getAsJsonArray("clientsAttendance").get(0).getAsJsonObject()
+            .get("clientId").getAsLong(), 5L);
+        Assert.assertEquals(json.getAsJsonArray("bulkRepaymentTransactions").get(0).getAsJsonObject()
+            .get("transactionAmount").getAsBigDecimal(), new BigDecimal("12.50"));
+        Assert.assertEquals(json.getAsJsonArray("bulkDisbursementTransactions").size(), 0);
+
+        final SaveCollectionSheetCommand read = GsonFactory.create().fromJson("{\"calendarId\":1,"
+            + "\"locale\":\"en\",\"dateFormat\":\"dd MMMM yyyy\"}", SaveCollectionSheetCommand.class);
+        Assert.assertEquals(read.getCalendarId(), Long.valueOf(1L));
+        Assert.assertEquals(read.getLocale(), "en");
+    }
+
+    /**
+     * Test that a batch request embeds its command serialized as a JSON string.
+     */
+    @Test
+    public void testBatchRequestBody() throws Exception {
+        final ActivateClientCommand command = ActivateClientCommand.locale("en")
+            .dateFormat("dd MMMM yyyy")
+            .activationDate(new Date())
+            .build();
+
+        final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        final TypedOutput output = new StreamingGsonConverter(GsonFactory.create(),
+            SaveCollectionSheetCommand.class).toBody(Arrays.asList(
+            new BatchRequest(1L, "clients/5?command=activate", "POST", command)));
+        output.writeTo(body);
+        final JsonObject json = new JsonParser().parse(body.toString("UTF-8")).getAsJsonArray()
+            .get(0).getAsJsonObject();
+        final JsonObject commandJson = new JsonParser().parse(json.get("body").getAsString()).getAsJsonObject();
+
+        Assert.assertEquals(output.length(), (long) body.size());
+        Assert.assertEquals(json.get("requestId").getAsLong(), 1L);
+        Assert.assertEquals(json.get("relativeUrl").getAsString(), "clients/5?command=activate");
+        Assert.assertEquals(json.get("method").getAsString(), "POST");
+        Assert.assertEquals(commandJson.get("locale").getAsString(), "en");
+        Assert.assertTrue(commandJson.has("activationDate"));
+    }
+
+    /**
+     * Test that a generated collection sheet is read with its groups, clients and loans,
+     * and written back the same way.
+     */
+    @Test
+    public void testCollectionSheetResponse() {
+        final String json = "{\"dueDate\":[2015,2,13],\"loanProducts\":[{\"id\":1}],"
+            + "\"groups\":[{\"groupId\":3,\"groupName\":\"Group\",\"staffId\":2,\"clients\":["
+            + "{\"clientId\":7,\"clientName\":\"John Doe\",\"attendanceType\":{\"id\":1},\"loans\":["
+            + "{\"loanId\":9,\"accountId\":\"000000009\",\"productId\":1,\"principalDue\":100.0,"
+            + "\"interestDue\":10.5,\"totalDue\":110.5}]},"
+            + "{\"clientId\":8,\"clientName\":\"Jane Doe\"}]}]}";
+
+        final CollectionSheet sheet = GsonFactory.create().fromJson(json, CollectionSheet.class);
+
+        Assert.assertEquals(sheet.getDueDate(), new GregorianCalendar(2015, 1, 13).getTime());
+        Assert.assertEquals(sheet.getGroups().size(), 1);
+        final CollectionSheetGroup group = sheet.getGroups().get(0);
+        Assert.assertEquals(group.getGroupId(), Long.valueOf(3L));
+        Assert.assertEquals(group.getClients().size(), 2);
+        final CollectionSheetLoan loan = group.getClients().get(0).getLoans().get(0);
+        Assert.assertEquals(loan.getAccountId(), "000000009");
+        Assert.assertEquals(loan.getPrincipalDue(), new BigDecimal("100.0"));
+        Assert.assertEquals(loan.getInterestDue(), new BigDecimal("10.5"));
+        Assert.assertNull(loan.getChargesDue());
+        Assert.assertTrue(group.getClients().get(1).getLoans().isEmpty());
+        Assert.assertEquals(sheet.getTotalDue(), new BigDecimal("110.5"));
+
+        final String writtenJson = GsonFactory.create().toJson(sheet);
+        Assert.assertTrue(writtenJson.contains("\"principalDue\":100.0,"));
+        final CollectionSheet written = GsonFactory.create().fromJson(writtenJson, CollectionSheet.class);
+        Assert.assertEquals(written.getDueDate(), sheet.getDueDate());
+        Assert.assertEquals(written.getGroups().get(0).getClients().get(0).getClientName(), "John Doe");
+        Assert.assertEquals(written.getTotalDue(), new BigDecimal("110.5"));
+    }
+
+}
@@ -0,0 +1,283 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.client.internal;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mifos.sdk.client.ImageCacheOptions;
+import org.mifos.sdk.client.ImageCacheStats;
+import org.mifos.sdk.client.domain.ClientImage;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Test for {@link ClientImageCache}.
+ */
+public class ClientImageCacheTest {
+
+    private Path directory;
+
+    /**
+     * Setup all the components before testing.
+     */
+    @Before
+    public void setup() throws IOException {
+        this.directory = Files.createTempDirectory("images");
+    }
+
+    /**
+     * Deletes the cache files after testing.
+     */
+    @After
+    public void tearDown() throws IOException {
+        Files.walkFileTree(this.directory, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(final Path file, final BasicFileAttributes attributes)
+                throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(final Path dir, final IOException e) throws IOException {
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private static ClientImageCache.Key key(final long clientId) {
+        return new ClientImageCache.Key(clientId, null, null);
+    }
+
+    private static ClientImageCache.Entry entry(final int size, final Long imageId) {
+        final byte[] bytes = new byte[size];
+        bytes[size - 1] = (byte) size;
+        return new ClientImageCache.Entry(ClientImage.Type.JPEG, bytes, imageId);
+    }
+
+    /**
+     * Test that the least recently used images move to disk and come back from it.
+     */
+    @Test
+    public void testEvictToDisk() {
+        final ClientImageCache cache = new ClientImageCache(ImageCacheOptions.maxMemoryBytes(250)
+            .disk(this.directory, 1000).build(), "default");
+
+        cache.put(key(1L), entry(100, null));
+        cache.put(key(2L), entry(101, null));
+        Assert.assertNotNull(cache.get(key(1L), null));
+        cache.put(key(3L), entry(102, null));
+
+        ImageCacheStats stats = cache.stats();
+        Assert.assertEquals(stats.getEvictionCount(), 1);
+        Assert.assertEquals(stats.getMemoryBytes(), 202);
+        Assert.assertEquals(stats.getDiskBytes(), 101);
+
+        final ClientImageCache.Entry fromDisk = cache.get(key(2L), null);
+        Assert.assertEquals(fromDisk.getBytes().length, 101);
+        Assert.assertEquals(fromDisk.getBytes()[100], (byte) 101);
+        Assert.assertEquals(fromDisk.getType(), ClientImage.Type.JPEG);
+
+        stats = cache.stats();
+        Assert.assertEquals(stats.getHitCount(), 2);
+        Assert.assertEquals(stats.getDiskHitCount(), 1);
+        Assert.assertEquals(stats.getMissCount(), 0);
+        Assert.assertTrue(stats.getMemoryBytes() <= 250);
+    }
+
+    /**
+     * Test that evicted images are dropped without a disk tier.
+     */
+    @Test
+    public void testEvictWithoutDisk() {
+        final ClientImageCache cache = new ClientImageCache(ImageCacheOptions.maxMemoryBytes(150).build(), "default");
+
+        cache.put(key(1L), entry(100, null));
+        cache.put(key(2L), entry(100, null));
+
+        Assert.assertNull(cache.get(key(1L), null));
+        Assert.assertNotNull(cache.get(key(2L), null));
+        Assert.assertEquals(cache.stats().getMissCount(), 1);
+        Assert.assertEquals(cache.stats().getDiskBytes(), 0);
+    }
+
+    /**
+     * Test that an image cached with another image ID is not returned.
+     */
+    @Test
+    public void testStaleImageId() {
+        final ClientImageCache cache = new ClientImageCache(ImageCacheOptions.maxMemoryBytes(1000).build(), "default");
+
+        cache.put(key(1L), entry(100, 7L));
+
+        Assert.assertNotNull(cache.get(key(1L), null));
+        Assert.assertNotNull(cache.get(key(1L), 7L));
+        Assert.assertNull(cache.get(key(1L), 8L));
+        Assert.assertEquals(cache.stats().getMemoryBytes(), 0);
+    }
+
+    /**
+     * Test that every size of the image of a client is invalidated, in both tiers.
+     */
+    @Test
+    public void testInvalidate() throws IOException {
+        final ClientImageCache cache = new ClientImageCache(ImageCacheOptions.maxMemoryBytes(150)
+            .disk(this.directory, 1000).build(), "default");
+
+        cache.put(new ClientImageCache.Key(1L, 10L, 10L), entry(100, null));
+        cache.put(key(1L), entry(100, null));
+        cache.put(key(2L), entry(10, null));
+        cache.invalidate(1L);
+
+        Assert.assertNull(cache.get(new ClientImageCache.Key(1L, 10L, 10L), null));
+        Assert.assertNull(cache.get(key(1L), null));
+        Assert.assertNotNull(cache.get(key(2L), null));
+        Assert.assertEquals(cache.stats().getDiskBytes(), 0);
+        Assert.assertEquals(fileNames(cache.getDiskDirectory()), Arrays.asList(".lock"));
+    }
+
+    private static List<String> fileNames(final Path directory) throws IOException {
+        final List<String> names = new ArrayList<String>();
+        final DirectoryStream<Path> files = Files.newDirectoryStream(directory);
+        try {
+            for (final Path file : files) {
+                names.add(file.getFileName().toString());
+            }
+        } finally {
+            files.close();
+        }
+        return names;
+    }
+
+    /**
+     * Test that two caches of the same tenant sharing a directory keep their own files.
+     */
+    @Test
+    public void testSeparateInstances() {
+        final ImageCacheOptions options = ImageCacheOptions.maxMemoryBytes(150).disk(this.directory, 1000).build();
+        final ClientImageCache first = new ClientImageCache(options, "default");
+        final ClientImageCache second = new ClientImageCache(options, "default");
+        final ClientImageCache other = new ClientImageCache(options, "other");
+
+        first.put(key(1L), entry(100, null));
+        first.put(key(2L), entry(100, null));
+        second.put(key(1L), entry(120, null));
+        second.put(key(2L), entry(120, null));
+        other.put(key(1L), entry(110, null));
+        other.put(key(2L), entry(110, null));
+
+        Assert.assertFalse(first.getDiskDirectory().equals(second.getDiskDirectory()));
+        Assert.assertEquals(first.getDiskDirectory().getParent(), this.directory.resolve("default"));
+        Assert.assertEquals(other.getDiskDirectory().getParent(), this.directory.resolve("other"));
+        Assert.assertEquals(first.get(key(1L), null).getBytes().length, 100);
+        Assert.assertEquals(second.get(key(1L), null).getBytes().length, 120);
+        Assert.assertEquals(other.get(key(1L), null).getBytes().length, 110);
+    }
+
+    /**
+     * Test that the directories left by gone instances are deleted on startup, and
+     * nothing else in the directory.
+     */
+    @Test
+    public void testDeleteStaleFiles() throws IOException {
+        final Path stale = Files.createDirectories(this.directory.resolve("default").resolve("cache-stale"));
+        Files.write(stale.resolve(".lock"), new byte[0]);
+        Files.write(stale.resolve("1-null-null.img"), new byte[10]);
+        final Path foreign = Files.write(this.directory.resolve("1-null-null.img"), new byte[10]);
+        final ImageCacheOptions options = ImageCacheOptions.maxMemoryBytes(150).disk(this.directory, 1000).build();
+        final ClientImageCache live = new ClientImageCache(options, "default");
+        live.put(key(1L), entry(100, null));
+        live.put(key(2L), entry(100, null));
+
+        final ClientImageCache cache = new ClientImageCache(options, "default");
+
+        Assert.assertFalse(Files.exists(stale));
+        Assert.assertTrue(Files.exists(foreign));
+        Assert.assertTrue(Files.exists(cache.getDiskDirectory()));
+        Assert.assertEquals(live.get(key(1L), null).getBytes().length, 100);
+    }
+
+    /**
+     * Test that the services of every session share one cache per options and tenant.
+     */
+    @Test
+    public void testShared() {
+        final ImageCacheOptions options = ImageCacheOptions.maxMemoryBytes(150).disk(this.directory, 1000).build();
+
+        final ClientImageCache cache = ClientImageCache.shared(options, "default");
+
+        Assert.assertSame(ClientImageCache.shared(options, "default"), cache);
+        Assert.assertNotSame(ClientImageCache.shared(options, "other"), cache);
+        Assert.assertNotSame(ClientImageCache.shared(ImageCacheOptions.maxMemoryBytes(150)
+            .disk(this.directory, 1000).build(), "default"), cache);
+    }
+
+    /**
+     * Test that concurrent lookups, puts and invalidations keep the disk tier and its
+     * files consistent.
+     */
+    @Test
+    public void testConcurrentAccess() throws Exception {
+        final ClientImageCache cache = new ClientImageCache(ImageCacheOptions.maxMemoryBytes(300)
+            .disk(this.directory, 2000).build(), "default");
+        final ExecutorService executorService = Executors.newFixedThreadPool(8);
+        final List<Future<?>> futures = new ArrayList<Future<?>>();
+        for (int thread = 0; thread < 8; ++thread) {
+            final int seed = thread;
+            futures.add(executorService.submit(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    for (int i = 0; i < 500; ++i) {
+                        final long clientId = (seed * 7 + i) % 20;
+                        final ClientImageCache.Entry entry = cache.get(key(clientId), null);
+                        if (entry == null) {
+                            cache.put(key(clientId), entry(50 + (int) clientId, null));
+                        } else {
+                            Assert.assertEquals(entry.getBytes().length, 50 + (int) clientId);
+                        }
+                        if (i % 50 == seed) {
+                            cache.invalidate(clientId);
+                        }
+                    }
+                    return null;
+                }
+            }));
+        }
+        try {
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        long fileBytes = 0;
+        for (final String name : fileNames(cache.getDiskDirectory())) {
+            fileBytes += Files.size(cache.getDiskDirectory().resolve(name));
+        }
+        final ImageCacheStats stats = cache.stats();
+        Assert.assertEquals(stats.getDiskBytes(), fileBytes);
+        Assert.assertTrue(stats.getDiskBytes() <= 2000);
+        Assert.assertTrue(stats.getMemoryBytes() <= 300);
+    }
+
+}
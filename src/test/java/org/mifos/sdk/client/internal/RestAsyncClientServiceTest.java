@@ -0,0 +1,101 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.client.internal;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mifos.sdk.MifosXConnectException;
+import org.mifos.sdk.MifosXResourceException;
+import org.mifos.sdk.client.ClientService;
+import org.mifos.sdk.client.domain.Client;
+import org.mifos.sdk.client.domain.commands.ActivateClientCommand;
+import org.mifos.sdk.internal.ErrorCode;
+
+import java.util.concurrent.ExecutionException;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * Test for {@link RestAsyncClientService} and its various methods.
+ */
+public class RestAsyncClientServiceTest {
+
+    private ClientService clientService;
+    private RestAsyncClientService asyncClientService;
+    private Client defaultClient;
+    private Long defaultClientId;
+
+    /**
+     * Setup all the components before testing.
+     */
+    @Before
+    public void setup() {
+        this.clientService = mock(ClientService.class);
+        this.asyncClientService = new RestAsyncClientService(this.clientService,
+            MoreExecutors.sameThreadExecutor());
+        this.defaultClient = Client
+            .fullname("Davis Jones")
+            .officeId(1L)
+            .active(false)
+            .build();
+        this.defaultClientId = 1L;
+        this.defaultClient.setClientId(this.defaultClientId);
+    }
+
+    /**
+     * Test for successful retrieval of a client.
+     */
+    @Test
+    public void testFindClient() throws Exception {
+        when(this.clientService.findClient(this.defaultClientId)).thenReturn(this.defaultClient);
+
+        final Client client = this.asyncClientService.findClient(this.defaultClientId).get();
+
+        Assert.assertNotNull(client);
+        Assert.assertEquals(client.getClientId(), this.defaultClientId);
+    }
+
+    /**
+     * Test that a {@link MifosXConnectException} fails the future.
+     */
+    @Test
+    public void testFindClientNotConnectedException() throws Exception {
+        when(this.clientService.findClient(this.defaultClientId))
+            .thenThrow(new MifosXConnectException(ErrorCode.NOT_CONNECTED));
+
+        try {
+            this.asyncClientService.findClient(this.defaultClientId).get();
+
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof MifosXConnectException);
+            Assert.assertEquals(e.getCause().getMessage(), ErrorCode.NOT_CONNECTED.getMessage());
+        }
+    }
+
+    /**
+     * Test that a {@link MifosXResourceException} fails the future of a command.
+     */
+    @Test
+    public void testActivateClientNotFoundException() throws Exception {
+        final ActivateClientCommand command = ActivateClientCommand.locale("en").build();
+
+        doThrow(new MifosXResourceException(ErrorCode.CLIENT_NOT_FOUND)).when(this.clientService)
+            .activateClient(this.defaultClientId, command);
+
+        try {
+            this.asyncClientService.activateClient(this.defaultClientId, command).get();
+
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof MifosXResourceException);
+            Assert.assertEquals(e.getCause().getMessage(), ErrorCode.CLIENT_NOT_FOUND.getMessage());
+        }
+    }
+
+}
@@ -5,32 +5,58 @@
  */
 package org.mifos.sdk.client.internal;
 
+import com.google.common.util.concurrent.MoreExecutors;
 import org.apache.commons.codec.binary.Base64;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.mifos.sdk.BatchOptions;
+import org.mifos.sdk.BatchResult;
 import org.mifos.sdk.MifosXConnectException;
 import org.mifos.sdk.MifosXProperties;
 import org.mifos.sdk.MifosXResourceException;
+import org.mifos.sdk.PageIterator;
+import org.mifos.sdk.PagingOptions;
+import org.mifos.sdk.client.ClientCacheOptions;
+import org.mifos.sdk.client.ClientImageCallback;
+import org.mifos.sdk.client.ImageCacheOptions;
 import org.mifos.sdk.client.domain.Client;
 import org.mifos.sdk.client.domain.ClientIdentifier;
 import org.mifos.sdk.client.domain.ClientImage;
+import org.mifos.sdk.client.domain.EncodedClientImage;
 import org.mifos.sdk.client.domain.PageableClients;
 import org.mifos.sdk.client.domain.commands.*;
+import org.mifos.sdk.internal.BatchRequest;
+import org.mifos.sdk.internal.BatchResponse;
 import org.mifos.sdk.internal.ErrorCode;
+import org.mifos.sdk.internal.RetrofitBatchService;
 import retrofit.RestAdapter;
 import retrofit.RetrofitError;
 import retrofit.client.Header;
 import retrofit.client.Response;
+import retrofit.mime.TypedInput;
+import retrofit.mime.TypedOutput;
 import retrofit.mime.TypedString;
 
 import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static org.hamcrest.Matchers.equalTo;
 import static org.mockito.Mockito.*;
@@ -40,6 +66,7 @@ import static org.mockito.Mockito.*;
  */
 public class RestClientServiceTest {
 
+    private RestAdapter restAdapter;
     private RetrofitClientService retrofitClientService;
     private MifosXProperties properties;
     private String mockedAuthKey;
@@ -53,13 +80,14 @@ public class RestClientServiceTest {
     private Long defaultIdentifierId;
     private BufferedImage defaultImage;
     private TypedString defaultBase64Data;
+    private byte[] defaultImageBytes;
 
     /**
      * Setup all the components before testing.
      */
     @Before
     public void setup() throws IOException {
-        final RestAdapter restAdapter = mock(RestAdapter.class);
+        this.restAdapter = mock(RestAdapter.class);
         this.retrofitClientService = mock(RetrofitClientService.class);
         this.properties = MifosXProperties
                 .url("http://demo.openmf.org/mifosng-provider/api/v1")
@@ -75,7 +103,7 @@ public class RestClientServiceTest {
                 .build();
         this.defaultClientId = 1L;
         this.defaultClient.setClientId(this.defaultClientId);
-        this.clientService = new RestClientService(this.properties, restAdapter,
+        this.clientService = new RestClientService(this.properties, this.restAdapter,
                 this.mockedAuthKey);
         this.mockedAuthKey = "Basic " + this.mockedAuthKey;
         this.defaultDuplicateJSON = "{\"errors\":[{\"developerMessage\":\"some random message\"}]}";
@@ -88,13 +116,35 @@ public class RestClientServiceTest {
         // generate the Data URI for the default image
         final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
         ImageIO.write(this.defaultImage, "png", outputStream);
-        final byte[] binaryData = outputStream.toByteArray();
-        this.defaultBase64Data = new TypedString("data:image/png;base64," + Base64.encodeBase64String(binaryData));
+        this.defaultImageBytes = outputStream.toByteArray();
+        this.defaultBase64Data = new TypedString("data:image/png;base64," +
+            Base64.encodeBase64String(this.defaultImageBytes));
 
         this.clientImage = ClientImage.image(this.defaultImage).type(ClientImage.Type.PNG).build();
         this.clientImage.setResourceId(this.defaultClientId);
 
-        when(restAdapter.create(RetrofitClientService.class)).thenReturn(this.retrofitClientService);
+        when(this.restAdapter.create(RetrofitClientService.class)).thenReturn(this.retrofitClientService);
+    }
+
+    /**
+     * Test that the Retrofit service is created only once and reused across calls.
+     */
+    @Test
+    public void testRetrofitServiceCreatedOnce() {
+        when(this.retrofitClientService.findClient(this.mockedAuthKey, this.properties.getTenant(),
+                this.defaultClientId)).thenReturn(this.defaultClient);
+
+        try {
+            this.clientService.findClient(this.defaultClientId);
+            this.clientService.findClient(this.defaultClientId);
+            this.clientService.fetchIdentifiers(this.defaultClientId);
+
+            verify(this.restAdapter, times(1)).create(RetrofitClientService.class);
+        } catch (MifosXConnectException e) {
+            Assert.fail();
+        } catch (MifosXResourceException e) {
+            Assert.fail();
+        }
     }
 
     /**
@@ -258,6 +308,70 @@ public class RestClientServiceTest {
         }
     }
 
+    /**
+     * Test for iterating over all the clients page by page.
+     */
+    @Test
+    public void testIterateClients() {
+        final PageableClients firstPage = new PageableClients();
+        firstPage.setClients(Arrays.asList(this.defaultClient, this.defaultClient));
+        firstPage.setTotalFilteredRecords(3L);
+        final PageableClients secondPage = new PageableClients();
+        secondPage.setClients(Arrays.asList(this.defaultClient));
+        secondPage.setTotalFilteredRecords(3L);
+        final Map<String, Object> firstQuery = new HashMap<String, Object>();
+        firstQuery.put("offset", 0L);
+        firstQuery.put("limit", 2);
+        final Map<String, Object> secondQuery = new HashMap<String, Object>();
+        secondQuery.put("offset", 2L);
+        secondQuery.put("limit", 2);
+
+        when(this.retrofitClientService.fetchClients(this.mockedAuthKey,
+                this.properties.getTenant(), firstQuery)).thenReturn(firstPage);
+        when(this.retrofitClientService.fetchClients(this.mockedAuthKey,
+                this.properties.getTenant(), secondQuery)).thenReturn(secondPage);
+
+        final PageIterator<Client> iterator = this.clientService.iterateClients(null,
+            PagingOptions.pageSize(2).build());
+        int count = 0;
+        while (iterator.hasNext()) {
+            Assert.assertEquals(iterator.next().getClientId(), this.defaultClientId);
+            ++count;
+        }
+
+        Assert.assertEquals(count, 3);
+        Assert.assertEquals(iterator.getTotalFilteredRecords(), Long.valueOf(3));
+    }
+
+    /**
+     * Test for retrieving all the clients in parallel once the total is known.
+     */
+    @Test
+    public void testFetchAllClients() throws Exception {
+        final PageableClients firstPage = new PageableClients();
+        firstPage.setClients(Arrays.asList(this.defaultClient, this.defaultClient));
+        firstPage.setTotalFilteredRecords(3L);
+        final PageableClients secondPage = new PageableClients();
+        secondPage.setClients(Arrays.asList(this.defaultClient));
+        secondPage.setTotalFilteredRecords(3L);
+        final Map<String, Object> firstQuery = new HashMap<String, Object>();
+        firstQuery.put("offset", 0L);
+        firstQuery.put("limit", 2);
+        final Map<String, Object> secondQuery = new HashMap<String, Object>();
+        secondQuery.put("offset", 2L);
+        secondQuery.put("limit", 2);
+
+        when(this.retrofitClientService.fetchClients(this.mockedAuthKey,
+                this.properties.getTenant(), firstQuery)).thenReturn(firstPage);
+        when(this.retrofitClientService.fetchClients(this.mockedAuthKey,
+                this.properties.getTenant(), secondQuery)).thenReturn(secondPage);
+
+        final List<Client> clients = this.clientService.fetchAllClients(null,
+            PagingOptions.pageSize(2).parallelism(4).executor(MoreExecutors.sameThreadExecutor()).build());
+
+        Assert.assertEquals(clients.size(), 3);
+    }
+
     /**
      * Test for {@link ErrorCode#NOT_CONNECTED} exception for fetchClients().
      */
@@ -344,6 +458,165 @@ public class RestClientServiceTest {
         }
     }
 
+    private RestClientService cachingClientService(final long ttlSeconds) {
+        final MifosXProperties cachingProperties = MifosXProperties
+            .url(this.properties.getUrl())
+            .tenant(this.properties.getTenant())
+            .clientCache(ClientCacheOptions.maxBytes(1024 * 1024).ttl(ttlSeconds, TimeUnit.SECONDS).build())
+            .build();
+        return new RestClientService(cachingProperties, this.restAdapter, "=hd$$34dd");
+    }
+
+    private Response clientResponse(final String entityTag) {
+        final List<Header> headers = new ArrayList<Header>();
+        if (entityTag != null) {
+            headers.add(new Header("etag", entityTag));
+        }
+        return new Response("", 200, "", headers,
+            new TypedString("{\"id\":1,\"officeId\":1,\"fullname\":\"Davis Jones\",\"active\":false}"));
+    }
+
+    /**
+     * Test that a cached client with an entity tag is revalidated and served on 304.
+     */
+    @Test
+    public void testFindClientRevalidated() throws Exception {
+        final RestClientService cachingService = this.cachingClientService(60);
+        final RetrofitError notModified = mock(RetrofitError.class);
+        when(notModified.getKind()).thenReturn(RetrofitError.Kind.HTTP);
+        when(notModified.getResponse()).thenReturn(new Response("", 304, "", new ArrayList<Header>(), null));
+
+        when(this.retrofitClientService.findClientIfNoneMatch(this.mockedAuthKey, this.properties.getTenant(),
+            null, this.defaultClientId)).thenReturn(this.clientResponse("\"v1\""));
+        when(this.retrofitClientService.findClientIfNoneMatch(this.mockedAuthKey, this.properties.getTenant(),
+            "\"v1\"", this.defaultClientId)).thenThrow(notModified);
+
+        final Client first = cachingService.findClient(this.defaultClientId);
+        final Client second = cachingService.findClient(this.defaultClientId);
+
+        Assert.assertEquals(first.getClientId(), this.defaultClientId);
+        Assert.assertEquals(first.getFullname(), "Davis Jones");
+        Assert.assertNotSame(second, first);
+        Assert.assertEquals(second.getClientId(), this.defaultClientId);
+        Assert.assertEquals(second.getFullname(), "Davis Jones");
+        Assert.assertEquals(cachingService.getClientCacheStats().getMissCount(), 1);
+        Assert.assertEquals(cachingService.getClientCacheStats().getRevalidatedCount(), 1);
+        Assert.assertEquals(cachingService.getClientCacheStats().getHitRatio(), 0.5, 0.0);
+        verify(this.retrofitClientService, never()).findClient(anyString(), anyString(), anyLong());
+    }
+
+    /**
+     * Test that a cached client without an entity tag is served until its time to live
+     * runs out, and dropped by a command.
+     */
+    @Test
+    public void testFindClientCachedAndInvalidated() throws Exception {
+        final RestClientService cachingService = this.cachingClientService(60);
+        when(this.retrofitClientService.findClientIfNoneMatch(this.mockedAuthKey, this.properties.getTenant(),
+            null, this.defaultClientId)).thenReturn(this.clientResponse(null), this.clientResponse(null));
+
+        cachingService.findClient(this.defaultClientId);
+        cachingService.findClient(this.defaultClientId);
+        cachingService.activateClient(this.defaultClientId, ActivateClientCommand.locale("en").build());
+        cachingService.findClient(this.defaultClientId);
+
+        verify(this.retrofitClientService, times(2)).findClientIfNoneMatch(this.mockedAuthKey,
+            this.properties.getTenant(), null, this.defaultClientId);
+        Assert.assertEquals(cachingService.getClientCacheStats().getHitCount(), 1);
+        Assert.assertEquals(cachingService.getClientCacheStats().getInvalidationCount(), 1);
+
+        final RestClientService expiringService = this.cachingClientService(0);
+        when(this.retrofitClientService.findClientIfNoneMatch(this.mockedAuthKey, this.properties.getTenant(),
+            null, this.defaultClientId)).thenReturn(this.clientResponse(null), this.clientResponse(null));
+        expiringService.findClient(this.defaultClientId);
+        expiringService.findClient(this.defaultClientId);
+        Assert.assertEquals(expiringService.getClientCacheStats().getMissCount(), 2);
+    }
+
+    /**
+     * Test that changing a client read from the cache leaves the cached client alone.
+     */
+    @Test
+    public void testFindClientCachedCopy() throws Exception {
+        final RestClientService cachingService = this.cachingClientService(60);
+        when(this.retrofitClientService.findClientIfNoneMatch(this.mockedAuthKey, this.properties.getTenant(),
+            null, this.defaultClientId)).thenReturn(this.clientResponse(null));
+
+        final Client first = cachingService.findClient(this.defaultClientId);
+        first.setDisplayName("Changed");
+        first.setClientId(2L);
+        final Client second = cachingService.findClient(this.defaultClientId);
+
+        Assert.assertNotSame(second, first);
+        Assert.assertNull(second.getDisplayName());
+        Assert.assertEquals(second.getClientId(), this.defaultClientId);
+        Assert.assertEquals(cachingService.getClientCacheStats().getHitCount(), 1);
+    }
+
+    /**
+     * Test that a failure while reading the body of a client maps to {@link ErrorCode#NOT_CONNECTED}.
+     */
+    @Test
+    public void testFindClientCachedBodyNotConnected() throws Exception {
+        final RestClientService cachingService = this.cachingClientService(60);
+        final TypedInput body = mock(TypedInput.class);
+        when(body.in()).thenThrow(new IOException("Connection reset"));
+        when(this.retrofitClientService.findClientIfNoneMatch(this.mockedAuthKey, this.properties.getTenant(),
+            null, this.defaultClientId)).thenReturn(new Response("", 200, "", new ArrayList<Header>(), body));
+
+        try {
+            cachingService.findClient(this.defaultClientId);
+
+            Assert.fail();
+        } catch (MifosXConnectException e) {
+            Assert.assertEquals(e.getMessage(), ErrorCode.NOT_CONNECTED.getMessage());
+        }
+        Assert.assertEquals(cachingService.getClientCacheStats().getMissCount(), 0);
+    }
+
+    /**
+     * Test that callers coalesced on one lookup each get their own client.
+     */
+    @Test
+    public void testFindClientCoalescedCopies() throws Exception {
+        final Client[] joined = new Client[1];
+        final Thread joiner = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    joined[0] = clientService.findClient(defaultClientId);
+                } catch (MifosXConnectException e) {
+                    Assert.fail();
+                } catch (MifosXResourceException e) {
+                    Assert.fail();
+                }
+            }
+        });
+        when(this.retrofitClientService.findClient(this.mockedAuthKey, this.properties.getTenant(),
+            this.defaultClientId)).thenAnswer(new Answer<Client>() {
+                @Override
+                public Client answer(final InvocationOnMock invocation) {
+                    // holds the lookup until the second caller waits for it
+                    joiner.start();
+                    while (joiner.getState() != Thread.State.WAITING
+                        && joiner.getState() != Thread.State.TERMINATED) {
+                        Thread.yield();
+                    }
+                    return defaultClient;
+                }
+            });
+
+        final Client first = this.clientService.findClient(this.defaultClientId);
+        joiner.join();
+
+        verify(this.retrofitClientService, times(1)).findClient(this.mockedAuthKey, this.properties.getTenant(),
+            this.defaultClientId);
+        Assert.assertNotNull(joined[0]);
+        Assert.assertNotSame(joined[0], first);
+        Assert.assertNotSame(first, this.defaultClient);
+        Assert.assertEquals(joined[0].getFullname(), first.getFullname());
+    }
+
     /**
      * Test to find one particular client.
      */
@@ -356,7 +629,9 @@ public class RestClientServiceTest {
             final Client responseClient = this.clientService.findClient(this.defaultClientId);
 
             Assert.assertNotNull(responseClient);
-            Assert.assertThat(responseClient, equalTo(this.defaultClient));
+            Assert.assertNotSame(responseClient, this.defaultClient);
+            Assert.assertEquals(responseClient.getFullname(), this.defaultClient.getFullname());
+            Assert.assertEquals(responseClient.getOfficeId(), this.defaultClient.getOfficeId());
         } catch (MifosXConnectException e) {
             Assert.fail();
         } catch (MifosXResourceException e) {
@@ -2138,7 +2413,10 @@ public class RestClientServiceTest {
             final List<ClientIdentifier> responseIdentifiers = this.clientService.fetchIdentifiers(this.defaultClientId);
 
             Assert.assertNotNull(responseIdentifiers);
-            Assert.assertThat(responseIdentifiers, equalTo(identifierList));
+            Assert.assertEquals(responseIdentifiers.size(), 2);
+            Assert.assertNotSame(responseIdentifiers.get(0), responseIdentifiers.get(1));
+            Assert.assertNotSame(responseIdentifiers.get(0), this.clientIdentifier);
+            Assert.assertEquals(responseIdentifiers.get(0).getDocumentKey(), this.clientIdentifier.getDocumentKey());
         } catch (MifosXConnectException e) {
             Assert.fail();
         } catch (MifosXResourceException e) {
@@ -2696,6 +2974,26 @@ public class RestClientServiceTest {
         }
     }
 
+    /**
+     * Test for successful upload of an already encoded client image.
+     */
+    @Test
+    public void testUploadEncodedClientImage() throws Exception {
+        final ArgumentCaptor<TypedOutput> body = ArgumentCaptor.forClass(TypedOutput.class);
+        when(this.retrofitClientService.uploadImage(eq(this.mockedAuthKey), eq(this.properties.getTenant()),
+            eq(this.defaultClientId), body.capture())).thenReturn(this.clientImage);
+
+        final EncodedClientImage encodedImage = EncodedClientImage.bytes(this.defaultImageBytes)
+            .type(ClientImage.Type.PNG).build();
+        final Long id = this.clientService.uploadImage(this.defaultClientId, encodedImage).getResourceId();
+
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        body.getValue().writeTo(outputStream);
+        Assert.assertEquals(id, this.defaultClientId);
+        Assert.assertEquals(outputStream.toString("US-ASCII"), new String(this.defaultBase64Data.getBytes(), "UTF-8"));
+        Assert.assertEquals(body.getValue().length(), outputStream.size());
+    }
+
     /**
      * Test for {@link org.mifos.sdk.internal.ErrorCode#NOT_CONNECTED} exception for uploadImage().
      */
@@ -2815,6 +3113,223 @@ public class RestClientServiceTest {
         }
     }
 
+    /**
+     * Test for successful retrieval of a client image.
+     */
+    @Test
+    public void testFindClientImage() {
+        final Response response = new Response("", 200, "", new ArrayList<Header>(), this.defaultBase64Data);
+
+        when(this.retrofitClientService.findImage(this.mockedAuthKey, this.properties.getTenant(),
+            this.defaultClientId, null, null)).thenReturn(response);
+
+        try {
+            final ClientImage image = this.clientService.findImage(this.defaultClientId, null, null);
+
+            Assert.assertNotNull(image);
+            Assert.assertEquals(image.getType(), ClientImage.Type.PNG);
+            Assert.assertEquals(image.getImage().getWidth(), this.defaultImage.getWidth());
+            Assert.assertEquals(image.getImage().getHeight(), this.defaultImage.getHeight());
+        } catch (MifosXConnectException e) {
+            Assert.fail();
+        } catch (MifosXResourceException e) {
+            Assert.fail();
+        }
+    }
+
+    /**
+     * Test for retrieving the bytes of a client image into a stream and a buffer.
+     */
+    @Test
+    public void testFindClientImageBytes() throws Exception {
+        when(this.retrofitClientService.findImage(this.mockedAuthKey, this.properties.getTenant(),
+            this.defaultClientId, null, null)).thenReturn(
+            new Response("", 200, "", new ArrayList<Header>(), this.defaultBase64Data),
+            new Response("", 200, "", new ArrayList<Header>(), this.defaultBase64Data));
+
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        final ClientImage.Type type = this.clientService.findImageBytes(this.defaultClientId, null, null,
+            outputStream);
+        final ByteBuffer buffer = ByteBuffer.allocate(this.defaultImageBytes.length);
+        this.clientService.findImageBytes(this.defaultClientId, null, null, buffer);
+
+        Assert.assertEquals(type, ClientImage.Type.PNG);
+        Assert.assertArrayEquals(outputStream.toByteArray(), this.defaultImageBytes);
+        Assert.assertArrayEquals(buffer.array(), this.defaultImageBytes);
+    }
+
+    /**
+     * Test for streaming the bytes of a client image.
+     */
+    @Test
+    public void testFindClientImageStream() throws Exception {
+        final Response response = new Response("", 200, "", new ArrayList<Header>(), this.defaultBase64Data);
+
+        when(this.retrofitClientService.findImage(this.mockedAuthKey, this.properties.getTenant(),
+            this.defaultClientId, null, null)).thenReturn(response);
+
+        final InputStream inputStream = this.clientService.findImageStream(this.defaultClientId, null, null);
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        final byte[] chunk = new byte[100];
+        int read;
+        while ((read = inputStream.read(chunk)) != -1) {
+            outputStream.write(chunk, 0, read);
+        }
+        inputStream.close();
+
+        Assert.assertArrayEquals(outputStream.toByteArray(), this.defaultImageBytes);
+    }
+
+    /**
+     * Test that a cached image is served without a request until the image is deleted.
+     */
+    @Test
+    public void testFindClientImageCached() throws Exception {
+        final MifosXProperties cachingProperties = MifosXProperties
+            .url(this.properties.getUrl())
+            .tenant(this.properties.getTenant())
+            .imageCache(ImageCacheOptions.maxMemoryBytes(1024 * 1024).build())
+            .build();
+        final RestClientService cachingService = new RestClientService(cachingProperties, this.restAdapter,
+            "=hd$$34dd");
+
+        when(this.retrofitClientService.findImage(this.mockedAuthKey, this.properties.getTenant(),
+            this.defaultClientId, null, null)).thenReturn(
+            new Response("", 200, "", new ArrayList<Header>(), this.defaultBase64Data),
+            new Response("", 200, "", new ArrayList<Header>(), this.defaultBase64Data));
+
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        cachingService.findImageBytes(this.defaultClientId, null, null, outputStream);
+        final ClientImage image = cachingService.findImage(this.defaultClientId, null, null);
+        cachingService.deleteImage(this.defaultClientId);
+        cachingService.findImageStream(this.defaultClientId, null, null).close();
+
+        Assert.assertArrayEquals(outputStream.toByteArray(), this.defaultImageBytes);
+        Assert.assertEquals(image.getType(), ClientImage.Type.PNG);
+        verify(this.retrofitClientService, times(2)).findImage(this.mockedAuthKey, this.properties.getTenant(),
+            this.defaultClientId, null, null);
+        Assert.assertEquals(cachingService.getImageCacheStats().getHitCount(), 1);
+        Assert.assertEquals(cachingService.getImageCacheStats().getMissCount(), 2);
+    }
+
+    /**
+     * Test that no request is sent for a client without an image.
+     */
+    @Test
+    public void testFindClientImageNotPresent() throws Exception {
+        this.defaultClient.setImagePresent(false);
+
+        Assert.assertNull(this.clientService.findImage(this.defaultClient, null, null));
+        verifyZeroInteractions(this.retrofitClientService);
+        Assert.assertNull(this.clientService.getImageCacheStats());
+    }
+
+    /**
+     * Test that images are prefetched in parallel and clients without one are skipped.
+     */
+    @Test
+    public void testPrefetchClientImages() throws Exception {
+        final List<Client> clients = new ArrayList<Client>();
+        for (long id = 1; id <= 4; ++id) {
+            final Client client = Client.fullname("Client " + id).officeId(1L).build();
+            client.setClientId(id);
+            client.setImagePresent(id != 2);
+            clients.add(client);
+        }
+        final RetrofitError notFound = mock(RetrofitError.class);
+        when(notFound.getResponse()).thenReturn(new Response("", 404, "", new ArrayList<Header>(),
+            new TypedString("")));
+        final RetrofitError notConnected = mock(RetrofitError.class);
+        when(notConnected.getKind()).thenReturn(RetrofitError.Kind.NETWORK);
+
+        when(this.retrofitClientService.findImage(this.mockedAuthKey, this.properties.getTenant(), 1L, 60L, 60L))
+            .thenReturn(new Response("", 200, "", new ArrayList<Header>(), this.defaultBase64Data));
+        when(this.retrofitClientService.findImage(this.mockedAuthKey, this.properties.getTenant(), 3L, 60L, 60L))
+            .thenThrow(notFound);
+        when(this.retrofitClientService.findImage(this.mockedAuthKey, this.properties.getTenant(), 4L, 60L, 60L))
+            .thenThrow(notConnected);
+
+        final Map<Long, ClientImage> images = new HashMap<Long, ClientImage>();
+        final Map<Long, Exception> failures = new HashMap<Long, Exception>();
+        final ExecutorService executorService = Executors.newFixedThreadPool(2);
+        try {
+            this.clientService.prefetchClientImages(clients, 60L, 60L, executorService, 2,
+                new ClientImageCallback() {
+                    @Override
+                    public void onImage(Long clientId, ClientImage clientImage) {
+                        images.put(clientId, clientImage);
+                    }
+
+                    @Override
+                    public void onFailure(Long clientId, Exception exception) {
+                        failures.put(clientId, exception);
+                    }
+                });
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        Assert.assertEquals(images.size(), 3);
+        Assert.assertEquals(images.get(1L).getType(), ClientImage.Type.PNG);
+        Assert.assertTrue(images.containsKey(2L));
+        Assert.assertNull(images.get(2L));
+        Assert.assertNull(images.get(3L));
+        Assert.assertEquals(failures.size(), 1);
+        Assert.assertEquals(failures.get(4L).getMessage(), ErrorCode.NOT_CONNECTED.getMessage());
+        verify(this.retrofitClientService, never()).findImage(this.mockedAuthKey, this.properties.getTenant(),
+            2L, 60L, 60L);
+    }
+
+    /**
+     * Test for not found exception for findImage().
+     */
+    @Test
+    public void testFindClientImageNotFoundException() {
+        final RetrofitError error = mock(RetrofitError.class);
+        final Response response = new Response("", 404, "", new ArrayList<Header>(), new TypedString(""));
+
+        when(error.getResponse()).thenReturn(response);
+        when(this.retrofitClientService.findImage(this.mockedAuthKey, this.properties.getTenant(),
+            this.defaultClientId, null, null)).thenThrow(error);
+
+        try {
+            this.clientService.findImage(this.defaultClientId, null, null);
+
+            Assert.fail();
+        } catch (MifosXConnectException e) {
+            Assert.fail();
+        } catch (MifosXResourceException e) {
+            Assert.assertNotNull(e);
+            Assert.assertEquals(e.getMessage(), ErrorCode.CLIENT_IMAGE_NOT_FOUND.getMessage());
+        }
+    }
+
+    /**
+     * Test for successful update of a client image from a file.
+     */
+    @Test
+    public void testUpdateEncodedClientImage() throws Exception {
+        final File file = File.createTempFile("profile_pic", ".png");
+        file.deleteOnExit();
+        final FileOutputStream fileOutputStream = new FileOutputStream(file);
+        try {
+            fileOutputStream.write(this.defaultImageBytes);
+        } finally {
+            fileOutputStream.close();
+        }
+        final ArgumentCaptor<TypedOutput> body = ArgumentCaptor.forClass(TypedOutput.class);
+
+        this.clientService.updateImage(this.defaultClientId,
+            EncodedClientImage.file(file).type(ClientImage.Type.PNG).build());
+
+        verify(this.retrofitClientService).updateImage(eq(this.mockedAuthKey), eq(this.properties.getTenant()),
+            eq(this.defaultClientId), body.capture());
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        body.getValue().writeTo(outputStream);
+        Assert.assertEquals(outputStream.toString("US-ASCII"), new String(this.defaultBase64Data.getBytes(), "UTF-8"));
+        Assert.assertEquals(body.getValue().length(), outputStream.size());
+    }
+
     /**
      * Test for {@link ErrorCode#NOT_CONNECTED} exception for updateImage().
      */
@@ -3053,4 +3568,81 @@ public class RestClientServiceTest {
         }
     }
 
+    /**
+     * Test that a command batch is sent in chunks and every result maps back to its command.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testCommandBatch() throws Exception {
+        final RetrofitBatchService retrofitBatchService = mock(RetrofitBatchService.class);
+        final ArgumentCaptor<List<BatchRequest>> requests =
+            ArgumentCaptor.forClass((Class<List<BatchRequest>>) (Class<?>) List.class);
+        final ActivateClientCommand activate = ActivateClientCommand.locale("en").build();
+        final AssignUnassignStaffCommand assignStaff = AssignUnassignStaffCommand.staffId(3L).build();
+
+        when(this.restAdapter.create(RetrofitBatchService.class)).thenReturn(retrofitBatchService);
+        when(retrofitBatchService.executeBatch(eq(this.mockedAuthKey), eq(this.properties.getTenant()),
+            isNull(Boolean.class), anyList()))
+            .thenReturn(Arrays.asList(new BatchResponse(1L, 200, "{\"clientId\":1}"),
+                new BatchResponse(2L, 404, null)))
+            .thenReturn(Arrays.asList(new BatchResponse(1L, 403, this.defaultDuplicateJSON)));
+
+        final List<BatchResult> results = this.clientService.commandBatch(BatchOptions.chunkSize(2).build())
+            .activate(1L, activate)
+            .activate(2L, activate)
+            .assignStaff(3L, assignStaff)
+            .submit();
+
+        verify(retrofitBatchService, times(2)).executeBatch(eq(this.mockedAuthKey),
+            eq(this.properties.getTenant()), isNull(Boolean.class), requests.capture());
+        final BatchRequest last = requests.getAllValues().get(1).get(0);
+        Assert.assertEquals(last.getRelativeUrl(), "clients/3?command=assignStaff");
+        Assert.assertSame(last.getBody(), assignStaff);
+        Assert.assertEquals(results.size(), 3);
+        Assert.assertTrue(results.get(0).isSuccessful());
+        Assert.assertEquals(results.get(0).getResourceId(), Long.valueOf(1L));
+        Assert.assertEquals(results.get(1).getException().getErrorCode(), ErrorCode.CLIENT_NOT_FOUND);
+        Assert.assertEquals(results.get(2).getStatusCode(), Integer.valueOf(403));
+        Assert.assertEquals(results.get(2).getException().getMessage(), this.defaultDuplicateMessage);
+    }
+
+    /**
+     * Test that the results of the chunks already executed are kept when a later
+     * chunk cannot be sent, and that the unsent commands carry the failure.
+     */
+    @Test
+    public void testCommandBatchNotConnected() throws Exception {
+        final RetrofitBatchService retrofitBatchService = mock(RetrofitBatchService.class);
+        final ActivateClientCommand activate = ActivateClientCommand.locale("en").build();
+        final RetrofitError error = mock(RetrofitError.class);
+        when(error.getKind()).thenReturn(RetrofitError.Kind.NETWORK);
+
+        when(this.restAdapter.create(RetrofitBatchService.class)).thenReturn(retrofitBatchService);
+        when(retrofitBatchService.executeBatch(eq(this.mockedAuthKey), eq(this.properties.getTenant()),
+            isNull(Boolean.class), anyListOf(BatchRequest.class)))
+            .thenReturn(Arrays.asList(new BatchResponse(1L, 200, "{\"clientId\":1}"),
+                new BatchResponse(2L, 200, "{\"clientId\":2}")))
+            .thenThrow(error);
+
+        final List<BatchResult> results = this.clientService.commandBatch(BatchOptions.chunkSize(2).build())
+            .activate(1L, activate)
+            .activate(2L, activate)
+            .activate(3L, activate)
+            .activate(4L, activate)
+            .activate(5L, activate)
+            .submit();
+
+        verify(retrofitBatchService, times(2)).executeBatch(eq(this.mockedAuthKey),
+            eq(this.properties.getTenant()), isNull(Boolean.class), anyListOf(BatchRequest.class));
+        Assert.assertEquals(results.size(), 5);
+        Assert.assertTrue(results.get(0).isSuccessful());
+        Assert.assertTrue(results.get(1).isSuccessful());
+        for (int i = 2; i < 5; ++i) {
+            Assert.assertFalse(results.get(i).isSuccessful());
+            Assert.assertEquals(results.get(i).getResourceId(), Long.valueOf(i + 1L));
+            Assert.assertNull(results.get(i).getStatusCode());
+            Assert.assertEquals(results.get(i).getConnectException().getErrorCode(), ErrorCode.NOT_CONNECTED);
+        }
+    }
+
 }
@@ -0,0 +1,138 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.group.internal;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mifos.sdk.MifosXConnectException;
+import org.mifos.sdk.MifosXResourceException;
+import org.mifos.sdk.group.GroupService;
+import org.mifos.sdk.group.domain.Group;
+import org.mifos.sdk.group.domain.commands.ActivateGroupCommand;
+import org.mifos.sdk.internal.ErrorCode;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * Test for {@link RestAsyncGroupService} and its various methods.
+ */
+public class RestAsyncGroupServiceTest {
+
+    private GroupService groupService;
+    private RestAsyncGroupService asyncGroupService;
+    private Group defaultGroup;
+    private Long defaultGroupId;
+
+    /**
+     * Setup all the components before testing.
+     */
+    @Before
+    public void setup() {
+        this.groupService = mock(GroupService.class);
+        this.asyncGroupService = new RestAsyncGroupService(this.groupService,
+            MoreExecutors.sameThreadExecutor());
+        this.defaultGroup = Group
+            .name("Test Group")
+            .officeId(1L)
+            .active(false)
+            .build();
+        this.defaultGroupId = 1L;
+        this.defaultGroup.setResourceId(this.defaultGroupId);
+    }
+
+    /**
+     * Test for successful retrieval of a group.
+     */
+    @Test
+    public void testFindGroup() throws Exception {
+        when(this.groupService.findGroup(this.defaultGroupId, null)).thenReturn(this.defaultGroup);
+
+        final Group group = this.asyncGroupService.findGroup(this.defaultGroupId, null).get();
+
+        Assert.assertNotNull(group);
+        Assert.assertEquals(group.getResourceId(), this.defaultGroupId);
+    }
+
+    /**
+     * Test that a {@link MifosXConnectException} fails the future.
+     */
+    @Test
+    public void testFindGroupNotConnectedException() throws Exception {
+        when(this.groupService.findGroup(this.defaultGroupId, null))
+            .thenThrow(new MifosXConnectException(ErrorCode.NOT_CONNECTED));
+
+        try {
+            this.asyncGroupService.findGroup(this.defaultGroupId, null).get();
+
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof MifosXConnectException);
+            Assert.assertEquals(e.getCause().getMessage(), ErrorCode.NOT_CONNECTED.getMessage());
+        }
+    }
+
+    /**
+     * Test that a {@link MifosXResourceException} fails the future of a command.
+     */
+    @Test
+    public void testActivateGroupNotFoundException() throws Exception {
+        final ActivateGroupCommand command = ActivateGroupCommand.locale("en").build();
+
+        doThrow(new MifosXResourceException(ErrorCode.GROUP_NOT_FOUND)).when(this.groupService)
+            .activateGroup(this.defaultGroupId, command);
+
+        try {
+            this.asyncGroupService.activateGroup(this.defaultGroupId, command).get();
+
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof MifosXResourceException);
+            Assert.assertEquals(e.getCause().getMessage(), ErrorCode.GROUP_NOT_FOUND.getMessage());
+        }
+    }
+
+    /**
+     * Test that the future of a command completes once the call on the executor returns.
+     */
+    @Test
+    public void testActivateGroupCompletion() throws Exception {
+        final ActivateGroupCommand command = ActivateGroupCommand.locale("en").build();
+        final CountDownLatch release = new CountDownLatch(1);
+        final ExecutorService executorService = Executors.newSingleThreadExecutor();
+
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(final InvocationOnMock invocation) throws InterruptedException {
+                release.await(5, TimeUnit.SECONDS);
+                return null;
+            }
+        }).when(this.groupService).activateGroup(this.defaultGroupId, command);
+
+        try {
+            final ListenableFuture<Void> future = new RestAsyncGroupService(this.groupService, executorService)
+                .activateGroup(this.defaultGroupId, command);
+
+            Assert.assertFalse(future.isDone());
+            release.countDown();
+            Assert.assertNull(future.get(5, TimeUnit.SECONDS));
+            verify(this.groupService).activateGroup(this.defaultGroupId, command);
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+}
@@ -8,10 +8,14 @@ package org.mifos.sdk.group.internal;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import org.mifos.sdk.BatchOptions;
+import org.mifos.sdk.BatchResult;
 import org.mifos.sdk.MifosXConnectException;
 import org.mifos.sdk.MifosXProperties;
 import org.mifos.sdk.MifosXResourceException;
 import org.mifos.sdk.client.domain.Client;
+import org.mifos.sdk.group.CollectionSheetCallback;
+import org.mifos.sdk.group.domain.CollectionSheet;
 import org.mifos.sdk.group.domain.Group;
 import org.mifos.sdk.group.domain.PageableGroups;
 import org.mifos.sdk.group.domain.commands.ActivateGroupCommand;
@@ -22,20 +26,30 @@ import org.mifos.sdk.group.domain.commands.CloseGroupCommand;
 import org.mifos.sdk.group.domain.commands.GenerateCollectionSheetCommand;
 import org.mifos.sdk.group.domain.commands.SaveCollectionSheetCommand;
 import org.mifos.sdk.group.domain.commands.TransferClientsCommand;
+import org.mifos.sdk.internal.BatchRequest;
+import org.mifos.sdk.internal.BatchResponse;
 import org.mifos.sdk.internal.ErrorCode;
+import org.mifos.sdk.internal.GsonFactory;
+import org.mifos.sdk.internal.RetrofitBatchService;
+import org.mockito.ArgumentCaptor;
 import retrofit.RestAdapter;
 import retrofit.RetrofitError;
 import retrofit.client.Header;
 import retrofit.client.Response;
+import retrofit.mime.TypedOutput;
 import retrofit.mime.TypedString;
 
+import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.GregorianCalendar;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static org.hamcrest.Matchers.equalTo;
 import static org.mockito.Mockito.*;
@@ -1251,6 +1265,144 @@ public class RestGroupServiceTest {
         }
     }
 
+    private static CollectionSheet collectionSheet(final long groupId, final String totalDue) {
+        return GsonFactory.create().fromJson("{\"dueDate\":[2015,2,13],\"groups\":[{\"groupId\":"
+            + groupId + ",\"clients\":[{\"clientId\":1,\"loans\":[{\"loanId\":1,\"totalDue\":"
+            + totalDue + "}]}]}]}", CollectionSheet.class);
+    }
+
+    private static CollectionMeeting meeting(final String json) {
+        return GsonFactory.create().fromJson(json, CollectionMeeting.class);
+    }
+
+    private Map<Long, Long> generatedCalendars() {
+        final ArgumentCaptor<Long> groupIds = ArgumentCaptor.forClass(Long.class);
+        final ArgumentCaptor<Object> commands = ArgumentCaptor.forClass(Object.class);
+        verify(this.retrofitGroupService, atLeast(0)).generateCollectionSheet(eq(this.mockedAuthKey),
+            eq(this.properties.getTenant()), groupIds.capture(), eq("generateCollectionSheet"), commands.capture());
+        final Map<Long, Long> calendars = new HashMap<Long, Long>();
+        for (int i = 0; i < groupIds.getAllValues().size(); ++i) {
+            calendars.put(groupIds.getAllValues().get(i),
+                ((GenerateCollectionSheetCommand) commands.getAllValues().get(i)).getCalendarId());
+        }
+        return calendars;
+    }
+
+    /**
+     * Test for generateCollectionSheets() merging the sheets of the groups of a center.
+     */
+    @Test
+    public void testGenerateCollectionSheets() throws Exception {
+        final Date date = new GregorianCalendar(2015, 1, 13).getTime();
+        final GenerateCollectionSheetCommand command = GenerateCollectionSheetCommand.locale("en")
+            .calendarId(1L).dateFormat("dd/MM/yyyy").transactionDate(date).build();
+        for (long groupId = 1; groupId <= 3; ++groupId) {
+            when(this.retrofitGroupService.generateCollectionSheet(eq(this.mockedAuthKey),
+                eq(this.properties.getTenant()), eq(groupId), eq("generateCollectionSheet"), any()))
+                .thenReturn(collectionSheet(groupId, groupId + "0.1"));
+        }
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        when(this.retrofitGroupService.findCenterMeeting(this.mockedAuthKey, this.properties.getTenant(), 10L,
+            "groupMembers,collectionMeetingCalendar")).thenReturn(meeting("{\"id\":10,\"officeId\":1,"
+            + "\"groupMembers\":[{\"id\":1},{\"id\":3}],\"collectionMeetingCalendar\":{\"id\":5}}"));
+
+        final CollectionSheet sheet;
+        try {
+            sheet = this.groupService.generateCollectionSheets(1L, 10L, command, executor, 2);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Assert.assertEquals(sheet.getGroups().size(), 2);
+        Assert.assertEquals(sheet.getGroups().get(0).getGroupId(), Long.valueOf(1L));
+        Assert.assertEquals(sheet.getGroups().get(1).getGroupId(), Long.valueOf(3L));
+        Assert.assertEquals(sheet.getTotalDue(), new BigDecimal("40.2"));
+        Assert.assertEquals(sheet.getDueDate(), date);
+        final Map<Long, Long> calendars = this.generatedCalendars();
+        Assert.assertEquals(calendars.size(), 2);
+        Assert.assertEquals(calendars.get(1L), Long.valueOf(5L));
+        Assert.assertEquals(calendars.get(3L), Long.valueOf(5L));
+        verify(this.retrofitGroupService, never()).fetchGroups(anyString(), anyString(),
+            anyMapOf(String.class, Object.class));
+    }
+
+    /**
+     * Test for generateCollectionSheets() generating the groups of an office with the
+     * calendar of their center, or their own.
+     */
+    @Test
+    public void testGenerateCollectionSheetsOfficeCalendars() throws Exception {
+        final Date date = new GregorianCalendar(2015, 1, 13).getTime();
+        final GenerateCollectionSheetCommand command = GenerateCollectionSheetCommand.locale("en")
+            .calendarId(1L).dateFormat("dd/MM/yyyy").transactionDate(date).build();
+        final List<Group> groups = new ArrayList<Group>();
+        final Long[] centerIds = {10L, 11L, 10L, null, null};
+        for (long groupId = 1; groupId <= 5; ++groupId) {
+            final Group group = Group.name("Group " + groupId).officeId(1L).build();
+            group.setResourceId(groupId);
+            group.setCenterId(centerIds[(int) groupId - 1]);
+            groups.add(group);
+            when(this.retrofitGroupService.generateCollectionSheet(eq(this.mockedAuthKey),
+                eq(this.properties.getTenant()), eq(groupId), eq("generateCollectionSheet"), any()))
+                .thenReturn(collectionSheet(groupId, groupId + "0.1"));
+        }
+        final PageableGroups pageableGroups = new PageableGroups();
+        pageableGroups.setClients(groups);
+        pageableGroups.setTotalFilteredRecords(5L);
+
+        when(this.retrofitGroupService.fetchGroups(eq(this.mockedAuthKey), eq(this.properties.getTenant()),
+            anyMapOf(String.class, Object.class))).thenReturn(pageableGroups);
+        when(this.retrofitGroupService.findCenterMeeting(this.mockedAuthKey, this.properties.getTenant(), 10L,
+            "groupMembers,collectionMeetingCalendar")).thenReturn(meeting("{\"id\":10,\"officeId\":1,"
+            + "\"collectionMeetingCalendar\":{\"id\":5}}"));
+        when(this.retrofitGroupService.findCenterMeeting(this.mockedAuthKey, this.properties.getTenant(), 11L,
+            "groupMembers,collectionMeetingCalendar")).thenReturn(meeting("{\"id\":11,\"officeId\":1,"
+            + "\"collectionMeetingCalendar\":{\"id\":6}}"));
+        when(this.retrofitGroupService.findGroupMeeting(this.mockedAuthKey, this.properties.getTenant(), 4L,
+            "collectionMeetingCalendar")).thenReturn(meeting("{\"id\":4,\"collectionMeetingCalendar\":{\"id\":7}}"));
+        when(this.retrofitGroupService.findGroupMeeting(this.mockedAuthKey, this.properties.getTenant(), 5L,
+            "collectionMeetingCalendar")).thenReturn(meeting("{\"id\":5}"));
+
+        final CollectionSheet sheet = this.groupService.generateCollectionSheets(1L, null, command, null, 2);
+
+        Assert.assertEquals(sheet.getGroups().size(), 4);
+        Assert.assertEquals(sheet.getGroups().get(3).getGroupId(), Long.valueOf(4L));
+        final Map<Long, Long> calendars = this.generatedCalendars();
+        Assert.assertEquals(calendars.size(), 4);
+        Assert.assertEquals(calendars.get(1L), Long.valueOf(5L));
+        Assert.assertEquals(calendars.get(2L), Long.valueOf(6L));
+        Assert.assertEquals(calendars.get(3L), Long.valueOf(5L));
+        Assert.assertEquals(calendars.get(4L), Long.valueOf(7L));
+        verify(this.retrofitGroupService, times(1)).findCenterMeeting(this.mockedAuthKey,
+            this.properties.getTenant(), 10L, "groupMembers,collectionMeetingCalendar");
+        verify(this.retrofitGroupService, never()).findGroupMeeting(anyString(), anyString(), eq(1L), anyString());
+    }
+
+    /**
+     * Test for {@link ErrorCode#CENTER_NOT_FOUND} exception for generateCollectionSheets()
+     * with a center of another office.
+     */
+    @Test
+    public void testGenerateCollectionSheetsCenterNotFound() throws Exception {
+        final GenerateCollectionSheetCommand command = GenerateCollectionSheetCommand.locale("en")
+            .calendarId(1L).dateFormat("dd/MM/yyyy").transactionDate(new Date()).build();
+
+        when(this.retrofitGroupService.findCenterMeeting(this.mockedAuthKey, this.properties.getTenant(), 10L,
+            "groupMembers,collectionMeetingCalendar")).thenReturn(meeting("{\"id\":10,\"officeId\":2,"
+            + "\"groupMembers\":[{\"id\":1}],\"collectionMeetingCalendar\":{\"id\":5}}"));
+
+        try {
+            this.groupService.generateCollectionSheets(1L, 10L, command, null, 2);
+
+            Assert.fail();
+        } catch (MifosXResourceException e) {
+            Assert.assertEquals(e.getMessage(), ErrorCode.CENTER_NOT_FOUND.getMessage());
+        }
+        verify(this.retrofitGroupService, never()).generateCollectionSheet(anyString(), anyString(), anyLong(),
+            anyString(), any());
+    }
+
     /**
      * Test for {@link ErrorCode#NOT_CONNECTED} exception for generateCollectionSheet().
      */
@@ -1262,8 +1414,8 @@ public class RestGroupServiceTest {
             .calendarId(1L).dateFormat("dd/MM/yyyy").transactionDate(date).build();
 
         when(error.getKind()).thenReturn(RetrofitError.Kind.NETWORK);
-        doThrow(error).when(this.retrofitGroupService).executeCommand(this.mockedAuthKey,
-            this.properties.getTenant(), this.defaultGroupId, "generateCollectionSheet", null, command);
+        doThrow(error).when(this.retrofitGroupService).generateCollectionSheet(this.mockedAuthKey,
+            this.properties.getTenant(), this.defaultGroupId, "generateCollectionSheet", command);
 
         try {
             this.groupService.generateCollectionSheet(this.defaultGroupId, command);
@@ -1289,8 +1441,8 @@ public class RestGroupServiceTest {
             .calendarId(1L).dateFormat("dd/MM/yyyy").transactionDate(date).build();
 
         when(error.getResponse()).thenReturn(response);
-        doThrow(error).when(this.retrofitGroupService).executeCommand(this.mockedAuthKey,
-            this.properties.getTenant(), this.defaultGroupId, "generateCollectionSheet", null, command);
+        doThrow(error).when(this.retrofitGroupService).generateCollectionSheet(this.mockedAuthKey,
+            this.properties.getTenant(), this.defaultGroupId, "generateCollectionSheet", command);
 
         try {
             this.groupService.generateCollectionSheet(this.defaultGroupId, command);
@@ -1316,8 +1468,8 @@ public class RestGroupServiceTest {
             .calendarId(1L).dateFormat("dd/MM/yyyy").transactionDate(date).build();
 
         when(error.getResponse()).thenReturn(response);
-        doThrow(error).when(this.retrofitGroupService).executeCommand(this.mockedAuthKey,
-            this.properties.getTenant(), this.defaultGroupId, "generateCollectionSheet", null, command);
+        doThrow(error).when(this.retrofitGroupService).generateCollectionSheet(this.mockedAuthKey,
+            this.properties.getTenant(), this.defaultGroupId, "generateCollectionSheet", command);
 
         try {
             this.groupService.generateCollectionSheet(this.defaultGroupId, command);
@@ -1343,8 +1495,8 @@ public class RestGroupServiceTest {
             .calendarId(1L).dateFormat("dd/MM/yyyy").transactionDate(date).build();
 
         when(error.getResponse()).thenReturn(response);
-        doThrow(error).when(this.retrofitGroupService).executeCommand(this.mockedAuthKey,
-            this.properties.getTenant(), this.defaultGroupId, "generateCollectionSheet", null, command);
+        doThrow(error).when(this.retrofitGroupService).generateCollectionSheet(this.mockedAuthKey,
+            this.properties.getTenant(), this.defaultGroupId, "generateCollectionSheet", command);
 
         try {
             this.groupService.generateCollectionSheet(this.defaultGroupId, command);
@@ -1370,8 +1522,8 @@ public class RestGroupServiceTest {
             .calendarId(1L).dateFormat("dd/MM/yyyy").transactionDate(date).build();
 
         when(error.getResponse()).thenReturn(response);
-        doThrow(error).when(this.retrofitGroupService).executeCommand(this.mockedAuthKey,
-            this.properties.getTenant(), this.defaultGroupId, "generateCollectionSheet", null, command);
+        doThrow(error).when(this.retrofitGroupService).generateCollectionSheet(this.mockedAuthKey,
+            this.properties.getTenant(), this.defaultGroupId, "generateCollectionSheet", command);
 
         try {
             this.groupService.generateCollectionSheet(this.defaultGroupId, command);
@@ -1440,6 +1592,45 @@ public class RestGroupServiceTest {
         }
     }
 
+    /**
+     * Test for saveCollectionSheets() reporting the outcome of every group.
+     */
+    @Test
+    public void testSaveCollectionSheets() throws InterruptedException {
+        final RetrofitError error = mock(RetrofitError.class);
+        final Response response = new Response("", 404, "", new ArrayList<Header>(), null);
+        final Date date = new GregorianCalendar(2015, 1, 13).getTime();
+        final SaveCollectionSheetCommand command = SaveCollectionSheetCommand.calendarId(1L)
+            .locale("en").dateFormat("dd/MM/yyyy").transactionDate(date)
+            .actualDisbursementDate(date).build();
+        final Map<Long, SaveCollectionSheetCommand> sheets = new LinkedHashMap<Long, SaveCollectionSheetCommand>();
+        for (long groupId = 1; groupId <= 4; ++groupId) {
+            sheets.put(groupId, command);
+        }
+        final CollectionSheetCallback callback = mock(CollectionSheetCallback.class);
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        when(error.getResponse()).thenReturn(response);
+        doThrow(error).when(this.retrofitGroupService).executeCommand(eq(this.mockedAuthKey),
+            eq(this.properties.getTenant()), eq(3L), eq("saveCollectionSheet"), (Long) isNull(), any());
+
+        try {
+            this.groupService.saveCollectionSheets(sheets, executor, 2, callback);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verify(this.retrofitGroupService, times(4)).executeCommand(eq(this.mockedAuthKey),
+            eq(this.properties.getTenant()), anyLong(), eq("saveCollectionSheet"), (Long) isNull(),
+            isA(TypedOutput.class));
+        verify(callback).onSaved(1L);
+        verify(callback).onSaved(2L);
+        verify(callback).onSaved(4L);
+        final ArgumentCaptor<Exception> exception = ArgumentCaptor.forClass(Exception.class);
+        verify(callback).onFailure(eq(3L), exception.capture());
+        Assert.assertEquals(exception.getValue().getMessage(), ErrorCode.GROUP_NOT_FOUND.getMessage());
+    }
+
     /**
      * Test for {@link ErrorCode#INVALID_AUTHENTICATION_TOKEN} exception for saveCollectionSheet().
      */
@@ -2263,4 +2454,58 @@ public class RestGroupServiceTest {
         }
     }
 
+    /**
+     * Test that every command of a failed enclosing transaction is reported as rolled back.
+     */
+    @Test
+    public void testCommandBatchEnclosingTransaction() throws Exception {
+        final RestAdapter restAdapter = mock(RestAdapter.class);
+        final RetrofitBatchService retrofitBatchService = mock(RetrofitBatchService.class);
+        final RestGroupService batchGroupService = new RestGroupService(this.properties, restAdapter, "=hd$$34dd");
+        final ActivateGroupCommand command = ActivateGroupCommand.locale("en").build();
+
+        when(restAdapter.create(RetrofitBatchService.class)).thenReturn(retrofitBatchService);
+        when(retrofitBatchService.executeBatch(eq(this.mockedAuthKey), eq(this.properties.getTenant()),
+            eq(Boolean.TRUE), anyListOf(BatchRequest.class)))
+            .thenReturn(Arrays.asList(new BatchResponse(2L, 404, null)));
+
+        final List<BatchResult> results = batchGroupService.commandBatch(BatchOptions.chunkSize(10)
+            .enclosingTransaction(true).build())
+            .activate(this.defaultGroupId, command)
+            .unassignRole(7L, this.defaultRoleId)
+            .submit();
+
+        Assert.assertEquals(results.size(), 2);
+        Assert.assertNull(results.get(0).getStatusCode());
+        Assert.assertEquals(results.get(0).getException().getErrorCode(), ErrorCode.BATCH_ROLLED_BACK);
+        Assert.assertEquals(results.get(1).getResourceId(), Long.valueOf(7L));
+        Assert.assertEquals(results.get(1).getException().getErrorCode(), ErrorCode.GROUP_NOT_FOUND);
+    }
+
+    /**
+     * Test that the batches of a service share one Batch API proxy.
+     */
+    @Test
+    public void testCommandBatchSharedProxy() throws Exception {
+        final RestAdapter restAdapter = mock(RestAdapter.class);
+        final RetrofitBatchService retrofitBatchService = mock(RetrofitBatchService.class);
+        final RestGroupService batchGroupService = new RestGroupService(this.properties, restAdapter, "=hd$$34dd");
+        final ActivateGroupCommand command = ActivateGroupCommand.locale("en").build();
+
+        when(restAdapter.create(RetrofitBatchService.class)).thenReturn(retrofitBatchService);
+        when(retrofitBatchService.executeBatch(eq(this.mockedAuthKey), eq(this.properties.getTenant()),
+            isNull(Boolean.class), anyListOf(BatchRequest.class)))
+            .thenReturn(Arrays.asList(new BatchResponse(1L, 200, "{\"groupId\":1}")));
+
+        for (int i = 0; i < 3; ++i) {
+            batchGroupService.commandBatch(BatchOptions.chunkSize(10).build())
+                .activate(this.defaultGroupId, command)
+                .submit();
+        }
+
+        verify(restAdapter, times(1)).create(RetrofitBatchService.class);
+        verify(retrofitBatchService, times(3)).executeBatch(eq(this.mockedAuthKey),
+            eq(this.properties.getTenant()), isNull(Boolean.class), anyListOf(BatchRequest.class));
+    }
+
 }
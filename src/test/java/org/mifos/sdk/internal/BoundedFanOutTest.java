@@ -0,0 +1,145 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.internal;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mifos.sdk.MifosXConnectException;
+import org.mifos.sdk.MifosXResourceException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test for {@link BoundedFanOut}.
+ */
+public class BoundedFanOutTest {
+
+    private ExecutorService executorService;
+
+    /**
+     * Setup all the components before testing.
+     */
+    @Before
+    public void setup() {
+        this.executorService = Executors.newFixedThreadPool(8);
+    }
+
+    /**
+     * Shuts down the executor after testing.
+     */
+    @After
+    public void tearDown() {
+        this.executorService.shutdownNow();
+    }
+
+    /**
+     * A fan-out recording its results and failures, failing on the keys above the limit.
+     */
+    private static class RecordingFanOut extends BoundedFanOut<Long, Long> {
+
+        private final long limit;
+        private final boolean goOn;
+        private final AtomicInteger running = new AtomicInteger();
+        private final AtomicInteger maxRunning = new AtomicInteger();
+        private final List<Long> results = Collections.synchronizedList(new ArrayList<Long>());
+        private final List<Long> failures = Collections.synchronizedList(new ArrayList<Long>());
+
+        RecordingFanOut(final long failAbove, final boolean continueOnFailure) {
+            this.limit = failAbove;
+            this.goOn = continueOnFailure;
+        }
+
+        @Override
+        protected Long call(final Long key) throws MifosXConnectException, MifosXResourceException {
+            final int now = this.running.incrementAndGet();
+            synchronized (this.maxRunning) {
+                this.maxRunning.set(Math.max(this.maxRunning.get(), now));
+            }
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                this.running.decrementAndGet();
+            }
+            if (key > this.limit) {
+                throw new MifosXResourceException(ErrorCode.UNKNOWN);
+            }
+            return key * 10;
+        }
+
+        @Override
+        protected void onResult(final Long key, final Long result) {
+            Assert.assertEquals(result, Long.valueOf(key * 10));
+            this.results.add(key);
+        }
+
+        @Override
+        protected boolean onFailure(final Long key, final Exception failure) {
+            Assert.assertTrue(failure instanceof MifosXResourceException);
+            this.failures.add(key);
+            return this.goOn;
+        }
+
+    }
+
+    private static List<Long> keys(final int count) {
+        final List<Long> keys = new ArrayList<Long>();
+        for (long key = 1; key <= count; ++key) {
+            keys.add(key);
+        }
+        return keys;
+    }
+
+    /**
+     * Test that no more calls than the concurrency run at the same time and every key is handled.
+     */
+    @Test
+    public void testBoundedConcurrency() throws Exception {
+        final RecordingFanOut fanOut = new RecordingFanOut(18, true);
+        fanOut.run(keys(20).iterator(), this.executorService, 3);
+
+        Assert.assertTrue(fanOut.maxRunning.get() <= 3);
+        Assert.assertEquals(fanOut.results.size(), 18);
+        final List<Long> failures = new ArrayList<Long>(fanOut.failures);
+        Collections.sort(failures);
+        Assert.assertEquals(failures, Arrays.asList(19L, 20L));
+    }
+
+    /**
+     * Test that a failure returning false stops the remaining keys.
+     */
+    @Test
+    public void testStopOnFailure() throws Exception {
+        final RecordingFanOut fanOut = new RecordingFanOut(2, false);
+        fanOut.run(keys(20).iterator(), this.executorService, 2);
+
+        Assert.assertEquals(fanOut.failures.size(), 1);
+        Assert.assertTrue(fanOut.results.size() + fanOut.failures.size() < 20);
+    }
+
+    /**
+     * Test that without an executor the calls are made in order by the calling thread.
+     */
+    @Test
+    public void testWithoutExecutor() throws Exception {
+        final RecordingFanOut fanOut = new RecordingFanOut(3, false);
+        fanOut.run(keys(5).iterator(), null, 2);
+
+        Assert.assertEquals(fanOut.results, Arrays.asList(1L, 2L, 3L));
+        Assert.assertEquals(fanOut.failures, Arrays.asList(4L));
+        Assert.assertEquals(fanOut.maxRunning.get(), 1);
+    }
+
+}
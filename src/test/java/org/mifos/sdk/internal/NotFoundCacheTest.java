@@ -0,0 +1,103 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.internal;
+
+import com.google.common.base.Ticker;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mifos.sdk.NotFoundCacheOptions;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Test for {@link NotFoundCache}.
+ */
+public class NotFoundCacheTest {
+
+    private AtomicLong now;
+    private NotFoundCache notFoundCache;
+
+    /**
+     * Setup all the components before testing.
+     */
+    @Before
+    public void setup() {
+        this.now = new AtomicLong();
+        this.notFoundCache = new NotFoundCache(NotFoundCacheOptions.ttl(10, TimeUnit.SECONDS).maxEntries(2).build(),
+            new Ticker() {
+                @Override
+                public long read() {
+                    return now.get();
+                }
+            });
+    }
+
+    /**
+     * Test that an ID is remembered until its time to live runs out.
+     */
+    @Test
+    public void testExpiry() {
+        this.notFoundCache.put(1L, this.notFoundCache.generation());
+
+        Assert.assertTrue(this.notFoundCache.contains(1L));
+        Assert.assertFalse(this.notFoundCache.contains(2L));
+
+        this.now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+
+        Assert.assertFalse(this.notFoundCache.contains(1L));
+        Assert.assertEquals(this.notFoundCache.size(), 0);
+    }
+
+    /**
+     * Test that the oldest ID is dropped beyond the maximum number of entries.
+     */
+    @Test
+    public void testMaxEntries() {
+        for (long id = 1; id <= 3; ++id) {
+            this.notFoundCache.put(id, this.notFoundCache.generation());
+        }
+
+        Assert.assertEquals(this.notFoundCache.size(), 2);
+        Assert.assertFalse(this.notFoundCache.contains(1L));
+        Assert.assertTrue(this.notFoundCache.contains(3L));
+    }
+
+    /**
+     * Test that a lookup started before a creation does not remember its ID.
+     */
+    @Test
+    public void testForget() {
+        this.notFoundCache.put(1L, this.notFoundCache.generation());
+        this.notFoundCache.put(2L, this.notFoundCache.generation());
+        final long generation = this.notFoundCache.generation();
+
+        this.notFoundCache.forget(1L);
+        this.notFoundCache.put(3L, generation);
+
+        Assert.assertFalse(this.notFoundCache.contains(1L));
+        Assert.assertTrue(this.notFoundCache.contains(2L));
+        Assert.assertFalse(this.notFoundCache.contains(3L));
+
+        this.notFoundCache.forget(null);
+
+        Assert.assertEquals(this.notFoundCache.size(), 0);
+    }
+
+    /**
+     * Test that a cache without options remembers nothing.
+     */
+    @Test
+    public void testDisabled() {
+        final NotFoundCache disabled = new NotFoundCache(null);
+        disabled.put(1L, disabled.generation());
+
+        Assert.assertFalse(disabled.contains(1L));
+        Assert.assertEquals(disabled.size(), 0);
+    }
+
+}
@@ -0,0 +1,223 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.internal;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.isNull;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mifos.sdk.MifosXConnectException;
+import org.mifos.sdk.MifosXProperties;
+import org.mifos.sdk.MifosXResourceException;
+import org.mifos.sdk.OutboxListener;
+import org.mifos.sdk.OutboxOptions;
+import org.mifos.sdk.client.domain.Client;
+import org.mifos.sdk.client.internal.RestClientService;
+import org.mockito.InOrder;
+import retrofit.RestAdapter;
+import retrofit.RetrofitError;
+import retrofit.client.Header;
+import retrofit.client.Response;
+import retrofit.mime.TypedOutput;
+import retrofit.mime.TypedString;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+
+/**
+ * Test for {@link RestOutbox} and its {@link OutboxJournal}.
+ */
+public class OutboxTest {
+
+    private Path directory;
+    private Path journal;
+    private RestAdapter restAdapter;
+    private RetrofitOutboxService retrofitOutboxService;
+    private OutboxListener listener;
+    private RestClientService clientService;
+    private MifosXProperties properties;
+    private String mockedAuthKey;
+
+    /**
+     * Setup all the components before testing.
+     */
+    @Before
+    public void setup() throws IOException {
+        this.directory = Files.createTempDirectory("outbox");
+        this.journal = this.directory.resolve("outbox.journal");
+        this.restAdapter = mock(RestAdapter.class);
+        this.retrofitOutboxService = mock(RetrofitOutboxService.class);
+        this.listener = mock(OutboxListener.class);
+        this.clientService = mock(RestClientService.class);
+        this.properties = MifosXProperties
+            .url("http://demo.openmf.org/mifosng-provider/api/v1")
+            .username("mifos")
+            .password("password")
+            .tenant("default")
+            .build();
+        this.mockedAuthKey = "=hd$$34dd";
+
+        when(this.restAdapter.create(RetrofitOutboxService.class)).thenReturn(this.retrofitOutboxService);
+    }
+
+    /**
+     * Deletes the journal after testing.
+     */
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(this.journal);
+        Files.deleteIfExists(this.directory.resolve("outbox.journal.tmp"));
+        Files.deleteIfExists(this.directory.resolve("outbox.journal.lock"));
+        Files.deleteIfExists(this.directory);
+    }
+
+    private RestOutbox outbox() throws IOException {
+        return new RestOutbox(this.properties, this.restAdapter, this.mockedAuthKey,
+            GsonFactory.create(), OutboxOptions.journal(this.journal).listener(this.listener).build(),
+            this.clientService);
+    }
+
+    private static Response response(final int status, final String body) {
+        return new Response("http://demo.openmf.org", status, "", Collections.<Header>emptyList(),
+            new TypedString(body));
+    }
+
+    private static RetrofitError networkError() {
+        final RetrofitError error = mock(RetrofitError.class);
+        when(error.getKind()).thenReturn(RetrofitError.Kind.NETWORK);
+        return error;
+    }
+
+    /**
+     * Test that the queued commands are replayed in order with their idempotency keys.
+     */
+    @Test
+    public void testReplayInOrder() throws Exception {
+        final RestOutbox outbox = this.outbox();
+        final Client client = Client.firstname("John").lastname("Doe").officeId(1L).build();
+        final String createKey = outbox.createClient(client);
+        final String activateKey = outbox.executeClientCommand(5L, "activate",
+            Collections.singletonMap("locale", "en"));
+        when(this.retrofitOutboxService.post(anyString(), anyString(), anyString(), anyString(),
+            anyString(), any(TypedOutput.class))).thenReturn(response(200, "{\"clientId\":5}"));
+        when(this.retrofitOutboxService.post(anyString(), anyString(), anyString(), anyString(),
+            (String) isNull(), any(TypedOutput.class))).thenReturn(response(200, "{\"clientId\":6}"));
+
+        Assert.assertEquals(outbox.size(), 2);
+        Assert.assertEquals(outbox.replay(), 2);
+
+        final InOrder inOrder = inOrder(this.retrofitOutboxService, this.listener);
+        inOrder.verify(this.retrofitOutboxService).post(eq("Basic " + this.mockedAuthKey),
+            eq(this.properties.getTenant()), eq(createKey), eq("clients"), (String) isNull(),
+            any(TypedOutput.class));
+        inOrder.verify(this.listener).onDelivered(createKey, "{\"clientId\":6}");
+        inOrder.verify(this.retrofitOutboxService).post(eq("Basic " + this.mockedAuthKey),
+            eq(this.properties.getTenant()), eq(activateKey), eq("clients/5"), eq("activate"),
+            any(TypedOutput.class));
+        inOrder.verify(this.listener).onDelivered(activateKey, "{\"clientId\":5}");
+        verify(this.clientService).clientCreated(6L);
+        verify(this.clientService, never()).clientCreated(5L);
+        Assert.assertEquals(outbox.size(), 0);
+        Assert.assertEquals(Files.size(this.journal), 0L);
+
+        outbox.close();
+    }
+
+    /**
+     * Test that the commands stay queued while the server cannot be reached, and
+     * survive reopening the journal with a torn last line.
+     */
+    @Test
+    public void testNotConnectedAndRecovery() throws Exception {
+        final RestOutbox outbox = this.outbox();
+        outbox.executeGroupCommand(3L, "activate", Collections.singletonMap("locale", "en"));
+        outbox.executeGroupCommand(4L, "activate", Collections.singletonMap("locale", "en"));
+        final RetrofitError error = networkError();
+        when(this.retrofitOutboxService.post(anyString(), anyString(), anyString(), anyString(),
+            anyString(), any(TypedOutput.class))).thenThrow(error);
+
+        try {
+            outbox.replay();
+
+            Assert.fail();
+        } catch (MifosXConnectException e) {
+            Assert.assertEquals(e.getMessage(), ErrorCode.NOT_CONNECTED.getMessage());
+        }
+        outbox.close();
+        Files.write(this.journal, "{\"op\":\"entry\",\"ke".getBytes(StandardCharsets.UTF_8),
+            StandardOpenOption.APPEND);
+
+        final RestOutbox reopened = this.outbox();
+
+        Assert.assertEquals(reopened.size(), 2);
+
+        reopened.executeGroupCommand(5L, "activate", Collections.singletonMap("locale", "en"));
+        reopened.close();
+
+        Assert.assertEquals(this.outbox().size(), 3);
+    }
+
+    /**
+     * Test that a journal cannot be opened twice at the same time.
+     */
+    @Test
+    public void testJournalLocked() throws Exception {
+        final RestOutbox outbox = this.outbox();
+        outbox.executeGroupCommand(3L, "activate", Collections.singletonMap("locale", "en"));
+
+        try {
+            this.outbox();
+
+            Assert.fail();
+        } catch (IOException e) {
+            Assert.assertNotNull(e.getMessage());
+        }
+        Assert.assertEquals(outbox.size(), 1);
+        outbox.close();
+
+        final RestOutbox reopened = this.outbox();
+        Assert.assertEquals(reopened.size(), 1);
+        reopened.close();
+    }
+
+    /**
+     * Test that a rejected command is taken off the outbox and reported.
+     */
+    @Test
+    public void testRejected() throws Exception {
+        final RestOutbox outbox = this.outbox();
+        final String key = outbox.executeClientCommand(7L, "activate", Collections.singletonMap("locale", "en"));
+        final RetrofitError error = mock(RetrofitError.class);
+        when(error.getKind()).thenReturn(RetrofitError.Kind.HTTP);
+        when(error.getResponse()).thenReturn(new Response("http://demo.openmf.org", 404, "",
+            new ArrayList<Header>(), null));
+        when(this.retrofitOutboxService.post(anyString(), anyString(), anyString(), anyString(),
+            anyString(), any(TypedOutput.class))).thenThrow(error);
+
+        Assert.assertEquals(outbox.replay(), 1);
+
+        verify(this.listener).onRejected(eq(key), any(MifosXResourceException.class));
+        Assert.assertEquals(outbox.size(), 0);
+
+        outbox.close();
+    }
+
+}
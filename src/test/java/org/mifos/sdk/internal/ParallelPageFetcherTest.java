@@ -0,0 +1,150 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.internal;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mifos.sdk.MifosXConnectException;
+import org.mifos.sdk.PagingOptions;
+import org.mifos.sdk.internal.PrefetchingPageIterator.Page;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test for {@link ParallelPageFetcher}.
+ */
+public class ParallelPageFetcherTest {
+
+    private ExecutorService executorService;
+    private AtomicInteger requests;
+    private AtomicInteger running;
+    private AtomicInteger maxRunning;
+
+    /**
+     * Setup all the components before testing.
+     */
+    @Before
+    public void setup() {
+        this.executorService = Executors.newFixedThreadPool(16);
+        this.requests = new AtomicInteger();
+        this.running = new AtomicInteger();
+        this.maxRunning = new AtomicInteger();
+    }
+
+    /**
+     * Shuts down the executor after testing.
+     */
+    @After
+    public void tearDown() {
+        this.executorService.shutdownNow();
+    }
+
+    private ParallelPageFetcher<Integer> fetcher(final int records, final PagingOptions options,
+                                                 final Long failAtOffset, final boolean reportTotal) {
+        return new ParallelPageFetcher<Integer>(options) {
+            @Override
+            protected Page<Integer> fetchPage(long offset, int limit) throws MifosXConnectException {
+                requests.incrementAndGet();
+                final int now = running.incrementAndGet();
+                int max;
+                do {
+                    max = maxRunning.get();
+                } while (now > max && !maxRunning.compareAndSet(max, now));
+                try {
+                    Thread.sleep((offset / limit) % 3 * 5);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    running.decrementAndGet();
+                }
+                if (failAtOffset != null && failAtOffset == offset) {
+                    throw new MifosXConnectException(ErrorCode.NOT_CONNECTED);
+                }
+                final List<Integer> items = new ArrayList<Integer>();
+                for (long i = offset; i < Math.min(records, offset + limit); ++i) {
+                    items.add((int) i);
+                }
+                return new Page<Integer>(items, reportTotal ? Long.valueOf(records) : null);
+            }
+        };
+    }
+
+    /**
+     * Test that the pages are merged in order and the parallelism stays bounded.
+     */
+    @Test
+    public void testFetchAllOrdered() throws Exception {
+        final PagingOptions options = PagingOptions.pageSize(10).parallelism(4)
+            .executor(this.executorService).build();
+
+        final List<Integer> items = fetcher(205, options, null, true).fetchAll();
+
+        Assert.assertEquals(items.size(), 205);
+        for (int i = 0; i < 205; ++i) {
+            Assert.assertEquals(items.get(i).intValue(), i);
+        }
+        Assert.assertEquals(this.requests.get(), 21);
+        Assert.assertTrue(this.maxRunning.get() <= 4);
+    }
+
+    /**
+     * Test that an unordered fetch returns every item.
+     */
+    @Test
+    public void testFetchAllUnordered() throws Exception {
+        final PagingOptions options = PagingOptions.pageSize(10).parallelism(4).ordered(false)
+            .executor(this.executorService).build();
+
+        final List<Integer> items = fetcher(205, options, null, true).fetchAll();
+        Collections.sort(items);
+
+        Assert.assertEquals(items.size(), 205);
+        for (int i = 0; i < 205; ++i) {
+            Assert.assertEquals(items.get(i).intValue(), i);
+        }
+    }
+
+    /**
+     * Test that pages are fetched one after another when the total is unknown.
+     */
+    @Test
+    public void testFetchAllWithoutTotal() throws Exception {
+        final PagingOptions options = PagingOptions.pageSize(10).parallelism(4)
+            .executor(this.executorService).build();
+
+        final List<Integer> items = fetcher(30, options, null, false).fetchAll();
+
+        Assert.assertEquals(items.size(), 30);
+        Assert.assertEquals(this.requests.get(), 4);
+        Assert.assertEquals(this.maxRunning.get(), 1);
+    }
+
+    /**
+     * Test that a failing page stops the fetch with the {@link MifosXConnectException}.
+     */
+    @Test
+    public void testFetchAllFailure() {
+        final PagingOptions options = PagingOptions.pageSize(10).parallelism(2)
+            .executor(this.executorService).build();
+
+        try {
+            fetcher(1000, options, 20L, true).fetchAll();
+
+            Assert.fail();
+        } catch (MifosXConnectException e) {
+            Assert.assertEquals(e.getMessage(), ErrorCode.NOT_CONNECTED.getMessage());
+        }
+        Assert.assertTrue(this.requests.get() < 100);
+    }
+
+}
@@ -0,0 +1,128 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.internal;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mifos.sdk.MifosXConnectException;
+import org.mifos.sdk.PagingOptions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Test for {@link PrefetchingPageIterator}.
+ */
+public class PrefetchingPageIteratorTest {
+
+    private ExecutorService executorService;
+    private List<Long> requestedOffsets;
+
+    /**
+     * Setup all the components before testing.
+     */
+    @Before
+    public void setup() {
+        this.executorService = Executors.newFixedThreadPool(4);
+        this.requestedOffsets = new CopyOnWriteArrayList<Long>();
+    }
+
+    /**
+     * Shuts down the executor after testing.
+     */
+    @After
+    public void tearDown() {
+        this.executorService.shutdownNow();
+    }
+
+    private PrefetchingPageIterator<Integer> iterator(final int records, final PagingOptions options,
+                                                      final Long failAtOffset) {
+        return new PrefetchingPageIterator<Integer>(options) {
+            @Override
+            protected Page<Integer> fetchPage(long offset, int limit) throws MifosXConnectException {
+                requestedOffsets.add(offset);
+                if (failAtOffset != null && failAtOffset == offset) {
+                    throw new MifosXConnectException(ErrorCode.NOT_CONNECTED);
+                }
+                final List<Integer> items = new ArrayList<Integer>();
+                for (long i = offset; i < Math.min(records, offset + limit); ++i) {
+                    items.add((int) i);
+                }
+                return new Page<Integer>(items, (long) records);
+            }
+        };
+    }
+
+    /**
+     * Test that every item is returned in order with background prefetching.
+     */
+    @Test
+    public void testIterateWithPrefetch() {
+        final PagingOptions options = PagingOptions.pageSize(10).prefetchDepth(2)
+            .executor(this.executorService).build();
+        final PrefetchingPageIterator<Integer> iterator = iterator(25, options, null);
+
+        int expected = 0;
+        while (iterator.hasNext()) {
+            Assert.assertEquals(iterator.next().intValue(), expected++);
+        }
+
+        Assert.assertEquals(expected, 25);
+        Assert.assertEquals(iterator.getTotalFilteredRecords(), Long.valueOf(25));
+        Assert.assertEquals(this.requestedOffsets.size(), 3);
+    }
+
+    /**
+     * Test iterating without an executor and without any records.
+     */
+    @Test
+    public void testIterateInline() {
+        final PrefetchingPageIterator<Integer> iterator = iterator(0, PagingOptions.pageSize(10).build(), null);
+
+        Assert.assertFalse(iterator.hasNext());
+        Assert.assertEquals(this.requestedOffsets.size(), 1);
+    }
+
+    /**
+     * Test that a failing page surfaces the {@link MifosXConnectException}.
+     */
+    @Test
+    public void testIterateFailure() {
+        final PagingOptions options = PagingOptions.pageSize(10).executor(this.executorService).build();
+        final PrefetchingPageIterator<Integer> iterator = iterator(25, options, 10L);
+
+        try {
+            while (iterator.hasNext()) {
+                iterator.next();
+            }
+
+            Assert.fail();
+        } catch (IllegalStateException e) {
+            Assert.assertTrue(e.getCause() instanceof MifosXConnectException);
+        }
+        Assert.assertFalse(iterator.hasNext());
+    }
+
+    /**
+     * Test that a closed iterator stops.
+     */
+    @Test
+    public void testClose() {
+        final PagingOptions options = PagingOptions.pageSize(10).executor(this.executorService).build();
+        final PrefetchingPageIterator<Integer> iterator = iterator(25, options, null);
+
+        Assert.assertEquals(iterator.next().intValue(), 0);
+        iterator.close();
+
+        Assert.assertFalse(iterator.hasNext());
+    }
+
+}
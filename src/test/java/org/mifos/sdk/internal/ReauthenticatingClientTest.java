@@ -0,0 +1,168 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.internal;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mifos.sdk.MifosXProperties;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import retrofit.RestAdapter;
+import retrofit.client.Client;
+import retrofit.client.Header;
+import retrofit.client.Request;
+import retrofit.client.Response;
+import retrofit.mime.TypedString;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Test for {@link ReauthenticatingClient} and the key renewal of {@link RestMifosXClient}.
+ */
+public class ReauthenticatingClientTest {
+
+    private RetrofitMifosService retrofitMifosService;
+    private MifosXProperties properties;
+    private RestMifosXClient mifosXClient;
+    private Client httpClient;
+    private ReauthenticatingClient reauthenticatingClient;
+    private ExecutorService executorService;
+
+    /**
+     * Setup all the components before testing.
+     */
+    @Before
+    public void setup() throws Exception {
+        final RestAdapter restAdapter = mock(RestAdapter.class);
+        this.retrofitMifosService = mock(RetrofitMifosService.class);
+        this.properties = MifosXProperties
+            .url("http://demo.openmf.org/mifosng-provider/api/v1")
+            .username("mifos")
+            .password("password")
+            .tenant("default")
+            .build();
+        this.mifosXClient = new RestMifosXClient(this.properties, restAdapter);
+        this.httpClient = mock(Client.class);
+        this.reauthenticatingClient = new ReauthenticatingClient(this.httpClient);
+        this.reauthenticatingClient.bind(this.mifosXClient);
+        this.executorService = Executors.newFixedThreadPool(8);
+
+        when(restAdapter.create(RetrofitMifosService.class)).thenReturn(this.retrofitMifosService);
+        when(this.retrofitMifosService.authenticate(this.properties.getUsername(), this.properties.getPassword(),
+            this.properties.getTenant())).thenReturn(new AuthenticationToken("stale"),
+            new AuthenticationToken("fresh"));
+        this.mifosXClient.login();
+    }
+
+    /**
+     * Shuts down the executor after testing.
+     */
+    @After
+    public void tearDown() {
+        this.executorService.shutdownNow();
+    }
+
+    private static Request request(final String key) {
+        return new Request("GET", "http://demo.openmf.org/mifosng-provider/api/v1/clients/1",
+            Collections.singletonList(new Header(RestConstants.HEADER_AUTHORIZATION, "Basic " + key)), null);
+    }
+
+    private static String sentKey(final Request request) {
+        for (final Header header : request.getHeaders()) {
+            if (RestConstants.HEADER_AUTHORIZATION.equals(header.getName())) {
+                return header.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static Response response(final int status) {
+        return new Response("http://demo.openmf.org", status, "", new ArrayList<Header>(), new TypedString("{}"));
+    }
+
+    /**
+     * Test that a request rejected with 401 is retried once with a renewed key.
+     */
+    @Test
+    public void testRetryWithRenewedKey() throws Exception {
+        when(this.httpClient.execute(any(Request.class))).thenAnswer(new Answer<Response>() {
+            @Override
+            public Response answer(final InvocationOnMock invocation) {
+                return response("Basic fresh".equals(sentKey((Request) invocation.getArguments()[0])) ? 200 : 401);
+            }
+        });
+
+        Assert.assertEquals(this.reauthenticatingClient.execute(request("stale")).getStatus(), 200);
+        Assert.assertEquals(this.mifosXClient.getAuthenticationKey(), "fresh");
+        Assert.assertEquals(this.reauthenticatingClient.execute(request("stale")).getStatus(), 200);
+        verify(this.httpClient, times(3)).execute(any(Request.class));
+    }
+
+    /**
+     * Test that threads rejected with the same key renew it only once.
+     */
+    @Test
+    public void testSingleRenewal() throws Exception {
+        final CountDownLatch rejected = new CountDownLatch(8);
+        when(this.httpClient.execute(any(Request.class))).thenAnswer(new Answer<Response>() {
+            @Override
+            public Response answer(final InvocationOnMock invocation) throws InterruptedException {
+                if ("Basic fresh".equals(sentKey((Request) invocation.getArguments()[0]))) {
+                    return response(200);
+                }
+                rejected.countDown();
+                rejected.await(5, TimeUnit.SECONDS);
+                return response(401);
+            }
+        });
+
+        final List<Future<Response>> futures = new ArrayList<Future<Response>>();
+        for (int i = 0; i < 8; ++i) {
+            futures.add(this.executorService.submit(new Callable<Response>() {
+                @Override
+                public Response call() throws Exception {
+                    return reauthenticatingClient.execute(request("stale"));
+                }
+            }));
+        }
+
+        for (final Future<Response> future : futures) {
+            Assert.assertEquals(future.get(5, TimeUnit.SECONDS).getStatus(), 200);
+        }
+        verify(this.retrofitMifosService, times(2)).authenticate(this.properties.getUsername(),
+            this.properties.getPassword(), this.properties.getTenant());
+    }
+
+    /**
+     * Test that a second 401 is returned without renewing the key again.
+     */
+    @Test
+    public void testRetriedOnce() throws Exception {
+        when(this.httpClient.execute(any(Request.class))).thenReturn(response(401));
+
+        Assert.assertEquals(this.reauthenticatingClient.execute(request("stale")).getStatus(), 401);
+        verify(this.httpClient, times(2)).execute(any(Request.class));
+        verify(this.retrofitMifosService, times(2)).authenticate(this.properties.getUsername(),
+            this.properties.getPassword(), this.properties.getTenant());
+    }
+
+}
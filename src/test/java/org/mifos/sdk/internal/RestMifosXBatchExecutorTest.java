@@ -0,0 +1,162 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.internal;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mifos.sdk.MifosXBatchExecutor;
+import org.mifos.sdk.MifosXClient;
+import org.mifos.sdk.MifosXConnectException;
+import org.mifos.sdk.MifosXProperties;
+import org.mifos.sdk.MifosXResourceException;
+import org.mifos.sdk.MifosXTask;
+import retrofit.RestAdapter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Test for {@link RestMifosXBatchExecutor} and its various methods.
+ */
+public class RestMifosXBatchExecutorTest {
+
+    private ExecutorService executorService;
+    private RestMifosXBatchExecutor batchExecutor;
+
+    /**
+     * Setup all the components before testing.
+     */
+    @Before
+    public void setup() {
+        this.executorService = Executors.newFixedThreadPool(16);
+        this.batchExecutor = new RestMifosXBatchExecutor(mock(MifosXClient.class),
+            this.executorService, 3);
+    }
+
+    /**
+     * Shuts down the executor after testing.
+     */
+    @After
+    public void tearDown() {
+        this.executorService.shutdownNow();
+    }
+
+    private static List<MifosXTask<Integer>> tasks(final int count, final AtomicInteger running,
+                                                   final AtomicInteger maxRunning) {
+        final List<MifosXTask<Integer>> tasks = new ArrayList<MifosXTask<Integer>>();
+        for (int i = 0; i < count; ++i) {
+            final int value = i;
+            tasks.add(new MifosXTask<Integer>() {
+                @Override
+                public Integer execute(MifosXClient client) {
+                    final int now = running.incrementAndGet();
+                    int max;
+                    do {
+                        max = maxRunning.get();
+                    } while (now > max && !maxRunning.compareAndSet(max, now));
+                    try {
+                        Thread.sleep(count - value);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    running.decrementAndGet();
+                    return value;
+                }
+            });
+        }
+        return tasks;
+    }
+
+    /**
+     * Test that the results come back in submission order and the concurrency stays bounded.
+     */
+    @Test
+    public void testInvokeAllOrderAndConcurrency() throws Exception {
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+
+        final List<Integer> results = this.batchExecutor.invokeAll(tasks(40, running, maxRunning));
+
+        Assert.assertEquals(results.size(), 40);
+        for (int i = 0; i < 40; ++i) {
+            Assert.assertEquals(results.get(i).intValue(), i);
+        }
+        Assert.assertTrue(maxRunning.get() <= this.batchExecutor.getMaxConcurrency());
+    }
+
+    /**
+     * Test that the executors of one client share their permits.
+     */
+    @Test
+    public void testSharedPermits() throws Exception {
+        final MifosXClient client = new RestMifosXClient(MifosXProperties
+            .url("http://demo.openmf.org/mifosng-provider/api/v1")
+            .username("mifos")
+            .password("password")
+            .tenant("default")
+            .build(), mock(RestAdapter.class));
+        final MifosXBatchExecutor first = client.batchExecutor(this.executorService, 2);
+        final MifosXBatchExecutor second = client.batchExecutor(this.executorService, 3);
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+
+        final List<Future<Integer>> futures = new ArrayList<Future<Integer>>();
+        futures.addAll(first.submitAll(tasks(20, running, maxRunning)));
+        futures.addAll(second.submitAll(tasks(20, running, maxRunning)));
+        for (final Future<Integer> future : futures) {
+            future.get();
+        }
+
+        Assert.assertTrue(maxRunning.get() <= 3);
+        Assert.assertEquals(first.getMaxConcurrency(), 2);
+        Assert.assertEquals(second.getMaxConcurrency(), 3);
+    }
+
+    /**
+     * Test that the first failure in submission order is thrown.
+     */
+    @Test
+    public void testInvokeAllFailure() throws Exception {
+        final List<MifosXTask<Integer>> tasks = new ArrayList<MifosXTask<Integer>>();
+        tasks.add(new MifosXTask<Integer>() {
+            @Override
+            public Integer execute(MifosXClient client) {
+                return 1;
+            }
+        });
+        tasks.add(new MifosXTask<Integer>() {
+            @Override
+            public Integer execute(MifosXClient client) throws MifosXResourceException {
+                throw new MifosXResourceException(ErrorCode.CLIENT_NOT_FOUND);
+            }
+        });
+        tasks.add(new MifosXTask<Integer>() {
+            @Override
+            public Integer execute(MifosXClient client) throws MifosXConnectException {
+                throw new MifosXConnectException(ErrorCode.NOT_CONNECTED);
+            }
+        });
+
+        try {
+            this.batchExecutor.invokeAll(tasks);
+
+            Assert.fail();
+        } catch (MifosXConnectException e) {
+            Assert.fail();
+        } catch (MifosXResourceException e) {
+            Assert.assertEquals(e.getMessage(), ErrorCode.CLIENT_NOT_FOUND.getMessage());
+        }
+    }
+
+}
@@ -13,6 +13,7 @@ import org.junit.Before;
 import org.junit.Test;
 import org.mifos.sdk.MifosXConnectException;
 import org.mifos.sdk.MifosXProperties;
+import org.mifos.sdk.client.ClientService;
 import org.mifos.sdk.office.OfficeService;
 import org.mifos.sdk.staff.StaffService;
 import retrofit.RestAdapter;
@@ -22,6 +23,11 @@ import retrofit.client.Response;
 import retrofit.mime.TypedString;
 
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Test for {@link RestMifosXClient} and its various methods.
@@ -276,4 +282,40 @@ public class RestMifosXClientTest {
         }
     }
 
+    /**
+     * Test that concurrent lookups share one service per session, and that a new
+     * login binds new services.
+     */
+    @Test
+    public void testConcurrentServiceLookup() throws Exception {
+        when(this.restAdapter.create(RetrofitMifosService.class)).thenReturn(this.retrofitMifosService);
+        when(this.retrofitMifosService.authenticate(this.properties.getUsername(),
+                this.properties.getPassword(), this.properties.getTenant())).thenReturn(this.mockedAuthKey);
+        this.mifosXClient.login();
+
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        final List<Future<ClientService>> futures = new ArrayList<Future<ClientService>>();
+        try {
+            for (int i = 0; i < 64; ++i) {
+                futures.add(executor.submit(new Callable<ClientService>() {
+                    @Override
+                    public ClientService call() throws MifosXConnectException {
+                        return mifosXClient.clientService();
+                    }
+                }));
+            }
+            final ClientService clientService = futures.get(0).get();
+            for (final Future<ClientService> future : futures) {
+                Assert.assertSame(future.get(), clientService);
+            }
+
+            this.mifosXClient.logout();
+            this.mifosXClient.login();
+
+            Assert.assertNotSame(this.mifosXClient.clientService(), clientService);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
 }
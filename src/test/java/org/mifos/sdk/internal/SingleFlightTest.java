@@ -0,0 +1,152 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.internal;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mifos.sdk.MifosXConnectException;
+import org.mifos.sdk.MifosXResourceException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test for {@link SingleFlight}.
+ */
+public class SingleFlightTest {
+
+    private ExecutorService executorService;
+    private SingleFlight<Long, String> singleFlight;
+    private AtomicInteger calls;
+
+    /**
+     * Setup all the components before testing.
+     */
+    @Before
+    public void setup() {
+        this.executorService = Executors.newFixedThreadPool(8);
+        this.singleFlight = new SingleFlight<Long, String>();
+        this.calls = new AtomicInteger();
+    }
+
+    /**
+     * Shuts down the executor after testing.
+     */
+    @After
+    public void tearDown() {
+        this.executorService.shutdownNow();
+    }
+
+    private List<Future<String>> submit(final int callers, final CountDownLatch release,
+                                        final MifosXResourceException failure) throws InterruptedException {
+        final CountDownLatch arrived = new CountDownLatch(callers);
+        final SingleFlight.Call<String> call = new SingleFlight.Call<String>() {
+            @Override
+            public String call() throws MifosXResourceException {
+                calls.incrementAndGet();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                if (failure != null) {
+                    throw failure;
+                }
+                return "client";
+            }
+        };
+        final List<Future<String>> futures = new ArrayList<Future<String>>();
+        for (int i = 0; i < callers; ++i) {
+            futures.add(this.executorService.submit(new Callable<String>() {
+                @Override
+                public String call() throws Exception {
+                    arrived.countDown();
+                    return singleFlight.execute(1L, call);
+                }
+            }));
+        }
+        arrived.await();
+        Thread.sleep(50);
+        return futures;
+    }
+
+    /**
+     * Test that concurrent identical calls share one call and its result.
+     */
+    @Test
+    public void testCoalesce() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<Future<String>> futures = submit(8, release, null);
+        release.countDown();
+
+        for (final Future<String> future : futures) {
+            Assert.assertEquals(future.get(5, TimeUnit.SECONDS), "client");
+        }
+        Assert.assertEquals(this.calls.get(), 1);
+        Assert.assertEquals(this.singleFlight.size(), 0);
+    }
+
+    /**
+     * Test that every waiting caller gets the error of the shared call.
+     */
+    @Test
+    public void testCoalesceFailure() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<Future<String>> futures = submit(4, release,
+            new MifosXResourceException(ErrorCode.CLIENT_NOT_FOUND));
+        release.countDown();
+
+        for (final Future<String> future : futures) {
+            try {
+                future.get(5, TimeUnit.SECONDS);
+
+                Assert.fail();
+            } catch (ExecutionException e) {
+                Assert.assertTrue(e.getCause() instanceof MifosXResourceException);
+                Assert.assertEquals(((MifosXResourceException) e.getCause()).getErrorCode(),
+                    ErrorCode.CLIENT_NOT_FOUND);
+            }
+        }
+        Assert.assertEquals(this.calls.get(), 1);
+    }
+
+    /**
+     * Test that a call after the previous one finished runs again.
+     */
+    @Test
+    public void testSequentialCalls() throws Exception {
+        final SingleFlight.Call<String> call = new SingleFlight.Call<String>() {
+            @Override
+            public String call() throws MifosXConnectException {
+                if (calls.incrementAndGet() == 1) {
+                    throw new MifosXConnectException(ErrorCode.NOT_CONNECTED);
+                }
+                return "client";
+            }
+        };
+
+        try {
+            this.singleFlight.execute(1L, call);
+
+            Assert.fail();
+        } catch (MifosXConnectException e) {
+            Assert.assertEquals(e.getErrorCode(), ErrorCode.NOT_CONNECTED);
+        }
+        Assert.assertEquals(this.singleFlight.execute(1L, call), "client");
+        Assert.assertEquals(this.calls.get(), 2);
+    }
+
+}
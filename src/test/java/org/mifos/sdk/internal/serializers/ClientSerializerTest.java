@@ -0,0 +1,121 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.internal.serializers;
+
+import com.google.gson.Gson;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mifos.sdk.client.domain.Client;
+import org.mifos.sdk.internal.GsonFactory;
+import org.mifos.sdk.internal.accounts.Event;
+
+import java.util.Date;
+import java.util.GregorianCalendar;
+
+/**
+ * Test for the deserialization of {@link ClientSerializer}.
+ */
+public class ClientSerializerTest {
+
+    private Gson gson;
+
+    /**
+     * Setup all the components before testing.
+     */
+    @Before
+    public void setup() {
+        this.gson = GsonFactory.create();
+    }
+
+    private static Date date(final int year, final int month, final int day) {
+        return new GregorianCalendar(year, month - 1, day).getTime();
+    }
+
+    /**
+     * Test that every field of a client as sent by the server is read.
+     */
+    @Test
+    public void testReadClient() {
+        final String json = "{\"id\":27,\"accountNo\":\"000000027\",\"externalId\":\"EXT27\","
+            + "\"status\":{\"id\":300,\"code\":\"clientStatusType.active\",\"value\":\"Active\"},"
+            + "\"active\":true,\"activationDate\":[2013,1,14],\"firstname\":\"John\",\"middlename\":\"Q\","
+            + "\"lastname\":\"Doe\",\"displayName\":\"John Q Doe\",\"mobileNo\":\"5551234\","
+            + "\"gender\":{\"id\":21,\"name\":\"Male\"},\"clientType\":{\"id\":14,\"name\":\"Individual\"},"
+            + "\"clientClassification\":{\"id\":17,\"name\":\"Rural\"},\"officeId\":2,\"officeName\":\"Branch\","
+            + "\"staffId\":4,\"staffName\":\"Officer, Loan\",\"imageId\":9,\"imagePresent\":true,"
+            + "\"savingsAccountId\":41,\"savingsId\":42,\"resourceId\":27,\"groups\":[{\"id\":3}],"
+            + "\"timeline\":{\"submittedOnDate\":[2013,1,10],\"submittedByUsername\":\"mifos\","
+            + "\"submittedByFirstname\":\"App\",\"submittedByLastname\":\"Admin\","
+            + "\"activatedOnDate\":[2013,1,14],\"activatedByUsername\":\"mifos\"}}";
+        final Client client = this.gson.fromJson(json, Client.class);
+
+        Assert.assertEquals(client.getClientId(), Long.valueOf(27));
+        Assert.assertEquals(client.getAccountNo(), "000000027");
+        Assert.assertEquals(client.getExternalId(), "EXT27");
+        Assert.assertEquals(client.getStatus().getId(), Long.valueOf(300));
+        Assert.assertEquals(client.getStatus().getCode(), "clientStatusType.active");
+        Assert.assertEquals(client.getStatus().getValue(), "Active");
+        Assert.assertTrue(client.getActive());
+        Assert.assertEquals(client.getActivationDate(), date(2013, 1, 14));
+        Assert.assertNull(client.getFullname());
+        Assert.assertEquals(client.getFirstname(), "John");
+        Assert.assertEquals(client.getMiddlename(), "Q");
+        Assert.assertEquals(client.getLastname(), "Doe");
+        Assert.assertEquals(client.getDisplayName(), "John Q Doe");
+        Assert.assertEquals(client.getMobileNo(), "5551234");
+        Assert.assertEquals(client.getGenderId(), Long.valueOf(21));
+        Assert.assertEquals(client.getGenderName(), "Male");
+        Assert.assertEquals(client.getClientTypeId(), Long.valueOf(14));
+        Assert.assertEquals(client.getClientTypeName(), "Individual");
+        Assert.assertEquals(client.getClientClassificationId(), Long.valueOf(17));
+        Assert.assertEquals(client.getOfficeId(), Long.valueOf(2));
+        Assert.assertEquals(client.getOfficeName(), "Branch");
+        Assert.assertEquals(client.getStaffId(), Long.valueOf(4));
+        Assert.assertEquals(client.getStaffName(), "Officer, Loan");
+        Assert.assertEquals(client.getImageId(), Long.valueOf(9));
+        Assert.assertTrue(client.getImagePresent());
+        Assert.assertEquals(client.getSavingsAccountId(), Long.valueOf(41));
+        Assert.assertEquals(client.getSavingsId(), Long.valueOf(42));
+        Assert.assertEquals(client.getResourceId(), Long.valueOf(27));
+        Assert.assertEquals(client.getSubmittedOnDate(), date(2013, 1, 10));
+        Assert.assertEquals(client.getTimeline().getEvents().size(), 2);
+        final Event submitted = client.getTimeline().getEvents().get(0);
+        Assert.assertEquals(submitted.getType(), Event.Type.SUBMITTED);
+        Assert.assertEquals(submitted.getUsername(), "mifos");
+        Assert.assertEquals(submitted.getFirstname(), "App");
+        Assert.assertEquals(submitted.getLastname(), "Admin");
+        Assert.assertEquals(client.getTimeline().getEvents().get(1).getType(), Event.Type.ACTIVATED);
+    }
+
+    /**
+     * Test that an entity client is read by its full name and "clientId".
+     */
+    @Test
+    public void testReadFullnameClient() {
+        final String json = "{\"clientId\":5,\"fullname\":\"Acme Ltd\",\"officeId\":1,\"active\":false,"
+            + "\"clientType\":{\"name\":\"Entity\"},\"gender\":{\"id\":22},"
+            + "\"status\":{\"id\":100,\"value\":\"Pending\"},\"staffId\":null}";
+        final Client client = this.gson.fromJson(json, Client.class);
+
+        Assert.assertEquals(client.getClientId(), Long.valueOf(5));
+        Assert.assertEquals(client.getFullname(), "Acme Ltd");
+        Assert.assertEquals(client.getFirstname(), "Acme");
+        Assert.assertEquals(client.getOfficeId(), Long.valueOf(1));
+        Assert.assertFalse(client.getActive());
+        Assert.assertNull(client.getClientTypeId());
+        Assert.assertEquals(client.getClientTypeName(), "Entity");
+        Assert.assertEquals(client.getGenderId(), Long.valueOf(22));
+        Assert.assertNull(client.getGenderName());
+        Assert.assertEquals(client.getStatus().getId(), Long.valueOf(100));
+        Assert.assertNull(client.getStatus().getCode());
+        Assert.assertEquals(client.getStatus().getValue(), "Pending");
+        Assert.assertNull(client.getStaffId());
+        Assert.assertNull(client.getTimeline());
+        Assert.assertNull(client.getSubmittedOnDate());
+    }
+
+}
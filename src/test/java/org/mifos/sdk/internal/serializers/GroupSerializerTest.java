@@ -0,0 +1,86 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.internal.serializers;
+
+import com.google.gson.Gson;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mifos.sdk.group.domain.Group;
+import org.mifos.sdk.internal.GsonFactory;
+import org.mifos.sdk.internal.accounts.Event;
+
+import java.util.GregorianCalendar;
+
+/**
+ * Test for the deserialization of {@link GroupSerializer}.
+ */
+public class GroupSerializerTest {
+
+    private Gson gson;
+
+    /**
+     * Setup all the components before testing.
+     */
+    @Before
+    public void setup() {
+        this.gson = GsonFactory.create();
+    }
+
+    /**
+     * Test that every field of a group as sent by the server is read.
+     */
+    @Test
+    public void testReadGroup() {
+        final String json = "{\"id\":3,\"name\":\"Group A\",\"externalId\":\"G3\","
+            + "\"status\":{\"id\":300,\"code\":\"groupingStatusType.active\",\"value\":\"Active\"},"
+            + "\"active\":true,\"activationDate\":[2013,2,1],\"officeId\":2,\"officeName\":\"Branch\","
+            + "\"centerId\":8,\"centerName\":\"Center 8\",\"staffId\":4,\"staffName\":\"Officer, Loan\","
+            + "\"hierarchy\":\".3.\",\"resourceId\":3,\"locale\":\"en\",\"clientMembers\":[{\"id\":27}],"
+            + "\"timeline\":{\"submittedOnDate\":[2013,1,20],\"submittedByUsername\":\"mifos\","
+            + "\"activatedOnDate\":[2013,2,1],\"activatedByUsername\":\"mifos\","
+            + "\"activatedByFirstname\":\"App\",\"activatedByLastname\":\"Admin\"}}";
+        final Group group = this.gson.fromJson(json, Group.class);
+
+        Assert.assertEquals(group.getName(), "Group A");
+        Assert.assertEquals(group.getExternalId(), "G3");
+        Assert.assertEquals(group.getStatus().getId(), Long.valueOf(300));
+        Assert.assertEquals(group.getStatus().getCode(), "groupingStatusType.active");
+        Assert.assertEquals(group.getStatus().getValue(), "Active");
+        Assert.assertTrue(group.isActive());
+        Assert.assertEquals(group.getOfficeId(), Long.valueOf(2));
+        Assert.assertEquals(group.getOfficeName(), "Branch");
+        Assert.assertEquals(group.getCenterId(), Long.valueOf(8));
+        Assert.assertEquals(group.getCenterName(), "Center 8");
+        Assert.assertEquals(group.getStaffId(), Long.valueOf(4));
+        Assert.assertEquals(group.getStaffName(), "Officer, Loan");
+        Assert.assertEquals(group.getResourceId(), Long.valueOf(3));
+        Assert.assertEquals(group.getTimeline().getEvents().size(), 2);
+        final Event activated = group.getTimeline().getEvents().get(1);
+        Assert.assertEquals(activated.getType(), Event.Type.ACTIVATED);
+        Assert.assertEquals(activated.getDate(), new GregorianCalendar(2013, 1, 1).getTime());
+        Assert.assertEquals(activated.getUsername(), "mifos");
+        Assert.assertEquals(activated.getFirstname(), "App");
+        Assert.assertEquals(activated.getLastname(), "Admin");
+    }
+
+    /**
+     * Test that a group with only the mandatory fields is read.
+     */
+    @Test
+    public void testReadMinimalGroup() {
+        final Group group = this.gson.fromJson("{\"id\":4,\"name\":\"Group B\",\"officeId\":1}", Group.class);
+
+        Assert.assertEquals(group.getName(), "Group B");
+        Assert.assertEquals(group.getOfficeId(), Long.valueOf(1));
+        Assert.assertFalse(group.isActive());
+        Assert.assertNull(group.getStatus());
+        Assert.assertNull(group.getStaffId());
+        Assert.assertNull(group.getCenterId());
+        Assert.assertNull(group.getTimeline());
+    }
+
+}
@@ -0,0 +1,69 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.internal.serializers;
+
+import com.google.gson.Gson;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mifos.sdk.internal.GsonFactory;
+import org.mifos.sdk.office.domain.Office;
+
+import java.util.GregorianCalendar;
+
+/**
+ * Test for the deserialization of {@link OfficeSerializer}.
+ */
+public class OfficeSerializerTest {
+
+    private Gson gson;
+
+    /**
+     * Setup all the components before testing.
+     */
+    @Before
+    public void setup() {
+        this.gson = GsonFactory.create();
+    }
+
+    /**
+     * Test that every field of an office as sent by the server is read.
+     */
+    @Test
+    public void testReadOffice() {
+        final String json = "{\"id\":2,\"name\":\"Branch\",\"nameDecorated\":\"....Branch\","
+            + "\"externalId\":\"O2\",\"openingDate\":[2009,1,1],\"hierarchy\":\".2.\",\"parentId\":1,"
+            + "\"parentName\":\"Head Office\",\"resourceId\":2}";
+        final Office office = this.gson.fromJson(json, Office.class);
+
+        Assert.assertEquals(office.getOfficeId(), Long.valueOf(2));
+        Assert.assertEquals(office.getName(), "Branch");
+        Assert.assertEquals(office.getNameDecorated(), "....Branch");
+        Assert.assertEquals(office.getExternalId(), "O2");
+        Assert.assertEquals(office.getOpeningDate(), new GregorianCalendar(2009, 0, 1).getTime());
+        Assert.assertEquals(office.getHierarchy(), ".2.");
+        Assert.assertEquals(office.getParentId(), Long.valueOf(1));
+        Assert.assertEquals(office.getResourceId(), Long.valueOf(2));
+    }
+
+    /**
+     * Test that the head office is read by its "officeId" and without a parent.
+     */
+    @Test
+    public void testReadHeadOffice() {
+        final String json = "{\"officeId\":1,\"name\":\"Head Office\",\"nameDecorated\":\"Head Office\","
+            + "\"openingDate\":[2009,1,1],\"hierarchy\":\".\"}";
+        final Office office = this.gson.fromJson(json, Office.class);
+
+        Assert.assertEquals(office.getOfficeId(), Long.valueOf(1));
+        Assert.assertEquals(office.getName(), "Head Office");
+        Assert.assertEquals(office.getHierarchy(), ".");
+        Assert.assertNull(office.getParentId());
+        Assert.assertNull(office.getExternalId());
+        Assert.assertNull(office.getResourceId());
+    }
+
+}
@@ -0,0 +1,74 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.internal.serializers;
+
+import com.google.gson.Gson;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mifos.sdk.internal.GsonFactory;
+import org.mifos.sdk.staff.domain.Staff;
+
+import java.util.GregorianCalendar;
+
+/**
+ * Test for the deserialization of {@link StaffSerializer}.
+ */
+public class StaffSerializerTest {
+
+    private Gson gson;
+
+    /**
+     * Setup all the components before testing.
+     */
+    @Before
+    public void setup() {
+        this.gson = GsonFactory.create();
+    }
+
+    /**
+     * Test that every field of a staff as sent by the server is read.
+     */
+    @Test
+    public void testReadStaff() {
+        final String json = "{\"id\":4,\"firstname\":\"Loan\",\"lastname\":\"Officer\","
+            + "\"displayName\":\"Officer, Loan\",\"officeId\":2,\"officeName\":\"Branch\","
+            + "\"isLoanOfficer\":true,\"isActive\":true,\"externalId\":\"S4\",\"mobileNo\":\"5550000\","
+            + "\"joiningDate\":[2012,6,30],\"resourceId\":4}";
+        final Staff staff = this.gson.fromJson(json, Staff.class);
+
+        Assert.assertEquals(staff.getResourceId(), Long.valueOf(4));
+        Assert.assertEquals(staff.getFirstname(), "Loan");
+        Assert.assertEquals(staff.getLastname(), "Officer");
+        Assert.assertEquals(staff.getDisplayName(), "Officer, Loan");
+        Assert.assertEquals(staff.getOfficeId(), Long.valueOf(2));
+        Assert.assertEquals(staff.getOfficeName(), "Branch");
+        Assert.assertTrue(staff.getIsLoanOfficer());
+        Assert.assertTrue(staff.getIsActive());
+        Assert.assertEquals(staff.getExternalId(), "S4");
+        Assert.assertEquals(staff.getMobileNo(), "5550000");
+        Assert.assertEquals(staff.getJoiningDate(), new GregorianCalendar(2012, 5, 30).getTime());
+    }
+
+    /**
+     * Test that an inactive staff without the optional fields is read.
+     */
+    @Test
+    public void testReadMinimalStaff() {
+        final String json = "{\"id\":5,\"officeId\":1,\"firstname\":\"A\",\"lastname\":\"B\","
+            + "\"isLoanOfficer\":false,\"isActive\":false,\"externalId\":null}";
+        final Staff staff = this.gson.fromJson(json, Staff.class);
+
+        Assert.assertEquals(staff.getResourceId(), Long.valueOf(5));
+        Assert.assertEquals(staff.getOfficeId(), Long.valueOf(1));
+        Assert.assertFalse(staff.getIsLoanOfficer());
+        Assert.assertFalse(staff.getIsActive());
+        Assert.assertNull(staff.getExternalId());
+        Assert.assertNull(staff.getJoiningDate());
+        Assert.assertNull(staff.getOfficeName());
+    }
+
+}
@@ -0,0 +1,108 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.internal.serializers;
+
+import com.google.gson.Gson;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mifos.sdk.internal.GsonFactory;
+import org.mifos.sdk.internal.accounts.Event;
+import org.mifos.sdk.internal.accounts.Timeline;
+
+import java.util.GregorianCalendar;
+import java.util.List;
+
+/**
+ * Test for the deserialization of {@link TimelineSerializer}.
+ */
+public class TimelineSerializerTest {
+
+    private Gson gson;
+
+    /**
+     * Setup all the components before testing.
+     */
+    @Before
+    public void setup() {
+        this.gson = GsonFactory.create();
+    }
+
+    private static void assertEvent(final Event event, final Event.Type type, final int day, final String username,
+                                    final String firstname, final String lastname) {
+        Assert.assertEquals(event.getType(), type);
+        Assert.assertEquals(event.getDate(), new GregorianCalendar(2014, 0, day).getTime());
+        Assert.assertEquals(event.getUsername(), username);
+        Assert.assertEquals(event.getFirstname(), firstname);
+        Assert.assertEquals(event.getLastname(), lastname);
+    }
+
+    /**
+     * Test that every event type and field is read, and that the events come in the
+     * order of {@link Event.Type} whatever the order of the properties.
+     */
+    @Test
+    public void testReadAllEvents() {
+        final String json = "{\"writeOffOnDate\":[2014,1,9],\"writeOffByUsername\":\"w\","
+            + "\"writeOffByFirstname\":\"W\",\"writeOffByLastname\":\"O\","
+            + "\"submittedOnDate\":[2014,1,1],\"submittedByUsername\":\"s\","
+            + "\"submittedByFirstname\":\"S\",\"submittedByLastname\":\"U\","
+            + "\"approvedOnDate\":[2014,1,2],\"approvedByUsername\":\"a\","
+            + "\"approvedByFirstname\":\"A\",\"approvedByLastname\":\"P\","
+            + "\"rejectedOnDate\":[2014,1,3],\"rejectedByUsername\":\"r\","
+            + "\"rejectedByFirstname\":\"R\",\"rejectedByLastname\":\"J\","
+            + "\"withdrawnOnDate\":[2014,1,4],\"withdrawnByUsername\":\"wd\","
+            + "\"withdrawnByFirstname\":\"W\",\"withdrawnByLastname\":\"D\","
+            + "\"actualDisbursementDate\":[2014,1,5],\"disbursedByUsername\":\"d\","
+            + "\"disbursedByFirstname\":\"D\",\"disbursedByLastname\":\"B\","
+            + "\"activatedOnDate\":[2014,1,6],\"activatedByUsername\":\"ac\","
+            + "\"activatedByFirstname\":\"A\",\"activatedByLastname\":\"C\","
+            + "\"closedOnDate\":[2014,1,7],\"closedByUsername\":\"c\","
+            + "\"closedByFirstname\":\"C\",\"closedByLastname\":\"L\","
+            + "\"expectedMaturityDate\":[2016,1,1]}";
+        final List<Event> events = this.gson.fromJson(json, Timeline.class).getEvents();
+
+        Assert.assertEquals(events.size(), 8);
+        assertEvent(events.get(0), Event.Type.SUBMITTED, 1, "s", "S", "U");
+        assertEvent(events.get(1), Event.Type.ACTIVATED, 6, "ac", "A", "C");
+        assertEvent(events.get(2), Event.Type.APPROVED, 2, "a", "A", "P");
+        assertEvent(events.get(3), Event.Type.WITHDRAWN, 4, "wd", "W", "D");
+        assertEvent(events.get(4), Event.Type.CLOSED, 7, "c", "C", "L");
+        assertEvent(events.get(5), Event.Type.REJECTED, 3, "r", "R", "J");
+        assertEvent(events.get(6), Event.Type.WRITEOFF, 9, "w", "W", "O");
+        assertEvent(events.get(7), Event.Type.DISBURSED, 5, "d", "D", "B");
+    }
+
+    /**
+     * Test that an event is created by any one of its fields and the missing ones stay null.
+     */
+    @Test
+    public void testReadPartialEvents() {
+        final String json = "{\"closedByUsername\":\"c\",\"approvedOnDate\":[2014,1,2],"
+            + "\"submittedByLastname\":\"U\",\"disbursedByFirstname\":\"D\",\"activatedByUsername\":null}";
+        final List<Event> events = this.gson.fromJson(json, Timeline.class).getEvents();
+
+        Assert.assertEquals(events.size(), 4);
+        Assert.assertEquals(events.get(0).getType(), Event.Type.SUBMITTED);
+        Assert.assertNull(events.get(0).getDate());
+        Assert.assertEquals(events.get(0).getLastname(), "U");
+        assertEvent(events.get(1), Event.Type.APPROVED, 2, null, null, null);
+        Assert.assertEquals(events.get(2).getType(), Event.Type.CLOSED);
+        Assert.assertEquals(events.get(2).getUsername(), "c");
+        Assert.assertNull(events.get(2).getFirstname());
+        Assert.assertEquals(events.get(3).getType(), Event.Type.DISBURSED);
+        Assert.assertEquals(events.get(3).getFirstname(), "D");
+    }
+
+    /**
+     * Test that an empty timeline has no events.
+     */
+    @Test
+    public void testReadEmptyTimeline() {
+        Assert.assertTrue(this.gson.fromJson("{}", Timeline.class).getEvents().isEmpty());
+    }
+
+}
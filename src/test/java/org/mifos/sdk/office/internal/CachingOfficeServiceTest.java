@@ -0,0 +1,180 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.office.internal;
+
+import com.google.common.base.Ticker;
+import com.google.gson.reflect.TypeToken;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mifos.sdk.MifosXResourceException;
+import org.mifos.sdk.internal.ErrorCode;
+import org.mifos.sdk.internal.GsonFactory;
+import org.mifos.sdk.office.OfficeService;
+import org.mifos.sdk.office.domain.Office;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * Test for {@link CachingOfficeService} and its various methods.
+ */
+public class CachingOfficeServiceTest {
+
+    private OfficeService officeService;
+    private CachingOfficeService cachingOfficeService;
+    private List<Office> offices;
+    private long now;
+
+    /**
+     * Setup all the components before testing. The offices are
+     * 1 -> (2 -> (4, 5), 3 -> (6)).
+     */
+    @Before
+    public void setup() throws Exception {
+        this.officeService = mock(OfficeService.class);
+        this.cachingOfficeService = new CachingOfficeService(this.officeService, 10, TimeUnit.MINUTES,
+            new Ticker() {
+                @Override
+                public long read() {
+                    return now;
+                }
+            });
+        final StringBuilder json = new StringBuilder("[");
+        final long[] parents = {0, 1, 1, 2, 2, 3};
+        final String[] hierarchies = {".", ".2.", ".3.", ".2.4.", ".2.5.", ".3.6."};
+        for (int i = 0; i < parents.length; ++i) {
+            json.append(i == 0 ? "" : ",").append("{\"id\":").append(i + 1)
+                .append(",\"name\":\"Office ").append(i + 1).append("\",\"nameDecorated\":\"Office ")
+                .append(i + 1).append("\",\"openingDate\":[2009,1,1],\"hierarchy\":\"")
+                .append(hierarchies[i]).append('"');
+            if (parents[i] != 0) {
+                json.append(",\"parentId\":").append(parents[i]).append(",\"parentName\":\"Office ")
+                    .append(parents[i]).append('"');
+            }
+            json.append('}');
+        }
+        this.offices = GsonFactory.create().fromJson(json.append(']').toString(),
+            new TypeToken<List<Office>>() { }.getType());
+
+        when(this.officeService.fetchOffices()).thenReturn(this.offices);
+    }
+
+    private static List<Long> ids(final List<Office> officeList) {
+        final List<Long> ids = new ArrayList<Long>();
+        for (final Office office : officeList) {
+            ids.add(office.getOfficeId());
+        }
+        return ids;
+    }
+
+    /**
+     * Test that the offices are loaded once and served from memory.
+     */
+    @Test
+    public void testFindOfficeFromCache() throws Exception {
+        for (long id = 1; id <= 6; ++id) {
+            Assert.assertEquals(this.cachingOfficeService.findOffice(id).getOfficeId(), Long.valueOf(id));
+        }
+        Assert.assertEquals(this.cachingOfficeService.fetchOffices().size(), 6);
+
+        verify(this.officeService, times(1)).fetchOffices();
+        verify(this.officeService, never()).findOffice(anyLong());
+    }
+
+    /**
+     * Test that modifying the returned offices leaves the cached ones untouched.
+     */
+    @Test
+    public void testReturnedOfficesAreCopies() throws Exception {
+        final Office office = this.cachingOfficeService.findOffice(2L);
+        Assert.assertNotSame(office, this.offices.get(1));
+        Assert.assertEquals(office.getName(), "Office 2");
+        Assert.assertEquals(office.getHierarchy(), ".2.");
+        Assert.assertEquals(office.getOpeningDate(), this.offices.get(1).getOpeningDate());
+        office.setHierarchy(".changed.");
+        office.getOpeningDate().setTime(0);
+        this.cachingOfficeService.fetchOffices().get(0).setHierarchy(".changed.");
+        this.cachingOfficeService.findChildren(1L).get(1).setHierarchy(".changed.");
+        this.cachingOfficeService.findDescendants(1L).get(1).setHierarchy(".changed.");
+        this.cachingOfficeService.findAncestors(5L).get(0).setOfficeId(99L);
+
+        Assert.assertEquals(this.cachingOfficeService.findOffice(1L).getHierarchy(), ".");
+        Assert.assertEquals(this.cachingOfficeService.findOffice(2L).getHierarchy(), ".2.");
+        Assert.assertEquals(this.cachingOfficeService.findOffice(3L).getHierarchy(), ".3.");
+        Assert.assertEquals(this.cachingOfficeService.findOffice(4L).getHierarchy(), ".2.4.");
+        Assert.assertEquals(ids(this.cachingOfficeService.findAncestors(5L)), Arrays.asList(2L, 1L));
+        Assert.assertEquals(this.cachingOfficeService.findOffice(2L).getOpeningDate(),
+            this.offices.get(0).getOpeningDate());
+        verify(this.officeService, times(1)).fetchOffices();
+    }
+
+    /**
+     * Test for the hierarchy queries.
+     */
+    @Test
+    public void testHierarchy() throws Exception {
+        Assert.assertEquals(this.cachingOfficeService.findOffice(5L).getParentId(), Long.valueOf(2L));
+        Assert.assertEquals(this.cachingOfficeService.findOffice(5L).getHierarchy(), ".2.5.");
+        Assert.assertNull(this.cachingOfficeService.findOffice(1L).getParentId());
+        Assert.assertEquals(ids(this.cachingOfficeService.findChildren(1L)), Arrays.asList(2L, 3L));
+        Assert.assertEquals(ids(this.cachingOfficeService.findDescendants(1L)),
+            Arrays.asList(2L, 4L, 5L, 3L, 6L));
+        Assert.assertEquals(ids(this.cachingOfficeService.findDescendants(3L)), Arrays.asList(6L));
+        Assert.assertTrue(this.cachingOfficeService.findDescendants(6L).isEmpty());
+        Assert.assertEquals(ids(this.cachingOfficeService.findAncestors(5L)), Arrays.asList(2L, 1L));
+        Assert.assertTrue(this.cachingOfficeService.findAncestors(1L).isEmpty());
+
+        try {
+            this.cachingOfficeService.findChildren(7L);
+
+            Assert.fail();
+        } catch (MifosXResourceException e) {
+            Assert.assertEquals(e.getMessage(), ErrorCode.OFFICE_NOT_FOUND.getMessage());
+        }
+        verify(this.officeService, times(1)).fetchOffices();
+    }
+
+    /**
+     * Test that the offices are loaded again once they expire, are refreshed or
+     * an office is changed.
+     */
+    @Test
+    public void testExpiryAndInvalidation() throws Exception {
+        this.cachingOfficeService.findOffice(1L);
+        this.now += TimeUnit.MINUTES.toNanos(9);
+        this.cachingOfficeService.findOffice(1L);
+        verify(this.officeService, times(1)).fetchOffices();
+
+        this.now += TimeUnit.MINUTES.toNanos(1);
+        this.cachingOfficeService.findOffice(1L);
+        verify(this.officeService, times(2)).fetchOffices();
+
+        this.cachingOfficeService.refresh();
+        verify(this.officeService, times(3)).fetchOffices();
+
+        this.cachingOfficeService.updateOffice(2L, this.offices.get(1));
+        this.cachingOfficeService.findOffice(1L);
+        verify(this.officeService, times(4)).fetchOffices();
+    }
+
+    /**
+     * Test that an office missing from the cached list is requested from the server.
+     */
+    @Test
+    public void testFindOfficeMissing() throws Exception {
+        final Office office = Office.name("Office 7").build();
+        office.setOfficeId(7L);
+        when(this.officeService.findOffice(7L)).thenReturn(office);
+
+        Assert.assertSame(this.cachingOfficeService.findOffice(7L), office);
+    }
+
+}
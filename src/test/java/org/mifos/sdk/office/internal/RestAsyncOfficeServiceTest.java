@@ -0,0 +1,137 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.office.internal;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mifos.sdk.MifosXConnectException;
+import org.mifos.sdk.MifosXResourceException;
+import org.mifos.sdk.internal.ErrorCode;
+import org.mifos.sdk.office.OfficeService;
+import org.mifos.sdk.office.domain.Office;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * Test for {@link RestAsyncOfficeService} and its various methods.
+ */
+public class RestAsyncOfficeServiceTest {
+
+    private OfficeService officeService;
+    private RestAsyncOfficeService asyncOfficeService;
+    private Office defaultOffice;
+    private Long defaultOfficeId;
+
+    /**
+     * Setup all the components before testing.
+     */
+    @Before
+    public void setup() {
+        this.officeService = mock(OfficeService.class);
+        this.asyncOfficeService = new RestAsyncOfficeService(this.officeService,
+            MoreExecutors.sameThreadExecutor());
+        this.defaultOffice = Office
+            .name("Head Office")
+            .openingDate(new Date())
+            .locale("en")
+            .dateFormat("dd MMMM yyyy")
+            .parentId(1L)
+            .build();
+        this.defaultOfficeId = 1L;
+    }
+
+    /**
+     * Test for successful retrieval of the offices.
+     */
+    @Test
+    public void testFetchOffices() throws Exception {
+        when(this.officeService.fetchOffices()).thenReturn(Arrays.asList(this.defaultOffice));
+
+        final List<Office> offices = this.asyncOfficeService.fetchOffices().get();
+
+        Assert.assertEquals(offices.size(), 1);
+        Assert.assertEquals(offices.get(0).getName(), "Head Office");
+    }
+
+    /**
+     * Test that a {@link MifosXConnectException} fails the future.
+     */
+    @Test
+    public void testFindOfficeNotConnectedException() throws Exception {
+        when(this.officeService.findOffice(this.defaultOfficeId))
+            .thenThrow(new MifosXConnectException(ErrorCode.NOT_CONNECTED));
+
+        try {
+            this.asyncOfficeService.findOffice(this.defaultOfficeId).get();
+
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof MifosXConnectException);
+            Assert.assertEquals(e.getCause().getMessage(), ErrorCode.NOT_CONNECTED.getMessage());
+        }
+    }
+
+    /**
+     * Test that a {@link MifosXResourceException} fails the future of an update.
+     */
+    @Test
+    public void testUpdateOfficeNotFoundException() throws Exception {
+        doThrow(new MifosXResourceException(ErrorCode.OFFICE_NOT_FOUND)).when(this.officeService)
+            .updateOffice(this.defaultOfficeId, this.defaultOffice);
+
+        try {
+            this.asyncOfficeService.updateOffice(this.defaultOfficeId, this.defaultOffice).get();
+
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof MifosXResourceException);
+            Assert.assertEquals(e.getCause().getMessage(), ErrorCode.OFFICE_NOT_FOUND.getMessage());
+        }
+    }
+
+    /**
+     * Test that the future completes with the result once the call on the executor returns.
+     */
+    @Test
+    public void testCreateOfficeCompletion() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final ExecutorService executorService = Executors.newSingleThreadExecutor();
+
+        when(this.officeService.createOffice(this.defaultOffice)).thenAnswer(new Answer<Long>() {
+            @Override
+            public Long answer(final InvocationOnMock invocation) throws InterruptedException {
+                release.await(5, TimeUnit.SECONDS);
+                return 2L;
+            }
+        });
+
+        try {
+            final ListenableFuture<Long> future = new RestAsyncOfficeService(this.officeService, executorService)
+                .createOffice(this.defaultOffice);
+
+            Assert.assertFalse(future.isDone());
+            release.countDown();
+            Assert.assertEquals(future.get(5, TimeUnit.SECONDS), Long.valueOf(2L));
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+}
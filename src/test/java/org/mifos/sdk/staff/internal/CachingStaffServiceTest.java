@@ -0,0 +1,215 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.staff.internal;
+
+import com.google.common.base.Ticker;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mifos.sdk.MifosXConnectException;
+import org.mifos.sdk.MifosXResourceException;
+import org.mifos.sdk.internal.ErrorCode;
+import org.mifos.sdk.staff.StaffService;
+import org.mifos.sdk.staff.domain.Staff;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * Test for {@link CachingStaffService} and its various methods.
+ */
+public class CachingStaffServiceTest {
+
+    private StaffService staffService;
+    private List<Staff> staffList;
+    private List<Runnable> refreshes;
+    private long now;
+
+    /**
+     * Setup all the components before testing.
+     */
+    @Before
+    public void setup() throws Exception {
+        this.staffService = mock(StaffService.class);
+        this.staffList = new ArrayList<Staff>();
+        this.staffList.add(staff(1L, 1L, true, true));
+        this.staffList.add(staff(2L, 1L, true, false));
+        this.staffList.add(staff(3L, 1L, false, true));
+        this.staffList.add(staff(4L, 2L, true, true));
+        this.refreshes = new ArrayList<Runnable>();
+
+        when(this.staffService.findStaffByStatus("all")).thenReturn(this.staffList);
+    }
+
+    private static Staff staff(final Long id, final Long officeId, final boolean active,
+                               final boolean loanOfficer) {
+        final Staff staff = Staff.officeId(officeId)
+            .firstname("Staff")
+            .lastname(String.valueOf(id))
+            .isActive(active)
+            .isLoanOfficer(loanOfficer)
+            .build();
+        staff.setResourceId(id);
+        return staff;
+    }
+
+    private CachingStaffService cachingStaffService(final boolean background) {
+        return new CachingStaffService(this.staffService, 10, TimeUnit.MINUTES, background ? new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                refreshes.add(command);
+            }
+        } : null, new Ticker() {
+            @Override
+            public long read() {
+                return now;
+            }
+        });
+    }
+
+    private static List<Long> ids(final List<Staff> staff) {
+        final List<Long> ids = new ArrayList<Long>();
+        for (final Staff member : staff) {
+            ids.add(member.getResourceId());
+        }
+        return ids;
+    }
+
+    /**
+     * Test that every lookup is answered from one load.
+     */
+    @Test
+    public void testIndexes() throws Exception {
+        final CachingStaffService cachingStaffService = this.cachingStaffService(false);
+
+        Assert.assertEquals(ids(cachingStaffService.fetchStaff()).toString(), "[1, 2, 4]");
+        Assert.assertEquals(ids(cachingStaffService.findStaffByStatus("inactive")).toString(), "[3]");
+        Assert.assertEquals(cachingStaffService.findStaffByStatus("all").size(), 4);
+        Assert.assertEquals(ids(cachingStaffService.findStaffByOffice(1L)).toString(), "[1, 2, 3]");
+        Assert.assertTrue(cachingStaffService.findStaffByOffice(3L).isEmpty());
+        Assert.assertEquals(ids(cachingStaffService.findLoanOfficers(1L)).toString(), "[1]");
+        Assert.assertEquals(ids(cachingStaffService.findLoanOfficers(null)).toString(), "[1, 4]");
+        Assert.assertEquals(cachingStaffService.findStaff(3L).getResourceId(), Long.valueOf(3L));
+
+        try {
+            cachingStaffService.findStaffByStatus("retired");
+
+            Assert.fail();
+        } catch (MifosXResourceException e) {
+            Assert.assertEquals(e.getMessage(), ErrorCode.INVALID_STATUS.getMessage());
+        }
+        verify(this.staffService, times(1)).findStaffByStatus("all");
+        verify(this.staffService, never()).findStaff(anyLong());
+    }
+
+    /**
+     * Test that modifying the returned staff leaves the cached ones untouched.
+     */
+    @Test
+    public void testReturnedStaffAreCopies() throws Exception {
+        final CachingStaffService cachingStaffService = this.cachingStaffService(false);
+        this.staffList.get(1).setDisplayName("Staff 2");
+
+        final Staff staff = cachingStaffService.findStaff(2L);
+        Assert.assertNotSame(staff, this.staffList.get(1));
+        Assert.assertEquals(staff.getDisplayName(), "Staff 2");
+        Assert.assertEquals(staff.getLastname(), "2");
+        staff.setDisplayName("Changed");
+        cachingStaffService.fetchStaff().get(0).setResourceId(99L);
+        cachingStaffService.findStaffByStatus("inactive").get(0).setResourceId(99L);
+        cachingStaffService.findStaffByOffice(1L).get(1).setOfficeName("Changed");
+        cachingStaffService.findLoanOfficers(null).get(1).setResourceId(99L);
+
+        Assert.assertEquals(cachingStaffService.findStaff(2L).getDisplayName(), "Staff 2");
+        Assert.assertNull(cachingStaffService.findStaff(2L).getOfficeName());
+        Assert.assertEquals(ids(cachingStaffService.findStaffByStatus("all")).toString(), "[1, 2, 3, 4]");
+        verify(this.staffService, times(1)).findStaffByStatus("all");
+    }
+
+    /**
+     * Test that an expired cache is reloaded by the calling thread without an executor.
+     */
+    @Test
+    public void testExpiry() throws Exception {
+        final CachingStaffService cachingStaffService = this.cachingStaffService(false);
+
+        cachingStaffService.fetchStaff();
+        this.now += TimeUnit.MINUTES.toNanos(10);
+        cachingStaffService.fetchStaff();
+
+        verify(this.staffService, times(2)).findStaffByStatus("all");
+    }
+
+    /**
+     * Test that an expired cache is served while it is reloaded in the background.
+     */
+    @Test
+    public void testBackgroundRefresh() throws Exception {
+        final CachingStaffService cachingStaffService = this.cachingStaffService(true);
+
+        cachingStaffService.fetchStaff();
+        this.now += TimeUnit.MINUTES.toNanos(10);
+        this.staffList.remove(0);
+        Assert.assertEquals(cachingStaffService.fetchStaff().size(), 3);
+        Assert.assertEquals(cachingStaffService.fetchStaff().size(), 3);
+
+        Assert.assertEquals(this.refreshes.size(), 1);
+        this.refreshes.get(0).run();
+
+        Assert.assertEquals(cachingStaffService.fetchStaff().size(), 2);
+        verify(this.staffService, times(2)).findStaffByStatus("all");
+    }
+
+    /**
+     * Test that created and updated staff are written through to the cache.
+     */
+    @Test
+    public void testWriteThrough() throws Exception {
+        final CachingStaffService cachingStaffService = this.cachingStaffService(false);
+        final Staff created = staff(5L, 2L, true, true);
+        final Staff updated = staff(2L, 2L, true, true);
+        when(this.staffService.createStaff(created)).thenReturn(created);
+        when(this.staffService.findStaff(5L)).thenReturn(created);
+        when(this.staffService.findStaff(2L)).thenReturn(updated);
+
+        cachingStaffService.fetchStaff();
+        cachingStaffService.createStaff(created);
+        cachingStaffService.updateStaff(2L, updated);
+
+        Assert.assertEquals(ids(cachingStaffService.findLoanOfficers(2L)).toString(), "[2, 4, 5]");
+        Assert.assertEquals(ids(cachingStaffService.findStaffByOffice(1L)).toString(), "[1, 3]");
+        Assert.assertNotSame(cachingStaffService.findStaff(2L), updated);
+        Assert.assertEquals(cachingStaffService.findStaff(2L).getOfficeId(), Long.valueOf(2L));
+        verify(this.staffService, times(1)).findStaffByStatus("all");
+    }
+
+    /**
+     * Test that a write is reported as successful when the staff cannot be read back,
+     * and that the cache is loaded again.
+     */
+    @Test
+    public void testWriteThroughNotConnected() throws Exception {
+        final CachingStaffService cachingStaffService = this.cachingStaffService(false);
+        final Staff created = staff(5L, 2L, true, true);
+        when(this.staffService.createStaff(created)).thenReturn(created);
+        when(this.staffService.findStaff(anyLong())).thenThrow(
+            new MifosXConnectException(ErrorCode.NOT_CONNECTED));
+
+        cachingStaffService.fetchStaff();
+
+        Assert.assertSame(cachingStaffService.createStaff(created), created);
+        cachingStaffService.updateStaff(2L, staff(2L, 2L, true, true));
+        verify(this.staffService).updateStaff(eq(2L), any(Staff.class));
+
+        cachingStaffService.fetchStaff();
+        verify(this.staffService, times(2)).findStaffByStatus("all");
+    }
+
+}
@@ -0,0 +1,152 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifos.sdk.staff.internal;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mifos.sdk.MifosXConnectException;
+import org.mifos.sdk.MifosXResourceException;
+import org.mifos.sdk.internal.ErrorCode;
+import org.mifos.sdk.staff.StaffService;
+import org.mifos.sdk.staff.domain.Staff;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * Test for {@link RestAsyncStaffService} and its various methods.
+ */
+public class RestAsyncStaffServiceTest {
+
+    private StaffService staffService;
+    private RestAsyncStaffService asyncStaffService;
+    private Staff defaultStaff;
+    private Long defaultStaffId;
+
+    /**
+     * Setup all the components before testing.
+     */
+    @Before
+    public void setup() {
+        this.staffService = mock(StaffService.class);
+        this.asyncStaffService = new RestAsyncStaffService(this.staffService,
+            MoreExecutors.sameThreadExecutor());
+        this.defaultStaff = Staff
+            .officeId(1L)
+            .firstname("Jacob")
+            .lastname("Davis")
+            .build();
+        this.defaultStaffId = 1L;
+        this.defaultStaff.setResourceId(this.defaultStaffId);
+    }
+
+    /**
+     * Test for successful retrieval of a staff.
+     */
+    @Test
+    public void testFindStaff() throws Exception {
+        when(this.staffService.findStaff(this.defaultStaffId)).thenReturn(this.defaultStaff);
+
+        final Staff staff = this.asyncStaffService.findStaff(this.defaultStaffId).get();
+
+        Assert.assertNotNull(staff);
+        Assert.assertEquals(staff.getResourceId(), this.defaultStaffId);
+    }
+
+    /**
+     * Test that a {@link MifosXConnectException} fails the future.
+     */
+    @Test
+    public void testFetchStaffNotConnectedException() throws Exception {
+        when(this.staffService.fetchStaff()).thenThrow(new MifosXConnectException(ErrorCode.NOT_CONNECTED));
+
+        try {
+            this.asyncStaffService.fetchStaff().get();
+
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof MifosXConnectException);
+            Assert.assertEquals(e.getCause().getMessage(), ErrorCode.NOT_CONNECTED.getMessage());
+        }
+    }
+
+    /**
+     * Test that a {@link MifosXResourceException} fails the future.
+     */
+    @Test
+    public void testFindStaffByStatusInvalidStatus() throws Exception {
+        when(this.staffService.findStaffByStatus("unknown"))
+            .thenThrow(new MifosXResourceException(ErrorCode.INVALID_STATUS));
+
+        try {
+            this.asyncStaffService.findStaffByStatus("unknown").get();
+
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof MifosXResourceException);
+            Assert.assertEquals(e.getCause().getMessage(), ErrorCode.INVALID_STATUS.getMessage());
+        }
+    }
+
+    /**
+     * Test that a {@link MifosXResourceException} fails the future of an update.
+     */
+    @Test
+    public void testUpdateStaffNotFoundException() throws Exception {
+        doThrow(new MifosXResourceException(ErrorCode.STAFF_NOT_FOUND)).when(this.staffService)
+            .updateStaff(this.defaultStaffId, this.defaultStaff);
+
+        try {
+            this.asyncStaffService.updateStaff(this.defaultStaffId, this.defaultStaff).get();
+
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof MifosXResourceException);
+            Assert.assertEquals(e.getCause().getMessage(), ErrorCode.STAFF_NOT_FOUND.getMessage());
+        }
+    }
+
+    /**
+     * Test that the future completes with the result once the call on the executor returns.
+     */
+    @Test
+    public void testFetchStaffCompletion() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final ExecutorService executorService = Executors.newSingleThreadExecutor();
+
+        when(this.staffService.fetchStaff()).thenAnswer(new Answer<List<Staff>>() {
+            @Override
+            public List<Staff> answer(final InvocationOnMock invocation) throws InterruptedException {
+                release.await(5, TimeUnit.SECONDS);
+                return Arrays.asList(defaultStaff);
+            }
+        });
+
+        try {
+            final ListenableFuture<List<Staff>> future = new RestAsyncStaffService(this.staffService,
+                executorService).fetchStaff();
+
+            Assert.assertFalse(future.isDone());
+            release.countDown();
+            Assert.assertEquals(future.get(5, TimeUnit.SECONDS).get(0).getResourceId(), this.defaultStaffId);
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+}
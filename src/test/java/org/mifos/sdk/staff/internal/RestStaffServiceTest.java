@@ -11,6 +11,7 @@ import org.junit.Test;
 import org.mifos.sdk.MifosXConnectException;
 import org.mifos.sdk.MifosXProperties;
 import org.mifos.sdk.MifosXResourceException;
+import org.mifos.sdk.NotFoundCacheOptions;
 import org.mifos.sdk.internal.ErrorCode;
 import org.mifos.sdk.staff.domain.Staff;
 import retrofit.RestAdapter;
@@ -22,6 +23,7 @@ import retrofit.mime.TypedString;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import static org.hamcrest.Matchers.equalTo;
 import static org.mockito.Mockito.*;
@@ -453,6 +455,52 @@ public class RestStaffServiceTest {
         }
     }
 
+    /**
+     * Test that a staff not found is remembered until it is created through the SDK.
+     */
+    @Test
+    public void testFindStaffNotFoundCached() throws Exception {
+        final RestAdapter restAdapter = mock(RestAdapter.class);
+        final MifosXProperties cachingProperties = MifosXProperties
+                .url("http://demo.openmf.org/mifosng-provider/api/v1")
+                .username("mifos")
+                .password("password")
+                .tenant("default")
+                .notFoundCache(NotFoundCacheOptions.ttl(1, TimeUnit.MINUTES).build())
+                .build();
+        final RestStaffService cachingStaffService = new RestStaffService(cachingProperties, restAdapter,
+                "=hd$$34dd");
+        final RetrofitError error = mock(RetrofitError.class);
+        final Response response = new Response("", 404, "", new ArrayList<Header>(), new TypedString(""));
+        final Staff createdStaff = Staff.officeId(1L).firstname("Jacob").lastname("Davis").build();
+        createdStaff.setResourceId(this.defaultStaffId);
+
+        when(restAdapter.create(RetrofitStaffService.class)).thenReturn(this.retrofitStaffService);
+        when(error.getResponse()).thenReturn(response);
+        when(this.retrofitStaffService.findStaff(this.mockedAuthKey, this.properties.getTenant(),
+                this.defaultStaffId)).thenThrow(error).thenReturn(this.defaultStaff);
+        when(this.retrofitStaffService.createStaff(this.mockedAuthKey, this.properties.getTenant(),
+                this.defaultStaff)).thenReturn(createdStaff);
+
+        for (int i = 0; i < 3; ++i) {
+            try {
+                cachingStaffService.findStaff(this.defaultStaffId);
+
+                Assert.fail();
+            } catch (MifosXResourceException e) {
+                Assert.assertEquals(e.getMessage(), ErrorCode.STAFF_NOT_FOUND.getMessage());
+            }
+        }
+        verify(this.retrofitStaffService, times(1)).findStaff(this.mockedAuthKey, this.properties.getTenant(),
+                this.defaultStaffId);
+
+        cachingStaffService.createStaff(this.defaultStaff);
+
+        Assert.assertThat(cachingStaffService.findStaff(this.defaultStaffId), equalTo(this.defaultStaff));
+        verify(this.retrofitStaffService, times(2)).findStaff(this.mockedAuthKey, this.properties.getTenant(),
+                this.defaultStaffId);
+    }
+
     /**
      * Test for {@link ErrorCode#UNKNOWN} exception for findStaff().
      */